@@ -0,0 +1,124 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interval index over survey time windows keyed by the resource (i.e. OIDC client) a survey addresses.
+ *
+ * Per resource, the index holds an immutable array of survey windows sorted by start time. The array is replaced
+ * whenever a survey of that resource is created, updated or deleted, such that lookups never block and only consider
+ * the few surveys of a single resource. Lookups answer which surveys are active at a given time and when the set of
+ * active surveys changes next.
+ */
+public class ActiveSurveyIndex {
+
+	private static class Window {
+		final int sid;
+		final long start;
+		final long end;
+
+		Window(int sid, long start, long end) {
+			this.sid = sid;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	private final static Window[] NONE = new Window[0];
+
+	private final Map<String, Window[]> windowsByResource = new ConcurrentHashMap<>();
+
+	// resource per indexed survey; needed to remove windows when surveys change resource or are deleted
+	private final Map<Integer, String> resourceBySurvey = new HashMap<>();
+
+	/**
+	 * Adds or replaces the time window of a survey.
+	 *
+	 * @param sid survey id
+	 * @param resource resource addressed by the survey
+	 * @param start start of survey window in milliseconds since epoch (inclusive)
+	 * @param end end of survey window in milliseconds since epoch (exclusive)
+	 */
+	public synchronized void putSurvey(int sid, String resource, long start, long end) {
+		removeSurvey(sid);
+		if (resource == null) {
+			return;
+		}
+		Window[] old = windowsByResource.getOrDefault(resource, NONE);
+		Window[] windows = Arrays.copyOf(old, old.length + 1);
+		windows[old.length] = new Window(sid, start, end);
+		Arrays.sort(windows, Comparator.comparingLong(w -> w.start));
+		windowsByResource.put(resource, windows);
+		resourceBySurvey.put(sid, resource);
+	}
+
+	/**
+	 * Removes the time window of a survey.
+	 */
+	public synchronized void removeSurvey(int sid) {
+		String resource = resourceBySurvey.remove(sid);
+		if (resource == null) {
+			return;
+		}
+		Window[] old = windowsByResource.getOrDefault(resource, NONE);
+		List<Window> windows = new ArrayList<>(old.length);
+		for (Window w : old) {
+			if (w.sid != sid) {
+				windows.add(w);
+			}
+		}
+		if (windows.isEmpty()) {
+			windowsByResource.remove(resource);
+		} else {
+			windowsByResource.put(resource, windows.toArray(NONE));
+		}
+	}
+
+	/**
+	 * Retrieves ids of surveys addressing a resource, which are active at a given time.
+	 *
+	 * @param resource resource addressed by surveys
+	 * @param time time in milliseconds since epoch
+	 * @return ids of active surveys ordered by start time
+	 */
+	public List<Integer> active(String resource, long time) {
+		List<Integer> result = new ArrayList<>();
+		for (Window w : windowsByResource.getOrDefault(resource, NONE)) {
+			if (w.start > time) {
+				break;
+			}
+			if (time < w.end) {
+				result.add(w.sid);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Determines the next time after a given time, at which a survey window of a resource starts or ends, i.e. the
+	 * set of active surveys for that resource changes.
+	 *
+	 * @param resource resource addressed by surveys
+	 * @param time time in milliseconds since epoch
+	 * @return next window boundary in milliseconds since epoch or {@link Long#MAX_VALUE}, if there is none
+	 */
+	public long nextBoundary(String resource, long time) {
+		long next = Long.MAX_VALUE;
+		for (Window w : windowsByResource.getOrDefault(resource, NONE)) {
+			if (w.start > time) {
+				// windows are sorted by start, so no later window starts earlier
+				return Math.min(next, w.start);
+			}
+			if (w.end > time) {
+				next = Math.min(next, w.end);
+			}
+		}
+		return next;
+	}
+}
@@ -0,0 +1,227 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Executor limiting the number of concurrently running tasks of one class of requests.
+ *
+ * Tasks are run on the executor given on submission, i.e. on threads that carry the context of the submitting request.
+ * At most a configured number of tasks run at the same time. Further tasks wait in a bounded queue and are started as
+ * running tasks finish. Tasks submitted while the queue is full are rejected, such that a burst of requests of one
+ * class neither occupies all threads nor builds up an unbounded backlog.
+ *
+ * Queued tasks are admitted only within a maximum waiting time. Tasks that waited longer are expired: instead of
+ * running them, their rejection handler is run. Each queued task is expired by a timer as soon as its waiting time is
+ * over, such that clients waiting for overdue tasks are answered in time even if all running tasks are stuck and no
+ * further tasks are submitted. Like tasks, rejection handlers are run on the executor given on submission, as they
+ * rely on the context of the submitting request as well.
+ */
+public class BoundedExecutor {
+
+	// timer expiring queued tasks of all executors; expiry handlers are only dispatched from it
+	private final static ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, r -> {
+		Thread t = new Thread(r, "mobsos-surveys-queue-timeout");
+		t.setDaemon(true);
+		return t;
+	});
+
+	static {
+		TIMER.setRemoveOnCancelPolicy(true);
+	}
+
+	private static class Task {
+		final Executor executor;
+		final Runnable runnable;
+		final Runnable onExpiry;
+		final long submitted = System.nanoTime();
+		// timer expiring the task while queued; guarded by the executor
+		ScheduledFuture<?> timeout;
+
+		Task(Executor executor, Runnable runnable, Runnable onExpiry) {
+			this.executor = executor;
+			this.runnable = runnable;
+			this.onExpiry = onExpiry;
+		}
+	}
+
+	private final String name;
+	private final int maxConcurrency;
+	private final int maxQueued;
+	private final long maxQueueNanos;
+
+	// guarded by this
+	private final Deque<Task> queue = new ArrayDeque<>();
+	private int running;
+	private int peakQueued;
+
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder expired = new LongAdder();
+	private final QueryStats.Histogram queueTimes = new QueryStats.Histogram();
+
+	/**
+	 * @param name name of request class
+	 * @param maxConcurrency maximum number of concurrently running tasks
+	 * @param maxQueued maximum number of tasks waiting to be run
+	 * @param maxQueueMillis maximum time in milliseconds a task waits to be run
+	 */
+	public BoundedExecutor(String name, int maxConcurrency, int maxQueued, long maxQueueMillis) {
+		if (maxConcurrency < 1 || maxQueued < 0 || maxQueueMillis < 0) {
+			throw new IllegalArgumentException("Invalid limits for executor " + name + ": " + maxConcurrency + " tasks, "
+					+ maxQueued + " queued tasks, " + maxQueueMillis + " ms queue time");
+		}
+		this.name = name;
+		this.maxConcurrency = maxConcurrency;
+		this.maxQueued = maxQueued;
+		this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueMillis);
+	}
+
+	/**
+	 * @return name of request class
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Runs a task as soon as less than the maximum number of tasks are running.
+	 *
+	 * @param executor executor the task is run on
+	 * @param task task to run
+	 * @param onExpiry task run instead, if the task waited longer than the maximum queue time
+	 * @return false, if the task was rejected, because the queue is full
+	 */
+	public boolean submit(Executor executor, Runnable task, Runnable onExpiry) {
+		Task t = new Task(executor, task, onExpiry);
+		List<Task> overdue = new ArrayList<>();
+		boolean run = false;
+		boolean queued = false;
+		synchronized (this) {
+			pollOverdue(overdue);
+			if (running < maxConcurrency) {
+				running++;
+				run = true;
+			} else if (queue.size() < maxQueued) {
+				queue.add(t);
+				peakQueued = Math.max(peakQueued, queue.size());
+				queued = true;
+				t.timeout = TIMER.schedule(() -> expireQueued(t), maxQueueNanos, TimeUnit.NANOSECONDS);
+			}
+		}
+		expire(overdue);
+		if (!run && !queued) {
+			rejected.increment();
+			return false;
+		}
+		accepted.increment();
+		if (run) {
+			dispatch(t);
+		}
+		return true;
+	}
+
+	// removes tasks from the head of the queue that waited too long, in case their timer is late; callers must hold
+	// the lock
+	private void pollOverdue(List<Task> overdue) {
+		long now = System.nanoTime();
+		while (!queue.isEmpty() && now - queue.peek().submitted > maxQueueNanos) {
+			Task t = queue.poll();
+			t.timeout.cancel(false);
+			overdue.add(t);
+		}
+	}
+
+	// expires a task when its waiting time is over, unless it was started or expired before
+	private void expireQueued(Task t) {
+		synchronized (this) {
+			if (!queue.remove(t)) {
+				return;
+			}
+		}
+		List<Task> overdue = new ArrayList<>(1);
+		overdue.add(t);
+		expire(overdue);
+	}
+
+	private void expire(List<Task> overdue) {
+		for (Task t : overdue) {
+			expired.increment();
+			queueTimes.record(System.nanoTime() - t.submitted, 1, true);
+			try {
+				t.executor.execute(t.onExpiry);
+			} catch (RejectedExecutionException e) {
+				// the underlying executor is shutting down; answer the request on the current thread instead
+				t.onExpiry.run();
+			}
+		}
+	}
+
+	private void dispatch(Task t) {
+		queueTimes.record(System.nanoTime() - t.submitted, 1, false);
+		Runnable r = () -> {
+			try {
+				t.runnable.run();
+			} finally {
+				completed.increment();
+				next();
+			}
+		};
+		try {
+			t.executor.execute(r);
+		} catch (RejectedExecutionException e) {
+			// the underlying executor is shutting down; run task on the current thread instead of losing it
+			r.run();
+		}
+	}
+
+	private void next() {
+		Task t;
+		List<Task> overdue = new ArrayList<>();
+		synchronized (this) {
+			pollOverdue(overdue);
+			t = queue.poll();
+			if (t == null) {
+				running--;
+			} else {
+				t.timeout.cancel(false);
+			}
+		}
+		expire(overdue);
+		if (t != null) {
+			dispatch(t);
+		}
+	}
+
+	/**
+	 * @return JSON representation of limits, current load, task counts and queue times; tasks expired in the queue
+	 *         are counted as slow
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized JSONObject getStats() {
+		JSONObject o = new JSONObject();
+		o.put("maxConcurrency", maxConcurrency);
+		o.put("maxQueued", maxQueued);
+		o.put("maxQueueMillis", TimeUnit.NANOSECONDS.toMillis(maxQueueNanos));
+		o.put("running", running);
+		o.put("queued", queue.size());
+		o.put("peakQueued", peakQueued);
+		o.put("accepted", accepted.sum());
+		o.put("completed", completed.sum());
+		o.put("rejected", rejected.sum());
+		o.put("expired", expired.sum());
+		o.put("queueTime", queueTimes.toJSON("tasks"));
+		return o;
+	}
+}
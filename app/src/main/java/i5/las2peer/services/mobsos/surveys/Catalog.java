@@ -0,0 +1,645 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.json.simple.JSONObject;
+
+/**
+ * In-memory catalog of survey and questionnaire metadata (without questionnaire forms).
+ *
+ * The catalog is loaded at service startup and serves listings, lookups and ownership checks from memory. Lookups of
+ * entries missing in the catalog read through to the database. All service methods creating, updating or deleting
+ * surveys and questionnaires write through to the catalog. A periodic refresh picks up changes made to the database
+ * from outside this service.
+ *
+ * Entries are JSON representations as returned by the service. Callers always receive copies.
+ */
+public class Catalog {
+
+	/**
+	 * Survey fields available in JSON representations mapped to their respective database columns.
+	 */
+	public final static Map<String, String> SURVEY_FIELDS;
+
+	/**
+	 * Questionnaire fields available in JSON representations mapped to their respective database columns. The
+	 * questionnaire form is deliberately not included; it is only available via resource questionnaires/{id}/form.
+	 */
+	public final static Map<String, String> QUESTIONNAIRE_FIELDS;
+
+	static {
+		Map<String, String> s = new LinkedHashMap<>();
+		for (String f : new String[] { "id", "name", "description", "owner", "organization", "logo", "resource",
+				"resource-label", "qid", "start", "end", "lang" }) {
+			s.put(f, f.replace('-', '_'));
+		}
+		SURVEY_FIELDS = Collections.unmodifiableMap(s);
+
+		Map<String, String> q = new LinkedHashMap<>();
+		for (String f : new String[] { "id", "name", "description", "owner", "organization", "logo", "lang" }) {
+			q.put(f, f);
+		}
+		QUESTIONNAIRE_FIELDS = Collections.unmodifiableMap(q);
+	}
+
+	private final QueryExecutor executor;
+	private final String schema;
+
+	private ScheduledExecutorService scheduler;
+
+	// current catalog contents; null as long as the catalog was not loaded successfully
+	private volatile Tables tables;
+
+	// number of changes to the catalog contents; entries read through to the database are only cached, if the catalog
+	// was not changed while they were read, since they might have been deleted or updated in the meantime
+	private volatile long modifications;
+
+	/**
+	 * Catalog contents. Entries are indexed by id and by name. Names are unique and ordered case-insensitively like
+	 * in the database.
+	 */
+	private static class Tables {
+		final Map<Integer, JSONObject> surveys = new ConcurrentHashMap<>();
+		final NavigableMap<String, JSONObject> surveysByName = new ConcurrentSkipListMap<>(
+				String.CASE_INSENSITIVE_ORDER);
+		final Map<Integer, JSONObject> questionnaires = new ConcurrentHashMap<>();
+		final NavigableMap<String, JSONObject> questionnairesByName = new ConcurrentSkipListMap<>(
+				String.CASE_INSENSITIVE_ORDER);
+		final NameIndex names = new NameIndex();
+		final ActiveSurveyIndex windows = new ActiveSurveyIndex();
+
+		void indexSurvey(JSONObject o) {
+			names.putSurvey((Integer) o.get("id"), (String) o.get("name"), (String) o.get("resource"),
+					(String) o.get("resource-label"));
+			try {
+				windows.putSurvey((Integer) o.get("id"), (String) o.get("resource"), parseTime((String) o.get("start")),
+						parseTime((String) o.get("end")));
+			} catch (ParseException e) {
+				// cannot happen for times formatted by readSurvey
+				e.printStackTrace();
+			}
+		}
+
+		void indexQuestionnaire(JSONObject o) {
+			names.putQuestionnaire((Integer) o.get("id"), (String) o.get("name"));
+		}
+	}
+
+	public Catalog(QueryExecutor executor, String schema) {
+		this.executor = executor;
+		this.schema = schema;
+	}
+
+	/**
+	 * @return true, if the catalog was loaded and serves listings from memory
+	 */
+	public boolean isLoaded() {
+		return tables != null;
+	}
+
+	/**
+	 * (Re-)loads all survey and questionnaire metadata from the database and atomically replaces the catalog
+	 * contents.
+	 *
+	 * @throws SQLException
+	 */
+	public synchronized void refresh() throws SQLException {
+		Tables t = new Tables();
+
+		for (JSONObject q : executor.query(
+				"select " + String.join(", ", QUESTIONNAIRE_FIELDS.values()) + " from " + schema + ".questionnaire",
+				QueryExecutor.NO_PARAMETERS, rs -> readQuestionnaire(rs, QUESTIONNAIRE_FIELDS.keySet()))) {
+			t.questionnaires.put((Integer) q.get("id"), q);
+			t.questionnairesByName.put((String) q.get("name"), q);
+			t.indexQuestionnaire(q);
+		}
+		for (JSONObject o : executor.query(
+				"select " + String.join(", ", SURVEY_FIELDS.values()) + " from " + schema + ".survey",
+				QueryExecutor.NO_PARAMETERS, rs -> readSurvey(rs, SURVEY_FIELDS.keySet()))) {
+			t.surveys.put((Integer) o.get("id"), o);
+			t.surveysByName.put((String) o.get("name"), o);
+			t.indexSurvey(o);
+		}
+
+		tables = t;
+		modifications++;
+	}
+
+	/**
+	 * Periodically refreshes the catalog in a background thread to pick up changes made to the database from outside
+	 * this service.
+	 *
+	 * @param seconds refresh interval in seconds; values smaller than 1 disable periodic refreshes
+	 */
+	public synchronized void scheduleRefresh(long seconds) {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+		if (seconds < 1) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "mobsos-surveys-catalog-refresh");
+			t.setDaemon(true);
+			return t;
+		});
+		scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				refresh();
+			} catch (Exception e) {
+				System.err.println("Warning: could not refresh survey catalog: " + e.getMessage());
+			}
+		}, seconds, seconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Retrieves a survey by id. If the survey is not in the catalog, it is read from the database.
+	 *
+	 * @return copy of the survey or null, if the survey does not exist
+	 * @throws SQLException
+	 */
+	public JSONObject getSurvey(int id) throws SQLException {
+		Tables t = tables;
+		JSONObject o = (t != null) ? t.surveys.get(id) : null;
+		if (o == null) {
+			long seen = modifications;
+			o = loadSurvey(id);
+			if (o != null) {
+				cacheSurveys(Collections.singletonList(o), seen);
+			}
+		}
+		return copy(o);
+	}
+
+	/**
+	 * Retrieves a questionnaire by id. If the questionnaire is not in the catalog, it is read from the database.
+	 *
+	 * @return copy of the questionnaire or null, if the questionnaire does not exist
+	 * @throws SQLException
+	 */
+	public JSONObject getQuestionnaire(int id) throws SQLException {
+		Tables t = tables;
+		JSONObject o = (t != null) ? t.questionnaires.get(id) : null;
+		if (o == null) {
+			long seen = modifications;
+			o = loadQuestionnaire(id);
+			if (o != null) {
+				cacheQuestionnaires(Collections.singletonList(o), seen);
+			}
+		}
+		return copy(o);
+	}
+
+	/**
+	 * Retrieves several surveys by id at once. Surveys not in the catalog are read from the database in a single
+	 * query.
+	 *
+	 * @return copies of existing surveys by id in the order of the given ids; ids of non-existing surveys are omitted
+	 * @throws SQLException
+	 */
+	public Map<Integer, JSONObject> getSurveys(Collection<Integer> ids) throws SQLException {
+		Tables t = tables;
+		Map<Integer, JSONObject> result = new LinkedHashMap<>();
+		List<Integer> missing = new ArrayList<>();
+		for (Integer id : ids) {
+			JSONObject o = (t != null) ? t.surveys.get(id) : null;
+			result.put(id, o);
+			if (o == null) {
+				missing.add(id);
+			}
+		}
+		if (!missing.isEmpty()) {
+			long seen = modifications;
+			List<JSONObject> loaded = loadSurveys(missing);
+			cacheSurveys(loaded, seen);
+			for (JSONObject o : loaded) {
+				result.put((Integer) o.get("id"), o);
+			}
+		}
+		return copyExisting(result);
+	}
+
+	/**
+	 * Retrieves several questionnaires by id at once. Questionnaires not in the catalog are read from the database in
+	 * a single query.
+	 *
+	 * @return copies of existing questionnaires by id in the order of the given ids; ids of non-existing
+	 *         questionnaires are omitted
+	 * @throws SQLException
+	 */
+	public Map<Integer, JSONObject> getQuestionnaires(Collection<Integer> ids) throws SQLException {
+		Tables t = tables;
+		Map<Integer, JSONObject> result = new LinkedHashMap<>();
+		List<Integer> missing = new ArrayList<>();
+		for (Integer id : ids) {
+			JSONObject o = (t != null) ? t.questionnaires.get(id) : null;
+			result.put(id, o);
+			if (o == null) {
+				missing.add(id);
+			}
+		}
+		if (!missing.isEmpty()) {
+			long seen = modifications;
+			List<JSONObject> loaded = loadQuestionnaires(missing);
+			cacheQuestionnaires(loaded, seen);
+			for (JSONObject o : loaded) {
+				result.put((Integer) o.get("id"), o);
+			}
+		}
+		return copyExisting(result);
+	}
+
+	/**
+	 * Lists surveys ordered by name, where name, description or organization contain a given query string.
+	 *
+	 * @param query query string matched case-insensitively; empty string matches all surveys
+	 * @param after only list surveys with names ordered after this name; null to start with first survey
+	 * @param limit maximum number of surveys to list
+	 * @return copies of matching surveys
+	 */
+	public List<JSONObject> listSurveys(String query, String after, int limit) {
+		Tables t = tables;
+		if (t == null) {
+			throw new IllegalStateException("Catalog not loaded!");
+		}
+		return list(t.surveysByName, query, after, limit);
+	}
+
+	/**
+	 * Lists questionnaires ordered by name, where name, description or organization contain a given query string.
+	 *
+	 * @param query query string matched case-insensitively; empty string matches all questionnaires
+	 * @param after only list questionnaires with names ordered after this name; null to start with first one
+	 * @param limit maximum number of questionnaires to list
+	 * @return copies of matching questionnaires
+	 */
+	public List<JSONObject> listQuestionnaires(String query, String after, int limit) {
+		Tables t = tables;
+		if (t == null) {
+			throw new IllegalStateException("Catalog not loaded!");
+		}
+		return list(t.questionnairesByName, query, after, limit);
+	}
+
+	/**
+	 * Suggests questionnaire names, survey names and resource labels starting with a given prefix.
+	 *
+	 * @see NameIndex#suggest(String, String, int)
+	 */
+	public List<JSONObject> suggest(String prefix, String type, int limit) {
+		Tables t = tables;
+		if (t == null) {
+			throw new IllegalStateException("Catalog not loaded!");
+		}
+		return t.names.suggest(prefix, type, limit);
+	}
+
+	/**
+	 * Retrieves surveys addressing a given resource, which are active at a given time.
+	 *
+	 * @param resource resource addressed by surveys
+	 * @param time time in milliseconds since epoch
+	 * @return copies of active surveys ordered by start time
+	 */
+	public List<JSONObject> activeSurveys(String resource, long time) {
+		Tables t = tables;
+		if (t == null) {
+			throw new IllegalStateException("Catalog not loaded!");
+		}
+		List<JSONObject> result = new ArrayList<>();
+		for (Integer id : t.windows.active(resource, time)) {
+			JSONObject o = t.surveys.get(id);
+			if (o != null) {
+				result.add(copy(o));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Determines the next time after a given time, at which the set of active surveys for a given resource changes.
+	 *
+	 * @see ActiveSurveyIndex#nextBoundary(String, long)
+	 */
+	public long nextWindowBoundary(String resource, long time) {
+		Tables t = tables;
+		if (t == null) {
+			throw new IllegalStateException("Catalog not loaded!");
+		}
+		return t.windows.nextBoundary(resource, time);
+	}
+
+	/**
+	 * Re-reads a survey from the database after it was created or updated. If reading fails, the survey is removed
+	 * from the catalog, such that the next lookup reads through to the database again.
+	 */
+	public synchronized void reloadSurvey(int id) {
+		try {
+			JSONObject o = loadSurvey(id);
+			if (o == null) {
+				removeSurvey(id);
+			} else {
+				putSurvey(o);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			removeSurvey(id);
+		}
+	}
+
+	/**
+	 * Re-reads a questionnaire from the database after it was created or updated. If reading fails, the
+	 * questionnaire is removed from the catalog, such that the next lookup reads through to the database again.
+	 */
+	public synchronized void reloadQuestionnaire(int id) {
+		try {
+			JSONObject o = loadQuestionnaire(id);
+			if (o == null) {
+				removeQuestionnaire(id);
+			} else {
+				putQuestionnaire(o);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			removeQuestionnaire(id);
+		}
+	}
+
+	/**
+	 * Removes a deleted survey from the catalog.
+	 */
+	public synchronized void removeSurvey(int id) {
+		Tables t = tables;
+		if (t == null) {
+			return;
+		}
+		JSONObject o = t.surveys.remove(id);
+		if (o != null) {
+			t.surveysByName.remove((String) o.get("name"));
+		}
+		t.names.removeSurvey(id);
+		t.windows.removeSurvey(id);
+		modifications++;
+	}
+
+	/**
+	 * Removes a deleted questionnaire from the catalog. Since deleting a questionnaire cascades to all surveys using
+	 * it, these surveys are removed as well.
+	 */
+	public synchronized void removeQuestionnaire(int id) {
+		Tables t = tables;
+		if (t == null) {
+			return;
+		}
+		JSONObject o = t.questionnaires.remove(id);
+		if (o != null) {
+			t.questionnairesByName.remove((String) o.get("name"));
+		}
+		t.names.removeQuestionnaire(id);
+		modifications++;
+		for (JSONObject s : new ArrayList<>(t.surveys.values())) {
+			if (((Integer) s.get("qid")) == id) {
+				removeSurvey((Integer) s.get("id"));
+			}
+		}
+	}
+
+	/**
+	 * Removes all surveys from the catalog after they were deleted.
+	 */
+	public synchronized void removeAllSurveys() {
+		Tables t = tables;
+		if (t == null) {
+			return;
+		}
+		for (Integer id : new ArrayList<>(t.surveys.keySet())) {
+			removeSurvey(id);
+		}
+	}
+
+	/**
+	 * Removes all questionnaires and all surveys using a questionnaire from the catalog after all questionnaires
+	 * were deleted.
+	 */
+	public synchronized void removeAllQuestionnaires() {
+		Tables t = tables;
+		if (t == null) {
+			return;
+		}
+		for (Integer id : new ArrayList<>(t.questionnaires.keySet())) {
+			removeQuestionnaire(id);
+		}
+	}
+
+	/**
+	 * Projects a survey or questionnaire to a given set of fields.
+	 *
+	 * @return new JSON object containing only the given fields
+	 */
+	@SuppressWarnings("unchecked")
+	public static JSONObject project(JSONObject entry, Collection<String> fields) {
+		JSONObject o = new JSONObject();
+		for (String f : fields) {
+			if (entry.containsKey(f)) {
+				o.put(f, entry.get(f));
+			}
+		}
+		return o;
+	}
+
+	/**
+	 * Marshals the given fields of survey data in a result set from the MobSOS database to a JSON representation.
+	 */
+	@SuppressWarnings("unchecked")
+	public static JSONObject readSurvey(ResultSet rs, Collection<String> fields) throws SQLException {
+
+		JSONObject o = new JSONObject();
+
+		DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+		for (String field : fields) {
+			String column = SURVEY_FIELDS.get(field);
+			if (field.equals("id") || field.equals("qid")) {
+				o.put(field, rs.getInt(column));
+			} else if (field.equals("start") || field.equals("end")) {
+				o.put(field, dateFormat.format(new Date(rs.getTimestamp(column).getTime())));
+			} else {
+				o.put(field, rs.getString(column));
+			}
+		}
+
+		return o;
+	}
+
+	/**
+	 * Marshals the given fields of questionnaire data in a result set from the MobSOS database to a JSON
+	 * representation.
+	 */
+	@SuppressWarnings("unchecked")
+	public static JSONObject readQuestionnaire(ResultSet rs, Collection<String> fields) throws SQLException {
+
+		JSONObject o = new JSONObject();
+		for (String field : fields) {
+			if (field.equals("id")) {
+				o.put(field, rs.getInt(QUESTIONNAIRE_FIELDS.get(field)));
+			} else {
+				o.put(field, rs.getString(QUESTIONNAIRE_FIELDS.get(field)));
+			}
+		}
+
+		return o;
+	}
+
+	private synchronized void putSurvey(JSONObject o) {
+		Tables t = tables;
+		if (t == null) {
+			return;
+		}
+		// remove entry under its previous name first, since the survey might have been renamed
+		removeSurvey((Integer) o.get("id"));
+		t.surveys.put((Integer) o.get("id"), o);
+		t.surveysByName.put((String) o.get("name"), o);
+		t.indexSurvey(o);
+	}
+
+	private synchronized void putQuestionnaire(JSONObject o) {
+		Tables t = tables;
+		if (t == null) {
+			return;
+		}
+		// remove entry under its previous name first, since the questionnaire might have been renamed
+		JSONObject old = t.questionnaires.remove((Integer) o.get("id"));
+		if (old != null) {
+			t.questionnairesByName.remove((String) old.get("name"));
+		}
+		t.questionnaires.put((Integer) o.get("id"), o);
+		t.questionnairesByName.put((String) o.get("name"), o);
+		t.indexQuestionnaire(o);
+		modifications++;
+	}
+
+	// caches surveys read through to the database, unless the catalog was changed since reading started
+	private synchronized void cacheSurveys(List<JSONObject> loaded, long seen) {
+		if (modifications != seen) {
+			return;
+		}
+		for (JSONObject o : loaded) {
+			putSurvey(o);
+		}
+	}
+
+	// caches questionnaires read through to the database, unless the catalog was changed since reading started
+	private synchronized void cacheQuestionnaires(List<JSONObject> loaded, long seen) {
+		if (modifications != seen) {
+			return;
+		}
+		for (JSONObject o : loaded) {
+			putQuestionnaire(o);
+		}
+	}
+
+	private JSONObject loadSurvey(int id) throws SQLException {
+		return executor.queryFirst("select " + String.join(", ", SURVEY_FIELDS.values()) + " from " + schema
+				+ ".survey where id = ?", s -> s.setInt(1, id), rs -> readSurvey(rs, SURVEY_FIELDS.keySet()));
+	}
+
+	private JSONObject loadQuestionnaire(int id) throws SQLException {
+		return executor.queryFirst(
+				"select " + String.join(", ", QUESTIONNAIRE_FIELDS.values()) + " from " + schema
+						+ ".questionnaire where id = ?",
+				s -> s.setInt(1, id), rs -> readQuestionnaire(rs, QUESTIONNAIRE_FIELDS.keySet()));
+	}
+
+	private List<JSONObject> loadSurveys(List<Integer> ids) throws SQLException {
+		return executor.query(
+				"select " + String.join(", ", SURVEY_FIELDS.values()) + " from " + schema + ".survey where id in ("
+						+ placeholders(ids.size()) + ")",
+				s -> bindIds(s, ids), rs -> readSurvey(rs, SURVEY_FIELDS.keySet()));
+	}
+
+	private List<JSONObject> loadQuestionnaires(List<Integer> ids) throws SQLException {
+		return executor.query(
+				"select " + String.join(", ", QUESTIONNAIRE_FIELDS.values()) + " from " + schema
+						+ ".questionnaire where id in (" + placeholders(ids.size()) + ")",
+				s -> bindIds(s, ids), rs -> readQuestionnaire(rs, QUESTIONNAIRE_FIELDS.keySet()));
+	}
+
+	private static void bindIds(PreparedStatement s, List<Integer> ids) throws SQLException {
+		for (int i = 0; i < ids.size(); i++) {
+			s.setInt(i + 1, ids.get(i));
+		}
+	}
+
+	private static long parseTime(String time) throws ParseException {
+		DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return dateFormat.parse(time).getTime();
+	}
+
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
+	}
+
+	private static Map<Integer, JSONObject> copyExisting(Map<Integer, JSONObject> entries) {
+		Map<Integer, JSONObject> result = new LinkedHashMap<>();
+		for (Map.Entry<Integer, JSONObject> e : entries.entrySet()) {
+			if (e.getValue() != null) {
+				result.put(e.getKey(), copy(e.getValue()));
+			}
+		}
+		return result;
+	}
+
+	private static List<JSONObject> list(NavigableMap<String, JSONObject> byName, String query, String after,
+			int limit) {
+		String q = query.toLowerCase(Locale.ROOT);
+		List<JSONObject> result = new ArrayList<>();
+		Iterator<JSONObject> it = (after == null ? byName : byName.tailMap(after, false)).values().iterator();
+		while (it.hasNext() && result.size() < limit) {
+			JSONObject o = it.next();
+			if (q.isEmpty() || contains(o, "name", q) || contains(o, "description", q)
+					|| contains(o, "organization", q)) {
+				result.add(copy(o));
+			}
+		}
+		return result;
+	}
+
+	private static boolean contains(JSONObject o, String field, String lowerCaseQuery) {
+		Object v = o.get(field);
+		return v != null && v.toString().toLowerCase(Locale.ROOT).contains(lowerCaseQuery);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static JSONObject copy(JSONObject o) {
+		if (o == null) {
+			return null;
+		}
+		JSONObject c = new JSONObject();
+		c.putAll(o);
+		return c;
+	}
+}
@@ -0,0 +1,379 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.json.simple.JSONObject;
+
+/**
+ * In-memory cache of OpenID Connect client metadata.
+ *
+ * Client metadata is kept in the OpenID Connect provider's database and is needed whenever clients are listed, surveys
+ * are validated or questionnaire forms refer to the resource a survey is about. It is registered and changed by the
+ * provider, not by this service, and changes rarely. All clients are therefore loaded in bulk at startup and
+ * periodically refreshed in a background thread.
+ *
+ * Cached metadata expires after a time to live. Expired metadata is still served, while it is reloaded in the
+ * background, such that listings and form rendering do not wait for the provider's database. Only clients never seen
+ * before are loaded while the caller waits. Unknown client ids are cached as well, with a separate, usually shorter
+ * time to live, after which they are looked up again while the caller waits. Since client ids are given by requests,
+ * the number of cached unknown ids is limited and expired ones are removed on every refresh. Concurrent loads of the
+ * same client are coalesced into a single query.
+ */
+public class ClientMetadataCache {
+
+	private final static String COLUMNS = "client_id, client_name, client_description, client_uri, logo_uri";
+
+	/**
+	 * Default maximum number of cached unknown client ids.
+	 */
+	public final static int DEFAULT_MAX_UNKNOWN = 1000;
+
+	/**
+	 * Cached metadata of a client; metadata is null for unknown clients.
+	 */
+	private static class Entry {
+		final JSONObject meta;
+		final long loaded = System.nanoTime();
+
+		Entry(JSONObject meta) {
+			this.meta = meta;
+		}
+	}
+
+	private final QueryExecutor executor;
+	private final String schema;
+	private final long ttlNanos;
+	private final long negativeTtlNanos;
+	private final int maxUnknown;
+
+	private final Map<String, Entry> clients = new ConcurrentHashMap<>();
+
+	// number of entries of unknown clients in clients
+	private final AtomicInteger unknown = new AtomicInteger();
+
+	// loads of single clients in progress
+	private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+
+	// all clients ordered by name as of the last bulk load; null as long as no bulk load succeeded
+	private volatile List<JSONObject> listing;
+	private volatile long listingLoaded;
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+
+	private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "mobsos-surveys-client-metadata");
+		t.setDaemon(true);
+		return t;
+	});
+	private ScheduledFuture<?> scheduledRefresh;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder staleHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder refreshes = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	/**
+	 * @param executor executor for reading client metadata; reads are executed via {@link QueryExecutor#readOnly()}
+	 * @param schema name of the OpenID Connect provider's schema
+	 * @param ttlSeconds time in seconds client metadata is served without reloading it
+	 * @param negativeTtlSeconds time in seconds unknown client ids are remembered
+	 */
+	public ClientMetadataCache(QueryExecutor executor, String schema, long ttlSeconds, long negativeTtlSeconds) {
+		this(executor, schema, ttlSeconds, negativeTtlSeconds, DEFAULT_MAX_UNKNOWN);
+	}
+
+	/**
+	 * @param executor executor for reading client metadata; reads are executed via {@link QueryExecutor#readOnly()}
+	 * @param schema name of the OpenID Connect provider's schema
+	 * @param ttlSeconds time in seconds client metadata is served without reloading it
+	 * @param negativeTtlSeconds time in seconds unknown client ids are remembered
+	 * @param maxUnknown maximum number of remembered unknown client ids; further unknown ids are not remembered
+	 */
+	public ClientMetadataCache(QueryExecutor executor, String schema, long ttlSeconds, long negativeTtlSeconds,
+			int maxUnknown) {
+		this.executor = executor;
+		this.schema = schema;
+		this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+		this.negativeTtlNanos = TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+		this.maxUnknown = maxUnknown;
+	}
+
+	/**
+	 * (Re-)loads metadata of all clients at once. Clients no longer registered and expired unknown client ids are
+	 * removed from the cache.
+	 *
+	 * @throws SQLException
+	 */
+	public synchronized void refresh() throws SQLException {
+		List<JSONObject> all;
+		try {
+			all = executor.readOnly().query(
+					"select " + COLUMNS + " from " + schema + ".client_details order by client_name asc",
+					QueryExecutor.NO_PARAMETERS, rs -> readClientMetadata(rs));
+		} catch (SQLException e) {
+			failures.increment();
+			throw e;
+		}
+
+		Set<String> ids = new HashSet<>();
+		for (JSONObject o : all) {
+			String id = (String) o.get("id");
+			cache(id, new Entry(o));
+			ids.add(id);
+		}
+		for (Map.Entry<String, Entry> e : clients.entrySet()) {
+			if (e.getValue().meta != null && !ids.contains(e.getKey())) {
+				clients.remove(e.getKey(), e.getValue());
+			}
+		}
+		removeExpiredUnknown();
+
+		listing = Collections.unmodifiableList(all);
+		listingLoaded = System.nanoTime();
+		refreshes.increment();
+	}
+
+	/**
+	 * Periodically refreshes all client metadata in a background thread.
+	 *
+	 * @param seconds refresh interval in seconds; values smaller than 1 disable periodic refreshes
+	 */
+	public synchronized void scheduleRefresh(long seconds) {
+		if (scheduledRefresh != null) {
+			scheduledRefresh.cancel(false);
+			scheduledRefresh = null;
+		}
+		if (seconds < 1) {
+			return;
+		}
+		scheduledRefresh = worker.scheduleWithFixedDelay(this::refreshQuietly, seconds, seconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Retrieves metadata of all clients.
+	 *
+	 * @return copies of JSON representations of client metadata ordered by client name
+	 * @throws SQLException if clients were never loaded successfully and loading them fails
+	 */
+	public List<JSONObject> list() throws SQLException {
+		List<JSONObject> l = listing;
+		if (l == null) {
+			misses.increment();
+			synchronized (this) {
+				if (listing == null) {
+					refresh();
+				}
+				l = listing;
+			}
+		} else if (System.nanoTime() - listingLoaded >= ttlNanos) {
+			staleHits.increment();
+			refreshInBackground();
+		} else {
+			hits.increment();
+		}
+
+		List<JSONObject> result = new ArrayList<>(l.size());
+		for (JSONObject o : l) {
+			result.add(copy(o));
+		}
+		return result;
+	}
+
+	/**
+	 * Retrieves metadata of a client.
+	 *
+	 * @param id client id
+	 * @return copy of JSON representation of client metadata or null, if the client does not exist
+	 * @throws SQLException if the client has to be loaded and loading fails
+	 */
+	public JSONObject get(String id) throws SQLException {
+		Entry e = clients.get(id);
+		if (e != null && e.meta != null) {
+			if (System.nanoTime() - e.loaded < ttlNanos) {
+				hits.increment();
+			} else {
+				staleHits.increment();
+				reloadInBackground(id);
+			}
+			return copy(e.meta);
+		}
+		if (e != null && System.nanoTime() - e.loaded < negativeTtlNanos) {
+			hits.increment();
+			return null;
+		}
+
+		misses.increment();
+		CompletableFuture<Entry> f = new CompletableFuture<>();
+		CompletableFuture<Entry> pending = loading.putIfAbsent(id, f);
+		if (pending != null) {
+			coalesced.increment();
+			f = pending;
+		} else {
+			load(id, f);
+		}
+
+		try {
+			return copy(f.get().meta);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while loading metadata of client " + id, ex);
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof SQLException) {
+				throw (SQLException) ex.getCause();
+			}
+			throw new SQLException("Could not load metadata of client " + id, ex.getCause());
+		}
+	}
+
+	private void load(String id, CompletableFuture<Entry> f) {
+		try {
+			Entry e = new Entry(executor.readOnly().queryFirst(
+					"select " + COLUMNS + " from " + schema + ".client_details where client_id = ?",
+					s -> s.setString(1, id), rs -> readClientMetadata(rs)));
+			// remember unknown client ids only up to the limit; expired ones make room for new ones
+			if (e.meta == null && unknown.get() >= maxUnknown) {
+				removeExpiredUnknown();
+			}
+			if (e.meta != null || unknown.get() < maxUnknown) {
+				cache(id, e);
+			}
+			f.complete(e);
+		} catch (Throwable t) {
+			failures.increment();
+			f.completeExceptionally(t);
+		} finally {
+			loading.remove(id, f);
+		}
+	}
+
+	// replaces the entry of a client and keeps track of the number of entries of unknown clients
+	private void cache(String id, Entry e) {
+		clients.compute(id, (k, old) -> {
+			if (old != null && old.meta == null) {
+				unknown.decrementAndGet();
+			}
+			if (e.meta == null) {
+				unknown.incrementAndGet();
+			}
+			return e;
+		});
+	}
+
+	// removes entries of unknown clients, whose time to live expired
+	private void removeExpiredUnknown() {
+		long now = System.nanoTime();
+		for (Map.Entry<String, Entry> e : clients.entrySet()) {
+			Entry v = e.getValue();
+			if (v.meta == null && now - v.loaded >= negativeTtlNanos && clients.remove(e.getKey(), v)) {
+				unknown.decrementAndGet();
+			}
+		}
+	}
+
+	private void reloadInBackground(String id) {
+		CompletableFuture<Entry> f = new CompletableFuture<>();
+		if (loading.putIfAbsent(id, f) != null) {
+			return;
+		}
+		try {
+			worker.execute(() -> load(id, f));
+		} catch (RejectedExecutionException e) {
+			loading.remove(id, f);
+		}
+	}
+
+	private void refreshInBackground() {
+		if (!refreshing.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			worker.execute(() -> {
+				try {
+					refreshQuietly();
+				} finally {
+					refreshing.set(false);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			refreshing.set(false);
+		}
+	}
+
+	private void refreshQuietly() {
+		try {
+			refresh();
+		} catch (Exception e) {
+			System.err.println("Warning: could not refresh OpenID Connect client metadata: " + e.getMessage());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static JSONObject copy(JSONObject meta) {
+		if (meta == null) {
+			return null;
+		}
+		JSONObject o = new JSONObject();
+		o.putAll(meta);
+		return o;
+	}
+
+	/**
+	 * Marshals OIDC client metadata in a result set to a JSON representation.
+	 */
+	@SuppressWarnings("unchecked")
+	public static JSONObject readClientMetadata(ResultSet rs) throws SQLException {
+		JSONObject meta = new JSONObject();
+		meta.put("id", rs.getString("client_id"));
+		meta.put("name", rs.getString("client_name"));
+		meta.put("description", rs.getString("client_description"));
+		meta.put("uri", rs.getString("client_uri"));
+		meta.put("logo", rs.getString("logo_uri"));
+		return meta;
+	}
+
+	/**
+	 * @return JSON representation of number of cached known and unknown clients, of cache hits, of hits on expired
+	 *         metadata, of misses, of misses served by a load already in progress, and of bulk loads and failed loads
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStats() {
+		int known = 0;
+		int unknown = 0;
+		for (Entry e : clients.values()) {
+			if (e.meta != null) {
+				known++;
+			} else {
+				unknown++;
+			}
+		}
+		JSONObject o = new JSONObject();
+		o.put("cached", known);
+		o.put("unknown", unknown);
+		o.put("hits", hits.sum());
+		o.put("staleHits", staleHits.sum());
+		o.put("misses", misses.sum());
+		o.put("coalesced", coalesced.sum());
+		o.put("refreshes", refreshes.sum());
+		o.put("failures", failures.sum());
+		return o;
+	}
+}
@@ -0,0 +1,194 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import static org.apache.commons.lang3.StringEscapeUtils.escapeHtml4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Streaming writer of HTML survey questionnaire forms.
+ *
+ * A form is rendered by inserting navigation pills and question pages generated from a questionnaire form document into
+ * an HTML page template at the markers <code>&lt;!-- NAVPILLS --&gt;</code>, <code>&lt;!-- QUESTIONPAGES --&gt;</code>
+ * and <code>&lt;!-- ANSWERLINK --&gt;</code>. The writer emits template text and generated elements directly to its
+ * output in document order. No intermediate strings are built per page and the page template is never copied, such
+ * that rendering allocates little more than the output itself.
+ */
+public class FormHtmlWriter {
+
+	private final static String NAVPILLS = "<!-- NAVPILLS -->";
+	private final static String QUESTIONPAGES = "<!-- QUESTIONPAGES -->";
+	private final static String ANSWERLINK = "<!-- ANSWERLINK -->";
+
+	private final Appendable out;
+	private final String requiredLabel;
+
+	/**
+	 * @param out output to write HTML to
+	 * @param requiredLabel localized label marking required questions
+	 */
+	public FormHtmlWriter(Appendable out, String requiredLabel) {
+		this.out = out;
+		this.requiredLabel = requiredLabel;
+	}
+
+	/**
+	 * Writes a questionnaire form.
+	 *
+	 * @param page HTML page template with markers for navigation pills, question pages and answer link
+	 * @param form validated questionnaire form
+	 * @param answerUrl URL answers are submitted to
+	 * @throws IOException if writing to the output fails
+	 */
+	public void write(String page, Document form, String answerUrl) throws IOException {
+		NodeList nodeList = form.getElementsByTagNameNS(SurveyService.MOBSOS_QUESTIONNAIRE_NS, "Page");
+		List<Element> pages = new ArrayList<>(nodeList.getLength());
+		for (int i = 0; i < nodeList.getLength(); i++) {
+			pages.add((Element) nodeList.item(i));
+		}
+
+		int last = 0;
+		while (true) {
+			int navpills = page.indexOf(NAVPILLS, last);
+			int questionpages = page.indexOf(QUESTIONPAGES, last);
+			int answerlink = page.indexOf(ANSWERLINK, last);
+			int next = min(navpills, min(questionpages, answerlink));
+			if (next < 0) {
+				break;
+			}
+			out.append(page, last, next);
+			if (next == navpills) {
+				for (int i = 0; i < pages.size(); i++) {
+					writeNavPill(i, pages.get(i));
+				}
+				last = next + NAVPILLS.length();
+			} else if (next == questionpages) {
+				for (int i = 0; i < pages.size(); i++) {
+					writePage(i, pages.get(i));
+				}
+				last = next + QUESTIONPAGES.length();
+			} else {
+				out.append("<a href=\"").append(answerUrl).append("\" id=\"return-url\" class=\"hidden\" ></a>");
+				last = next + ANSWERLINK.length();
+			}
+		}
+		out.append(page, last, page.length());
+	}
+
+	// smallest non-negative index or -1
+	private static int min(int a, int b) {
+		return a < 0 ? b : b < 0 ? a : Math.min(a, b);
+	}
+
+	private void writeNavPill(int i, Element e) throws IOException {
+		String type = e.getAttribute("xsi:type");
+		if (!type.endsWith("InformationPageType") && !type.endsWith("QuestionPageType")) {
+			return;
+		}
+		// first page and navpill item are active
+		out.append("\t\t\t\t\t<li").append(i == 0 ? " class='active'" : "").append("><a href=\"#step-")
+				.append(Integer.toString(i)).append("\"><span class=\"list-group-item-heading\">")
+				.append(Integer.toString(i)).append("</span></a></li>\n");
+	}
+
+	private void writePage(int i, Element e) throws IOException {
+		String type = e.getAttribute("xsi:type");
+		if (type.endsWith("InformationPageType")) {
+			out.append("\t\t<div class=\"row setup-content\" id=\"step-").append(Integer.toString(i))
+					.append("\"><div class=\"col-xs-12\"><div class=\"col-md-12 well text-center\">\n");
+			out.append("\t\t\t<h4><b>").append(e.getAttribute("name")).append("</b></h4>\n");
+			out.append("\t\t\t<p>\n\t\t\t\t");
+			appendEscaped(instructions(e).trim());
+			out.append("\n\t\t\t</p>\n");
+			out.append("\t\t</div></div></div>\n");
+		} else if (type.endsWith("QuestionPageType")) {
+			String quid = e.getAttribute("qid");
+			out.append("\t\t<div class=\"row setup-content\" id=\"step-").append(Integer.toString(i))
+					.append("\"><div class=\"col-xs-12\"><div class=\"col-md-12 text-center\">\n");
+			out.append("\t\t\t<h4><b>").append(e.getAttribute("name")).append(" (").append(quid)
+					.append(")</b></h4>\n");
+
+			boolean required = "true".equals(e.getAttribute("required"));
+			out.append("\t\t\t<div class=\"").append(required ? "question required" : "question")
+					.append("\" style='text-align: justify; white-space: pre-line;'>");
+			appendEscaped(instructions(e));
+			if (required) {
+				out.append(" (<i>").append(requiredLabel).append("</i>)");
+			}
+			out.append("</div><p/>\n");
+
+			if ("qu:OrdinalScaleQuestionPageType".equals(type)) {
+				writeOrdinalScale(e, quid);
+			} else if ("qu:DichotomousQuestionPageType".equals(type)) {
+				writeDichotomous(e, quid);
+			} else if ("qu:FreeTextQuestionPageType".equals(type)) {
+				out.append("\t\t\t<textarea name=\"").append(quid)
+						.append("\" class=\"form-control response freetext-response\" rows=\"3\"></textarea>\n");
+			}
+			out.append("\t\t</div></div></div>\n");
+		}
+	}
+
+	// escapes like escapeHtml4, which allocates per character, but writes plain ASCII text without escaping it first
+	private void appendEscaped(String text) throws IOException {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c >= 0x80 || c == '"' || c == '&' || c == '<' || c == '>') {
+				out.append(escapeHtml4(text));
+				return;
+			}
+		}
+		out.append(text);
+	}
+
+	private static String instructions(Element e) {
+		return e.getElementsByTagNameNS(SurveyService.MOBSOS_QUESTIONNAIRE_NS, "Instructions").item(0)
+				.getTextContent();
+	}
+
+	// range slider, which is more responsive than a button group
+	private void writeOrdinalScale(Element e, String quid) throws IOException {
+		// TODO: do something with default value, if set.
+		int minval = Integer.parseInt(e.getAttribute("minval"));
+		int maxval = Integer.parseInt(e.getAttribute("maxval"));
+		String list = quid.replace(".", "-") + "-scale";
+
+		out.append("\t\t\t<div class='row well'>\n");
+		out.append("\t\t\t\t<input class='col-md-12 col-xs-12 scale' name='").append(quid).append("' type='range' min='")
+				.append(Integer.toString(minval)).append("' max='").append(Integer.toString(maxval))
+				.append("' step='1' list='").append(list).append("'/><br>\n");
+		out.append("\t\t\t\t<datalist id='").append(list).append("'>\n");
+		for (int k = minval; k <= maxval; k++) {
+			out.append("\t\t\t\t\t<option>").append(Integer.toString(k)).append("</option>\n");
+		}
+		out.append("\t\t\t\t</datalist>");
+		out.append("<span class='col-md-4 col-xs-5 text-left'>");
+		appendEscaped(e.getAttribute("minlabel"));
+		out.append("</span><span name='")
+				.append(quid)
+				.append("' class='col-md-4 col-xs-2 text-center h2 response scale-response' data-toggle='tooltip' data-placement='left' title='Click to reset to n/a.'>n/a</span> <span class='col-md-4 col-xs-5 pull-right text-right'>");
+		appendEscaped(e.getAttribute("maxlabel"));
+		out.append("</span>");
+		out.append("\t\t\t</div>\n");
+	}
+
+	private void writeDichotomous(Element e, String quid) throws IOException {
+		// TODO: do something with default value, if set.
+		out.append("\t\t\t<div class=\"btn-group\" data-toggle=\"buttons\">\n");
+		out.append("\t\t\t\t<label class=\"btn btn-primary\">\n");
+		out.append("\t\t\t\t\t<input name=\"").append(quid).append("\" type=\"radio\" value=\"0\">")
+				.append(e.getAttribute("minlabel")).append("\n");
+		out.append("\t\t\t\t</label>\n");
+		out.append("\t\t\t\t<label class=\"btn btn-primary\">\n");
+		out.append("\t\t\t\t\t<input name=\"").append(quid).append("\" type=\"radio\" value=\"1\">")
+				.append(e.getAttribute("maxlabel")).append("\n");
+		out.append("\t\t\t\t</label>\n");
+		out.append("\t\t\t\t<input type=\"hidden\" class='response' name=\"").append(quid).append("\">\n");
+		out.append("\t\t\t</div>\n");
+	}
+}
@@ -0,0 +1,142 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Compact JSON model of a survey questionnaire form for rendering forms on clients.
+ *
+ * The model lists the pages of a form in order. Each page has a type (information, ordinal, dichotomous or freetext),
+ * a name and instructions; question pages additionally have their question id, a required flag and, depending on
+ * their type, scale bounds, default value and labels. The model is serialized once per survey and questionnaire form
+ * and compiled into a template, in which author tags referring to the requesting user remain placeholders. Its entity
+ * tag is derived from the serialized model and, if the model contains user tags, from the user tag values.
+ */
+public class FormModel {
+
+	private final HtmlTemplate json;
+	private final String hash;
+
+	private FormModel(String json) {
+		this.json = HtmlTemplate.compile(json);
+		this.hash = StaticAssets.hash(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Builds the model of a form.
+	 *
+	 * @param sid survey id
+	 * @param qid questionnaire id
+	 * @param form validated questionnaire form adapted to the survey, with user tags kept
+	 * @param answerUrl URL answers are submitted to
+	 * @return form model
+	 */
+	public static FormModel build(int sid, int qid, Document form, String answerUrl) {
+		return new FormModel(toJSON(sid, qid, form, answerUrl).toJSONString());
+	}
+
+	/**
+	 * @param sid survey id
+	 * @param qid questionnaire id
+	 * @param form validated questionnaire form
+	 * @param answerUrl URL answers are submitted to
+	 * @return JSON representation of the form's pages
+	 */
+	@SuppressWarnings("unchecked")
+	public static JSONObject toJSON(int sid, int qid, Document form, String answerUrl) {
+		JSONArray pages = new JSONArray();
+		NodeList nodeList = form.getElementsByTagNameNS(SurveyService.MOBSOS_QUESTIONNAIRE_NS, "Page");
+		for (int i = 0; i < nodeList.getLength(); i++) {
+			Element e = (Element) nodeList.item(i);
+			String type = e.getAttribute("xsi:type");
+
+			JSONObject page = new JSONObject();
+			page.put("name", e.getAttribute("name"));
+			page.put("instructions", e.getElementsByTagNameNS(SurveyService.MOBSOS_QUESTIONNAIRE_NS, "Instructions")
+					.item(0).getTextContent().trim());
+			if (type.endsWith("InformationPageType")) {
+				page.put("type", "information");
+			} else if (type.endsWith("QuestionPageType")) {
+				page.put("qid", e.getAttribute("qid"));
+				page.put("required", "true".equals(e.getAttribute("required")));
+				if ("qu:OrdinalScaleQuestionPageType".equals(type)) {
+					page.put("type", "ordinal");
+					page.put("minval", Integer.parseInt(e.getAttribute("minval")));
+					page.put("maxval", Integer.parseInt(e.getAttribute("maxval")));
+					if (e.hasAttribute("defval")) {
+						page.put("defval", Integer.parseInt(e.getAttribute("defval")));
+					}
+					page.put("minlabel", e.getAttribute("minlabel"));
+					page.put("maxlabel", e.getAttribute("maxlabel"));
+				} else if ("qu:DichotomousQuestionPageType".equals(type)) {
+					page.put("type", "dichotomous");
+					page.put("minlabel", e.getAttribute("minlabel"));
+					page.put("maxlabel", e.getAttribute("maxlabel"));
+				} else if ("qu:FreeTextQuestionPageType".equals(type)) {
+					page.put("type", "freetext");
+				} else {
+					continue;
+				}
+			} else {
+				continue;
+			}
+			pages.add(page);
+		}
+
+		JSONObject model = new JSONObject();
+		model.put("sid", sid);
+		model.put("qid", qid);
+		model.put("answers", answerUrl);
+		model.put("pages", pages);
+		return model;
+	}
+
+	/**
+	 * @return true, if the model contains author tags referring to the requesting user
+	 */
+	public boolean hasUserTags() {
+		return !json.getSlots().isEmpty();
+	}
+
+	/**
+	 * Renders the model for a user.
+	 *
+	 * @param values function returning the value of a user tag or null, if the tag is to be kept; values are escaped
+	 *            for JSON strings
+	 * @return JSON text of model
+	 */
+	public String render(Function<String, String> values) {
+		return json.render(escaped(values));
+	}
+
+	/**
+	 * Computes the entity tag of the model rendered for a user.
+	 *
+	 * @param values function returning the value of a user tag or null, if the tag is to be kept
+	 * @return quoted strong entity tag
+	 */
+	public String getETag(Function<String, String> values) {
+		if (!hasUserTags()) {
+			return "\"" + hash + "\"";
+		}
+		StringBuilder sb = new StringBuilder(hash);
+		for (String slot : json.getSlots()) {
+			sb.append('\0').append(slot).append('=').append(values.apply(slot));
+		}
+		return "\"" + StaticAssets.hash(sb.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+	}
+
+	private static Function<String, String> escaped(Function<String, String> values) {
+		return slot -> {
+			String v = values.apply(slot);
+			return v != null ? JSONValue.escape(v) : null;
+		};
+	}
+}
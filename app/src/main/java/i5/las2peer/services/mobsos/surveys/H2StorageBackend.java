@@ -0,0 +1,112 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Embedded storage backend based on H2. Suited for small deployments without a database server and for tests.
+ *
+ * The configured JDBC URL determines where H2 keeps its data, e.g. 'jdbc:h2:./data/' for files in directory data or
+ * 'jdbc:h2:mem:' for a purely in-memory database. H2 runs in MySQL compatibility mode, such that the service's
+ * statements run unchanged. Missing tables are created on startup.
+ */
+public class H2StorageBackend implements StorageBackend {
+
+	public final static String NAME = "h2";
+
+	private final static String SCHEMA_RESOURCE = "/h2-schema.sql";
+
+	// H2 error code for violated primary key or unique constraints
+	private final static int DUPLICATE_KEY = 23505;
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public String getDriverClassName() {
+		return "org.h2.Driver";
+	}
+
+	@Override
+	public String getConnectionUrl(String url, String schema) {
+		// keep in-memory databases alive while no connection is open; allow 'end' as column name
+		return url + schema + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=END,VALUE;DB_CLOSE_DELAY=-1";
+	}
+
+	@Override
+	public void initialize(QueryExecutor executor, String schema) throws SQLException {
+		String ddl;
+		try (InputStream in = H2StorageBackend.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+			if (in == null) {
+				throw new SQLException("Schema resource " + SCHEMA_RESOURCE + " not found!");
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int n;
+			while ((n = in.read(buffer)) > 0) {
+				out.write(buffer, 0, n);
+			}
+			ddl = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new SQLException("Could not read schema resource " + SCHEMA_RESOURCE, e);
+		}
+
+		executor.execute("create schema if not exists " + schema);
+		// strip comment lines and execute statements one by one
+		ddl = ddl.replaceAll("(?m)^--.*$", "").replace("${schema}", schema);
+		for (String statement : ddl.split(";")) {
+			if (!statement.trim().isEmpty()) {
+				executor.execute(statement.trim());
+			}
+		}
+	}
+
+	@Override
+	public void createIndex(QueryExecutor executor, String schema, String table, String index, String columns)
+			throws SQLException {
+		executor.execute("create index if not exists " + index + " on " + schema + "." + table + " (" + columns + ")");
+	}
+
+	@Override
+	public List<String> listViews(QueryExecutor executor, String schema) throws SQLException {
+		return executor.query("select table_name from information_schema.views where lower(table_schema) = lower(?)",
+				s -> s.setString(1, schema), rs -> rs.getString(1));
+	}
+
+	@Override
+	public void createView(QueryExecutor executor, String schema, String view, String select) throws SQLException {
+		executor.execute("create or replace view " + schema + "." + view + " as " + select);
+	}
+
+	@Override
+	public void dropView(QueryExecutor executor, String schema, String view) throws SQLException {
+		executor.execute("drop view if exists " + schema + "." + view);
+	}
+
+	@Override
+	public String castToInteger(String expression) {
+		return "cast(" + expression + " as integer)";
+	}
+
+	@Override
+	public String hash(String expression) {
+		return "lower(rawtohex(hash('SHA-256', " + expression + ")))";
+	}
+
+	@Override
+	public boolean isDuplicateKey(SQLException e) {
+		// batch failures report the failed statement's exception as next exception
+		for (SQLException x = e; x != null; x = x.getNextException()) {
+			if (x.getErrorCode() == DUPLICATE_KEY) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,181 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTML template compiled into literal segments and placeholder slots.
+ *
+ * Placeholders have the form ${NAME}. Compiling a template splits it into the text between placeholders and the
+ * placeholders' names once. Rendering then walks the segments in a single pass and appends literal text and slot
+ * values to one buffer, instead of scanning the whole document once per placeholder. Placeholders without a value are
+ * rendered unchanged, such that later processing steps can still resolve them.
+ *
+ * Templates are immutable and may be shared between threads.
+ */
+public class HtmlTemplate {
+
+	private final static Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^\\}]+)\\}");
+
+	// literals[i] precedes slots[i]; the last literal follows the last slot
+	private final String[] literals;
+	private final String[] slots;
+	private final int literalLength;
+
+	private HtmlTemplate(List<String> literals, List<String> slots) {
+		this.literals = literals.toArray(new String[0]);
+		this.slots = slots.toArray(new String[0]);
+		int length = 0;
+		for (String l : this.literals) {
+			length += l.length();
+		}
+		this.literalLength = length;
+	}
+
+	/**
+	 * Compiles template text.
+	 *
+	 * @param text template text with placeholders ${NAME}
+	 * @return compiled template
+	 */
+	public static HtmlTemplate compile(String text) {
+		List<String> literals = new ArrayList<>();
+		List<String> slots = new ArrayList<>();
+		Matcher m = PLACEHOLDER.matcher(text);
+		int last = 0;
+		while (m.find()) {
+			literals.add(text.substring(last, m.start()));
+			slots.add(m.group(1));
+			last = m.end();
+		}
+		literals.add(text.substring(last));
+		return new HtmlTemplate(literals, slots);
+	}
+
+	/**
+	 * Fills in the placeholders of a text without compiling it first. The text is scanned once and written to one
+	 * buffer, which is cheaper than compiling for texts rendered only once.
+	 *
+	 * @param text text with placeholders ${NAME}
+	 * @param values function returning the value of a placeholder or null, if the placeholder is to be kept
+	 * @return text with placeholders filled in
+	 */
+	public static String fill(String text, Function<String, String> values) {
+		StringBuilder sb = new StringBuilder(text.length() + 256);
+		int last = 0;
+		int from = 0;
+		int start;
+		while ((start = text.indexOf("${", from)) >= 0) {
+			int end = text.indexOf('}', start + 2);
+			if (end < 0) {
+				break;
+			}
+			if (end == start + 2) {
+				// ${} is no placeholder
+				from = start + 1;
+				continue;
+			}
+			String v = values.apply(text.substring(start + 2, end));
+			if (v != null) {
+				sb.append(text, last, start).append(v);
+				last = end + 1;
+			}
+			from = end + 1;
+		}
+		sb.append(text, last, text.length());
+		return sb.toString();
+	}
+
+	/**
+	 * @return names of all placeholders in order of first occurrence
+	 */
+	public Set<String> getSlots() {
+		Set<String> s = new LinkedHashSet<>();
+		Collections.addAll(s, slots);
+		return s;
+	}
+
+	/**
+	 * Renders the template.
+	 *
+	 * @param values function returning the value of a placeholder or null, if the placeholder is to be kept
+	 * @return rendered text
+	 */
+	public String render(Function<String, String> values) {
+		StringBuilder sb = new StringBuilder(literalLength + 64 * slots.length);
+		renderTo(sb, values);
+		return sb.toString();
+	}
+
+	/**
+	 * Renders the template into a buffer.
+	 *
+	 * @param sb buffer to append to
+	 * @param values function returning the value of a placeholder or null, if the placeholder is to be kept
+	 */
+	public void renderTo(StringBuilder sb, Function<String, String> values) {
+		for (int i = 0; i < slots.length; i++) {
+			sb.append(literals[i]);
+			String v = values.apply(slots[i]);
+			if (v != null) {
+				sb.append(v);
+			} else {
+				sb.append("${").append(slots[i]).append('}');
+			}
+		}
+		sb.append(literals[slots.length]);
+	}
+
+	/**
+	 * Renders the template to an output, e.g. the writer of a response, without building the rendered text first.
+	 *
+	 * @param out output to write to
+	 * @param values function returning the value of a placeholder or null, if the placeholder is to be kept
+	 * @throws IOException if writing to the output fails
+	 */
+	public void writeTo(Appendable out, Function<String, String> values) throws IOException {
+		for (int i = 0; i < slots.length; i++) {
+			out.append(literals[i]);
+			String v = values.apply(slots[i]);
+			if (v != null) {
+				out.append(v);
+			} else {
+				out.append("${").append(slots[i]).append('}');
+			}
+		}
+		out.append(literals[slots.length]);
+	}
+
+	/**
+	 * Partially renders the template. Placeholders with a value are merged into the literal segments, all other
+	 * placeholders remain slots of the returned template.
+	 *
+	 * @param values function returning the value of a placeholder or null, if the placeholder is to be kept
+	 * @return template with remaining placeholders
+	 */
+	public HtmlTemplate bind(Function<String, String> values) {
+		List<String> l = new ArrayList<>();
+		List<String> s = new ArrayList<>();
+		StringBuilder current = new StringBuilder(literals[0]);
+		for (int i = 0; i < slots.length; i++) {
+			String v = values.apply(slots[i]);
+			if (v != null) {
+				current.append(v);
+			} else {
+				l.add(current.toString());
+				s.add(slots[i]);
+				current.setLength(0);
+			}
+			current.append(literals[i + 1]);
+		}
+		l.add(current.toString());
+		return new HtmlTemplate(l, s);
+	}
+}
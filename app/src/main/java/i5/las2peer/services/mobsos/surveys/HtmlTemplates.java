@@ -0,0 +1,113 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache of compiled HTML templates from a template directory.
+ *
+ * Each template is read and compiled on first use and then kept in memory. In development mode, the modification time
+ * of a template file is checked on every access and changed templates are recompiled, such that edits show up without
+ * restarting the service.
+ *
+ * Besides plain templates, the cache keeps variants of templates with part of their placeholders bound, e.g. one
+ * pre-localized variant per locale. Variants are rebound when their template was recompiled.
+ */
+public class HtmlTemplates {
+
+	private static class Entry {
+		final HtmlTemplate template;
+		final long lastModified;
+
+		Entry(HtmlTemplate template, long lastModified) {
+			this.template = template;
+			this.lastModified = lastModified;
+		}
+	}
+
+	private static class Variant {
+		final HtmlTemplate template;
+		final HtmlTemplate bound;
+
+		Variant(HtmlTemplate template, HtmlTemplate bound) {
+			this.template = template;
+			this.bound = bound;
+		}
+	}
+
+	private final Path directory;
+	private final boolean hotReload;
+	private final Function<String, String> preprocessor;
+
+	private final Map<String, Entry> templates = new ConcurrentHashMap<>();
+	private final Map<String, Variant> variants = new ConcurrentHashMap<>();
+
+	/**
+	 * @param directory directory containing template files
+	 * @param hotReload if true, templates are recompiled when their files change
+	 */
+	public HtmlTemplates(Path directory, boolean hotReload) {
+		this(directory, hotReload, Function.identity());
+	}
+
+	/**
+	 * @param directory directory containing template files
+	 * @param hotReload if true, templates are recompiled when their files change
+	 * @param preprocessor function transforming template text before compilation
+	 */
+	public HtmlTemplates(Path directory, boolean hotReload, Function<String, String> preprocessor) {
+		this.directory = directory;
+		this.hotReload = hotReload;
+		this.preprocessor = preprocessor;
+	}
+
+	/**
+	 * Retrieves a compiled template.
+	 *
+	 * @param name file name of template relative to template directory
+	 * @return compiled template
+	 * @throws IOException if the template file cannot be read
+	 */
+	public HtmlTemplate get(String name) throws IOException {
+		Entry e = templates.get(name);
+		if (e != null && !hotReload) {
+			return e.template;
+		}
+
+		Path file = directory.resolve(name);
+		long lastModified = Files.getLastModifiedTime(file).toMillis();
+		if (e != null && e.lastModified == lastModified) {
+			return e.template;
+		}
+
+		e = new Entry(HtmlTemplate.compile(preprocessor.apply(new String(Files.readAllBytes(file),
+				StandardCharsets.UTF_8))), lastModified);
+		templates.put(name, e);
+		return e.template;
+	}
+
+	/**
+	 * Retrieves a variant of a compiled template with part of its placeholders bound.
+	 *
+	 * @param name file name of template relative to template directory
+	 * @param variant name of variant; variants of the same name must bind the same values
+	 * @param values function returning the value of a placeholder to be bound or null, if the placeholder is to be kept
+	 * @return template with remaining placeholders
+	 * @throws IOException if the template file cannot be read
+	 */
+	public HtmlTemplate get(String name, String variant, Function<String, String> values) throws IOException {
+		HtmlTemplate template = get(name);
+		String key = name + "#" + variant;
+		Variant v = variants.get(key);
+		if (v == null || v.template != template) {
+			v = new Variant(template, template.bind(values));
+			variants.put(key, v);
+		}
+		return v.bound;
+	}
+}
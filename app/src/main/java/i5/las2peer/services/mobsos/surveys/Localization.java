@@ -0,0 +1,137 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import static org.apache.commons.lang3.StringEscapeUtils.escapeHtml4;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Translations of the service's HTML pages.
+ *
+ * Translations are loaded once per supported locale from the service's resource bundles and kept HTML-escaped, such
+ * that localizing a page is a plain lookup per placeholder. The locale of a request is negotiated from its
+ * Accept-Language header: language ranges are tried in order of decreasing quality value, first for an exact match and
+ * then for a supported locale of the same language.
+ */
+public class Localization {
+
+	private final Locale defaultLocale;
+
+	// HTML-escaped translations per supported locale in order of preference for language-only matches
+	private final Map<Locale, Map<String, String>> translations = new LinkedHashMap<>();
+
+	/**
+	 * @param baseName base name of resource bundles
+	 * @param locales supported locales; the first locale is used if no requested locale is supported
+	 */
+	public Localization(String baseName, List<Locale> locales) {
+		this.defaultLocale = locales.get(0);
+		for (Locale l : locales) {
+			ResourceBundle bundle = ResourceBundle.getBundle(baseName, l);
+			Map<String, String> t = new HashMap<>();
+			Enumeration<String> keys = bundle.getKeys();
+			while (keys.hasMoreElements()) {
+				String key = keys.nextElement();
+				t.put(key, escapeHtml4(bundle.getString(key)));
+			}
+			translations.put(l, Collections.unmodifiableMap(t));
+		}
+	}
+
+	/**
+	 * @return supported locales
+	 */
+	public List<Locale> getLocales() {
+		return new ArrayList<>(translations.keySet());
+	}
+
+	/**
+	 * Negotiates the locale of a request.
+	 *
+	 * @param acceptLanguage value of Accept-Language header, e.g. 'de-CH, de;q=0.9, en;q=0.8'; may be null
+	 * @return best supported locale
+	 */
+	public Locale negotiate(String acceptLanguage) {
+		if (acceptLanguage == null || acceptLanguage.trim().isEmpty()) {
+			return defaultLocale;
+		}
+
+		// parse language ranges with quality values; ranges with quality 0 are not acceptable
+		List<String> ranges = new ArrayList<>();
+		List<Double> qualities = new ArrayList<>();
+		for (String part : acceptLanguage.split(",")) {
+			String[] tokens = part.trim().split(";");
+			double q = 1.0;
+			for (int i = 1; i < tokens.length; i++) {
+				String param = tokens[i].trim();
+				if (param.startsWith("q=")) {
+					try {
+						q = Double.parseDouble(param.substring(2).trim());
+					} catch (NumberFormatException e) {
+						q = 0;
+					}
+				}
+			}
+			if (q > 0 && !tokens[0].trim().isEmpty()) {
+				ranges.add(tokens[0].trim().replace('_', '-'));
+				qualities.add(q);
+			}
+		}
+
+		// stable sort keeps header order for equal quality values
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < ranges.size(); i++) {
+			order.add(i);
+		}
+		order.sort(Comparator.comparing((Integer i) -> qualities.get(i)).reversed());
+
+		for (int i : order) {
+			String range = ranges.get(i);
+			if ("*".equals(range)) {
+				return defaultLocale;
+			}
+			Locale requested = Locale.forLanguageTag(range);
+			for (Locale l : translations.keySet()) {
+				if (l.getLanguage().equals(requested.getLanguage()) && l.getCountry().equalsIgnoreCase(requested
+						.getCountry())) {
+					return l;
+				}
+			}
+			for (Locale l : translations.keySet()) {
+				if (l.getLanguage().equals(requested.getLanguage())) {
+					return l;
+				}
+			}
+		}
+		return defaultLocale;
+	}
+
+	/**
+	 * @param locale supported locale
+	 * @return HTML-escaped translations by key
+	 */
+	public Map<String, String> getTranslations(Locale locale) {
+		Map<String, String> t = translations.get(locale);
+		return t != null ? t : translations.get(defaultLocale);
+	}
+
+	/**
+	 * Localizes a text containing placeholders ${k}, where k is a key of the resource bundles. Placeholders without
+	 * translation are kept.
+	 *
+	 * @param text text to localize
+	 * @param acceptLanguage value of Accept-Language header; may be null
+	 * @return localized text
+	 */
+	public String localize(String text, String acceptLanguage) {
+		return HtmlTemplate.fill(text, getTranslations(negotiate(acceptLanguage))::get);
+	}
+}
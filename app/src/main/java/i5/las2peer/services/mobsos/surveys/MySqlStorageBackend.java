@@ -0,0 +1,114 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Storage backend for a MySQL server. The service's schema is expected to be set up with etc/sql/schema.sql.
+ *
+ * Statements are prepared server-side and cached per connection, such that MySQL parses and plans each distinct
+ * statement only once per pooled connection.
+ */
+public class MySqlStorageBackend implements StorageBackend {
+
+	public final static String NAME = "mysql";
+
+	// MySQL error code for violated primary key or unique constraints
+	private final static int ER_DUP_ENTRY = 1062;
+
+	// MySQL error code for creating an index under a name already used on the table
+	private final static int ER_DUP_KEYNAME = 1061;
+
+	private final String driverClassName;
+	private final int prepStmtCacheSize;
+
+	/**
+	 * @param driverClassName class name of MySQL JDBC driver
+	 * @param prepStmtCacheSize number of prepared statements cached per connection
+	 */
+	public MySqlStorageBackend(String driverClassName, int prepStmtCacheSize) {
+		this.driverClassName = driverClassName;
+		this.prepStmtCacheSize = prepStmtCacheSize;
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public String getDriverClassName() {
+		return driverClassName;
+	}
+
+	@Override
+	public String getConnectionUrl(String url, String schema) {
+		return url + schema + "?autoReconnect=true&useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC"
+				+ "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=" + prepStmtCacheSize
+				+ "&prepStmtCacheSqlLimit=2048&rewriteBatchedStatements=true";
+	}
+
+	@Override
+	public void initialize(QueryExecutor executor, String schema) throws SQLException {
+		// schema is set up by administrators
+	}
+
+	@Override
+	public void createIndex(QueryExecutor executor, String schema, String table, String index, String columns)
+			throws SQLException {
+		// MySQL does not support 'if not exists' for indexes
+		Integer exists = executor.queryFirst("select 1 from information_schema.statistics where table_schema = ? "
+				+ "and table_name = ? and index_name = ? limit 1", s -> {
+					s.setString(1, schema);
+					s.setString(2, table);
+					s.setString(3, index);
+				}, rs -> rs.getInt(1));
+		if (exists == null) {
+			try {
+				executor.execute("create index " + index + " on " + schema + "." + table + " (" + columns + ")");
+			} catch (SQLException e) {
+				// another service instance created the index concurrently
+				if (e.getErrorCode() != ER_DUP_KEYNAME) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	@Override
+	public List<String> listViews(QueryExecutor executor, String schema) throws SQLException {
+		return executor.query("show full tables in " + schema + " where table_type = 'VIEW'",
+				QueryExecutor.NO_PARAMETERS, rs -> rs.getString(1));
+	}
+
+	@Override
+	public void createView(QueryExecutor executor, String schema, String view, String select) throws SQLException {
+		executor.execute("create or replace view " + schema + "." + view + " as " + select);
+	}
+
+	@Override
+	public void dropView(QueryExecutor executor, String schema, String view) throws SQLException {
+		executor.execute("drop view if exists " + schema + "." + view);
+	}
+
+	@Override
+	public String castToInteger(String expression) {
+		return "cast(" + expression + " as unsigned)";
+	}
+
+	@Override
+	public String hash(String expression) {
+		return "sha2(" + expression + ", 256)";
+	}
+
+	@Override
+	public boolean isDuplicateKey(SQLException e) {
+		// batch failures report the failed statement's exception as next exception
+		for (SQLException x = e; x != null; x = x.getNextException()) {
+			if (x.getErrorCode() == ER_DUP_ENTRY) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,156 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Sorted index over questionnaire names, survey names and resource labels of surveys for prefix autocompletion.
+ *
+ * Index keys are lower-cased names followed by type and identifier, such that all suggestions for a prefix form a
+ * contiguous range of the index ordered by name. The index is maintained incrementally whenever a questionnaire or
+ * survey is created, renamed or deleted. Lookups are lock-free; only updates are synchronized.
+ */
+public class NameIndex {
+
+	public final static String QUESTIONNAIRE = "questionnaire";
+	public final static String SURVEY = "survey";
+	public final static String RESOURCE = "resource";
+
+	// separates name, type and identifier in index keys; sorts before any character in names
+	private final static char SEPARATOR = '\u0000';
+
+	private final NavigableMap<String, JSONObject> index = new ConcurrentSkipListMap<>();
+
+	// index keys per indexed questionnaire or survey; needed to remove stale keys on rename or deletion
+	private final Map<String, List<String>> keysByEntity = new HashMap<>();
+
+	// number of surveys referencing a resource label key; several surveys may address the same resource
+	private final Map<String, Integer> resourceReferences = new HashMap<>();
+
+	/**
+	 * Adds or replaces a questionnaire name in the index.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void putQuestionnaire(int id, String name) {
+		removeQuestionnaire(id);
+		if (name == null) {
+			return;
+		}
+		JSONObject o = new JSONObject();
+		o.put("type", QUESTIONNAIRE);
+		o.put("id", id);
+		o.put("name", name);
+
+		String key = key(name, QUESTIONNAIRE, String.valueOf(id));
+		index.put(key, o);
+		keysByEntity.put(QUESTIONNAIRE + id, Collections.singletonList(key));
+	}
+
+	/**
+	 * Adds or replaces a survey name and the label of the resource addressed by the survey in the index.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void putSurvey(int id, String name, String resource, String resourceLabel) {
+		removeSurvey(id);
+		List<String> keys = new ArrayList<>();
+
+		if (name != null) {
+			JSONObject o = new JSONObject();
+			o.put("type", SURVEY);
+			o.put("id", id);
+			o.put("name", name);
+
+			String key = key(name, SURVEY, String.valueOf(id));
+			index.put(key, o);
+			keys.add(key);
+		}
+
+		if (resource != null && resourceLabel != null && !resourceLabel.isEmpty()) {
+			String key = key(resourceLabel, RESOURCE, resource);
+			Integer references = resourceReferences.get(key);
+			if (references == null) {
+				JSONObject o = new JSONObject();
+				o.put("type", RESOURCE);
+				o.put("name", resourceLabel);
+				o.put("resource", resource);
+				index.put(key, o);
+				references = 0;
+			}
+			resourceReferences.put(key, references + 1);
+			keys.add(key);
+		}
+
+		keysByEntity.put(SURVEY + id, keys);
+	}
+
+	/**
+	 * Removes a questionnaire from the index.
+	 */
+	public synchronized void removeQuestionnaire(int id) {
+		remove(QUESTIONNAIRE + id);
+	}
+
+	/**
+	 * Removes a survey and, if no other survey addresses the same resource with the same label, its resource label
+	 * from the index.
+	 */
+	public synchronized void removeSurvey(int id) {
+		remove(SURVEY + id);
+	}
+
+	/**
+	 * Retrieves the first suggestions in name order, whose names start with a given prefix (case-insensitive).
+	 *
+	 * @param prefix name prefix; empty prefix matches all names
+	 * @param type one of {@link #QUESTIONNAIRE}, {@link #SURVEY} or {@link #RESOURCE} to restrict suggestions to a
+	 *            single type or null for all types
+	 * @param limit maximum number of suggestions
+	 * @return copies of matching suggestions, each containing fields type, name and either id or resource
+	 */
+	@SuppressWarnings("unchecked")
+	public List<JSONObject> suggest(String prefix, String type, int limit) {
+		String from = prefix.toLowerCase(Locale.ROOT);
+		List<JSONObject> result = new ArrayList<>();
+		for (JSONObject o : index.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+			if (result.size() >= limit) {
+				break;
+			}
+			if (type == null || type.equals(o.get("type"))) {
+				JSONObject c = new JSONObject();
+				c.putAll(o);
+				result.add(c);
+			}
+		}
+		return result;
+	}
+
+	private void remove(String entity) {
+		List<String> keys = keysByEntity.remove(entity);
+		if (keys == null) {
+			return;
+		}
+		for (String key : keys) {
+			Integer references = resourceReferences.get(key);
+			if (references == null) {
+				index.remove(key);
+			} else if (references > 1) {
+				resourceReferences.put(key, references - 1);
+			} else {
+				resourceReferences.remove(key);
+				index.remove(key);
+			}
+		}
+	}
+
+	private static String key(String name, String type, String id) {
+		return name.toLowerCase(Locale.ROOT) + SEPARATOR + type + SEPARATOR + id;
+	}
+}
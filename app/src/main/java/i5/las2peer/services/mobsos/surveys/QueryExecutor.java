@@ -0,0 +1,361 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.json.simple.JSONObject;
+
+/**
+ * Central executor for all database statements of the service.
+ *
+ * Each call borrows a connection from the pool, prepares and executes a single statement (or batch), and returns the
+ * connection immediately, such that connections are never held across non-database work. Callers bind parameters
+ * and map results by passing lambdas. Every execution is recorded in {@link QueryStats} with its latency and number
+ * of rows read or affected. Executions exceeding a configurable threshold are flagged as slow and logged. Borrowing
+ * connections is timed separately, such that pool exhaustion shows up as borrow wait time and waiting threads.
+ *
+ * Optionally, an executor is configured with a read replica. Statements of read-only paths tolerating replication lag
+ * are then executed through {@link #readOnly()} on the replica, while all other statements stay on the primary. If no
+ * connection to the replica can be borrowed, the read-only executor falls back to the primary for
+ * {@link #REPLICA_RETRY_MILLIS} before trying the replica again.
+ */
+public class QueryExecutor {
+
+	/**
+	 * Binds parameters to a prepared statement.
+	 */
+	@FunctionalInterface
+	public interface Binder {
+		void bind(PreparedStatement s) throws SQLException;
+	}
+
+	/**
+	 * Maps the current row of a result set to an object.
+	 */
+	@FunctionalInterface
+	public interface RowMapper<T> {
+		T map(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Processes a complete result set, e.g. to stream it into a different representation.
+	 */
+	@FunctionalInterface
+	public interface ResultSetHandler<T> {
+		T handle(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Binder for statements without parameters.
+	 */
+	public final static Binder NO_PARAMETERS = s -> {
+	};
+
+	/**
+	 * Time in milliseconds, for which read-only statements are executed on the primary after the replica failed.
+	 */
+	public final static long REPLICA_RETRY_MILLIS = 10000;
+
+	private final DataSource dataSource;
+	private final long slowQueryNanos;
+	private final QueryStats stats;
+	private final QueryStats.Histogram borrowStats = new QueryStats.Histogram();
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	// executor for read-only statements; this executor itself, if no replica is configured
+	private final QueryExecutor readOnly;
+
+	// for replica executors only: primary executor to fall back to and fallback state
+	private final QueryExecutor fallback;
+	private final LongAdder fallbacks = new LongAdder();
+	private volatile long replicaRetryTime;
+
+	/**
+	 * @param dataSource data source to borrow connections from
+	 * @param slowQueryMillis executions taking at least this many milliseconds are flagged as slow
+	 */
+	public QueryExecutor(DataSource dataSource, long slowQueryMillis) {
+		this(dataSource, null, slowQueryMillis);
+	}
+
+	/**
+	 * @param dataSource data source of primary database to borrow connections from
+	 * @param replica data source of read replica or null, if all statements are executed on the primary
+	 * @param slowQueryMillis executions taking at least this many milliseconds are flagged as slow
+	 */
+	public QueryExecutor(DataSource dataSource, DataSource replica, long slowQueryMillis) {
+		this.dataSource = dataSource;
+		this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+		this.stats = new QueryStats();
+		this.fallback = null;
+		this.readOnly = replica == null ? this : new QueryExecutor(replica, this);
+	}
+
+	private QueryExecutor(DataSource replica, QueryExecutor primary) {
+		this.dataSource = replica;
+		this.slowQueryNanos = primary.slowQueryNanos;
+		this.stats = primary.stats;
+		this.fallback = primary;
+		this.readOnly = this;
+	}
+
+	/**
+	 * @return executor for read-only statements, which tolerate replication lag; statistics are shared with this
+	 *         executor
+	 */
+	public QueryExecutor readOnly() {
+		return readOnly;
+	}
+
+	public DataSource getDataSource() {
+		return dataSource;
+	}
+
+	public QueryStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Executes a query and maps each row of the result.
+	 *
+	 * @return list of mapped rows
+	 * @throws SQLException
+	 */
+	public <T> List<T> query(String sql, Binder binder, RowMapper<T> mapper) throws SQLException {
+		long start = System.nanoTime();
+		List<T> result = new ArrayList<>();
+		try (Connection c = borrow(); PreparedStatement s = c.prepareStatement(sql)) {
+			binder.bind(s);
+			try (ResultSet rs = s.executeQuery()) {
+				while (rs.next()) {
+					result.add(mapper.map(rs));
+				}
+			}
+			return result;
+		} finally {
+			record(sql, start, result.size());
+		}
+	}
+
+	/**
+	 * Executes a query and maps the first row of the result.
+	 *
+	 * @return mapped first row or null, if the result is empty
+	 * @throws SQLException
+	 */
+	public <T> T queryFirst(String sql, Binder binder, RowMapper<T> mapper) throws SQLException {
+		long start = System.nanoTime();
+		int rows = 0;
+		try (Connection c = borrow(); PreparedStatement s = c.prepareStatement(sql)) {
+			binder.bind(s);
+			s.setMaxRows(1);
+			try (ResultSet rs = s.executeQuery()) {
+				if (!rs.next()) {
+					return null;
+				}
+				rows = 1;
+				return mapper.map(rs);
+			}
+		} finally {
+			record(sql, start, rows);
+		}
+	}
+
+	/**
+	 * Executes a query and passes the complete result set to a handler. The result set is only valid during the
+	 * handler call. Rows read by the handler are counted by wrapping the result set.
+	 *
+	 * @return result of handler
+	 * @throws SQLException
+	 */
+	public <T> T handle(String sql, Binder binder, ResultSetHandler<T> handler) throws SQLException {
+		long start = System.nanoTime();
+		long[] rows = new long[1];
+		try (Connection c = borrow(); PreparedStatement s = c.prepareStatement(sql)) {
+			binder.bind(s);
+			try (ResultSet rs = s.executeQuery()) {
+				return handler.handle(countingRows(rs, rows));
+			}
+		} finally {
+			record(sql, start, rows[0]);
+		}
+	}
+
+	/**
+	 * Executes an insert, update or delete statement.
+	 *
+	 * @return number of affected rows
+	 * @throws SQLException
+	 */
+	public int update(String sql, Binder binder) throws SQLException {
+		long start = System.nanoTime();
+		int rows = 0;
+		try (Connection c = borrow(); PreparedStatement s = c.prepareStatement(sql)) {
+			binder.bind(s);
+			rows = s.executeUpdate();
+			return rows;
+		} finally {
+			record(sql, start, rows);
+		}
+	}
+
+	/**
+	 * Executes an insert statement into a table with auto-generated integer key.
+	 *
+	 * @return generated key of the inserted row
+	 * @throws SQLException
+	 */
+	public int insert(String sql, Binder binder) throws SQLException {
+		long start = System.nanoTime();
+		int rows = 0;
+		try (Connection c = borrow();
+				PreparedStatement s = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			binder.bind(s);
+			rows = s.executeUpdate();
+			try (ResultSet rs = s.getGeneratedKeys()) {
+				if (!rs.next()) {
+					throw new SQLException("No key generated for inserted row!");
+				}
+				return rs.getInt(1);
+			}
+		} finally {
+			record(sql, start, rows);
+		}
+	}
+
+	/**
+	 * Executes a statement once per binder as a single batch.
+	 *
+	 * @return number of affected rows per binder
+	 * @throws SQLException
+	 */
+	public int[] batch(String sql, List<Binder> binders) throws SQLException {
+		long start = System.nanoTime();
+		long rows = 0;
+		try (Connection c = borrow(); PreparedStatement s = c.prepareStatement(sql)) {
+			for (Binder binder : binders) {
+				binder.bind(s);
+				s.addBatch();
+			}
+			int[] result = s.executeBatch();
+			for (int r : result) {
+				rows += Math.max(r, 0);
+			}
+			return result;
+		} finally {
+			record(sql, start, rows);
+		}
+	}
+
+	/**
+	 * Executes a statement without parameters and result, e.g. data definition statements.
+	 *
+	 * @throws SQLException
+	 */
+	public void execute(String sql) throws SQLException {
+		long start = System.nanoTime();
+		try (Connection c = borrow(); Statement s = c.createStatement()) {
+			s.execute(sql);
+		} finally {
+			record(sql, start, 0);
+		}
+	}
+
+	/**
+	 * @return JSON representation of connection pool state, limits and borrow wait times; failed borrows (e.g. due to
+	 *         exceeded maximum wait time) are counted as failures. For replica executors, the number of fallbacks to
+	 *         the primary is included.
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getPoolStats() {
+		JSONObject o = new JSONObject();
+		if (dataSource instanceof BasicDataSource) {
+			BasicDataSource bds = (BasicDataSource) dataSource;
+			o.put("active", bds.getNumActive());
+			o.put("idle", bds.getNumIdle());
+			o.put("maxTotal", bds.getMaxTotal());
+			o.put("maxIdle", bds.getMaxIdle());
+			o.put("minIdle", bds.getMinIdle());
+			o.put("maxWaitMillis", bds.getMaxWaitMillis());
+		}
+		o.put("waiters", waiters.get());
+		o.put("borrow", borrowStats.toJSON("failures"));
+		if (fallback != null) {
+			o.put("fallbacks", fallbacks.sum());
+		}
+		return o;
+	}
+
+	private Connection borrow() throws SQLException {
+		if (fallback == null) {
+			return borrowOwn();
+		}
+		if (System.currentTimeMillis() < replicaRetryTime) {
+			fallbacks.increment();
+			return fallback.borrow();
+		}
+		try {
+			return borrowOwn();
+		} catch (SQLException e) {
+			System.err.println("Read replica unavailable, falling back to primary: " + e.getMessage());
+			replicaRetryTime = System.currentTimeMillis() + REPLICA_RETRY_MILLIS;
+			fallbacks.increment();
+			return fallback.borrow();
+		}
+	}
+
+	private Connection borrowOwn() throws SQLException {
+		long start = System.nanoTime();
+		boolean failed = true;
+		waiters.incrementAndGet();
+		try {
+			Connection c = dataSource.getConnection();
+			failed = false;
+			return c;
+		} finally {
+			waiters.decrementAndGet();
+			borrowStats.record(System.nanoTime() - start, failed ? 1 : 0, false);
+		}
+	}
+
+	private void record(String sql, long start, long rows) {
+		long nanos = System.nanoTime() - start;
+		boolean slow = nanos >= slowQueryNanos;
+		if (slow) {
+			System.err.println("Slow query (" + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms, " + rows + " rows): "
+					+ sql);
+		}
+		stats.record(sql, nanos, rows, slow);
+	}
+
+	/**
+	 * Wraps a result set to count rows read by handlers.
+	 */
+	private static ResultSet countingRows(ResultSet rs, long[] rows) {
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+				(proxy, method, args) -> {
+					try {
+						Object result = method.invoke(rs, args);
+						if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+							rows[0]++;
+						}
+						return result;
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+}
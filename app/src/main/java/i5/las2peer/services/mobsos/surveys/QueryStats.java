@@ -0,0 +1,204 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Latency statistics for database statements and for database time spent per service endpoint.
+ *
+ * Statements are keyed by their SQL text. Varying parts of SQL texts, i.e. placeholder lists of 'in' clauses and
+ * numeric suffixes of identifiers like response view names, are normalized, such that the number of keys stays
+ * bounded. Endpoint statistics are collected per request by {@link #beginRequest()} and {@link #endRequest(String)}
+ * on the request thread. Requests handled asynchronously carry their statistics to the executing thread with
+ * {@link #propagate(Runnable)}.
+ */
+public class QueryStats {
+
+	/**
+	 * Upper bounds of latency histogram buckets in milliseconds. A last bucket collects all larger latencies.
+	 */
+	public final static long[] BUCKETS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+
+	private final static Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+	private final static Pattern NUMBERED_IDENTIFIER = Pattern.compile("_\\d+\\b");
+
+	/**
+	 * Latency histogram with fixed buckets. Besides latencies, a histogram counts units of work (rows for statements,
+	 * statements for endpoints) and slow executions.
+	 */
+	public static class Histogram {
+		private final LongAdder[] buckets = new LongAdder[BUCKETS.length + 1];
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+		private final LongAdder units = new LongAdder();
+		private final LongAdder slow = new LongAdder();
+
+		public Histogram() {
+			for (int i = 0; i < buckets.length; i++) {
+				buckets[i] = new LongAdder();
+			}
+		}
+
+		public void record(long nanos, long units, boolean slow) {
+			long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+			int i = 0;
+			while (i < BUCKETS.length && millis >= BUCKETS[i]) {
+				i++;
+			}
+			buckets[i].increment();
+			count.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulate(nanos);
+			this.units.add(units);
+			if (slow) {
+				this.slow.increment();
+			}
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		/**
+		 * @param unitsName name of counted units in JSON representation
+		 */
+		@SuppressWarnings("unchecked")
+		public JSONObject toJSON(String unitsName) {
+			JSONObject o = new JSONObject();
+			long n = count.sum();
+			o.put("count", n);
+			o.put("totalMillis", totalNanos.sum() / 1000000.0);
+			o.put("meanMillis", n == 0 ? 0.0 : totalNanos.sum() / 1000000.0 / n);
+			o.put("maxMillis", maxNanos.get() / 1000000.0);
+			o.put(unitsName, units.sum());
+			o.put("slow", slow.sum());
+
+			// histogram as list of buckets with upper bound in milliseconds (null for last bucket) and count
+			JSONArray h = new JSONArray();
+			for (int i = 0; i < buckets.length; i++) {
+				JSONObject b = new JSONObject();
+				b.put("le", i < BUCKETS.length ? BUCKETS[i] : null);
+				b.put("count", buckets[i].sum());
+				h.add(b);
+			}
+			o.put("histogram", h);
+			return o;
+		}
+	}
+
+	/**
+	 * Database time and number of statements accumulated for the current request.
+	 */
+	private static class RequestTiming {
+		long nanos;
+		long statements;
+	}
+
+	private final static ThreadLocal<RequestTiming> currentRequest = new ThreadLocal<>();
+
+	private final Map<String, Histogram> statements = new ConcurrentHashMap<>();
+	private final Map<String, Histogram> endpoints = new ConcurrentHashMap<>();
+
+	/**
+	 * Records the execution of a statement. If a request is being tracked on the current thread, the execution time is
+	 * added to the request's database time.
+	 *
+	 * @param sql SQL text of statement
+	 * @param nanos execution time in nanoseconds
+	 * @param rows number of rows read or affected
+	 * @param slow true, if the execution was flagged as slow
+	 */
+	public void record(String sql, long nanos, long rows, boolean slow) {
+		statements.computeIfAbsent(normalize(sql), k -> new Histogram()).record(nanos, rows, slow);
+
+		RequestTiming t = currentRequest.get();
+		if (t != null) {
+			t.nanos += nanos;
+			t.statements++;
+		}
+	}
+
+	/**
+	 * Starts tracking database time of a request on the current thread.
+	 */
+	public static void beginRequest() {
+		currentRequest.set(new RequestTiming());
+	}
+
+	/**
+	 * Stops tracking database time of a request on the current thread without recording it.
+	 */
+	public static void clearRequest() {
+		currentRequest.remove();
+	}
+
+	/**
+	 * Wraps a task, such that database time spent by the task on another thread is added to the request tracked on the
+	 * current thread.
+	 *
+	 * @param task task handling (part of) the request
+	 * @return wrapped task
+	 */
+	public static Runnable propagate(Runnable task) {
+		RequestTiming t = currentRequest.get();
+		return () -> {
+			RequestTiming previous = currentRequest.get();
+			currentRequest.set(t);
+			try {
+				task.run();
+			} finally {
+				if (previous == null) {
+					currentRequest.remove();
+				} else {
+					currentRequest.set(previous);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Stops tracking database time of a request on the current thread and records it for the given endpoint.
+	 *
+	 * @param endpoint name of endpoint handling the request or null to discard the request's database time
+	 */
+	public void endRequest(String endpoint) {
+		RequestTiming t = currentRequest.get();
+		currentRequest.remove();
+		if (t != null && endpoint != null) {
+			endpoints.computeIfAbsent(endpoint, k -> new Histogram()).record(t.nanos, t.statements, false);
+		}
+	}
+
+	/**
+	 * @return JSON representation of statistics per statement and per endpoint
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject toJSON() {
+		JSONObject s = new JSONObject();
+		for (Map.Entry<String, Histogram> e : new TreeMap<>(statements).entrySet()) {
+			s.put(e.getKey(), e.getValue().toJSON("rows"));
+		}
+		JSONObject ep = new JSONObject();
+		for (Map.Entry<String, Histogram> e : new TreeMap<>(endpoints).entrySet()) {
+			ep.put(e.getKey(), e.getValue().toJSON("statements"));
+		}
+		JSONObject o = new JSONObject();
+		o.put("statements", s);
+		o.put("endpoints", ep);
+		return o;
+	}
+
+	static String normalize(String sql) {
+		String s = PLACEHOLDER_LIST.matcher(sql).replaceAll("?, ...");
+		return NUMBERED_IDENTIFIER.matcher(s).replaceAll("_#");
+	}
+}
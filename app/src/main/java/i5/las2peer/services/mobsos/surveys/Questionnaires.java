@@ -0,0 +1,280 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import static i5.las2peer.services.mobsos.surveys.SurveyService.MOBSOS_QUESTIONNAIRE_NS;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.validation.Validator;
+
+import org.json.simple.JSONObject;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Processing of questionnaire forms, responses and results, which does not depend on the state of the service.
+ */
+public class Questionnaires {
+
+	/**
+	 * Validates questionnaire forms and answers against the MobSOS Questionnaire XML Schema. Returns a valid
+	 * document object in case input data is both well-formed and valid. Throws an exception in all other cases.
+	 * 
+	 * @param parser parser for the MobSOS Questionnaire XML Schema
+	 * @param validator validator of the MobSOS Questionnaire XML Schema
+	 * @param data
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	public static Document validateQuestionnaireData(DocumentBuilder parser, Validator validator, String data)
+			throws SAXException, IOException {
+		// parse and validate.
+		ByteArrayInputStream stringIS = new ByteArrayInputStream(data.getBytes());
+		Document doc = parser.parse(stringIS);
+		validator.validate(new DOMSource(doc));
+		return doc;
+	}
+
+	/**
+	 * Replaces all author tags used throughout a questionnaire form in a single pass; each tag is resolved at most
+	 * once.
+	 * 
+	 * @param originalFormXml questionnaire form
+	 * @param resolvers resolvers by author tag
+	 * @param keepUserTags true, if tags referring to the requesting user are kept without warning
+	 * @return adapted form
+	 */
+	public static String adaptForm(String originalFormXml, Map<String, Supplier<String>> resolvers,
+			boolean keepUserTags) {
+		Map<String, String> values = new HashMap<>();
+		return HtmlTemplate.fill(originalFormXml, tag -> {
+			if (values.containsKey(tag)) {
+				return values.get(tag);
+			}
+			Supplier<String> resolver = resolvers.get(tag);
+			String value = resolver != null ? resolver.get() : null;
+			if (value == null && !(keepUserTags && tag.startsWith("USER."))) {
+				System.err.println("Warning: could not resolve questionnaire author tag '" + tag + "'");
+			}
+			values.put(tag, value);
+			return value;
+		});
+	}
+
+	/**
+	 * TODO: write documentation
+	 * 
+	 * @param form
+	 * @param response
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static JSONObject validateResponse(Document form, JSONObject response) {
+		JSONObject result = new JSONObject();
+
+		JSONObject questions = extractQuestionInformation(form);
+
+		// then iterate over all question items in the submitted answer and check, if
+		// they fulfill all constraints.
+
+		Iterator<String> ait = response.keySet().iterator();
+		while (ait.hasNext()) {
+
+			String qid = ait.next();
+			String qval = (String) response.get(qid);
+
+			// System.out.println("Submitted Question ID: "+q.getAttribute("qid"));
+
+			// if question provided in answer is not contained in questionnaire, the answer does not match the
+			// questionnaire.
+			if (!questions.keySet().contains(qid)) {
+				throw new IllegalArgumentException("Questionnaire answer does not match form! Question ID " + qid
+						+ " is not defined in questionnaire.");
+			}
+
+			// if question provided in answer is contained in questionnaire, check further properties...
+			JSONObject question = (JSONObject) questions.get(qid);
+
+			// for each type check further constraints
+			String type = (String) question.get("type");
+			if (type.equals("qu:DichotomousQuestionPageType")) {
+
+				// for dichotomous questions the only two possible answers are 0 and 1.
+				if (!qval.equals("0") && !qval.equals("1")) {
+					throw new IllegalArgumentException(
+							"Questionnaire answer does not match questionnaire! The value submitted for question "
+									+ qid + " is expected to be either 0 or 1, but was " + qval + "!");
+				} else {
+					// everything is ok with this question answer.
+					// remove entry from hashtable, write entry to result object
+					questions.remove(qid);
+					result.put(qid, qval);
+				}
+			} else if (type.equals("qu:OrdinalScaleQuestionPageType")) {
+				// for ordinal scale questions the answer must be parseable as an integer,
+				// which is
+				try {
+					int qvali = Integer.parseInt(qval);
+
+					if (qvali > (int) question.get("maxval") || qvali < (int) question.get("minval")) {
+						throw new IllegalArgumentException(
+								"Questionnaire answer does not match questionnaire! The value submitted for question "
+										+ qid + " is expected to be between " + question.get("minval") + " and "
+										+ question.get("maxval") + ", but was " + qvali + "!");
+					} else {
+						// everything is ok with this question answer.
+						// remove entry from hashtable
+						questions.remove(qid);
+						result.put(qid, qval);
+					}
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException(
+							"Questionnaire answer does not match questionnaire! The value submitted for question "
+									+ qid + " is expected to be parseable as an integer!");
+				}
+
+			} else if (type.equals("qu:FreeTextQuestionPageType")) {
+				// nothing to check for freetext question pages. Any text can be entered.
+				questions.remove(qid);
+				result.put(qid, qval);
+			}
+
+		}
+
+		Iterator<String> remainingqids = questions.keySet().iterator();
+		while (remainingqids.hasNext()) {
+			String qid = remainingqids.next();
+			int requireds = (int) ((JSONObject) questions.get(qid)).get("required");
+			if (requireds == 1) {
+				throw new IllegalArgumentException(
+						"Questionnaire answer does not match questionnaire! The mandatory question " + qid
+								+ " was not answered!");
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Extracts all question information from a questionnaire form given as XML document. Information is returned as
+	 * a JSONObject of the following form:
+	 * 
+	 * {<QuestionID1>:<QuestionInfo1>,...}, where <QuestionInfoN> is again a JSONObject with the following fields: *
+	 * name: name of the question (all) * required: is an answer required or optional? (all) * type: question type
+	 * (one of qu:OrdinalScaleQuestionPageType, qu:DichotomousQuestionPageType, qu:FreeTextQuestionPageType) *
+	 * defval: default value (only for ordinal scale and dichotomous) * min/maxvalue: minimum/maximum value (only
+	 * for ordinal scale) * min/maxlabel: label for minimum/maximum value (only for dichotomous and ordinal scale)
+	 * 
+	 * @param questionnaireDocument
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static JSONObject extractQuestionInformation(Document questionnaireDocument) {
+
+		JSONObject questions = new JSONObject();
+
+		NodeList nodeList = questionnaireDocument.getElementsByTagNameNS(MOBSOS_QUESTIONNAIRE_NS, "Page");
+		for (int i = 0; i < nodeList.getLength(); i++) {
+			Node node = nodeList.item(i);
+			if (node.getNodeType() == Node.ELEMENT_NODE) {
+				Element e = (Element) node;
+				if (e.getAttribute("xsi:type").endsWith("QuestionPageType")) {
+					JSONObject question = new JSONObject();
+					String qtype = e.getAttribute("xsi:type");
+
+					String required = e.getAttribute("required");
+					if (required == null || required.equals("false")) {
+						question.put("required", 0);
+					} else if (required != null && required.equals("true")) {
+						question.put("required", 1);
+					}
+					question.put("name", e.getAttribute("name"));
+					question.put("type", e.getAttribute("xsi:type"));
+
+					if ("qu:OrdinalScaleQuestionPageType".equals(qtype)
+							|| "qu:DichotomousQuestionPageType".equals(qtype)) {
+						// question.put("defval",Integer.parseInt(e.getAttribute("defval")));
+						question.put("minlabel", e.getAttribute("minlabel"));
+						question.put("maxlabel", e.getAttribute("maxlabel"));
+
+						if ("qu:OrdinalScaleQuestionPageType".equals(qtype)) {
+							question.put("minval", Integer.parseInt(e.getAttribute("minval")));
+							question.put("maxval", Integer.parseInt(e.getAttribute("maxval")));
+						}
+					}
+					Node instructionNode = e.getElementsByTagName("qu:Instructions").item(0);
+					question.put("instructions",instructionNode.getTextContent());
+					question.put("order",i);
+					questions.put(e.getAttribute("qid"), question);
+				}
+			}
+		}
+		return questions;
+	}
+
+	/**
+	 * TODO: documentation
+	 * 
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	public static String createCSVQuestionnaireResult(ResultSet rs, String sep) throws SQLException {
+		int cols = rs.getMetaData().getColumnCount();
+
+		String res = "";
+		String headline = "";
+
+		// first create header row
+		for (int i = 1; i <= cols; i++) {
+			headline += rs.getMetaData().getColumnName(i);
+			rs.getMetaData().getColumnTypeName(i);
+			if (i < cols) {
+				headline += sep;
+			}
+		}
+		res += headline + "\r\n";
+
+		// now compile answer data; stick to RFC 4180
+		String data = "";
+		while (rs.next()) {
+			for (int i = 1; i <= cols; i++) {
+				Object o = rs.getObject(i);
+				if (o != null) {
+
+					// Fields containing line breaks (CRLF), double quotes, and commas should be enclosed in
+					// double-quotes.
+					if (o.toString().contains(",") || o.toString().contains("\"") || o.toString().contains("\n")) {
+
+						String fval = o.toString();
+
+						// If double-quotes are used to enclose fields, then a double-quote appearing inside a field
+						// must be escaped by preceding it with another double quote.
+						fval = fval.replaceAll("\"", "\"\\\"");
+
+						data += "\"" + fval + "\"";
+					} else {
+						data += o.toString();
+					}
+				}
+				if (i < cols) {
+					data += sep;
+				}
+			}
+			data += "\r\n";
+		}
+		res += data.trim();
+
+		return res;
+	}
+}
@@ -0,0 +1,123 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Cache of rendered survey questionnaire forms.
+ *
+ * Rendering a survey's questionnaire form to HTML is the same for all respondents except for the few author tags
+ * referring to the requesting user. Forms are therefore rendered once per survey and locale with user tags left as
+ * placeholders, compiled into a template and cached. Requests only fill in the user tags. Other representations of
+ * forms, e.g. JSON form models, are cached alike.
+ *
+ * Forms are dropped explicitly whenever the service changes surveys or questionnaires. Changes made from outside the
+ * service are detected by the survey and a version of the questionnaire form a form was rendered from: a cached form
+ * is only used if the survey and form version of the current request are equal to those it was rendered from. Form
+ * versions are digests computed by the database, such that cache hits do not need to load the questionnaire form
+ * itself.
+ *
+ * @param <T> type of rendered forms, e.g. compiled HTML templates
+ */
+public class RenderedFormCache<T> {
+
+	private static class Entry<T> {
+		final int qid;
+		final String version;
+		final Map<?, ?> survey;
+		final T rendered;
+
+		Entry(int qid, String version, Map<?, ?> survey, T rendered) {
+			this.qid = qid;
+			this.version = version;
+			this.survey = survey;
+			this.rendered = rendered;
+		}
+	}
+
+	// rendered forms by survey and locale
+	private final Map<Integer, Map<Locale, Entry<T>>> forms = new ConcurrentHashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Retrieves a rendered form.
+	 *
+	 * @param sid survey id
+	 * @param locale locale of rendered form
+	 * @param survey survey as currently stored
+	 * @param version version of questionnaire form as currently stored, e.g. {@link RequestContext#getFormVersion(int)}
+	 * @return rendered form with user tags as placeholders or null, if no form was rendered from the given survey and
+	 *         version of questionnaire form
+	 */
+	public T get(int sid, Locale locale, JSONObject survey, String version) {
+		Map<Locale, Entry<T>> m = forms.get(sid);
+		Entry<T> e = m != null ? m.get(locale) : null;
+		if (e == null || !e.version.equals(version) || !e.survey.equals(survey)) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return e.rendered;
+	}
+
+	/**
+	 * Caches a rendered form.
+	 *
+	 * @param sid survey id
+	 * @param locale locale of rendered form
+	 * @param survey survey the form was rendered for
+	 * @param version version of questionnaire form the form was rendered from
+	 * @param rendered rendered form with user tags as placeholders
+	 */
+	@SuppressWarnings("unchecked")
+	public void put(int sid, Locale locale, JSONObject survey, String version, T rendered) {
+		forms.computeIfAbsent(sid, k -> new ConcurrentHashMap<>()).put(locale,
+				new Entry<>((Integer) survey.get("qid"), version, new HashMap<>(survey), rendered));
+	}
+
+	/**
+	 * Drops the rendered forms of a survey after the survey was changed or deleted.
+	 */
+	public void drop(int sid) {
+		forms.remove(sid);
+	}
+
+	/**
+	 * Drops the rendered forms of all surveys using a questionnaire after the questionnaire was changed or deleted.
+	 */
+	public void dropForQuestionnaire(int qid) {
+		for (Map<Locale, Entry<T>> m : forms.values()) {
+			m.values().removeIf(e -> e.qid == qid);
+		}
+	}
+
+	/**
+	 * Drops all rendered forms.
+	 */
+	public void dropAll() {
+		forms.clear();
+	}
+
+	/**
+	 * @return JSON representation of number of cached forms and of cache hits and misses
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStats() {
+		int cached = 0;
+		for (Map<Locale, Entry<T>> m : forms.values()) {
+			cached += m.size();
+		}
+		JSONObject o = new JSONObject();
+		o.put("cached", cached);
+		o.put("hits", hits.sum());
+		o.put("misses", misses.sum());
+		return o;
+	}
+}
@@ -0,0 +1,133 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Request-scoped identity map of surveys and questionnaire forms.
+ *
+ * Handlers working with a survey's questionnaire form need the survey, its owner, its questionnaire id and the form,
+ * often several times within a single request. The first lookup of a survey loads all of them with a single joined
+ * query. Subsequent lookups of the survey or its form during the same request are served from memory. Misses are
+ * memoized as well. Handlers serving cached renderings of a form only need a version of the form, i.e. a digest
+ * computed by the database, which is loaded without the form itself.
+ *
+ * Instances are not thread-safe and must not outlive the request they were created for.
+ */
+public class RequestContext {
+
+	private final QueryExecutor executor;
+	private final StorageBackend storage;
+	private final String schema;
+
+	private final Map<Integer, JSONObject> surveys = new HashMap<>();
+	private final Map<Integer, String> forms = new HashMap<>();
+	private final Map<Integer, String> formVersions = new HashMap<>();
+
+	/**
+	 * @param executor executor for loading surveys and forms; form versions not loaded with their survey are read via
+	 *            {@link QueryExecutor#readOnly()}
+	 * @param storage storage backend computing form versions
+	 * @param schema name of the service's schema
+	 */
+	public RequestContext(QueryExecutor executor, StorageBackend storage, String schema) {
+		this.executor = executor;
+		this.storage = storage;
+		this.schema = schema;
+	}
+
+	/**
+	 * Retrieves a survey. On first access, the survey is loaded together with the form of its questionnaire.
+	 *
+	 * @return JSON representation of survey with all fields or null, if the survey does not exist
+	 * @throws SQLException
+	 */
+	public JSONObject getSurvey(int sid) throws SQLException {
+		if (surveys.containsKey(sid)) {
+			return surveys.get(sid);
+		}
+
+		List<String> columns = new ArrayList<>();
+		for (String column : Catalog.SURVEY_FIELDS.values()) {
+			columns.add("s." + column);
+		}
+		JSONObject survey = executor.queryFirst("select " + String.join(", ", columns)
+				+ ", q.id as form_qid, q.form, " + storage.hash("q.form") + " as form_hash from " + schema
+				+ ".survey s left join " + schema + ".questionnaire q on (q.id = s.qid) where s.id = ?",
+				s -> s.setInt(1, sid), rs -> {
+					int qid = rs.getInt("form_qid");
+					if (!rs.wasNull()) {
+						forms.put(qid, rs.getString("form"));
+						formVersions.put(qid, version(qid, rs.getString("form_hash")));
+					}
+					return Catalog.readSurvey(rs, Catalog.SURVEY_FIELDS.keySet());
+				});
+
+		surveys.put(sid, survey);
+		return survey;
+	}
+
+	/**
+	 * @return true, if the survey was already looked up during this request, such that {@link #getSurvey(int)} does
+	 *         not query the database
+	 */
+	public boolean containsSurvey(int sid) {
+		return surveys.containsKey(sid);
+	}
+
+	/**
+	 * Retrieves the form of a questionnaire. The form is read together with its version from the primary database,
+	 * such that a form rendered and cached under that version is never outdated by replication lag.
+	 *
+	 * @return questionnaire form or null, if the questionnaire does not exist or does not define a form
+	 * @throws SQLException
+	 */
+	public String getForm(int qid) throws SQLException {
+		if (forms.containsKey(qid)) {
+			return forms.get(qid);
+		}
+
+		String form = executor.queryFirst(
+				"select form, " + storage.hash("form") + " from " + schema + ".questionnaire where id = ?",
+				s -> s.setInt(1, qid), rs -> {
+					formVersions.put(qid, version(qid, rs.getString(2)));
+					return rs.getString(1);
+				});
+
+		forms.put(qid, form);
+		if (form == null) {
+			formVersions.put(qid, null);
+		}
+		return form;
+	}
+
+	/**
+	 * Retrieves a version of the form of a questionnaire without loading the form. The version consists of the
+	 * questionnaire id and a digest of the form computed by the database. It is meant to detect forms changed from
+	 * outside the service, while changes made by the service itself invalidate cached renderings explicitly.
+	 *
+	 * @return version of questionnaire form or null, if the questionnaire does not exist or does not define a form
+	 * @throws SQLException
+	 */
+	public String getFormVersion(int qid) throws SQLException {
+		if (formVersions.containsKey(qid)) {
+			return formVersions.get(qid);
+		}
+
+		String version = executor.readOnly().queryFirst(
+				"select " + storage.hash("form") + " from " + schema + ".questionnaire where id = ?",
+				s -> s.setInt(1, qid), rs -> version(qid, rs.getString(1)));
+
+		formVersions.put(qid, version);
+		return version;
+	}
+
+	private static String version(int qid, String hash) {
+		return hash != null ? qid + ":" + hash : null;
+	}
+}
@@ -0,0 +1,214 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Compression of dynamic responses.
+ *
+ * Textual responses (HTML, JSON, CSV, ...) are compressed with gzip or deflate, if the client accepts one of them.
+ * Responses whose size is known in advance are only compressed above a threshold, since compressing small responses
+ * costs more than it saves. Responses of unknown size are compressed while they are written, such that streamed
+ * responses are never buffered completely. Responses that are already encoded or that contain byte ranges are left
+ * untouched. Strong entity tags of compressed responses are turned into weak ones, since the compressed
+ * representation is equivalent to, but not byte-identical with the uncompressed one.
+ */
+public class ResponseCompression {
+
+	private final int threshold;
+	private final int level;
+
+	private final LongAdder compressed = new LongAdder();
+	private final LongAdder uncompressedBytes = new LongAdder();
+	private final LongAdder compressedBytes = new LongAdder();
+
+	/**
+	 * @param threshold minimum size in bytes of responses to compress
+	 * @param level compression level from 1 (fastest) to 9 (best compression); 0 disables compression
+	 */
+	public ResponseCompression(int threshold, int level) {
+		if (level < 0 || level > 9) {
+			throw new IllegalArgumentException("Invalid compression level " + level + "! Should be between 0 and 9.");
+		}
+		this.threshold = threshold;
+		this.level = level;
+	}
+
+	/**
+	 * Writes a response entity, compressing it if possible.
+	 *
+	 * @param context context of entity to write
+	 * @param acceptEncoding value of Accept-Encoding header of request; may be null
+	 * @throws IOException
+	 */
+	public void writeTo(WriterInterceptorContext context, String acceptEncoding) throws IOException {
+		MultivaluedMap<String, Object> headers = context.getHeaders();
+		String encoding = level > 0 ? negotiate(acceptEncoding) : null;
+		if (encoding == null || headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+				|| headers.containsKey("Content-Range") || !isCompressible(context.getMediaType())
+				|| size(context.getEntity()) < threshold) {
+			context.proceed();
+			return;
+		}
+
+		headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+		headers.remove(HttpHeaders.CONTENT_LENGTH);
+		Object vary = headers.getFirst(HttpHeaders.VARY);
+		if (vary == null) {
+			headers.putSingle(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		} else if (!vary.toString().contains(HttpHeaders.ACCEPT_ENCODING)) {
+			headers.putSingle(HttpHeaders.VARY, vary + ", " + HttpHeaders.ACCEPT_ENCODING);
+		}
+		// compressed and uncompressed representations are only equivalent, not byte-identical
+		Object etag = headers.getFirst(HttpHeaders.ETAG);
+		if (etag instanceof EntityTag && !((EntityTag) etag).isWeak()) {
+			headers.putSingle(HttpHeaders.ETAG, new EntityTag(((EntityTag) etag).getValue(), true));
+		} else if (etag instanceof String && ((String) etag).startsWith("\"")) {
+			headers.putSingle(HttpHeaders.ETAG, "W/" + etag);
+		}
+
+		CountingOutputStream raw = new CountingOutputStream(context.getOutputStream());
+		Deflater deflater = new Deflater(level, "gzip".equals(encoding));
+		DeflaterOutputStream out = "gzip".equals(encoding) ? new GZIPOutputStream(raw) {
+			{
+				// replace default deflater by one with the configured level, which is released below
+				def.end();
+				def = deflater;
+			}
+		} : new DeflaterOutputStream(raw, deflater);
+		CountingOutputStream entity = new CountingOutputStream(out);
+		context.setOutputStream(entity);
+		try {
+			context.proceed();
+			out.finish();
+		} finally {
+			deflater.end();
+			compressed.increment();
+			uncompressedBytes.add(entity.count);
+			compressedBytes.add(raw.count);
+		}
+	}
+
+	/**
+	 * Negotiates the content encoding of a response.
+	 *
+	 * @param acceptEncoding value of Accept-Encoding header; may be null
+	 * @return gzip or deflate, whichever the client prefers, or null, if the client accepts neither
+	 */
+	public static String negotiate(String acceptEncoding) {
+		double gzip = quality(acceptEncoding, "gzip");
+		double deflate = quality(acceptEncoding, "deflate");
+		if (gzip <= 0 && deflate <= 0) {
+			return null;
+		}
+		return gzip >= deflate ? "gzip" : "deflate";
+	}
+
+	/**
+	 * @param acceptEncoding value of Accept-Encoding header; may be null
+	 * @param coding content coding, e.g. gzip
+	 * @return quality value of content coding; 0 if the coding is not acceptable
+	 */
+	public static double quality(String acceptEncoding, String coding) {
+		if (acceptEncoding == null) {
+			return 0;
+		}
+		double wildcard = 0;
+		for (String part : acceptEncoding.split(",")) {
+			String[] tokens = part.trim().split(";");
+			String c = tokens[0].trim().toLowerCase(Locale.ROOT);
+			double q = 1.0;
+			for (int i = 1; i < tokens.length; i++) {
+				String param = tokens[i].trim();
+				if (param.startsWith("q=")) {
+					try {
+						q = Double.parseDouble(param.substring(2).trim());
+					} catch (NumberFormatException e) {
+						q = 0;
+					}
+				}
+			}
+			if (c.equals(coding) || c.equals("x-" + coding)) {
+				// an explicit entry overrides the wildcard
+				return q;
+			} else if ("*".equals(c)) {
+				wildcard = q;
+			}
+		}
+		return wildcard;
+	}
+
+	/**
+	 * @return true, if responses of the given media type are textual and thus worth compressing
+	 */
+	public static boolean isCompressible(MediaType type) {
+		if (type == null) {
+			return false;
+		}
+		String subtype = type.getSubtype();
+		return "text".equals(type.getType()) || subtype.equals("json") || subtype.endsWith("+json")
+				|| subtype.equals("xml") || subtype.endsWith("+xml") || subtype.equals("javascript");
+	}
+
+	// size of entity in bytes, if known in advance; strings are estimated by their number of characters
+	private static long size(Object entity) {
+		if (entity instanceof String) {
+			return ((String) entity).length();
+		} else if (entity instanceof byte[]) {
+			return ((byte[]) entity).length;
+		}
+		return Long.MAX_VALUE;
+	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+		long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+
+	/**
+	 * @return JSON representation of number of compressed responses, of their size before and after compression and
+	 *         of bytes saved
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStats() {
+		long before = uncompressedBytes.sum();
+		long after = compressedBytes.sum();
+		JSONObject o = new JSONObject();
+		o.put("level", level);
+		o.put("threshold", threshold);
+		o.put("compressed", compressed.sum());
+		o.put("uncompressedBytes", before);
+		o.put("compressedBytes", after);
+		o.put("savedBytes", before - after);
+		return o;
+	}
+}
@@ -0,0 +1,201 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.json.simple.JSONObject;
+
+/**
+ * In-memory registry of per-survey response views.
+ *
+ * A response view pivots the responses to a survey into one row per user and one column per question of the survey's
+ * questionnaire. The registry knows which views exist and for which questionnaire they were created, such that
+ * exports neither query database metadata nor run DDL. Existing views are registered once at startup. Views are
+ * created, replaced and dropped asynchronously on a single background thread, which serializes all DDL on response
+ * views and thereby avoids races between concurrent exports and questionnaire changes.
+ */
+public class ResponseViewRegistry {
+
+	private final static String VIEW_PREFIX = "responses_survey_";
+
+	/**
+	 * Registered view of a survey. The view is usable once its future completed normally.
+	 */
+	private static class View {
+		final int qid;
+		final CompletableFuture<Void> ready;
+
+		View(int qid, CompletableFuture<Void> ready) {
+			this.qid = qid;
+			this.ready = ready;
+		}
+	}
+
+	private final QueryExecutor executor;
+	private final StorageBackend storage;
+	private final String schema;
+
+	private final Map<Integer, View> views = new ConcurrentHashMap<>();
+
+	private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "mobsos-surveys-response-views");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final LongAdder created = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	public ResponseViewRegistry(QueryExecutor executor, StorageBackend storage, String schema) {
+		this.executor = executor;
+		this.storage = storage;
+		this.schema = schema;
+	}
+
+	/**
+	 * @return name of the response view of a survey
+	 */
+	public static String viewName(int sid) {
+		return VIEW_PREFIX + sid;
+	}
+
+	/**
+	 * Registers all existing response views of existing surveys together with the surveys' current questionnaires.
+	 *
+	 * @throws SQLException
+	 */
+	public void load() throws SQLException {
+		Set<Integer> existing = new HashSet<>();
+		for (String view : storage.listViews(executor, schema)) {
+			if (view.toLowerCase().startsWith(VIEW_PREFIX)) {
+				try {
+					existing.add(Integer.parseInt(view.substring(VIEW_PREFIX.length())));
+				} catch (NumberFormatException e) {
+					// not a response view
+				}
+			}
+		}
+		executor.query("select id, qid from " + schema + ".survey", QueryExecutor.NO_PARAMETERS, rs -> {
+			int sid = rs.getInt(1);
+			int qid = rs.getInt(2);
+			if (!rs.wasNull() && existing.contains(sid)) {
+				views.put(sid, new View(qid, CompletableFuture.completedFuture(null)));
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Retrieves the registered response view of a survey.
+	 *
+	 * @param sid survey id
+	 * @param qid id of the survey's current questionnaire
+	 * @return future completing when the view is usable or null, if no view is registered for the given
+	 *         questionnaire or the last attempt to create the view failed
+	 */
+	public CompletableFuture<Void> get(int sid, int qid) {
+		View v = views.get(sid);
+		if (v == null || v.qid != qid || v.ready.isCompletedExceptionally()) {
+			return null;
+		}
+		return v.ready;
+	}
+
+	/**
+	 * Creates or replaces the response view of a survey in the background.
+	 *
+	 * @param sid survey id
+	 * @param qid id of the questionnaire the view is created for
+	 * @param select select statement defining the view
+	 * @return future completing when the view is usable
+	 */
+	public CompletableFuture<Void> replace(int sid, int qid, String select) {
+		CompletableFuture<Void> ready = new CompletableFuture<>();
+		views.put(sid, new View(qid, ready));
+		worker.execute(() -> {
+			try {
+				storage.createView(executor, schema, viewName(sid), select);
+				created.increment();
+				ready.complete(null);
+			} catch (Exception e) {
+				System.err.println("Could not create response view for survey " + sid + ": " + e.getMessage());
+				failures.increment();
+				ready.completeExceptionally(e);
+			}
+		});
+		return ready;
+	}
+
+	/**
+	 * Drops the response view of a survey in the background, e.g. after the survey was deleted.
+	 */
+	public void drop(int sid) {
+		if (views.remove(sid) == null) {
+			return;
+		}
+		worker.execute(() -> {
+			try {
+				storage.dropView(executor, schema, viewName(sid));
+				dropped.increment();
+			} catch (Exception e) {
+				System.err.println("Could not drop response view for survey " + sid + ": " + e.getMessage());
+				failures.increment();
+			}
+		});
+	}
+
+	/**
+	 * Drops the response views of all surveys using a questionnaire in the background, e.g. after the
+	 * questionnaire's form changed. Views are re-created on the next export.
+	 */
+	public void dropForQuestionnaire(int qid) {
+		for (Map.Entry<Integer, View> e : new ArrayList<>(views.entrySet())) {
+			if (e.getValue().qid == qid) {
+				drop(e.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Drops all response views in the background, e.g. after all surveys were deleted.
+	 */
+	public void dropAll() {
+		List<Integer> sids = new ArrayList<>(views.keySet());
+		for (Integer sid : sids) {
+			drop(sid);
+		}
+	}
+
+	/**
+	 * @return JSON representation of registered views and DDL counts
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStats() {
+		int ready = 0;
+		int pending = 0;
+		for (View v : views.values()) {
+			if (!v.ready.isDone()) {
+				pending++;
+			} else if (!v.ready.isCompletedExceptionally()) {
+				ready++;
+			}
+		}
+		JSONObject o = new JSONObject();
+		o.put("ready", ready);
+		o.put("pending", pending);
+		o.put("created", created.sum());
+		o.put("dropped", dropped.sum());
+		o.put("failures", failures.sum());
+		return o;
+	}
+}
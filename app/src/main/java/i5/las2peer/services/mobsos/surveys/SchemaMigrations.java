@@ -0,0 +1,168 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Versioned schema migrations applied on service startup.
+ *
+ * The base schema is set up by etc/sql/schema.sql or, for the embedded backend, by the backend itself. Later changes
+ * to the schema are defined here as migrations with increasing version numbers. Applied versions are recorded in table
+ * schema_version. On startup, all migrations not yet recorded are applied in order of their versions.
+ *
+ * Migrations are written to be idempotent, such that a migration interrupted before its version was recorded or
+ * applied concurrently by several service instances can safely be applied again. New migrations are appended to
+ * {@link #MIGRATIONS}; released migrations must never be changed.
+ */
+public class SchemaMigrations {
+
+	/**
+	 * Change of the schema.
+	 */
+	public interface Migration {
+
+		/**
+		 * @return version of schema after migration
+		 */
+		int getVersion();
+
+		/**
+		 * @return short description of schema change
+		 */
+		String getDescription();
+
+		/**
+		 * Applies the schema change. Implementations must be idempotent.
+		 *
+		 * @throws SQLException
+		 */
+		void apply(QueryExecutor executor, StorageBackend storage, String schema) throws SQLException;
+	}
+
+	/**
+	 * Migration creating an index.
+	 */
+	private static class IndexMigration implements Migration {
+		private final int version;
+		private final String table;
+		private final String index;
+		private final String columns;
+		private final String purpose;
+
+		IndexMigration(int version, String table, String index, String columns, String purpose) {
+			this.version = version;
+			this.table = table;
+			this.index = index;
+			this.columns = columns;
+			this.purpose = purpose;
+		}
+
+		@Override
+		public int getVersion() {
+			return version;
+		}
+
+		@Override
+		public String getDescription() {
+			return "index " + table + "(" + columns + ") for " + purpose;
+		}
+
+		@Override
+		public void apply(QueryExecutor executor, StorageBackend storage, String schema) throws SQLException {
+			storage.createIndex(executor, schema, table, index, columns);
+		}
+	}
+
+	/**
+	 * All migrations in order of their versions.
+	 */
+	public final static List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+			new IndexMigration(1, "response", "idx_res_sid_time", "sid, time",
+					"time-window queries and incremental sync of responses"),
+			new IndexMigration(2, "response", "idx_res_sid_qkey", "sid, qkey",
+					"per-question statistics of responses")));
+
+	private final QueryExecutor executor;
+	private final StorageBackend storage;
+	private final String schema;
+	private final List<Migration> migrations;
+
+	public SchemaMigrations(QueryExecutor executor, StorageBackend storage, String schema) {
+		this(executor, storage, schema, MIGRATIONS);
+	}
+
+	/**
+	 * @param migrations migrations in order of their versions
+	 */
+	public SchemaMigrations(QueryExecutor executor, StorageBackend storage, String schema,
+			List<Migration> migrations) {
+		this.executor = executor;
+		this.storage = storage;
+		this.schema = schema;
+		this.migrations = migrations;
+	}
+
+	/**
+	 * @return versions of all applied migrations
+	 * @throws SQLException
+	 */
+	public Set<Integer> getAppliedVersions() throws SQLException {
+		createVersionTable();
+		return new TreeSet<>(executor.query("select version from " + schema + ".schema_version",
+				QueryExecutor.NO_PARAMETERS, rs -> rs.getInt(1)));
+	}
+
+	/**
+	 * Applies all migrations not applied yet.
+	 *
+	 * @return versions of migrations applied by this call
+	 * @throws SQLException if a migration fails; later migrations are not applied then
+	 */
+	public List<Integer> migrate() throws SQLException {
+		Set<Integer> applied = getAppliedVersions();
+		List<Integer> result = new ArrayList<>();
+		for (Migration m : migrations) {
+			if (applied.contains(m.getVersion())) {
+				continue;
+			}
+			long start = System.currentTimeMillis();
+			try {
+				m.apply(executor, storage, schema);
+			} catch (SQLException e) {
+				throw new SQLException("Migration to schema version " + m.getVersion() + " (" + m.getDescription()
+						+ ") failed: " + e.getMessage(), e);
+			}
+			long millis = System.currentTimeMillis() - start;
+			try {
+				executor.update("insert into " + schema + ".schema_version(version, description, installed, "
+						+ "millis) values (?,?,?,?)", s -> {
+							s.setInt(1, m.getVersion());
+							s.setString(2, m.getDescription());
+							s.setTimestamp(3, new Timestamp(start));
+							s.setLong(4, millis);
+						});
+			} catch (SQLException e) {
+				// another service instance applied the same migration concurrently
+				if (!storage.isDuplicateKey(e)) {
+					throw e;
+				}
+			}
+			System.out.println("Migrated schema " + schema + " to version " + m.getVersion() + " ("
+					+ m.getDescription() + ") in " + millis + " ms");
+			result.add(m.getVersion());
+		}
+		return result;
+	}
+
+	private void createVersionTable() throws SQLException {
+		executor.execute("create table if not exists " + schema + ".schema_version (version int not null, "
+				+ "description varchar(200) not null, installed datetime not null, millis bigint not null, "
+				+ "constraint schema_version_pk primary key (version))");
+	}
+}
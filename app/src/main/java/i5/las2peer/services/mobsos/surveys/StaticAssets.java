@@ -0,0 +1,413 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.json.simple.JSONObject;
+
+/**
+ * In-memory cache of the static assets (JS, CSS, images, ...) of the service's web frontend.
+ *
+ * Assets are read from the asset directory once on first request and kept in memory together with their content type
+ * and a strong entity tag derived from their content, such that requests are answered without touching the file
+ * system. In development mode, the modification time of an asset is checked on every access and changed assets are
+ * read again. The asset directory ships with the service and is small enough to be held in memory completely.
+ *
+ * On startup, all assets are loaded at once. Text assets are precompressed with gzip, and each asset gets a
+ * fingerprint derived from its content. References to assets in HTML templates are rewritten to fingerprinted paths,
+ * e.g. js/app.js to js/app.0123456789ab.js. Since the content behind a fingerprinted path never changes, browsers may
+ * cache it forever. Brotli is not offered, because no encoder is available without native libraries.
+ *
+ * Besides the cache, this class provides the pieces of HTTP needed to serve assets efficiently: matching entity tags
+ * for conditional requests, negotiating content encodings and parsing single byte ranges.
+ */
+public class StaticAssets {
+
+	private final static Map<String, String> CONTENT_TYPES;
+
+	static {
+		Map<String, String> m = new HashMap<>();
+		m.put("js", "application/javascript; charset=UTF-8");
+		m.put("css", "text/css; charset=UTF-8");
+		m.put("html", "text/html; charset=UTF-8");
+		m.put("htm", "text/html; charset=UTF-8");
+		m.put("json", "application/json; charset=UTF-8");
+		m.put("map", "application/json; charset=UTF-8");
+		m.put("xml", "application/xml; charset=UTF-8");
+		m.put("txt", "text/plain; charset=UTF-8");
+		m.put("md", "text/plain; charset=UTF-8");
+		m.put("svg", "image/svg+xml");
+		m.put("png", "image/png");
+		m.put("jpg", "image/jpeg");
+		m.put("jpeg", "image/jpeg");
+		m.put("gif", "image/gif");
+		m.put("ico", "image/x-icon");
+		m.put("woff", "font/woff");
+		m.put("woff2", "font/woff2");
+		m.put("ttf", "font/ttf");
+		m.put("eot", "application/vnd.ms-fontobject");
+		CONTENT_TYPES = Collections.unmodifiableMap(m);
+	}
+
+	// references to assets in templates, e.g. ${SC_URL}js/app.js
+	private final static Pattern REFERENCE = Pattern.compile("\\$\\{SC_URL\\}([\\w\\-./]+)");
+
+	/**
+	 * Static asset held in memory.
+	 */
+	public static class Asset {
+		private final byte[] content;
+		private final String contentType;
+		private final String etag;
+		private final long lastModified;
+		private final String fingerprint;
+		private final byte[] gzipContent;
+
+		Asset(byte[] content, String contentType, String hash, long lastModified, byte[] gzipContent) {
+			this.content = content;
+			this.contentType = contentType;
+			this.etag = "\"" + hash + "\"";
+			this.lastModified = lastModified;
+			this.fingerprint = hash.substring(0, 12);
+			this.gzipContent = gzipContent;
+		}
+
+		/**
+		 * @return content of asset; must not be modified
+		 */
+		public byte[] getContent() {
+			return content;
+		}
+
+		/**
+		 * @return media type of asset including charset for text assets
+		 */
+		public String getContentType() {
+			return contentType;
+		}
+
+		/**
+		 * @return strong entity tag of asset including quotes
+		 */
+		public String getETag() {
+			return etag;
+		}
+
+		/**
+		 * @return modification time of asset file in milliseconds since the epoch
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * @return gzip-compressed content of asset or null, if the asset is not compressible
+		 */
+		public byte[] getGzipContent() {
+			return gzipContent;
+		}
+
+		/**
+		 * @return strong entity tag of gzip-compressed asset including quotes
+		 */
+		public String getGzipETag() {
+			return etag.substring(0, etag.length() - 1) + "-gzip\"";
+		}
+	}
+
+	private final Path root;
+	private final boolean hotReload;
+
+	private final Map<String, Asset> assets = new ConcurrentHashMap<>();
+
+	// fingerprinted paths by path and vice versa; set up by load()
+	private volatile Map<String, String> fingerprinted = Collections.emptyMap();
+	private volatile Map<String, String> original = Collections.emptyMap();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param root directory containing assets
+	 * @param hotReload if true, assets are read again when their files change
+	 */
+	public StaticAssets(Path root, boolean hotReload) {
+		this.root = root.toAbsolutePath().normalize();
+		this.hotReload = hotReload;
+	}
+
+	/**
+	 * Retrieves an asset.
+	 *
+	 * @param path path of asset relative to asset directory
+	 * @return asset or null, if no such file exists within the asset directory
+	 * @throws IOException if the asset file cannot be read
+	 */
+	public Asset get(String path) throws IOException {
+		// different paths of the same file, e.g. js//app.js or js/x/../app.js, share one cache entry
+		Path file = root.resolve(path).normalize();
+		if (!file.startsWith(root)) {
+			return null;
+		}
+		String key = key(file);
+		Asset a = assets.get(key);
+		if (a != null && !hotReload) {
+			hits.increment();
+			return a;
+		}
+
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		long lastModified = Files.getLastModifiedTime(file).toMillis();
+		if (a != null && a.lastModified == lastModified) {
+			hits.increment();
+			return a;
+		}
+
+		misses.increment();
+		byte[] content = Files.readAllBytes(file);
+		String type = contentType(file.getFileName().toString());
+		a = new Asset(content, type, hash(content), lastModified, compressible(type) ? gzip(content) : null);
+		assets.put(key, a);
+		return a;
+	}
+
+	// path of a file relative to the asset directory with forward slashes
+	private String key(Path file) {
+		return root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+	}
+
+	/**
+	 * Loads and precompresses all assets and assigns fingerprinted paths to them.
+	 *
+	 * @return number of assets
+	 * @throws IOException if an asset file cannot be read
+	 */
+	public int load() throws IOException {
+		List<Path> files;
+		try (Stream<Path> s = Files.walk(root)) {
+			files = s.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+		Map<String, String> f = new HashMap<>();
+		Map<String, String> o = new HashMap<>();
+		for (Path file : files) {
+			String path = key(file);
+			Asset a = get(path);
+			if (a == null) {
+				continue;
+			}
+			String name = file.getFileName().toString();
+			int dot = name.lastIndexOf('.');
+			String fp = dot > 0 ? path.substring(0, path.length() - name.length() + dot) + "." + a.fingerprint
+					+ name.substring(dot) : path + "." + a.fingerprint;
+			f.put(path, fp);
+			o.put(fp, path);
+		}
+		fingerprinted = f;
+		original = o;
+		return f.size();
+	}
+
+	/**
+	 * @param path path of asset relative to asset directory
+	 * @return fingerprinted path of asset or null, if the asset was not loaded by {@link #load()}
+	 */
+	public String getFingerprintedPath(String path) {
+		return fingerprinted.get(path);
+	}
+
+	/**
+	 * @param path fingerprinted path of asset
+	 * @return path of asset or null, if the path is no fingerprinted path of an asset
+	 */
+	public String getOriginalPath(String path) {
+		return original.get(path);
+	}
+
+	/**
+	 * Rewrites references to assets of the form ${SC_URL}path in a template to fingerprinted paths. References to
+	 * unknown assets are kept.
+	 *
+	 * @param text template text
+	 * @return template text with fingerprinted references
+	 */
+	public String rewriteReferences(String text) {
+		Matcher m = REFERENCE.matcher(text);
+		StringBuffer sb = new StringBuffer(text.length());
+		while (m.find()) {
+			String fp = fingerprinted.get(m.group(1));
+			m.appendReplacement(sb, Matcher.quoteReplacement(fp != null ? "${SC_URL}" + fp : m.group()));
+		}
+		m.appendTail(sb);
+		return sb.toString();
+	}
+
+	/**
+	 * @param name file name
+	 * @return media type of file according to its extension
+	 */
+	public static String contentType(String name) {
+		int dot = name.lastIndexOf('.');
+		String type = dot >= 0 ? CONTENT_TYPES.get(name.substring(dot + 1).toLowerCase(Locale.ROOT)) : null;
+		return type != null ? type : "application/octet-stream";
+	}
+
+	private static boolean compressible(String contentType) {
+		return contentType.contains("charset") || contentType.startsWith("image/svg");
+	}
+
+	private static byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 3 + 64);
+		try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+			{
+				def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			gz.write(content);
+		}
+		// compression does not pay off for tiny or incompressible assets
+		return out.size() < content.length ? out.toByteArray() : null;
+	}
+
+	// first 128 bits of SHA-256 of content in hex
+	static String hash(byte[] content) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 16; i++) {
+				sb.append(String.format("%02x", digest[i]));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is available on every Java platform
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Checks a conditional request.
+	 *
+	 * @param ifNoneMatch value of If-None-Match header; may be null
+	 * @param etag entity tag of current representation
+	 * @return true, if the header matches the entity tag, i.e. the client's copy is current
+	 */
+	public static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			// If-None-Match uses weak comparison
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if ("*".equals(tag) || tag.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Negotiates the content encoding of a response.
+	 *
+	 * @param acceptEncoding value of Accept-Encoding header; may be null
+	 * @return true, if the client accepts gzip-compressed content
+	 */
+	public static boolean acceptsGzip(String acceptEncoding) {
+		return ResponseCompression.quality(acceptEncoding, "gzip") > 0;
+	}
+
+	/**
+	 * Parses a Range header requesting a single byte range. Requests for several ranges are not supported and
+	 * answered with the full content.
+	 *
+	 * @param range value of Range header, e.g. 'bytes=0-499', 'bytes=500-' or 'bytes=-500'; may be null
+	 * @param length length of content
+	 * @return first and last byte position of requested range, an empty array if the range cannot be satisfied, or
+	 *         null if the full content is to be returned
+	 */
+	public static int[] parseRange(String range, int length) {
+		if (range == null || !range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+			return null;
+		}
+		String spec = range.substring(6).trim();
+		int dash = spec.indexOf('-');
+		if (dash < 0) {
+			return null;
+		}
+		try {
+			String first = spec.substring(0, dash).trim();
+			String last = spec.substring(dash + 1).trim();
+			long start;
+			long end;
+			if (first.isEmpty()) {
+				// suffix range of the last bytes
+				long suffix = Long.parseLong(last);
+				if (suffix <= 0) {
+					return new int[0];
+				}
+				start = Math.max(0, length - suffix);
+				end = length - 1;
+			} else {
+				start = Long.parseLong(first);
+				end = last.isEmpty() ? length - 1 : Long.parseLong(last);
+				if (end < start && !last.isEmpty()) {
+					// invalid range
+					return null;
+				}
+				end = Math.min(end, length - 1);
+			}
+			if (start >= length) {
+				return new int[0];
+			}
+			return new int[] { (int) start, (int) end };
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return JSON representation of number and size of cached assets, of number and size of precompressed assets and
+	 *         of cache hits and misses
+	 */
+	@SuppressWarnings("unchecked")
+	public JSONObject getStats() {
+		long bytes = 0;
+		int compressed = 0;
+		long compressedBytes = 0;
+		for (Asset a : assets.values()) {
+			bytes += a.content.length;
+			if (a.gzipContent != null) {
+				compressed++;
+				compressedBytes += a.gzipContent.length;
+			}
+		}
+		JSONObject o = new JSONObject();
+		o.put("cached", assets.size());
+		o.put("bytes", bytes);
+		o.put("compressed", compressed);
+		o.put("compressedBytes", compressedBytes);
+		o.put("hits", hits.sum());
+		o.put("misses", misses.sum());
+		return o;
+	}
+}
@@ -0,0 +1,95 @@
+package i5.las2peer.services.mobsos.surveys;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Storage backend of the service.
+ *
+ * All statements of the service are plain SQL executed through a {@link QueryExecutor}. A storage backend encapsulates
+ * everything specific to a database engine, i.e. how connections are established, how the service's tables are set
+ * up, how response views are looked up and created and how engine-specific errors are recognized.
+ *
+ * The backend is selected by property 'storageBackend' of the service configuration file.
+ *
+ * @see MySqlStorageBackend
+ * @see H2StorageBackend
+ */
+public interface StorageBackend {
+
+	/**
+	 * @return name of backend as used in service configuration
+	 */
+	String getName();
+
+	/**
+	 * @return class name of JDBC driver
+	 */
+	String getDriverClassName();
+
+	/**
+	 * Builds the JDBC connection URL for the service's schema.
+	 *
+	 * @param url configured JDBC URL without schema
+	 * @param schema name of the service's schema
+	 * @return JDBC connection URL including engine-specific connection properties
+	 */
+	String getConnectionUrl(String url, String schema);
+
+	/**
+	 * Prepares the service's schema on startup, e.g. by creating missing tables.
+	 *
+	 * @throws SQLException
+	 */
+	void initialize(QueryExecutor executor, String schema) throws SQLException;
+
+	/**
+	 * Creates an index in the service's schema, if no index of the same name exists on the table.
+	 *
+	 * @param columns comma-separated list of indexed columns
+	 * @throws SQLException
+	 */
+	void createIndex(QueryExecutor executor, String schema, String table, String index, String columns)
+			throws SQLException;
+
+	/**
+	 * Lists all views in the service's schema.
+	 *
+	 * @return names of views
+	 * @throws SQLException
+	 */
+	List<String> listViews(QueryExecutor executor, String schema) throws SQLException;
+
+	/**
+	 * Creates a view in the service's schema or replaces an existing view of the same name.
+	 *
+	 * @param select select statement defining the view
+	 * @throws SQLException
+	 */
+	void createView(QueryExecutor executor, String schema, String view, String select) throws SQLException;
+
+	/**
+	 * Drops a view from the service's schema, if it exists.
+	 *
+	 * @throws SQLException
+	 */
+	void dropView(QueryExecutor executor, String schema, String view) throws SQLException;
+
+	/**
+	 * @param expression SQL expression
+	 * @return SQL expression casting the given expression to an integer
+	 */
+	String castToInteger(String expression);
+
+	/**
+	 * @param expression SQL expression of a character type
+	 * @return SQL expression computing the lower-case hexadecimal SHA-256 digest of the given expression's UTF-8
+	 *         encoding or null, if the expression is null
+	 */
+	String hash(String expression);
+
+	/**
+	 * @return true, if the exception was caused by a violated primary key or unique constraint
+	 */
+	boolean isDuplicateKey(SQLException e);
+}
@@ -54,17 +54,28 @@ import org.w3c.dom.ls.DOMImplementationLS;
 import org.w3c.dom.ls.LSSerializer;
 import org.xml.sax.SAXException;
 
-import javax.sql.DataSource;
 import javax.ws.rs.*;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
 import javax.xml.XMLConstants;
 import javax.xml.bind.DatatypeConverter;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.dom.DOMSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
@@ -72,11 +83,17 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.sql.*;
-import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -117,6 +134,9 @@ public class SurveyService extends RESTService {
 
 	private static BasicDataSource dataSource;
 
+	// optional data source for a read replica used by read-only paths; null if no replica is configured
+	private static BasicDataSource replicaDataSource;
+
 	private DocumentBuilder parser;
 	private Validator validator;
 
@@ -127,6 +147,99 @@ public class SurveyService extends RESTService {
 
 	private String staticContentUrl;
 
+	// storage backend; either mysql or h2
+	private String storageBackend = MySqlStorageBackend.NAME;
+
+	// optional read replica; login and password default to the ones of the primary
+	private String jdbcReplicaUrl = "", jdbcReplicaLogin = "", jdbcReplicaPass = "";
+
+	// connection pool settings read from service configuration file
+	private int jdbcPoolInitialSize = 2;
+	private int jdbcPoolMaxTotal = 16;
+	private int jdbcPoolMaxIdle = 8;
+	private int jdbcPoolMinIdle = 2;
+	private long jdbcPoolMaxWaitMillis = 5000;
+	private long jdbcPoolMaxConnLifetimeMillis = 100000;
+	private boolean jdbcPoolTestOnBorrow = true;
+	private boolean jdbcPoolTestWhileIdle = false;
+	private long jdbcPoolTimeBetweenEvictionRunsMillis = -1;
+	private long jdbcPoolMinEvictableIdleTimeMillis = 1800000;
+	private boolean jdbcPoolPreparedStatements = false;
+	private int jdbcPoolMaxOpenPreparedStatements = -1;
+	private int jdbcValidationQueryTimeout = 5;
+	private int jdbcDefaultQueryTimeout = 1000;
+	private int jdbcPrepStmtCacheSize = 250;
+
+	// interval in seconds between periodic catalog refreshes; 0 disables periodic refreshes
+	private int catalogRefreshInterval = 300;
+
+	private Catalog catalog;
+
+	// statements taking at least this many milliseconds are flagged as slow and logged
+	private int slowQueryThreshold = 500;
+
+	private QueryExecutor queryExecutor;
+
+	private StorageBackend storage;
+
+	private ResponseViewRegistry responseViews;
+
+	// survey questionnaire forms rendered to HTML per survey and locale
+	private RenderedFormCache<HtmlTemplate> renderedForms;
+
+	// JSON models of survey questionnaire forms per survey; models are not localized
+	private RenderedFormCache<FormModel> formModels;
+
+	// limits of concurrently handled and queued requests and of queue time in milliseconds per class of expensive
+	// requests; each concurrently handled request may hold a database connection, so the concurrency limits must not
+	// add up to more than jdbcPoolMaxTotal
+	private int exportConcurrency = 2;
+	private int exportQueueSize = 16;
+	private long exportMaxQueueMillis = 30000;
+	private int submissionConcurrency = 4;
+	private int submissionQueueSize = 32;
+	private long submissionMaxQueueMillis = 2000;
+	private int formConcurrency = 8;
+	private int formQueueSize = 64;
+	private long formMaxQueueMillis = 5000;
+
+	// seconds clients are asked to wait before retrying requests rejected due to overload
+	private int retryAfter = 5;
+
+	private BoundedExecutor exportExecutor, submissionExecutor, formExecutor;
+
+	// if true, HTML templates and static content are reloaded when changed; for development only
+	private boolean templateHotReload = false;
+
+	private HtmlTemplates templates;
+
+	// static content served by the service itself, if no separate server is configured via staticContentUrl
+	private StaticAssets staticAssets;
+
+	// seconds browsers may cache static content without revalidating it
+	private int staticMaxAge = 3600;
+
+	// minimum size in bytes and level (1-9, 0 disables compression) of compressed responses
+	private int compressionThreshold = 1024;
+	private int compressionLevel = 6;
+
+	private ResponseCompression compression;
+
+	// translations of HTML pages for all locales with a message bundle
+	private Localization localization;
+
+	// values of service-wide template placeholders
+	private Map<String, String> templateValues;
+
+	// seconds OpenID Connect client metadata is served before it is reloaded and unknown client ids are remembered
+	private int clientMetadataTtl = 300;
+	private int clientMetadataNegativeTtl = 60;
+
+	// maximum number of unknown client ids remembered at the same time
+	private int clientMetadataMaxUnknown = ClientMetadataCache.DEFAULT_MAX_UNKNOWN;
+
+	private ClientMetadataCache clientMetadata;
+
 	public SurveyService() {
 		// set values from configuration file
 		this.setFieldValues();
@@ -153,7 +266,48 @@ public class SurveyService extends RESTService {
 		// include this service into las2peer monitoring
 		// this.monitor = true;
 
-		// prepare database connection pooling and XML infrastructure
+		// static content is loaded and precompressed once; if the service hosts static content itself, templates
+		// refer to fingerprinted assets, which browsers cache forever
+		staticAssets = new StaticAssets(Paths.get("./etc/webapp"), templateHotReload);
+		boolean fingerprints = false;
+		if (staticContentUrl.equals(epUrl) && !templateHotReload) {
+			try {
+				long start = System.currentTimeMillis();
+				int n = staticAssets.load();
+				System.out.println("Loaded " + n + " static assets in " + (System.currentTimeMillis() - start) + " ms");
+				fingerprints = true;
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		// HTML templates are compiled once; service-wide placeholders are the same for all pages
+		templates = fingerprints
+				? new HtmlTemplates(Paths.get("./etc/html"), templateHotReload, staticAssets::rewriteReferences)
+				: new HtmlTemplates(Paths.get("./etc/html"), templateHotReload);
+		renderedForms = new RenderedFormCache<>();
+		formModels = new RenderedFormCache<>();
+		compression = new ResponseCompression(compressionThreshold, compressionLevel);
+		localization = new Localization("MessageBundle", Arrays.asList(Locale.US, Locale.GERMANY,
+				new Locale("es", "ES"), Locale.FRANCE));
+		templateValues = new HashMap<>();
+		templateValues.put("EP_URL", epUrl);
+		templateValues.put("L2P_URL", las2peerUrl);
+		templateValues.put("SC_URL", staticContentUrl);
+		templateValues.put("OIDC_PROV_NAME", oidcProviderName);
+		templateValues.put("OIDC_PROV_LOGO", oidcProviderLogo);
+		templateValues.put("OIDC_PROV_URL", oidcProviderUrl);
+		templateValues.put("OIDC_CLNT_ID", oidcClientId);
+
+		// separate executors for exports, submissions and form rendering isolate the classes from each other
+		checkConcurrencyLimits();
+		exportExecutor = new BoundedExecutor("export", exportConcurrency, exportQueueSize, exportMaxQueueMillis);
+		submissionExecutor = new BoundedExecutor("submission", submissionConcurrency, submissionQueueSize,
+				submissionMaxQueueMillis);
+		formExecutor = new BoundedExecutor("form", formConcurrency, formQueueSize, formMaxQueueMillis);
+
+		// prepare storage backend, database connection pooling and XML infrastructure
+		storage = createStorageBackend();
 		try {
 			setupDataSource();
 			initXMLInfrastructure();
@@ -161,29 +315,127 @@ public class SurveyService extends RESTService {
 			e.printStackTrace();
 		}
 
+		queryExecutor = new QueryExecutor(dataSource, replicaDataSource, slowQueryThreshold);
+		try {
+			storage.initialize(queryExecutor, jdbcSchema);
+			new SchemaMigrations(queryExecutor, storage, jdbcSchema).migrate();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+
+		// register existing response views; if loading fails, views are re-created on first export
+		responseViews = new ResponseViewRegistry(queryExecutor, storage, jdbcSchema);
+		try {
+			responseViews.load();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+
+		// load survey and questionnaire catalog; if loading fails, lookups read through to the database until the
+		// next periodic refresh succeeds
+		catalog = new Catalog(queryExecutor, jdbcSchema);
+		try {
+			catalog.refresh();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		catalog.scheduleRefresh(catalogRefreshInterval);
+
+		// load OpenID Connect client metadata; if loading fails, clients are loaded on demand until the next periodic
+		// refresh succeeds
+		clientMetadata = new ClientMetadataCache(queryExecutor, oidcSchema, clientMetadataTtl,
+				clientMetadataNegativeTtl, clientMetadataMaxUnknown);
+		try {
+			clientMetadata.refresh();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		clientMetadata.scheduleRefresh(clientMetadataTtl);
+
+	}
+
+	/**
+	 * Makes sure that requests handled concurrently by the request executors cannot exhaust the connection pool of
+	 * the primary database, such that overload is rejected by the executors instead of waiting for connections.
+	 */
+	private void checkConcurrencyLimits() throws IllegalArgumentException {
+		int total = exportConcurrency + submissionConcurrency + formConcurrency;
+		if (total > jdbcPoolMaxTotal) {
+			throw new IllegalArgumentException("Concurrency limits exportConcurrency (" + exportConcurrency
+					+ "), submissionConcurrency (" + submissionConcurrency + ") and formConcurrency (" + formConcurrency
+					+ ") add up to " + total + ", which exceeds jdbcPoolMaxTotal (" + jdbcPoolMaxTotal + ")!");
+		}
+	}
+
+	/**
+	 * Creates the storage backend configured by property storageBackend.
+	 * 
+	 * @throws IllegalArgumentException if the configured backend is unknown
+	 */
+	private StorageBackend createStorageBackend() throws IllegalArgumentException {
+		if (storageBackend == null || storageBackend.isEmpty() || MySqlStorageBackend.NAME.equals(storageBackend)) {
+			return new MySqlStorageBackend(jdbcDriverClassName, jdbcPrepStmtCacheSize);
+		} else if (H2StorageBackend.NAME.equals(storageBackend)) {
+			return new H2StorageBackend();
+		}
+		throw new IllegalArgumentException("Unknown storage backend '" + storageBackend + "'! Available backends are "
+				+ MySqlStorageBackend.NAME + " and " + H2StorageBackend.NAME + ".");
 	}
 
 	/**
-	 * TODO: write documentation
+	 * Sets up the database connection pools for the primary database and, if configured, for the read replica with
+	 * the pool settings from the service configuration file.
 	 * 
 	 * @throws ClassNotFoundException
 	 */
 	private void setupDataSource() throws ClassNotFoundException {
 
 		// request classloader to load JDBC driver class
-		Class.forName(jdbcDriverClassName);
-
-		// prepare and configure data source
-		dataSource = new BasicDataSource();
-		dataSource.setDefaultAutoCommit(true);
-		dataSource.setDriverClassName(jdbcDriverClassName);
-		dataSource.setUsername(jdbcLogin);
-		dataSource.setPassword(jdbcPass);
-		dataSource.setUrl(jdbcUrl + jdbcSchema
-				+ "?autoReconnect=true&useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC");
-		dataSource.setValidationQuery("select 1");
-		dataSource.setDefaultQueryTimeout(1000);
-		dataSource.setMaxConnLifetimeMillis(100000);
+		Class.forName(storage.getDriverClassName());
+
+		dataSource = createDataSource(jdbcUrl, jdbcLogin, jdbcPass);
+
+		if (jdbcReplicaUrl != null && !jdbcReplicaUrl.isEmpty()) {
+			replicaDataSource = createDataSource(jdbcReplicaUrl,
+					jdbcReplicaLogin == null || jdbcReplicaLogin.isEmpty() ? jdbcLogin : jdbcReplicaLogin,
+					jdbcReplicaPass == null || jdbcReplicaPass.isEmpty() ? jdbcPass : jdbcReplicaPass);
+		}
+	}
+
+	/**
+	 * Creates a connection pool for the service's schema on a database server.
+	 * 
+	 * @param url JDBC URL of database server without schema
+	 * @param login database login
+	 * @param pass database password
+	 * @return configured data source
+	 */
+	private BasicDataSource createDataSource(String url, String login, String pass) {
+
+		// prepare and configure data source; connection properties are specific to the storage backend
+		BasicDataSource ds = new BasicDataSource();
+		ds.setDefaultAutoCommit(true);
+		ds.setDriverClassName(storage.getDriverClassName());
+		ds.setUsername(login);
+		ds.setPassword(pass);
+		ds.setUrl(storage.getConnectionUrl(url, jdbcSchema));
+		ds.setValidationQuery("select 1");
+		ds.setValidationQueryTimeout(jdbcValidationQueryTimeout);
+		ds.setDefaultQueryTimeout(jdbcDefaultQueryTimeout);
+
+		ds.setInitialSize(jdbcPoolInitialSize);
+		ds.setMaxTotal(jdbcPoolMaxTotal);
+		ds.setMaxIdle(jdbcPoolMaxIdle);
+		ds.setMinIdle(jdbcPoolMinIdle);
+		ds.setMaxWaitMillis(jdbcPoolMaxWaitMillis);
+		ds.setMaxConnLifetimeMillis(jdbcPoolMaxConnLifetimeMillis);
+		ds.setTestOnBorrow(jdbcPoolTestOnBorrow);
+		ds.setTestWhileIdle(jdbcPoolTestWhileIdle);
+		ds.setTimeBetweenEvictionRunsMillis(jdbcPoolTimeBetweenEvictionRunsMillis);
+		ds.setMinEvictableIdleTimeMillis(jdbcPoolMinEvictableIdleTimeMillis);
+		ds.setPoolPreparedStatements(jdbcPoolPreparedStatements);
+		ds.setMaxOpenPreparedStatements(jdbcPoolMaxOpenPreparedStatements);
+		return ds;
 	}
 
 	/**
@@ -209,6 +461,51 @@ public class SurveyService extends RESTService {
 	@Override
 	protected void initResources() {
 		getResourceConfig().register(Resource.class);
+		getResourceConfig().register(EndpointStatsFilter.class);
+		getResourceConfig().register(CompressionInterceptor.class);
+	}
+
+	/**
+	 * Tracks the database time spent per request and records it for the resource method handling the request.
+	 */
+	public static class EndpointStatsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+		@javax.ws.rs.core.Context
+		private ResourceInfo resourceInfo;
+
+		@Override
+		public void filter(ContainerRequestContext request) {
+			QueryStats.beginRequest();
+		}
+
+		@Override
+		public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+			SurveyService service = (SurveyService) Context.getCurrent().getService();
+			if (service.queryExecutor == null || resourceInfo.getResourceMethod() == null) {
+				QueryStats.clearRequest();
+			} else {
+				service.queryExecutor.getStats().endRequest(resourceInfo.getResourceMethod().getName());
+			}
+		}
+	}
+
+	/**
+	 * Compresses textual responses for clients accepting gzip or deflate.
+	 */
+	public static class CompressionInterceptor implements WriterInterceptor {
+
+		@javax.ws.rs.core.Context
+		private HttpHeaders headers;
+
+		@Override
+		public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+			SurveyService service = (SurveyService) Context.getCurrent().getService();
+			if (service.compression == null) {
+				context.proceed();
+			} else {
+				service.compression.writeTo(context, headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+			}
+		}
 	}
 
 	// //////////////////////////////////////////////////////////////////////////////////////
@@ -234,8 +531,40 @@ public class SurveyService extends RESTService {
 							name = "MIT",
 							url = "https://github.com/rwth-acis/mobsos-survey/blob/master/LICENSE")))
 	public static class Resource {
+
+		/**
+		 * Maximum number of entries returned in a single page of survey or questionnaire listings.
+		 */
+		public final static int MAX_PAGE_SIZE = 1000;
+
+		/**
+		 * Maximum number of suggestions returned for a single autocomplete request.
+		 */
+		public final static int MAX_SUGGESTIONS = 100;
+
+		/**
+		 * Maximum time in seconds an export waits for its response view to be created.
+		 */
+		public final static int VIEW_TIMEOUT = 10;
+
+		/**
+		 * Maximum time in seconds clients may cache active surveys. Active surveys change at the latest at the next
+		 * survey window boundary, but survey updates may change them earlier.
+		 */
+		public final static int MAX_ACTIVE_SURVEYS_AGE = 300;
+
 		private SurveyService service = (SurveyService) Context.getCurrent().getService();
 
+		// surveys and forms loaded during the current request; resource instances are created per request
+		private RequestContext requestContext;
+
+		private RequestContext requestContext() {
+			if (requestContext == null) {
+				requestContext = new RequestContext(service.queryExecutor, service.storage, service.jdbcSchema);
+			}
+			return requestContext;
+		}
+
 		@GET
 		@Produces(MediaType.TEXT_HTML)
 		@Path("/questionnaires")
@@ -243,28 +572,12 @@ public class SurveyService extends RESTService {
 			String onAction = "retrieving questionnaires HTML";
 			// only respond with template; nothing to be adapted
 			try {
-				// load template
-				Scanner scanner;
-				scanner = new Scanner(new File("./etc/html/questionnaires-template.html"));
-				String html = scanner.useDelimiter("\\A").next();
-				scanner.close();
-
-				// localize template
-				html = i18n(html, lang);
-
-				// fill in placeholders
-				html = fillPlaceHolder(html, "EP_URL", service.epUrl);
-				html = fillPlaceHolder(html, "L2P_URL", service.las2peerUrl);
-				html = fillPlaceHolder(html, "SC_URL", service.staticContentUrl);
-
-				html = fillPlaceHolder(html, "OIDC_PROV_NAME", service.oidcProviderName);
-				html = fillPlaceHolder(html, "OIDC_PROV_LOGO", service.oidcProviderLogo);
-				html = fillPlaceHolder(html, "OIDC_PROV_URL", service.oidcProviderUrl);
-				html = fillPlaceHolder(html, "OIDC_CLNT_ID", service.oidcClientId);
+				// render localized template with placeholders filled in
+				String html = renderTemplate("questionnaires-template.html", lang, Collections.emptyMap());
 
 				// finally return resulting HTML
 				return Response.status(Status.OK).entity(html).build();
-			} catch (FileNotFoundException e) {
+			} catch (IOException e) {
 				return internalError(onAction);
 			}
 		}
@@ -290,89 +603,58 @@ public class SurveyService extends RESTService {
 								message = "Error Bad Request"), })
 		@ApiOperation(
 				value = "getQuestionnaires",
-				notes = "Query parameter matches questionnaire name, description.")
+				notes = "Query parameter matches questionnaire name, description. Results are ordered by name and returned "
+						+ "in pages of at most 'limit' entries; pass the returned 'next' value as 'cursor' to retrieve "
+						+ "the following page. Parameter 'fields' restricts full entries to a comma-separated list of fields.")
 		public Response getQuestionnaires(@QueryParam("full") @DefaultValue("1") int full,
-				@QueryParam("q") @DefaultValue("") String query) {
+				@QueryParam("q") @DefaultValue("") String query, @QueryParam("limit") @DefaultValue("0") int limit,
+				@QueryParam("cursor") String cursor, @QueryParam("fields") String fields) {
 			String onAction = "retrieving questionnaires";
 
 			try {
-				JSONObject r = new JSONObject(); // result to return in HTTP response
-				JSONArray qs = new JSONArray(); // variable for collecting questionnaires from DB
-
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
-
-				// use query for questionnaire id per default
-				String sQuery = "select id from " + service.jdbcSchema
-						+ ".questionnaire where name like ? or description like ? or organization like ?";
+				JSONObject r; // result to return in HTTP response
 
-				// if query param full is provided greater 0, then use query for full questionnaire data set.
-				if (full > 0) {
-					sQuery = "select * from " + service.jdbcSchema
-							+ ".questionnaire where name like ? or description like ? or organization like ? order by name";
-				}
-
-				// +++ dsi
+				// parse paging and projection parameters. If invalid, return 400 (bad request)
+				List<String> fieldList;
+				String after;
 				try {
-					c = dataSource.getConnection();
-					s = c.prepareStatement(sQuery);
-					s.setString(1, "%" + query + "%");
-					s.setString(2, "%" + query + "%");
-					s.setString(3, "%" + query + "%");
-
-					rs = s.executeQuery();
-
-					// in case result set is empty...
-					if (!rs.isBeforeFirst()) {
-						r.put("questionnaires", qs);
-						return Response.status(Status.OK).entity(r.toJSONString()).build();
-					}
-
-					// in case result set contains entries...
-					while (rs.next()) {
-						if (full > 0) {
-							JSONObject questionnaire = readQuestionnaireFromResultSet(rs);
-							questionnaire.put("url", service.epUrl + "questionnaires/" + questionnaire.get("id"));
-							qs.add(questionnaire);
-						} else {
-							String id = rs.getString("id");
-							qs.add(service.epUrl + "questionnaires/" + id);
-						}
-					}
+					fieldList = parseFields(fields, Catalog.QUESTIONNAIRE_FIELDS);
+					after = decodeCursor(cursor);
+				} catch (IllegalArgumentException e) {
+					return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+				}
+				int pageSize = pageSize(limit);
 
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
+				// serve listing from in-memory catalog, if loaded
+				if (service.catalog.isLoaded()) {
+					r = listingPage("questionnaires", service.catalog.listQuestionnaires(query, after, pageSize + 1),
+							pageSize, full, fieldList);
+					return Response.status(Status.OK).entity(r.toJSONString()).build();
 				}
-				// --- dsi
 
-				r.put("questionnaires", qs);
+				// use query for questionnaire id per default. If query param full is provided greater 0, then select
+				// requested fields only. Form is never read.
+				List<String> selected = selectFields(full > 0 ? fieldList : Collections.emptyList());
+
+				String sQuery = "select " + columns(selected, Catalog.QUESTIONNAIRE_FIELDS) + " from "
+						+ service.jdbcSchema
+						+ ".questionnaire where (name like ? or description like ? or organization like ?)"
+						+ (after != null ? " and name > ?" : "") + " order by name limit ?";
+
+				String pattern = "%" + query + "%";
+				List<JSONObject> entries = service.queryExecutor.readOnly().query(sQuery, s -> {
+					s.setString(1, pattern);
+					s.setString(2, pattern);
+					s.setString(3, pattern);
+					int p = 4;
+					if (after != null) {
+						s.setString(p++, after);
+					}
+					// fetch one more row than requested to find out if there is a next page
+					s.setInt(p, pageSize + 1);
+				}, rs -> Catalog.readQuestionnaire(rs, selected));
+
+				r = listingPage("questionnaires", entries, pageSize, full, fieldList);
 				return Response.status(Status.OK).entity(r.toJSONString()).build();
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -432,6 +714,7 @@ public class SurveyService extends RESTService {
 				// store valid questionnaire to database
 				try {
 					int qid = storeNewQuestionnaire(o);
+					service.catalog.reloadQuestionnaire(qid);
 
 					// respond to user with newly created id/URL
 					JSONObject r = new JSONObject();
@@ -440,7 +723,7 @@ public class SurveyService extends RESTService {
 					return Response.status(Status.CREATED).entity(r.toJSONString()).type(MediaType.APPLICATION_JSON)
 							.build();
 				} catch (SQLException e) {
-					if (0 <= e.getMessage().indexOf("Duplicate")) {
+					if (service.storage.isDuplicateKey(e)) {
 						return Response.status(Status.CONFLICT).entity("Questionnaire already exists")
 								.type(MediaType.TEXT_PLAIN).build();
 					} else {
@@ -472,47 +755,76 @@ public class SurveyService extends RESTService {
 
 			String onAction = "deleting all questionnaires";
 
-			Connection conn = null;
-			PreparedStatement stmt = null;
-			ResultSet rset = null;
-
 			try {
-				conn = dataSource.getConnection();
-				stmt = conn.prepareStatement("delete from " + service.jdbcSchema + ".questionnaire");
-				stmt.executeUpdate();
+				service.queryExecutor.update("delete from " + service.jdbcSchema + ".questionnaire",
+						QueryExecutor.NO_PARAMETERS);
+				service.catalog.removeAllQuestionnaires();
+				service.responseViews.dropAll();
+				service.renderedForms.dropAll();
+				service.formModels.dropAll();
 
 				return Response.status(Status.OK).entity("").build();
 
 			} catch (SQLException | UnsupportedOperationException e) {
 				return internalError(onAction);
-			} finally {
-				try {
-					if (rset != null) {
-						rset.close();
-					}
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				}
-				try {
-					if (stmt != null) {
-						stmt.close();
-					}
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				}
-				try {
-					if (conn != null) {
-						conn.close();
-					}
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				}
 			}
 		}
 
+		@SuppressWarnings("unchecked")
+		@GET
+		@Produces(MediaType.APPLICATION_JSON)
+		@Path("metrics")
+		@ApiOperation(
+				value = "getMetrics",
+				notes = "Requires authentication. Service metrics. Section 'queries' contains latency histograms, row "
+						+ "counts and slow executions per database statement as well as database time and statement "
+						+ "counts per endpoint. Section 'pool' contains active and idle connections, waiting threads "
+						+ "and borrow wait times of the database connection pool. If a read replica is configured, "
+						+ "section 'replicaPool' contains the same for the replica's pool including the number of "
+						+ "fallbacks to the primary. Section 'views' contains the number of registered response views "
+						+ "and of background view operations. Section 'forms' contains the number of cached rendered "
+						+ "questionnaire forms and cache hits and misses, section 'formModels' the same for JSON form "
+						+ "models. Section 'clients' contains cached known and unknown OpenID Connect clients, cache "
+						+ "hits, hits on expired metadata served while reloading, misses, coalesced loads, bulk "
+						+ "refreshes and failed loads. Section 'assets' contains the number and size of static assets "
+						+ "held in memory and cache hits and misses. Section 'compression' contains the number of "
+						+ "compressed responses, their size before and after compression and the bytes saved. Section "
+						+ "'executors' contains limits, running and queued requests, accepted, rejected and expired "
+						+ "requests and queue times of the executors for exports, submissions and form rendering.")
+		@ApiResponses(
+				value = { @ApiResponse(
+						code = 200,
+						message = "Metrics"),
+						@ApiResponse(
+								code = 401,
+								message = "Metrics only authorized for authenticated users.") })
+		public Response getMetrics() {
+			// metrics reveal statements and internals of the service
+			if (Context.get().getMainAgent() instanceof AnonymousAgent) {
+				return Response.status(Status.UNAUTHORIZED).entity("Please authenticate to retrieve metrics!").build();
+			}
+
+			JSONObject metrics = new JSONObject();
+			metrics.put("queries", service.queryExecutor.getStats().toJSON());
+			metrics.put("pool", service.queryExecutor.getPoolStats());
+			metrics.put("views", service.responseViews.getStats());
+			metrics.put("forms", service.renderedForms.getStats());
+			metrics.put("formModels", service.formModels.getStats());
+			metrics.put("clients", service.clientMetadata.getStats());
+			metrics.put("assets", service.staticAssets.getStats());
+			metrics.put("compression", service.compression.getStats());
+			JSONObject executors = new JSONObject();
+			for (BoundedExecutor e : new BoundedExecutor[] { service.exportExecutor, service.submissionExecutor,
+					service.formExecutor }) {
+				executors.put(e.getName(), e.getStats());
+			}
+			metrics.put("executors", executors);
+			if (service.queryExecutor.readOnly() != service.queryExecutor) {
+				metrics.put("replicaPool", service.queryExecutor.readOnly().getPoolStats());
+			}
+			return Response.status(Status.OK).entity(metrics.toJSONString()).type(MediaType.APPLICATION_JSON).build();
+		}
+
 		@GET
 		@Produces(MediaType.APPLICATION_JSON)
 		@Path("userinfo")
@@ -529,6 +841,51 @@ public class SurveyService extends RESTService {
 			}
 		}
 
+		/**
+		 * Retrieves several questionnaires by id in a single request. Questionnaires are served from the catalog; questionnaires not
+		 * in the catalog are read from the database in a single query.
+		 * 
+		 * @param ids comma-separated list of questionnaire ids
+		 * @param fields comma-separated list of fields to include
+		 * @return
+		 */
+		@GET
+		@Produces(MediaType.APPLICATION_JSON)
+		@Path("questionnaires/batch")
+		@ApiOperation(
+				value = "getQuestionnairesBatch",
+				notes = "Parameter 'ids' is a comma-separated list of at most " + MAX_PAGE_SIZE + " questionnaire ids. Questionnaires "
+						+ "are returned in the order of the given ids; ids of non-existing questionnaires are listed in 'missing'.")
+		@ApiResponses(
+				value = { @ApiResponse(
+						code = 200,
+						message = "Questionnaires data"),
+						@ApiResponse(
+								code = 400,
+								message = "Invalid ids or fields.") })
+		public Response getQuestionnairesBatch(@QueryParam("ids") @DefaultValue("") String ids,
+				@QueryParam("fields") String fields) {
+
+			String onAction = "retrieving questionnaire batch";
+
+			List<Integer> idList;
+			List<String> fieldList;
+			try {
+				idList = parseIds(ids);
+				fieldList = parseFields(fields, Catalog.QUESTIONNAIRE_FIELDS);
+			} catch (IllegalArgumentException e) {
+				return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+			}
+
+			try {
+				JSONObject r = batchResult("questionnaires", idList, service.catalog.getQuestionnaires(idList), fieldList);
+				return Response.status(Status.OK).entity(r.toJSONString()).build();
+			} catch (Exception e) {
+				e.printStackTrace();
+				return internalError(onAction);
+			}
+		}
+
 		/**
 		 * TODO: write documentation Retrieves information for a given questionnaire.
 		 * 
@@ -553,59 +910,12 @@ public class SurveyService extends RESTService {
 			String onAction = "retrieving questionnaire " + id;
 
 			try {
-
-				Connection conn = null;
-				PreparedStatement stmt = null;
-				ResultSet rset = null;
-
-				try {
-					conn = dataSource.getConnection();
-					stmt = conn.prepareStatement("select id, owner, name, description, organization, logo, lang from "
-							+ service.jdbcSchema + ".questionnaire where id = ?");
-					stmt.setInt(1, id);
-
-					rset = stmt.executeQuery();
-
-					if (!rset.isBeforeFirst()) {
-						return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not exist!")
-								.build();
-					}
-					rset.next();
-					JSONObject r = readQuestionnaireFromResultSet(rset);
-
-					return Response.status(Status.OK).entity(r.toJSONString()).build();
-
-				} catch (SQLException | UnsupportedOperationException e) {
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rset != null) {
-							rset.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (stmt != null) {
-							stmt.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (conn != null) {
-							conn.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
+				JSONObject r = service.catalog.getQuestionnaire(id);
+				if (r == null) {
+					return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not exist!").build();
 				}
-			}
-
-			catch (Exception e) {
+				return Response.status(Status.OK).entity(r.toJSONString()).build();
+			} catch (Exception e) {
 				e.printStackTrace();
 				return internalError(onAction);
 			}
@@ -635,26 +945,13 @@ public class SurveyService extends RESTService {
 			}
 			// adapt template to specific questionnaire
 			try {
-				// load template from file
-				Scanner scanner = new Scanner(new File("./etc/html/questionnaire-id-template.html"));
-				String html = scanner.useDelimiter("\\A").next();
-				scanner.close();
-				// localize template
-				html = i18n(html, lang);
-
-				// fill in placeholders with values
-				html = fillPlaceHolder(html, "ID", "" + id);
-				html = fillPlaceHolder(html, "EP_URL", service.epUrl);
-				html = fillPlaceHolder(html, "L2P_URL", service.las2peerUrl);
-				html = fillPlaceHolder(html, "SC_URL", service.staticContentUrl);
-				html = fillPlaceHolder(html, "OIDC_PROV_NAME", service.oidcProviderName);
-				html = fillPlaceHolder(html, "OIDC_PROV_LOGO", service.oidcProviderLogo);
-				html = fillPlaceHolder(html, "OIDC_PROV_URL", service.oidcProviderUrl);
-				html = fillPlaceHolder(html, "OIDC_CLNT_ID", service.oidcClientId);
+				// render localized template with placeholders filled in
+				String html = renderTemplate("questionnaire-id-template.html", lang,
+						Collections.singletonMap("ID", "" + id));
 
 				// finally return resulting HTML
 				return Response.status(Status.OK).entity(html).build();
-			} catch (FileNotFoundException e) {
+			} catch (IOException e) {
 				return internalError(onAction);
 			}
 		}
@@ -697,91 +994,51 @@ public class SurveyService extends RESTService {
 			String onAction = "updating questionnaire " + id;
 
 			try {
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
-
-				// +++ dsi
-				try {
-
-					int exown;
-					exown = checkExistenceOwnership(id, 1);
+				int exown;
+				exown = checkExistenceOwnership(id, 1);
 
-					// check if questionnaire exists; if not, return 404.
-					if (exown == -1) {
-						return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not exist.")
-								.build();
-					}
-					// if questionnaire exists, check if active agent is owner. if not, return 401.
-					else if (exown == 0) {
-						return Response.status(Status.UNAUTHORIZED)
-								.entity("Questionnaire " + id + " may only be updated by its owner.").build();
-					}
+				// check if questionnaire exists; if not, return 404.
+				if (exown == -1) {
+					return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not exist.").build();
+				}
+				// if questionnaire exists, check if active agent is owner. if not, return 401.
+				else if (exown == 0) {
+					return Response.status(Status.UNAUTHORIZED)
+							.entity("Questionnaire " + id + " may only be updated by its owner.").build();
+				}
 
-					// Proceed, if survey exists and active agent is owner
+				// Proceed, if survey exists and active agent is owner
 
-					// parse and validate content. If invalid, return 400 (bad request)
-					JSONObject o;
+				// parse and validate content. If invalid, return 400 (bad request)
+				JSONObject o;
 
-					try {
-						o = parseQuestionnaire(content);
-					} catch (IllegalArgumentException e) {
-						// respond with 400, if content for updated questionnaire is not valid
-						return Response.status(Status.BAD_REQUEST)
-								.entity("Invalid questionnaire data! " + e.getMessage()).build();
-					}
+				try {
+					o = parseQuestionnaire(content);
+				} catch (IllegalArgumentException e) {
+					// respond with 400, if content for updated questionnaire is not valid
+					return Response.status(Status.BAD_REQUEST).entity("Invalid questionnaire data! " + e.getMessage())
+							.build();
+				}
 
-					// if parsed content is ok, execute update
-					c = dataSource.getConnection();
-					s = c.prepareStatement("update " + service.jdbcSchema
-							+ ".questionnaire set organization=?, logo=?, name=?, description=?, lang=? where id = ?");
+				// if parsed content is ok, execute update
+				service.queryExecutor.update("update " + service.jdbcSchema
+						+ ".questionnaire set organization=?, logo=?, name=?, description=?, lang=? where id = ?", s -> {
+							s.setString(1, (String) o.get("organization"));
+							s.setString(2, (String) o.get("logo"));
+							s.setString(3, (String) o.get("name"));
+							s.setString(4, (String) o.get("description"));
+							s.setString(5, (String) o.get("lang"));
+							s.setInt(6, id);
+						});
 
-					s.setString(1, (String) o.get("organization"));
-					s.setString(2, (String) o.get("logo"));
-					s.setString(3, (String) o.get("name"));
-					s.setString(4, (String) o.get("description"));
-					s.setString(5, (String) o.get("lang"));
-					s.setInt(6, id);
+				service.catalog.reloadQuestionnaire(id);
+				return Response.status(Status.OK).entity("Questionnaire " + id + " updated successfully.").build();
 
-					s.executeUpdate();
-					return Response.status(Status.OK).entity("Questionnaire " + id + " updated successfully.").build();
-
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-				}
-				// --- dsi
-
-			} catch (Exception e) {
-				e.printStackTrace();
-				return internalError(onAction);
-			}
-		}
+			} catch (Exception e) {
+				e.printStackTrace();
+				return internalError(onAction);
+			}
+		}
 
 		/**
 		 * TODO: write documentation
@@ -816,65 +1073,28 @@ public class SurveyService extends RESTService {
 			String onAction = "deleting questionnaire " + id;
 
 			try {
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
-
-				// +++ dsi
-				try {
-
-					// first check if questionnaire to be deleted exists and current agent is owner.
-					int exown = checkExistenceOwnership(id, 1);
-
-					// check if questionnaire exists; if not, return 404.
-					if (exown == -1) {
-						return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not exist.")
-								.build();
-					}
-					// if questionnaire exists, check if active agent is owner. if not, return 401.
-					else if (exown == 0) {
-						return Response.status(Status.UNAUTHORIZED)
-								.entity("Questionnaire " + id + " may only be deleted by its owner!").build();
-					}
+				// first check if questionnaire to be deleted exists and current agent is owner.
+				int exown = checkExistenceOwnership(id, 1);
 
-					// Proceed, iff questionnaire exists and active agent is owner.
-					c = dataSource.getConnection();
-					s = c.prepareStatement("delete from " + service.jdbcSchema + ".questionnaire where id = ?");
-					s.setInt(1, id);
+				// check if questionnaire exists; if not, return 404.
+				if (exown == -1) {
+					return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not exist.").build();
+				}
+				// if questionnaire exists, check if active agent is owner. if not, return 401.
+				else if (exown == 0) {
+					return Response.status(Status.UNAUTHORIZED)
+							.entity("Questionnaire " + id + " may only be deleted by its owner!").build();
+				}
 
-					s.executeUpdate();
-					return Response.status(Status.OK).entity("Questionnaire " + id + " deleted successfully.").build();
+				// Proceed, iff questionnaire exists and active agent is owner.
+				service.queryExecutor.update("delete from " + service.jdbcSchema + ".questionnaire where id = ?",
+						s -> s.setInt(1, id));
 
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-				}
-				// --- dsi
+				service.catalog.removeQuestionnaire(id);
+				service.responseViews.dropForQuestionnaire(id);
+				service.renderedForms.dropForQuestionnaire(id);
+				service.formModels.dropForQuestionnaire(id);
+				return Response.status(Status.OK).entity("Questionnaire " + id + " deleted successfully.").build();
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -907,81 +1127,39 @@ public class SurveyService extends RESTService {
 			String onAction = "downloading form for questionnaire " + id;
 
 			try {
-				Connection conn = null;
-				PreparedStatement stmt = null;
-				ResultSet rset = null;
-
-				try {
-
-					// check if questionnaire exists; if not, return 404.
-					int exown = checkExistenceOwnership(id, 1);
+				// check if questionnaire exists; if not, return 404.
+				int exown = checkExistenceOwnership(id, 1);
 
-					// check if questionnaire exists; if not, return 404.
-					if (exown == -1) {
-						return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not exist.")
-								.build();
-					}
-
-					// if questionnaire exists, retrieve form
-					conn = dataSource.getConnection();
-					stmt = conn
-							.prepareStatement("select form from " + service.jdbcSchema + ".questionnaire where id = ?");
-					stmt.setInt(1, id);
-
-					ResultSet rs = stmt.executeQuery();
-					rs.next();
-					String formXml = rs.getString(1);
-
-					// if form field is empty, respond with not found.
-					if (formXml == null || formXml.trim().isEmpty()) {
-						return Response.status(Status.NOT_FOUND)
-								.entity("Questionnaire " + id + " does not define a form!").build();
-					}
+				// check if questionnaire exists; if not, return 404.
+				if (exown == -1) {
+					return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not exist.").build();
+				}
 
-					// before returning form, make sure it's still valid (TODO: think about removing check after
-					// testing)
-					try {
-						System.out.println("formXML: "+formXml);
-						validateQuestionnaireData(formXml);
-						return Response.status(Status.OK).entity(formXml).build();
-					} catch (IOException e) {
-						e.printStackTrace();
-						return internalError(onAction);
+				// if questionnaire exists, retrieve form
+				String formXml = requestContext().getForm(id);
 
-					} catch (SAXException e) {
-						e.printStackTrace();
-						return Response.status(Status.BAD_REQUEST)
-								.entity("Questionnaire form is invalid! Cause: " + e.getMessage()).build();
-					}
+				// if form field is empty, respond with not found.
+				if (formXml == null || formXml.trim().isEmpty()) {
+					return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not define a form!")
+							.build();
+				}
 
-				} catch (SQLException | UnsupportedOperationException e) {
+				// before returning form, make sure it's still valid (TODO: think about removing check after
+				// testing)
+				try {
+					System.out.println("formXML: "+formXml);
+					validateQuestionnaireData(formXml);
+					return Response.status(Status.OK).entity(formXml).build();
+				} catch (IOException e) {
+					e.printStackTrace();
 					return internalError(onAction);
-				} finally {
-					try {
-						if (rset != null) {
-							rset.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (stmt != null) {
-							stmt.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (conn != null) {
-							conn.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
+
+				} catch (SAXException e) {
+					e.printStackTrace();
+					return Response.status(Status.BAD_REQUEST)
+							.entity("Questionnaire form is invalid! Cause: " + e.getMessage()).build();
 				}
+
 			} catch (Exception e) {
 				e.printStackTrace();
 				return internalError(onAction);
@@ -1024,89 +1202,56 @@ public class SurveyService extends RESTService {
 			String onAction = "uploading form for questionnaire " + id;
 
 			try {
-				Connection conn = null;
-				PreparedStatement stmt = null;
-				ResultSet rset = null;
+				//
+				int exown = checkExistenceOwnership(id, 1);
 
-				try {
+				// check if questionnaire exists; if not, return 404.
+				if (exown == -1) {
+					return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not exist.").build();
+				}
+				// if questionnaire exists, check if active agent is owner. if not, return 401.
+				else if (exown == 0) {
+					return Response.status(Status.UNAUTHORIZED)
+							.entity("Form for questionnaire " + id + "  may only be uploaded by its owner.").build();
+				}
 
-					//
-					int exown = checkExistenceOwnership(id, 1);
+				// before storing to database validate questionnaire form
+				try {
+					// validate form XML against MobSOS Survey XML Schema. Since the schema also defines valid
+					// responses, a next check
+					// is needed to make sure the passed and valid XML is a questionnaire form, and not a response.
+					Document form = validateQuestionnaireData(formXml);
 
-					// check if questionnaire exists; if not, return 404.
-					if (exown == -1) {
-						return Response.status(Status.NOT_FOUND).entity("Questionnaire " + id + " does not exist.")
-								.build();
-					}
-					// if questionnaire exists, check if active agent is owner. if not, return 401.
-					else if (exown == 0) {
-						return Response.status(Status.UNAUTHORIZED)
-								.entity("Form for questionnaire " + id + "  may only be uploaded by its owner.")
+					if (!form.getDocumentElement().getNodeName().equals("qu:Questionnaire")) {
+						return Response.status(Status.BAD_REQUEST)
+								.entity("Document is not a questionnaire form! Cause: Document element must be 'qu:Questionnaire'.")
 								.build();
 					}
 
-					// before storing to database validate questionnaire form
-					try {
-						// validate form XML against MobSOS Survey XML Schema. Since the schema also defines valid
-						// responses, a next check
-						// is needed to make sure the passed and valid XML is a questionnaire form, and not a response.
-						Document form = validateQuestionnaireData(formXml);
-
-						if (!form.getDocumentElement().getNodeName().equals("qu:Questionnaire")) {
-							return Response.status(Status.BAD_REQUEST)
-									.entity("Document is not a questionnaire form! Cause: Document element must be 'qu:Questionnaire'.")
-									.build();
-						}
-
-						// String lang = form.getDocumentElement().getAttribute("xml:lang");
-						// System.out.println("Language detected: " + lang);
+					// String lang = form.getDocumentElement().getAttribute("xml:lang");
+					// System.out.println("Language detected: " + lang);
 
-					} catch (SAXException e) {
-						return Response.status(Status.BAD_REQUEST)
-								.entity("Questionnaire form is invalid! Cause: " + e.getMessage()).build();
-					}
+				} catch (SAXException e) {
+					return Response.status(Status.BAD_REQUEST)
+							.entity("Questionnaire form is invalid! Cause: " + e.getMessage()).build();
+				}
 
-					// store valid form to database
-					conn = dataSource.getConnection();
-					stmt = conn.prepareStatement(
-							"update " + service.jdbcSchema + ".questionnaire set form=? where id = ?");
+				// store valid form to database
+				service.queryExecutor.update("update " + service.jdbcSchema + ".questionnaire set form=? where id = ?",
+						s -> {
+							s.setString(1, formXml);
+							s.setInt(2, id);
+						});
 
-					stmt.setString(1, formXml);
-					stmt.setInt(2, id);
-					stmt.executeUpdate();
+				// response views of surveys using this questionnaire no longer match the form
+				service.responseViews.dropForQuestionnaire(id);
+				service.renderedForms.dropForQuestionnaire(id);
+				service.formModels.dropForQuestionnaire(id);
 
-					// respond to user
-					return Response.status(Status.OK).entity("Form upload for questionnaire " + id + " successful.")
-							.build();
+				// respond to user
+				return Response.status(Status.OK).entity("Form upload for questionnaire " + id + " successful.")
+						.build();
 
-				} catch (SQLException | UnsupportedOperationException e) {
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rset != null) {
-							rset.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (stmt != null) {
-							stmt.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (conn != null) {
-							conn.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-				}
 			} catch (Exception e) {
 				e.printStackTrace();
 				return internalError(onAction);
@@ -1124,26 +1269,12 @@ public class SurveyService extends RESTService {
 
 			// only respond with template; nothing to be adapted
 			try {
-				// load template from file
-				Scanner scanner = new Scanner(new File("./etc/html/surveys-template.html"));
-				String html = scanner.useDelimiter("\\A").next();
-				scanner.close();
-
-				// localize template
-				html = i18n(html, lang);
-
-				// fill in placeholders
-				html = fillPlaceHolder(html, "EP_URL", service.epUrl);
-				html = fillPlaceHolder(html, "L2P_URL", service.las2peerUrl);
-				html = fillPlaceHolder(html, "SC_URL", service.staticContentUrl);
-				html = fillPlaceHolder(html, "OIDC_PROV_NAME", service.oidcProviderName);
-				html = fillPlaceHolder(html, "OIDC_PROV_LOGO", service.oidcProviderLogo);
-				html = fillPlaceHolder(html, "OIDC_PROV_URL", service.oidcProviderUrl);
-				html = fillPlaceHolder(html, "OIDC_CLNT_ID", service.oidcClientId);
+				// render localized template with placeholders filled in
+				String html = renderTemplate("surveys-template.html", lang, Collections.emptyMap());
 
 				// finally return resulting HTML
 				return Response.status(Status.OK).entity(html).build();
-			} catch (FileNotFoundException e) {
+			} catch (IOException e) {
 				return internalError(onAction);
 			}
 		}
@@ -1166,92 +1297,66 @@ public class SurveyService extends RESTService {
 		@Path("surveys")
 		@ApiOperation(
 				value = "getSurveys",
-				notes = "Query parameter matches questionnaire name, description.")
+				notes = "Query parameter matches questionnaire name, description. Results are ordered by name and returned "
+						+ "in pages of at most 'limit' entries; pass the returned 'next' value as 'cursor' to retrieve "
+						+ "the following page. Parameter 'fields' restricts full entries to a comma-separated list of fields.")
 		@ApiResponses(
 				value = { @ApiResponse(
 						code = 200,
-						message = "Questionnaires data (TODO: introduce Swagger models)"), })
+						message = "Questionnaires data (TODO: introduce Swagger models)"),
+						@ApiResponse(
+								code = 400,
+								message = "Invalid cursor or unknown field.") })
 		public Response getSurveys(@QueryParam("full") @DefaultValue("1") int full,
-				@QueryParam("q") @DefaultValue("") String query) {
+				@QueryParam("q") @DefaultValue("") String query, @QueryParam("limit") @DefaultValue("0") int limit,
+				@QueryParam("cursor") String cursor, @QueryParam("fields") String fields) {
 
 			String onAction = "retrieving surveys";
 
 			try {
-				JSONObject r = new JSONObject(); // result to return in HTTP response
-				JSONArray qs = new JSONArray(); // variable for collecting surveys from DB
+				JSONObject r; // result to return in HTTP response
 
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
-
-				// use query for survey id per default
-				String sQuery = "select id from survey where name like ? or description like ? or organization like ?";
+				// parse paging and projection parameters. If invalid, return 400 (bad request)
+				List<String> fieldList;
+				String after;
+				try {
+					fieldList = parseFields(fields, Catalog.SURVEY_FIELDS);
+					after = decodeCursor(cursor);
+				} catch (IllegalArgumentException e) {
+					return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+				}
+				int pageSize = pageSize(limit);
 
-				// if query parameter full is provided greater 0, then use query for full questionnaire data set.
-				if (full > 0) {
-					sQuery = "select * from survey where name like ? or description like ? or organization like ? order by name";
+				// serve listing from in-memory catalog, if loaded
+				if (service.catalog.isLoaded()) {
+					r = listingPage("surveys", service.catalog.listSurveys(query, after, pageSize + 1), pageSize, full,
+							fieldList);
+					return Response.status(Status.OK).entity(r.toJSONString()).build();
 				}
 
-				try {
-					c = dataSource.getConnection();
-					s = c.prepareStatement(sQuery);
-					s.setString(1, "%" + query + "%");
-					s.setString(2, "%" + query + "%");
-					s.setString(3, "%" + query + "%");
-
-					rs = s.executeQuery();
-
-					// in case result set is empty...
-					if (!rs.isBeforeFirst()) {
-						r.put("surveys", qs);
-						return Response.status(Status.OK).entity(r.toJSONString()).build();
-					}
+				// use query for survey id per default. If query parameter full is provided greater 0, then select
+				// requested fields only.
+				List<String> selected = selectFields(full > 0 ? fieldList : Collections.emptyList());
 
-					// in case result set contains entries...
-					while (rs.next()) {
-						if (full > 0) {
-							JSONObject survey = readSurveyFromResultSet(rs);
-							survey.put("url", service.epUrl + "surveys/" + survey.get("id"));
-							qs.add(survey);
-						} else {
-							String id = rs.getString("id");
-							qs.add(service.epUrl + "surveys/" + id);
-						}
-					}
+				String sQuery = "select " + columns(selected, Catalog.SURVEY_FIELDS) + " from " + service.jdbcSchema
+						+ ".survey where (name like ? or description like ? or organization like ?)"
+						+ (after != null ? " and name > ?" : "") + " order by name limit ?";
 
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
+				String pattern = "%" + query + "%";
+				List<JSONObject> entries = service.queryExecutor.readOnly().query(sQuery, s -> {
+					s.setString(1, pattern);
+					s.setString(2, pattern);
+					s.setString(3, pattern);
+					int p = 4;
+					if (after != null) {
+						s.setString(p++, after);
 					}
-				}
+					// fetch one more row than requested to find out if there is a next page
+					s.setInt(p, pageSize + 1);
+				}, rs -> Catalog.readSurvey(rs, selected));
 
-				r.put("surveys", qs);
+				r = listingPage("surveys", entries, pageSize, full, fieldList);
 				return Response.status(Status.OK).entity(r.toJSONString()).build();
-
 			} catch (Exception e) {
 				e.printStackTrace();
 				return internalError(onAction);
@@ -1307,6 +1412,7 @@ public class SurveyService extends RESTService {
 				try {
 					// if passed content is valid, store as new survey
 					int sid = storeNewSurvey(o);
+					service.catalog.reloadSurvey(sid);
 					System.out.println("Stored survey: " + sid);
 					// respond to user with newly generated survey id/URL
 					JSONObject r = new JSONObject();
@@ -1316,7 +1422,7 @@ public class SurveyService extends RESTService {
 					return Response.status(Status.CREATED).entity(r.toJSONString()).build();
 				} catch (SQLException e) {
 
-					if (0 <= e.getMessage().indexOf("Duplicate")) {
+					if (service.storage.isDuplicateKey(e)) {
 						System.out.println("Survey already exists");
 						return Response.status(Status.CONFLICT).entity("Survey already exists").build();
 					} else {
@@ -1346,49 +1452,79 @@ public class SurveyService extends RESTService {
 			String onAction = "deleting surveys";
 
 			try {
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
+				service.queryExecutor.update("delete from " + service.jdbcSchema + ".survey",
+						QueryExecutor.NO_PARAMETERS);
+				service.catalog.removeAllSurveys();
+				service.responseViews.dropAll();
+				service.renderedForms.dropAll();
+				service.formModels.dropAll();
+				return Response.status(Status.OK).entity("").build();
 
-				// +++ dsi
-				try {
-					c = dataSource.getConnection();
-					s = c.prepareStatement("delete from " + service.jdbcSchema + ".survey");
+			} catch (Exception e) {
+				e.printStackTrace();
+				return internalError(onAction);
+			}
+		}
+
+		/**
+		 * Suggests questionnaire names, survey names and resource labels of surveys starting with a given prefix, e.g.
+		 * for autocompleting questionnaire selection when creating surveys. Suggestions are served from an in-memory
+		 * index maintained along with the survey and questionnaire catalog.
+		 * 
+		 * @param prefix name prefix (case-insensitive)
+		 * @param type questionnaire, survey or resource to restrict suggestions to a single type
+		 * @param limit maximum number of suggestions
+		 * @return
+		 */
+		@SuppressWarnings("unchecked")
+		@GET
+		@Produces(MediaType.APPLICATION_JSON)
+		@Path("suggestions")
+		@ApiOperation(
+				value = "getSuggestions",
+				notes = "Prefix autocomplete over questionnaire names, survey names and survey resource labels. Results are "
+						+ "ordered by name. Parameter 'type' restricts suggestions to questionnaire, survey or resource.")
+		@ApiResponses(
+				value = { @ApiResponse(
+						code = 200,
+						message = "Suggestions"),
+						@ApiResponse(
+								code = 400,
+								message = "Invalid suggestion type."),
+						@ApiResponse(
+								code = 503,
+								message = "Suggestion index not available.") })
+		public Response getSuggestions(@QueryParam("q") @DefaultValue("") String prefix,
+				@QueryParam("type") String type, @QueryParam("limit") @DefaultValue("10") int limit) {
 
-					s.executeUpdate();
-					return Response.status(Status.OK).entity("").build();
+			String onAction = "retrieving suggestions";
 
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
+			if (type != null && !type.equals(NameIndex.QUESTIONNAIRE) && !type.equals(NameIndex.SURVEY)
+					&& !type.equals(NameIndex.RESOURCE)) {
+				return Response.status(Status.BAD_REQUEST).entity("Invalid suggestion type '" + type
+						+ "'! Available types are questionnaire, survey and resource.").build();
+			}
+			if (limit < 1 || limit > MAX_SUGGESTIONS) {
+				limit = MAX_SUGGESTIONS;
+			}
+
+			try {
+				if (!service.catalog.isLoaded()) {
+					return Response.status(Status.SERVICE_UNAVAILABLE).entity("Suggestions currently not available!")
+							.build();
+				}
+
+				JSONArray suggestions = new JSONArray();
+				for (JSONObject o : service.catalog.suggest(prefix, type, limit)) {
+					if (!NameIndex.RESOURCE.equals(o.get("type"))) {
+						o.put("url", service.epUrl + o.get("type") + "s/" + o.get("id"));
 					}
+					suggestions.add(o);
 				}
-				// --- dsi
 
+				JSONObject r = new JSONObject();
+				r.put("suggestions", suggestions);
+				return Response.status(Status.OK).entity(r.toJSONString()).build();
 			} catch (Exception e) {
 				e.printStackTrace();
 				return internalError(onAction);
@@ -1396,123 +1532,161 @@ public class SurveyService extends RESTService {
 		}
 
 		/**
-		 * TODO: write documentation Retrieves information for a given survey
+		 * Retrieves surveys addressing a given resource (i.e. OIDC client), which are currently active. Client
+		 * applications may use this resource to discover surveys for their users. Responses may be cached until the
+		 * set of active surveys for the resource changes next, i.e. until the next start or end of a survey for that
+		 * resource, but at most {@link #MAX_ACTIVE_SURVEYS_AGE} seconds.
 		 * 
-		 * @param id
+		 * @param resource resource addressed by surveys
 		 * @return
 		 */
+		@SuppressWarnings("unchecked")
 		@GET
 		@Produces(MediaType.APPLICATION_JSON)
-		@Path("surveys/{id}")
+		@Path("surveys/active")
 		@ApiOperation(
-				value = "getSurvey",
-				notes = "Use <b>/surveys</b> to retrieve list of existing surveys.")
+				value = "getActiveSurveys",
+				notes = "Lists surveys for the given resource, which are active now, ordered by start time.")
 		@ApiResponses(
 				value = { @ApiResponse(
 						code = 200,
-						message = "Survey data (TODO: introduce Swagger models)"),
+						message = "Active surveys"),
 						@ApiResponse(
-								code = 404,
-								message = "Survey does not exist.") })
-		public Response getSurvey(@PathParam("id") int id) {
+								code = 400,
+								message = "No resource given."),
+						@ApiResponse(
+								code = 503,
+								message = "Active surveys not available.") })
+		public Response getActiveSurveys(@QueryParam("resource") String resource) {
 
-			String onAction = "retrieving survey " + id;
+			String onAction = "retrieving active surveys";
 
-			try {
-				JSONObject r = new JSONObject(); // result to return in HTTP response
+			if (resource == null || resource.isEmpty()) {
+				return Response.status(Status.BAD_REQUEST).entity("No resource given!").build();
+			}
 
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
+			try {
+				if (!service.catalog.isLoaded()) {
+					return Response.status(Status.SERVICE_UNAVAILABLE)
+							.entity("Active surveys currently not available!").build();
+				}
 
-				// +++ dsi
-				try {
-					// query for given survey
-					c = dataSource.getConnection();
+				long now = System.currentTimeMillis();
+				JSONArray surveys = new JSONArray();
+				for (JSONObject o : service.catalog.activeSurveys(resource, now)) {
+					o.put("url", service.epUrl + "surveys/" + o.get("id"));
+					surveys.add(o);
+				}
 
-					// TODO: restore, as soon as resource information comes from an external source
-					s = c.prepareStatement("select * from " + service.jdbcSchema + ".survey where id = ?");
+				// allow caching until the next survey window boundary
+				long next = service.catalog.nextWindowBoundary(resource, now);
+				long maxAge = Math.min(MAX_ACTIVE_SURVEYS_AGE, (next - now) / 1000);
+				CacheControl cc = new CacheControl();
+				cc.setMaxAge((int) maxAge);
 
-					// TODO: replace by external source for retrieving resource information
-					// s = c.prepareStatement("select s.*, r.name as rname, r.description as rdesc from " + jdbcSchema +
-					// ".survey s left join " + jdbcSchema + ".resource r on (s.resource = r.uri) where id = ?");
-					s.setInt(1, id);
+				JSONObject r = new JSONObject();
+				r.put("surveys", surveys);
+				return Response.status(Status.OK).entity(r.toJSONString()).cacheControl(cc).build();
+			} catch (Exception e) {
+				e.printStackTrace();
+				return internalError(onAction);
+			}
+		}
 
-					rs = s.executeQuery();
+		/**
+		 * Retrieves several surveys by id in a single request. Surveys are served from the catalog; surveys not
+		 * in the catalog are read from the database in a single query.
+		 * 
+		 * @param ids comma-separated list of survey ids
+		 * @param fields comma-separated list of fields to include
+		 * @return
+		 */
+		@GET
+		@Produces(MediaType.APPLICATION_JSON)
+		@Path("surveys/batch")
+		@ApiOperation(
+				value = "getSurveysBatch",
+				notes = "Parameter 'ids' is a comma-separated list of at most " + MAX_PAGE_SIZE + " survey ids. Surveys "
+						+ "are returned in the order of the given ids; ids of non-existing surveys are listed in 'missing'.")
+		@ApiResponses(
+				value = { @ApiResponse(
+						code = 200,
+						message = "Surveys data"),
+						@ApiResponse(
+								code = 400,
+								message = "Invalid ids or fields.") })
+		public Response getSurveysBatch(@QueryParam("ids") @DefaultValue("") String ids,
+				@QueryParam("fields") String fields) {
 
-					// if survey does not exist, respond to user with not found
-					if (!rs.isBeforeFirst()) {
-						return Response.status(Status.NOT_FOUND).entity("Survey " + id + " does not exist!").build();
-					}
+			String onAction = "retrieving survey batch";
 
-					// if survey was found, respond to user with JSON result
-					rs.next();
-					r = readSurveyFromResultSet(rs);
+			List<Integer> idList;
+			List<String> fieldList;
+			try {
+				idList = parseIds(ids);
+				fieldList = parseFields(fields, Catalog.SURVEY_FIELDS);
+			} catch (IllegalArgumentException e) {
+				return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+			}
 
-					// TODO: replace by external resource information
-					// String resource_name = rs.getString("rname");
-					// String resource_description = rs.getString("rdesc");
-
-					// String resource_uri = (String) r.get("resource");
-
-					// JSONObject res = new JSONObject();
-					// res.put("uri",resource_uri);
-					// res.put("name", resource_name);
-					// res.put("description", resource_description);
+			try {
+				JSONObject r = batchResult("surveys", idList, service.catalog.getSurveys(idList), fieldList);
+				return Response.status(Status.OK).entity(r.toJSONString()).build();
+			} catch (Exception e) {
+				e.printStackTrace();
+				return internalError(onAction);
+			}
+		}
 
-					// r.put("resource", res);
+		/**
+		 * TODO: write documentation Retrieves information for a given survey
+		 * 
+		 * @param id
+		 * @return
+		 */
+		@GET
+		@Produces(MediaType.APPLICATION_JSON)
+		@Path("surveys/{id}")
+		@ApiOperation(
+				value = "getSurvey",
+				notes = "Use <b>/surveys</b> to retrieve list of existing surveys.")
+		@ApiResponses(
+				value = { @ApiResponse(
+						code = 200,
+						message = "Survey data (TODO: introduce Swagger models)"),
+						@ApiResponse(
+								code = 404,
+								message = "Survey does not exist.") })
+		public Response getSurvey(@PathParam("id") int id) {
 
-					// before, try to retrieve information on resource
+			String onAction = "retrieving survey " + id;
 
-					return Response.status(Status.OK).entity(r.toJSONString()).build();
+			try {
+				JSONObject r = service.catalog.getSurvey(id);
 
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
+				// if survey does not exist, respond to user with not found
+				if (r == null) {
+					return Response.status(Status.NOT_FOUND).entity("Survey " + id + " does not exist!").build();
 				}
-				// --- dsi
 
+				// if survey was found, respond to user with JSON result
+				return Response.status(Status.OK).entity(r.toJSONString()).build();
 			} catch (Exception e) {
 				e.printStackTrace();
 				return internalError(onAction);
 			}
-
 		}
 
 		@GET
 		@Produces(MediaType.TEXT_HTML)
 		@Path("surveys/{id}")
-		public Response getSurveyHTML(@HeaderParam("accept-language") String lang, @PathParam("id") int id) {
+		public Response getSurveyHTML(@HeaderParam("accept-language") @DefaultValue("en-US") String lang,
+				@PathParam("id") int id) {
 			String onAction = "retrieving individual survey HTML";
 
 			try {
 				// if survey does not exist, return 404.
-				if (checkExistenceOwnership(id, 0) == -1) {
+				if (service.catalog.getSurvey(id) == null) {
 					return Response.status(Status.NOT_FOUND).entity("Survey does not exist!").build();
 				}
 			} catch (Exception e1) {
@@ -1521,25 +1695,12 @@ public class SurveyService extends RESTService {
 
 			// adapt template to specific survey
 			try {
-				Scanner scanner = new Scanner(new File("./etc/html/survey-id-template.html"));
-				String html = scanner.useDelimiter("\\A").next();
-				scanner.close();
-				// localize template
-				html = i18n(html, lang);
-
-				// fill in placeholders with concrete values
-				html = fillPlaceHolder(html, "ID", "" + id);
-				html = fillPlaceHolder(html, "EP_URL", service.epUrl);
-				html = fillPlaceHolder(html, "L2P_URL", service.las2peerUrl);
-				html = fillPlaceHolder(html, "SC_URL", service.staticContentUrl);
-				html = fillPlaceHolder(html, "OIDC_PROV_NAME", service.oidcProviderName);
-				html = fillPlaceHolder(html, "OIDC_PROV_LOGO", service.oidcProviderLogo);
-				html = fillPlaceHolder(html, "OIDC_PROV_URL", service.oidcProviderUrl);
-				html = fillPlaceHolder(html, "OIDC_CLNT_ID", service.oidcClientId);
+				// render localized template with placeholders filled in
+				String html = renderTemplate("survey-id-template.html", lang, Collections.singletonMap("ID", "" + id));
 
 				// finally return resulting HTML
 				return Response.status(Status.OK).entity(html).build();
-			} catch (FileNotFoundException e) {
+			} catch (IOException e) {
 				return internalError(onAction);
 			}
 		}
@@ -1579,95 +1740,56 @@ public class SurveyService extends RESTService {
 			String onAction = "updating survey " + id;
 
 			try {
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
-
-				// +++ dsi
-				try {
-
-					int exown;
-					// survey may only be updated if survey exists and active agent is owner
-					exown = checkExistenceOwnership(id, 0);
-
-					// check if survey exists; if not, return 404.
-					if (exown == -1) {
-						return Response.status(Status.NOT_FOUND).entity("Survey " + id + " does not exist.").build();
-					}
-					// if survey exists, check if active agent is owner. if not, return 401.
-					else if (exown == 0) {
-						return Response.status(Status.UNAUTHORIZED)
-								.entity("Survey " + id + " may only be deleted by its owner.").build();
-					}
-
-					// if survey exists and active agent is owner, proceed.
-
-					JSONObject o;
-					// parse and validate content. If invalid, return 400 (bad request)
-					try {
-						o = parseSurvey(content);
-					} catch (IllegalArgumentException e) {
-						return Response.status(Status.BAD_REQUEST).entity("Invalid survey data! " + e.getMessage())
-								.build();
-					}
-
-					c = dataSource.getConnection();
-					s = c.prepareStatement("update " + service.jdbcSchema
-							+ ".survey set organization=?, logo=?, name=?, description=?, resource=?, start=?, end=?, lang=?, resource_label=? where id = ?");
-
-					s.setString(1, (String) o.get("organization"));
-					s.setString(2, (String) o.get("logo"));
-					s.setString(3, (String) o.get("name"));
-					s.setString(4, (String) o.get("description"));
-					s.setString(5, (String) o.get("resource"));
-					s.setTimestamp(6,
-							new Timestamp(DatatypeConverter.parseDateTime((String) o.get("start")).getTimeInMillis()));
-					s.setTimestamp(7,
-							new Timestamp(DatatypeConverter.parseDateTime((String) o.get("end")).getTimeInMillis()));
-					s.setString(8, (String) o.get("lang"));
-					s.setString(9, (String) o.get("resource-label"));
-					s.setInt(10, id);
+				int exown;
+				// survey may only be updated if survey exists and active agent is owner
+				exown = checkExistenceOwnership(id, 0);
 
-					s.executeUpdate();
+				// check if survey exists; if not, return 404.
+				if (exown == -1) {
+					return Response.status(Status.NOT_FOUND).entity("Survey " + id + " does not exist.").build();
+				}
+				// if survey exists, check if active agent is owner. if not, return 401.
+				else if (exown == 0) {
+					return Response.status(Status.UNAUTHORIZED).entity("Survey " + id + " may only be deleted by its owner.")
+							.build();
+				}
 
-					return Response.status(Status.OK).entity("Survey " + id + " updated successfully.").build();
+				// if survey exists and active agent is owner, proceed.
 
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
+				JSONObject o;
+				// parse and validate content. If invalid, return 400 (bad request)
+				try {
+					o = parseSurvey(content);
+				} catch (IllegalArgumentException e) {
+					return Response.status(Status.BAD_REQUEST).entity("Invalid survey data! " + e.getMessage()).build();
 				}
-				// --- dsi
+
+				service.queryExecutor.update("update " + service.jdbcSchema
+						+ ".survey set organization=?, logo=?, name=?, description=?, resource=?, start=?, end=?, lang=?, resource_label=? where id = ?",
+						s -> {
+							s.setString(1, (String) o.get("organization"));
+							s.setString(2, (String) o.get("logo"));
+							s.setString(3, (String) o.get("name"));
+							s.setString(4, (String) o.get("description"));
+							s.setString(5, (String) o.get("resource"));
+							s.setTimestamp(6, new Timestamp(
+									DatatypeConverter.parseDateTime((String) o.get("start")).getTimeInMillis()));
+							s.setTimestamp(7, new Timestamp(
+									DatatypeConverter.parseDateTime((String) o.get("end")).getTimeInMillis()));
+							s.setString(8, (String) o.get("lang"));
+							s.setString(9, (String) o.get("resource-label"));
+							s.setInt(10, id);
+						});
+				service.catalog.reloadSurvey(id);
+				service.renderedForms.drop(id);
+				service.formModels.drop(id);
+
+				return Response.status(Status.OK).entity("Survey " + id + " updated successfully.").build();
 
 			} catch (Exception e) {
 				e.printStackTrace();
 				return internalError(onAction);
 			}
-
 		}
 
 		/**
@@ -1700,68 +1822,31 @@ public class SurveyService extends RESTService {
 			String onAction = "deleting survey " + id;
 
 			try {
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
-
-				// +++ dsi
-				try {
-
-					// first check if survey to be deleted exists and current agent is owner.
-					int exown = checkExistenceOwnership(id, 0);
-
-					// check if survey exists; if not, return 404.
-					if (exown == -1) {
-						return Response.status(Status.NOT_FOUND).entity("Survey " + id + " does not exist.").build();
-					}
-					// if survey exists, check if active agent is owner. if not, return 401.
-					else if (exown == 0) {
-						return Response.status(Status.UNAUTHORIZED)
-								.entity("Survey " + id + " may only be deleted by its owner.").build();
-					}
-
-					// if survey exists and active agent is owner, perform deletion
-					c = dataSource.getConnection();
-					s = c.prepareStatement("delete from " + service.jdbcSchema + ".survey where id = ?");
-					s.setInt(1, id);
+				// first check if survey to be deleted exists and current agent is owner.
+				int exown = checkExistenceOwnership(id, 0);
 
-					s.executeUpdate();
+				// check if survey exists; if not, return 404.
+				if (exown == -1) {
+					return Response.status(Status.NOT_FOUND).entity("Survey " + id + " does not exist.").build();
+				}
+				// if survey exists, check if active agent is owner. if not, return 401.
+				else if (exown == 0) {
+					return Response.status(Status.UNAUTHORIZED).entity("Survey " + id + " may only be deleted by its owner.")
+							.build();
+				}
 
-					// TODO: check return value of update to see if deletion really occurred
-					// System.out.println("Result: " + r);
+				// if survey exists and active agent is owner, perform deletion
+				service.queryExecutor.update("delete from " + service.jdbcSchema + ".survey where id = ?",
+						s -> s.setInt(1, id));
+				service.catalog.removeSurvey(id);
+				service.responseViews.drop(id);
+				service.renderedForms.drop(id);
+				service.formModels.drop(id);
 
-					return Response.status(Status.OK).entity("Survey " + id + " deleted successfully.").build();
+				// TODO: check return value of update to see if deletion really occurred
+				// System.out.println("Result: " + r);
 
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-				}
-				// --- dsi
+				return Response.status(Status.OK).entity("Survey " + id + " deleted successfully.").build();
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -1786,6 +1871,8 @@ public class SurveyService extends RESTService {
 			// get questionnaire id
 			int qid;
 			try{
+				// load survey with questionnaire form at once
+				requestContext().getSurvey(id);
 				qid = getQuestionnaireIdForSurvey(id);
 			}catch(Exception e){
 				e.printStackTrace();
@@ -1813,7 +1900,7 @@ public class SurveyService extends RESTService {
 			}
 
 			// use form to get question infos
-			JSONObject questions = extractQuestionInformation(form);
+			JSONObject questions = Questionnaires.extractQuestionInformation(form);
 			return Response.ok().entity(questions).build();
 		}
 
@@ -1839,328 +1926,224 @@ public class SurveyService extends RESTService {
 						@ApiResponse(
 								code = 404,
 								message = "Questionnaire does not exist. <b>-or-</b> Survey questionnaire not set. <b>-or-</b> Survey questionnaire does not define form.") })
-		public Response getSurveyQuestionnaireFormHTML(
-				@HeaderParam("accept-language") @DefaultValue("en-US") String lang, @PathParam("id") int id) {
+		public void getSurveyQuestionnaireFormHTML(
+				@HeaderParam("accept-language") @DefaultValue("en-US") String lang, @PathParam("id") int id,
+				@Suspended AsyncResponse asyncResponse) {
+			handleAsync(service.formExecutor, asyncResponse, () -> renderSurveyQuestionnaireFormHTML(lang, id));
+		}
+
+		/**
+		 * Renders the questionnaire form of a survey to HTML.
+		 */
+		private Response renderSurveyQuestionnaireFormHTML(String lang, int id) {
 
 			String onAction = "downloading questionnaire form for survey " + id;
 
+			JSONObject survey;
 			try {
-				// if survey does not exist, return 404.
-				if (checkExistenceOwnership(id, 0) == -1) {
+				// retrieve survey from catalog; if survey does not exist, return 404.
+				survey = service.catalog.getSurvey(id);
+				if (survey == null) {
 					return Response.status(Status.NOT_FOUND).entity("Survey does not exist!").build();
 				}
 			} catch (Exception e1) {
 				return internalError(onAction);
 			}
 
-			Connection conn = null;
-			PreparedStatement stmt = null;
-			ResultSet rset = null;
 			String formXml;
 
 			// -----------------
 
 			try {
 
-				// retrieve survey data; if survey does not exist, return 404.
-				Response r = getSurvey(id);
-				if (200 != r.getStatus()) {
-					System.err.println(r.getEntity());
-					return r;
-				}
-
-				JSONObject survey = (JSONObject) JSONValue.parse((String) r.getEntity());
-
 				// check if survey has the questionnaire id field qid set. If not, return not found.
 				if (null == survey.get("qid")) {
 					return Response.status(Status.NOT_FOUND).entity("Questionnaire not set for survey " + id + ".")
 							.build();
 				}
 
-				// if questionnaire was found, download questionnaire form
-				long qid = (Long) survey.get("qid");
+				// if questionnaire was found, retrieve version of questionnaire form without the form itself
+				int qid = (Integer) survey.get("qid");
+				String version = requestContext().getFormVersion(qid);
 
-				try {
-					conn = dataSource.getConnection();
-					stmt = conn
-							.prepareStatement("select form from " + service.jdbcSchema + ".questionnaire where id = ?");
-					stmt.setLong(1, qid);
-					ResultSet rs = stmt.executeQuery();
-
-					// if no form was uploaded for questionnaire, respond to user with not found
-					if (!rs.isBeforeFirst()) {
+				// if no form was uploaded for questionnaire, respond to user with not found
+				if (version == null) {
+					return Response.status(Status.NOT_FOUND).entity("Form for questionnaire " + qid + " does not exist!")
+							.build();
+				}
+
+				// render form once per survey and locale for all respondents; only user tags are filled in per request
+				Locale locale = service.localization.negotiate(lang);
+				HtmlTemplate html = service.renderedForms.get(id, locale, survey, version);
+				if (html == null) {
+					// download questionnaire form together with its current version
+					formXml = requestContext().getForm(qid);
+					version = requestContext().getFormVersion(qid);
+					if (formXml == null) {
 						return Response.status(Status.NOT_FOUND)
 								.entity("Form for questionnaire " + qid + " does not exist!").build();
 					}
-
-					rs.next();
-
-					formXml = rs.getString(1);
-
-				} catch (SQLException | UnsupportedOperationException e) {
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rset != null) {
-							rset.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (stmt != null) {
-							stmt.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
 					try {
-						if (conn != null) {
-							conn.close();
-						}
-					} catch (Exception e) {
+						html = HtmlTemplate.compile(renderForm(id, survey, formXml, locale.toLanguageTag()));
+					} catch (SAXException e) {
 						e.printStackTrace();
-						return internalError(onAction);
+						return Response.status(Status.BAD_REQUEST)
+								.entity("Questionnaire form is invalid! Cause: " + e.getMessage()).build();
 					}
+					service.renderedForms.put(id, locale, survey, version, html);
 				}
 
-				// adapt form template to concrete survey and user
-				String adaptedFormXml = adaptForm(formXml, survey, Context.getCurrent().getMainAgent(),
-						null);
-
-				// String adaptedFormXml = formXml;
-
-				Document form;
-				// before returning form, make sure it's still valid (may be obsolete step...)
-				try {
-					form = validateQuestionnaireData(adaptedFormXml);
-				} catch (IOException e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				} catch (SAXException e) {
-					e.printStackTrace();
-					return Response.status(Status.BAD_REQUEST)
-							.entity("Questionnaire form is invalid! Cause: " + e.getMessage()).build();
-				}
-
-				// now start to transform XML into ready-to-use HTML
-
-				// start off with template
-				Scanner scanner = new Scanner(new File("./etc/html/survey-form-template.html"));
-				String html = scanner.useDelimiter("\\A").next();
-				scanner.close();
-
-				// fill in placeholders
-				html = fillPlaceHolder(html, "EP_URL", service.epUrl);
-				html = fillPlaceHolder(html, "L2P_URL", service.las2peerUrl);
-				html = fillPlaceHolder(html, "SC_URL", service.staticContentUrl);
-				html = fillPlaceHolder(html, "OIDC_PROV_NAME", service.oidcProviderName);
-				html = fillPlaceHolder(html, "OIDC_PROV_LOGO", service.oidcProviderLogo);
-				html = fillPlaceHolder(html, "OIDC_PROV_URL", service.oidcProviderUrl);
-				html = fillPlaceHolder(html, "OIDC_CLNT_ID", service.oidcClientId);
-
-				// do all adaptation to user and survey
-				String adaptHtml = adaptForm(html, survey, Context.getCurrent().getMainAgent(), null);
-
-				adaptHtml = i18n(adaptHtml, lang);
-
-				// String adaptText = text;
-
-				// add HTML elements for all questionnaire items accordingly
-				Vector<String> qpages = new Vector<>();
-				Vector<String> navpills = new Vector<>();
-
-				NodeList nodeList = form.getElementsByTagNameNS(MOBSOS_QUESTIONNAIRE_NS, "Page");
-
-				// then iterate over all question pages
-				for (int i = 0; i < nodeList.getLength(); i++) {
-
-					Node node = nodeList.item(i);
-					if (node.getNodeType() == Node.ELEMENT_NODE) {
-						Element e = (Element) node;
-
-						// set first page and navpill item to active
-						String active = "";
-
-						if (i == 0) {
-							active = " class='active'";
-						}
-
-						// differentiate between possible item types and add HTML accordingly
-						if (e.getAttribute("xsi:type").endsWith("InformationPageType")) {
-							// first add navpill item
-							String navpill = "\t\t\t\t\t<li" + active + "><a href=\"#step-" + i
-									+ "\"><span class=\"list-group-item-heading\">" + i + "</span></a></li>\n";
-							navpills.add(navpill);
-
-							// then add information page
-							String qpage = "\t\t<div class=\"row setup-content\" id=\"step-" + i
-									+ "\"><div class=\"col-xs-12\"><div class=\"col-md-12 well text-center\">\n";
-
-							String name = e.getAttribute("name");
-
-							qpage += "\t\t\t<h4><b>" + name + "</b></h4>\n";
-
-							String instr = escapeHtml4(e.getElementsByTagNameNS(MOBSOS_QUESTIONNAIRE_NS, "Instructions")
-									.item(0).getTextContent().trim());
-
-							qpage += "\t\t\t<p>\n\t\t\t\t" + instr + "\n" + "\t\t\t</p>\n";
-							qpage += "\t\t</div></div></div>\n";
-							qpages.add(qpage);
-
-						} else if (e.getAttribute("xsi:type").endsWith("QuestionPageType")) {
-
-							// first add nav pill item
-							String navpill = "\t\t\t\t\t<li" + active + "><a href=\"#step-" + i
-									+ "\"><span class=\"list-group-item-heading\">" + i + "</span></a></li>\n";
-							navpills.add(navpill);
-
-							// then add question page
-							String qpage = "\t\t<div class=\"row setup-content\" id=\"step-" + i
-									+ "\"><div class=\"col-xs-12\"><div class=\"col-md-12 text-center\">\n";
-
-							String name = e.getAttribute("name");
-							String quid = e.getAttribute("qid");
-
-							qpage += "\t\t\t<h4><b>" + name + " (" + quid + ")</b></h4>\n";
-
-							String instr = escapeHtml4(e.getElementsByTagNameNS(MOBSOS_QUESTIONNAIRE_NS, "Instructions")
-									.item(0).getTextContent());
+				Map<String, Supplier<String>> userTags = userTags(Context.getCurrent().getMainAgent());
+				Function<String, String> values = tag -> {
+					Supplier<String> resolver = userTags.get(tag);
+					String value = resolver != null ? resolver.get() : null;
+					return value != null ? escapeHtml4(value) : null;
+				};
+
+				// stream adapted HTML to the response instead of building it as a string first
+				HtmlTemplate form = html;
+				StreamingOutput adaptHtml = out -> {
+					Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+					form.writeTo(w, values);
+					w.flush();
+				};
+				return Response.status(Status.OK).entity(adaptHtml).type(MediaType.TEXT_HTML + ";charset=utf-8")
+						.build();
 
-							String cssClass = "question";
+			} catch (Exception e) {
+				e.printStackTrace();
+				return internalError(onAction);
+			}
 
-							if (e.getAttribute("required") != null && e.getAttribute("required").equals("true")) {
-								cssClass += " required";
-								instr += " (<i>" + i18n("${required}", lang) + "</i>)";
-							}
+		}
 
-							qpage += "\t\t\t<div class=\"" + cssClass + "\" style='text-align: justify; white-space: pre-line;'>" + instr
-									+ "</div><p/>\n";
+		/**
+		 * Renders the questionnaire form of a survey to HTML. Author tags referring to the requesting user are kept,
+		 * such that the result can be shared between all respondents.
+		 * 
+		 * @param id survey id
+		 * @param survey survey
+		 * @param formXml questionnaire form of survey
+		 * @param lang language tag of locale
+		 * @return rendered HTML with user tags
+		 * @throws SAXException if the form is invalid
+		 * @throws IOException
+		 */
+		private String renderForm(int id, JSONObject survey, String formXml, String lang)
+				throws SAXException, IOException {
+			// adapt form template to concrete survey; user tags are kept
+			String adaptedFormXml = adaptForm(formXml, survey, null, null);
 
-							String qtype = e.getAttribute("xsi:type");
+			// String adaptedFormXml = formXml;
 
-							if ("qu:OrdinalScaleQuestionPageType".equals(qtype)) {
+			// before rendering form, make sure it's still valid (may be obsolete step...)
+			Document form = validateQuestionnaireData(adaptedFormXml);
 
-								// TODO: do something with default value, if set.
-								// int defval = Integer.parseInt(e.getAttribute("defval"));
-								String minlabel = escapeHtml4(e.getAttribute("minlabel"));
-								String maxlabel = escapeHtml4(e.getAttribute("maxlabel"));
-								int minval = Integer.parseInt(e.getAttribute("minval"));
-								int maxval = Integer.parseInt(e.getAttribute("maxval"));
+			// now start to transform XML into ready-to-use HTML
 
-								// do UI in a button style (not really nice in terms of responsive design)
-								/*
-								qpage += "\t\t\t<div class=\"btn-group\" data-toggle=\"buttons\">\n";
-								qpage += "\t\t\t\t<span class=\"btn\">" + minlabel + "</span>\n";
-								for(int k=minval;k<=maxval;k++){
-									qpage += "\t\t\t\t<label class=\"btn btn-primary\">\n";
-									qpage += "\t\t\t\t\t<input name=\""+ quid + "\" type=\"radio\" value=\""+k + "\">" + k + "\n";
-									qpage += "\t\t\t\t</label>\n";
-								}
-								qpage += "\t\t\t\t<span class=\"btn\">" + maxlabel + "</span>\n";
-								qpage += "\t\t\t</div>\n";
-								 */
-								// --- end UI button style
-
-								// do UI in range slider style (better responsive design)
-								/*
-								<div class="row well">
-								
-										<input class="col-md-12 col-xs-12 scale" name="SQ.N.1" type="range" min="1" max="7" step="1" list="SQ.N.1-scale"/><br>
-										<datalist id="SQ.N.1-scale">
-											<option>1</option>
-											<option>2</option>
-											<option>3</option>
-											<option>4</option>
-											<option>5</option>
-											<option>6</option>
-											<option>7</option>
-										</datalist>
-								
-										<span class="col-md-4 col-xs-4">Totally disagree</span><span name="SQ.N.1" class="col-md-4 col-xs-4 text-center h4 response scale-response alert" data-toggle="tooltip" data-placement="left" title="Click to reset to n/a.">n/a</span> <span class="col-md-4 col-xs-4 pull-right text-right">Totally agree</span>
-								
-								</div>*/
-								qpage += "\t\t\t<div class='row well'>\n";
-								qpage += "\t\t\t\t<input class='col-md-12 col-xs-12 scale' name='" + quid
-										+ "' type='range' min='" + minval + "' max='" + maxval + "' step='1' list='"
-										+ quid.replace(".", "-") + "-scale'/><br>\n";
-								qpage += "\t\t\t\t<datalist id='" + quid.replace(".", "-") + "-scale'>\n";
-								for (int k = minval; k <= maxval; k++) {
-									qpage += "\t\t\t\t\t<option>" + k + "</option>\n";
-								}
-								qpage += "\t\t\t\t</datalist>";
-								qpage += "<span class='col-md-4 col-xs-5 text-left'>" + minlabel + "</span><span name='"
-										+ quid
-										+ "' class='col-md-4 col-xs-2 text-center h2 response scale-response' data-toggle='tooltip' data-placement='left' title='Click to reset to n/a.'>n/a</span> <span class='col-md-4 col-xs-5 pull-right text-right'>"
-										+ maxlabel + "</span>";
-								qpage += "\t\t\t</div>\n";
-								// --- end UI range slider style
+			// start off with template; service-wide placeholders are filled in, survey- and user-specific ones
+			// are left for adaptation
+			String html = service.templates.get("survey-form-template.html").render(service.templateValues::get);
 
-							} else if ("qu:DichotomousQuestionPageType".equals(qtype)) {
+			// do all adaptation to survey
+			String adaptHtml = adaptForm(html, survey, null, null);
 
-								// TODO: do something with default value, if set.
-								// int defval = Integer.parseInt(e.getAttribute("defval"));
-								String minlabel = e.getAttribute("minlabel");
-								String maxlabel = e.getAttribute("maxlabel");
+			adaptHtml = i18n(adaptHtml, lang);
 
-								qpage += "\t\t\t<div class=\"btn-group\" data-toggle=\"buttons\">\n";
-								qpage += "\t\t\t\t<label class=\"btn btn-primary\">\n";
-								qpage += "\t\t\t\t\t<input name=\"" + quid + "\" type=\"radio\" value=\"0\">" + minlabel
-										+ "\n";
-								qpage += "\t\t\t\t</label>\n";
-								qpage += "\t\t\t\t<label class=\"btn btn-primary\">\n";
-								qpage += "\t\t\t\t\t<input name=\"" + quid + "\" type=\"radio\" value=\"1\">" + maxlabel
-										+ "\n";
-								qpage += "\t\t\t\t</label>\n";
-								qpage += "\t\t\t\t<input type=\"hidden\" class='response' name=\"" + quid + "\">\n";
-								qpage += "\t\t\t</div>\n";
+			// stream navigation pills and question pages into the page in a single pass
+			URL answerUrl = new URL(service.epUrl + "surveys/" + id + "/answers");
+			StringBuilder sb = new StringBuilder(adaptHtml.length() + 4 * formXml.length());
+			new FormHtmlWriter(sb, i18n("${required}", lang)).write(adaptHtml, form, answerUrl.toString());
+			return sb.toString();
+		}
 
-							} else if ("qu:FreeTextQuestionPageType".equals(qtype)) {
-								qpage += "\t\t\t<textarea name=\"" + quid
-										+ "\" class=\"form-control response freetext-response\" rows=\"3\"></textarea>\n";
-							}
+		@GET
+		@Produces(MediaType.APPLICATION_JSON)
+		@Path("surveys/{id}/form.json")
+		@ApiOperation(
+				value = "getSurveyQuestionnaireFormModel",
+				notes = "Compact JSON model of a survey's questionnaire form for rendering the form on clients. Lists "
+						+ "pages in order with type (information, ordinal, dichotomous or freetext), name, instructions "
+						+ "and, for questions, question id, required flag, scale bounds and labels. Supports "
+						+ "revalidation with If-None-Match.")
+		@ApiResponses(
+				value = { @ApiResponse(
+						code = 200,
+						message = "Survey questionnaire form model."),
+						@ApiResponse(
+								code = 304,
+								message = "Survey questionnaire form model not modified."),
+						@ApiResponse(
+								code = 400,
+								message = "Survey questionnaire form invalid. Cause: ..."),
+						@ApiResponse(
+								code = 404,
+								message = "Survey does not exist. <b>-or-</b> Survey questionnaire not set. <b>-or-</b> Survey questionnaire does not define form.") })
+		public void getSurveyQuestionnaireFormModel(@PathParam("id") int id,
+				@HeaderParam("If-None-Match") String ifNoneMatch, @Suspended AsyncResponse asyncResponse) {
+			handleAsync(service.formExecutor, asyncResponse, () -> serveSurveyQuestionnaireFormModel(id, ifNoneMatch));
+		}
 
-							qpage += "\t\t</div></div></div>\n";
-							qpages.add(qpage);
-						}
-					}
+		/**
+		 * Serves the JSON model of the questionnaire form of a survey. Models are built once per survey and
+		 * questionnaire form; only user tags are filled in per request.
+		 */
+		private Response serveSurveyQuestionnaireFormModel(int id, String ifNoneMatch) {
+			String onAction = "downloading questionnaire form model for survey " + id;
+			try {
+				JSONObject survey = service.catalog.getSurvey(id);
+				if (survey == null) {
+					return Response.status(Status.NOT_FOUND).entity("Survey does not exist!").build();
 				}
-
-				// now that all questions are extracted and transformed to HTML, append nav pill items and question
-				// pages to
-				// final HTML.
-
-				// first serialize nav pill items
-				String navpillItems = "";
-				for (int j = 0; j < navpills.size(); j++) {
-					navpillItems += navpills.get(j);
+				if (null == survey.get("qid")) {
+					return Response.status(Status.NOT_FOUND).entity("Questionnaire not set for survey " + id + ".")
+							.build();
 				}
-
-				// then serialize question page divs
-				String questionDivs = "";
-				for (int j = 0; j < qpages.size(); j++) {
-					questionDivs += qpages.get(j);
+				int qid = (Integer) survey.get("qid");
+				String version = requestContext().getFormVersion(qid);
+				if (version == null) {
+					return Response.status(Status.NOT_FOUND).entity("Form for questionnaire " + qid + " does not exist!")
+							.build();
 				}
 
-				// then generate answer link
-				URL answerUrl = new URL(service.epUrl + "surveys/" + id + "/answers");
-				String answerLink = "<a href=\"" + answerUrl + "\" id=\"return-url\" class=\"hidden\" ></a>";
-
-				// finally insert all generated parts into the resulting adapted HTML
-				adaptHtml = adaptHtml.replaceAll("<!-- NAVPILLS -->", navpillItems);
-				adaptHtml = adaptHtml.replaceAll("<!-- QUESTIONPAGES -->", questionDivs);
-				adaptHtml = adaptHtml.replaceAll("<!-- ANSWERLINK -->", answerLink);
-
-				// return adapted HTML
-				return Response.status(Status.OK).entity(adaptHtml).build();
+				FormModel model = service.formModels.get(id, Locale.ROOT, survey, version);
+				if (model == null) {
+					String formXml = requestContext().getForm(qid);
+					version = requestContext().getFormVersion(qid);
+					if (formXml == null) {
+						return Response.status(Status.NOT_FOUND)
+								.entity("Form for questionnaire " + qid + " does not exist!").build();
+					}
+					try {
+						Document form = validateQuestionnaireData(adaptForm(formXml, survey, null, null));
+						model = FormModel.build(id, qid, form, service.epUrl + "surveys/" + id + "/answers");
+					} catch (SAXException e) {
+						e.printStackTrace();
+						return Response.status(Status.BAD_REQUEST)
+								.entity("Questionnaire form is invalid! Cause: " + e.getMessage()).build();
+					}
+					service.formModels.put(id, Locale.ROOT, survey, version, model);
+				}
 
+				Map<String, Supplier<String>> userTags = userTags(Context.getCurrent().getMainAgent());
+				Function<String, String> values = tag -> {
+					Supplier<String> resolver = userTags.get(tag);
+					return resolver != null ? resolver.get() : null;
+				};
+
+				// models containing user tags differ per user and must not be shared by caches
+				String etag = model.getETag(values);
+				String cacheControl = model.hasUserTags() ? "private, no-cache" : "no-cache";
+				if (StaticAssets.matches(ifNoneMatch, etag)) {
+					return Response.notModified().header(HttpHeaders.ETAG, etag)
+							.header(HttpHeaders.CACHE_CONTROL, cacheControl).build();
+				}
+				return Response.ok(model.render(values), MediaType.APPLICATION_JSON).header(HttpHeaders.ETAG, etag)
+						.header(HttpHeaders.CACHE_CONTROL, cacheControl).build();
 			} catch (Exception e) {
 				e.printStackTrace();
 				return internalError(onAction);
 			}
-
 		}
 
 		/**
@@ -2193,115 +2176,91 @@ public class SurveyService extends RESTService {
 			String onAction = "setting questionnaire for survey " + id;
 
 			try {
-				Connection conn = null;
-				PreparedStatement stmt = null;
-				ResultSet rset = null;
-
-				try {
-
-					int exown;
-					exown = checkExistenceOwnership(id, 0);
-
-					// check if survey exists; if not, return 404.
-					if (exown == -1) {
-						return Response.status(Status.NOT_FOUND).entity("Survey " + id + " does not exist.").build();
-					}
-					// if survey exists, check if active agent is owner. if not, return 401.
-					else if (exown == 0) {
-						return Response.status(Status.UNAUTHORIZED)
-								.entity("Survey " + id + " may only be managed by its owner.").build();
-					}
+				int exown;
+				exown = checkExistenceOwnership(id, 0);
 
-					// if survey exists and active agent is owner, proceed.
+				// check if survey exists; if not, return 404.
+				if (exown == -1) {
+					return Response.status(Status.NOT_FOUND).entity("Survey " + id + " does not exist.").build();
+				}
+				// if survey exists, check if active agent is owner. if not, return 401.
+				else if (exown == 0) {
+					return Response.status(Status.UNAUTHORIZED)
+							.entity("Survey " + id + " may only be managed by its owner.").build();
+				}
 
-					JSONObject o;
+				// if survey exists and active agent is owner, proceed.
 
-					// parse and validate content. If invalid, return 400 (bad request)
-					try {
-						o = (JSONObject) JSONValue.parseWithException(content);
-					} catch (ParseException e) {
-						return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
-					}
+				JSONObject o;
 
-					if (!(o.size() == 1 && o.keySet().contains("qid"))) {
-						return Response.status(Status.BAD_REQUEST)
-								.entity("Invalid JSON for setting questionnaire! Must only contain one field qid!")
-								.build();
-					}
+				// parse and validate content. If invalid, return 400 (bad request)
+				try {
+					o = (JSONObject) JSONValue.parseWithException(content);
+				} catch (ParseException e) {
+					return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+				}
 
-					// now check if questionnaire really exists
-					int qid = Integer.parseInt(o.get("qid") + "");
-					Response qresp = getQuestionnaire(qid);
+				if (!(o.size() == 1 && o.keySet().contains("qid"))) {
+					return Response.status(Status.BAD_REQUEST)
+							.entity("Invalid JSON for setting questionnaire! Must only contain one field qid!")
+							.build();
+				}
 
-					if (qresp.getStatus() != 200) {
-						return qresp;
-					}
+				// now check if questionnaire really exists
+				int qid = Integer.parseInt(o.get("qid") + "");
+				Response qresp = getQuestionnaire(qid);
 
-					// if questionnaire exists, check if questionnaire form is defined already
-					// if no form is defined, yet, return a not found.
-					Response qformresp = downloadQuestionnaireForm(qid);
-					if (qformresp.getStatus() == 404) {
-						return qformresp;
-					}
+				if (qresp.getStatus() != 200) {
+					return qresp;
+				}
 
-					// TODO: at this point we need to check, if users already submitted responses. What to do in this
-					// case
-					// to avoid data loss?
-					// Responses should under no circumstances be deleted! Idea: respond with a forbidden error that
-					// asks
-					// user to first clear all
-					// responses before changing questionnaire. Requires DELETE support in resource
-					// surveys/{id}/responses.
-
-					int responses = countResponses(id);
-
-					if (responses > 0) {
-						String msg = "Forbidden to change questionnaire, because end-user responses exist! "
-								+ "To resolve this problem, first make sure to export existing survey response data. "
-								+ "Then delete existing responses data with a DELETE to resource surveys/" + id
-								+ "/responses." + "Then try again to change questionnaire.";
-						return Response.status(Status.FORBIDDEN).entity(msg).build();
-					}
+				// if questionnaire exists, check if questionnaire form is defined already
+				// if no form is defined, yet, return a not found.
+				Response qformresp = downloadQuestionnaireForm(qid);
+				if (qformresp.getStatus() == 404) {
+					return qformresp;
+				}
 
-					// if no responses are available, continue and change questionnaire
-					conn = dataSource.getConnection();
-					stmt = conn.prepareStatement("update " + service.jdbcSchema + ".survey set qid=? where id =?");
+				// TODO: at this point we need to check, if users already submitted responses. What to do in this
+				// case
+				// to avoid data loss?
+				// Responses should under no circumstances be deleted! Idea: respond with a forbidden error that
+				// asks
+				// user to first clear all
+				// responses before changing questionnaire. Requires DELETE support in resource
+				// surveys/{id}/responses.
+
+				int responses = countResponses(id);
+
+				if (responses > 0) {
+					String msg = "Forbidden to change questionnaire, because end-user responses exist! "
+							+ "To resolve this problem, first make sure to export existing survey response data. "
+							+ "Then delete existing responses data with a DELETE to resource surveys/" + id
+							+ "/responses." + "Then try again to change questionnaire.";
+					return Response.status(Status.FORBIDDEN).entity(msg).build();
+				}
 
-					stmt.setInt(1, qid);
-					stmt.setInt(2, id);
-					stmt.executeUpdate();
+				// if no responses are available, continue and change questionnaire
+				service.queryExecutor.update("update " + service.jdbcSchema + ".survey set qid=? where id =?", s -> {
+					s.setInt(1, qid);
+					s.setInt(2, id);
+				});
+				service.catalog.reloadSurvey(id);
+				service.renderedForms.drop(id);
+				service.formModels.drop(id);
+
+				// re-create response view for new questionnaire in the background; if the form is invalid, the view
+				// is dropped and the next export reports the invalid form
+				try {
+					service.responseViews.replace(id, qid,
+							responseViewSelect(id, validateQuestionnaireData((String) qformresp.getEntity())));
+				} catch (SAXException e) {
+					service.responseViews.drop(id);
+				}
 
-					return Response.status(Status.OK).entity("Questionnaire for survey " + id + " set successfully.")
-							.build();
+				return Response.status(Status.OK).entity("Questionnaire for survey " + id + " set successfully.")
+						.build();
 
-				} catch (SQLException | UnsupportedOperationException e) {
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rset != null) {
-							rset.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (stmt != null) {
-							stmt.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (conn != null) {
-							conn.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-				}
 			} catch (Exception e) {
 				e.printStackTrace();
 				return internalError(onAction);
@@ -2327,28 +2286,15 @@ public class SurveyService extends RESTService {
 
 			// adapt template to specific survey
 			try {
-				Scanner scanner = new Scanner(new File("./etc/html/survey-id-responses-template.html"));
-				String html = scanner.useDelimiter("\\A").next();
-				scanner.close();
-
-				// localize template
-				html = i18n(html, lang);
-
-				// fill in placeholders with concrete values
-				html = fillPlaceHolder(html, "ID", "" + id);
-				html = fillPlaceHolder(html, "EP_URL", service.epUrl);
-				html = fillPlaceHolder(html, "L2P_URL", service.las2peerUrl);
-				html = fillPlaceHolder(html, "SC_URL", service.staticContentUrl);
-				html = fillPlaceHolder(html, "OIDC_PROV_NAME", service.oidcProviderName);
-				html = fillPlaceHolder(html, "OIDC_PROV_LOGO", service.oidcProviderLogo);
-				html = fillPlaceHolder(html, "OIDC_PROV_URL", service.oidcProviderUrl);
-				html = fillPlaceHolder(html, "OIDC_CLNT_ID", service.oidcClientId);
+				// render localized template with placeholders filled in
+				String html = renderTemplate("survey-id-responses-template.html", lang,
+						Collections.singletonMap("ID", "" + id));
 
 				// finally return resulting HTML
 				return Response.status(Status.OK).entity(html).header("Access-Control-Allow-Origin", "*")
 						.header("Access-Control-Allow-Headers", "Origin, X-Requested-With, Content-Type, Accept")
 						.build();
-			} catch (FileNotFoundException e) {
+			} catch (IOException e) {
 				return internalError(onAction);
 			}
 		}
@@ -2362,27 +2308,14 @@ public class SurveyService extends RESTService {
 
 			// adapt template to specific survey
 			try {
-				Scanner scanner = new Scanner(new File("./etc/html/xml-generator.html"));
-				String html = scanner.useDelimiter("\\A").next();
-				scanner.close();
-
-				// localize template
-				html = i18n(html, lang);
-
-				// fill in placeholders with concrete values
-				html = fillPlaceHolder(html, "EP_URL", service.epUrl);
-				html = fillPlaceHolder(html, "L2P_URL", service.las2peerUrl);
-				html = fillPlaceHolder(html, "SC_URL", service.staticContentUrl);
-				html = fillPlaceHolder(html, "OIDC_PROV_NAME", service.oidcProviderName);
-				html = fillPlaceHolder(html, "OIDC_PROV_LOGO", service.oidcProviderLogo);
-				html = fillPlaceHolder(html, "OIDC_PROV_URL", service.oidcProviderUrl);
-				html = fillPlaceHolder(html, "OIDC_CLNT_ID", service.oidcClientId);
+				// render localized template with placeholders filled in
+				String html = renderTemplate("xml-generator.html", lang, Collections.emptyMap());
 
 				// finally return resulting HTML
 				return Response.status(Status.OK).entity(html).header("Access-Control-Allow-Origin", "*")
 						.header("Access-Control-Allow-Headers", "Origin, X-Requested-With, Content-Type, Accept")
 						.build();
-			} catch (FileNotFoundException e) {
+			} catch (IOException e) {
 				return internalError(onAction);
 			}
 		}
@@ -2406,9 +2339,16 @@ public class SurveyService extends RESTService {
 						@ApiResponse(
 								code = 404,
 								message = "Survey does not exist -or- No questionnaire defined for survey.") })
-		public Response getSurveyResponses(@PathParam("id") int id,
+		public void getSurveyResponses(@PathParam("id") int id,
 				@QueryParam("sepline") @DefaultValue("0") int sepline,
-				@QueryParam("sep") @DefaultValue(",") String sep) {
+				@QueryParam("sep") @DefaultValue(",") String sep, @Suspended AsyncResponse asyncResponse) {
+			handleAsync(service.exportExecutor, asyncResponse, () -> exportSurveyResponses(id, sepline, sep));
+		}
+
+		/**
+		 * Exports the responses to a survey in CSV format.
+		 */
+		private Response exportSurveyResponses(int id, int sepline, String sep) {
 
 			String onAction = "retrieving responses for survey " + id;
 
@@ -2427,78 +2367,53 @@ public class SurveyService extends RESTService {
 							.build();
 				}
 
-				// retrieve questionnaire form for survey to do answer validation
-				Response r = downloadQuestionnaireForm(qid);
+				// look up response view for survey. If none is registered for the survey's questionnaire, let the
+				// registry create it from the questionnaire form.
+				CompletableFuture<Void> view = service.responseViews.get(id, qid);
+				if (view == null) {
+					// retrieve questionnaire form for survey to build response view
+					Response r = downloadQuestionnaireForm(qid);
 
-				// if questionnaire form does not exist, pass on response containing error status
-				if (200 != r.getStatus()) {
-					return r;
-				}
+					// if questionnaire form does not exist, pass on response containing error status
+					if (200 != r.getStatus()) {
+						return r;
+					}
 
-				// parse form to XML document incl. validation; will later on be necessary to build query for
-				// questionnaire answer table
-				Document form;
+					// parse form to XML document incl. validation; will later on be necessary to build query for
+					// questionnaire answer table
+					Document form;
 
-				try {
-					form = validateQuestionnaireData((String) r.getEntity());
-				} catch (SAXException e) {
-					e.printStackTrace();
-					return Response.status(Status.BAD_REQUEST)
-							.entity("Questionnaire form is invalid! Cause: " + e.getMessage()).build();
-				}
+					try {
+						form = validateQuestionnaireData((String) r.getEntity());
+					} catch (SAXException e) {
+						e.printStackTrace();
+						return Response.status(Status.BAD_REQUEST)
+								.entity("Questionnaire form is invalid! Cause: " + e.getMessage()).build();
+					}
 
-				// now check, if a survey response view exists. If not, create it.
-				if (!existsResponseView(id)) {
-					createResponseView(id, form);
+					view = service.responseViews.replace(id, qid, responseViewSelect(id, form));
 				}
 
-				// execute generated query
-				Connection conn = null;
-				PreparedStatement stmt = null;
-				ResultSet rset = null;
-
+				// a view still being created may not have been replicated yet, so it is read from the primary
+				QueryExecutor executor = view.isDone() ? service.queryExecutor.readOnly() : service.queryExecutor;
 				try {
-					conn = dataSource.getConnection();
-					stmt = conn.prepareStatement("select * from " + service.jdbcSchema + ".responses_survey_" + id);
-					rset = stmt.executeQuery();
-
-					// format and return result
-					String res = createCSVQuestionnaireResult(rset, sep);
+					view.get(VIEW_TIMEOUT, TimeUnit.SECONDS);
+				} catch (TimeoutException e) {
+					return Response.status(Status.SERVICE_UNAVAILABLE).header("Retry-After", VIEW_TIMEOUT)
+							.entity("Response view for survey " + id + " is being prepared. Please try again later.")
+							.build();
+				}
 
-					if (sepline > 0) {
-						// add separator declaration
-						res = "sep=" + sep + "\r\n" + res;
-					}
-					return Response.status(Status.OK).entity(res).build();
+				// execute generated query and format result
+				String res = executor.handle(
+						"select * from " + service.jdbcSchema + "." + ResponseViewRegistry.viewName(id),
+						QueryExecutor.NO_PARAMETERS, rs -> Questionnaires.createCSVQuestionnaireResult(rs, sep));
 
-				} catch (SQLException | UnsupportedOperationException e) {
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rset != null) {
-							rset.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (stmt != null) {
-							stmt.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (conn != null) {
-							conn.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
+				if (sepline > 0) {
+					// add separator declaration
+					res = "sep=" + sep + "\r\n" + res;
 				}
+				return Response.status(Status.OK).entity(res).build();
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -2506,7 +2421,6 @@ public class SurveyService extends RESTService {
 			}
 		}
 
-		@SuppressWarnings("unchecked")
 		@POST
 		@Consumes(MediaType.APPLICATION_JSON)
 		@Path("surveys/{id}/responses")
@@ -2522,20 +2436,30 @@ public class SurveyService extends RESTService {
 								message = "Survey does not exist -or- No questionnaire defined for survey."),
 						@ApiResponse(
 								code = 400,
-								message = "Survey response already submitted."), })
-		public Response submitSurveyResponseJSON(@PathParam("id") int id, String answerJSON) {
+								message = "Survey response already submitted."),
+						@ApiResponse(
+								code = 503,
+								message = "Too many concurrent submissions. Retry after the time given in header Retry-After."), })
+		public void submitSurveyResponseJSON(@PathParam("id") int id, String answerJSON,
+				@Suspended AsyncResponse asyncResponse) {
+			handleAsync(service.submissionExecutor, asyncResponse, () -> submitSurveyResponse(id, answerJSON));
+		}
+
+		/**
+		 * Validates and stores a response to a survey given in JSON format.
+		 */
+		@SuppressWarnings("unchecked")
+		private Response submitSurveyResponse(int id, String answerJSON) {
 			Date now = new Date();
 			String onAction = "submitting response to survey " + id;
 			try {
 
-				// retrieve survey by id;
-				Response rs = getSurvey(id);
-				if (rs.getStatus() != 200) {
-					return rs;
+				// retrieve survey by id together with questionnaire form
+				JSONObject s = requestContext().getSurvey(id);
+				if (s == null) {
+					return Response.status(Status.NOT_FOUND).entity("Survey " + id + " does not exist!").build();
 				}
 
-				JSONObject s = (JSONObject) JSONValue.parse((String) rs.getEntity());
-
 				// check if survey expired/not started
 				SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
 				df.setTimeZone(TimeZone.getTimeZone("GMT"));
@@ -2590,7 +2514,7 @@ public class SurveyService extends RESTService {
 
 				// validate if answer matches form.
 				try {
-					answerFieldTable = validateResponse(form, answer);
+					answerFieldTable = Questionnaires.validateResponse(form, answer);
 				} catch (IllegalArgumentException e) {
 					return Response.status(Status.BAD_REQUEST)
 							.entity("Survey response is invalid! Cause: " + e.getMessage()).build();
@@ -2605,67 +2529,44 @@ public class SurveyService extends RESTService {
 					sub += now.getTime();
 				}
 
-				Connection conn = null;
-				PreparedStatement stmt = null;
-				ResultSet rset = null;
-
 				this.logAnswersToMobSOS(surveyId, form, answerFieldTable);
 
-				try {
-					conn = dataSource.getConnection();
-					stmt = conn.prepareStatement("insert into " + service.jdbcSchema
-							+ ".response(uid,sid,qkey,qval,time) values (?,?,?,?,?)");
+				String uid = sub;
+				Timestamp time = new Timestamp(now.getTime());
+				List<QueryExecutor.Binder> rows = new ArrayList<>();
 
-					Iterator<String> it = answerFieldTable.keySet().iterator();
-					while (it.hasNext()) {
+				Iterator<String> it = answerFieldTable.keySet().iterator();
+				while (it.hasNext()) {
 
-						String qkey = it.next();
-						String qval = "" + answerFieldTable.get(qkey);
+					String qkey = it.next();
+					String qval = "" + answerFieldTable.get(qkey);
 
-						stmt.setString(1, sub);
+					rows.add(stmt -> {
+						stmt.setString(1, uid);
 						stmt.setInt(2, surveyId);
 						stmt.setString(3, qkey);
 						stmt.setString(4, qval);
-						stmt.setTimestamp(5, new Timestamp(now.getTime()));
-						stmt.addBatch();
+						stmt.setTimestamp(5, time);
+					});
+				}
 
-					}
-					stmt.executeBatch();
+				try {
+					service.queryExecutor.batch(
+							"insert into " + service.jdbcSchema + ".response(uid,sid,qkey,qval,time) values (?,?,?,?,?)",
+							rows);
 					return Response.status(Status.OK).entity("Response to survey " + id + " submitted successfully.")
 							.build();
 
-				} catch (SQLException | UnsupportedOperationException e) {
-					if (0 <= e.getMessage().indexOf("Duplicate")) {
+				} catch (SQLException e) {
+					if (service.storage.isDuplicateKey(e)) {
 						return Response.status(Status.CONFLICT).entity("Survey response already submitted!").build();
 					} else {
 						e.printStackTrace();
 						return internalError(onAction);
 					}
-				} finally {
-					try {
-						if (rset != null) {
-							rset.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (stmt != null) {
-							stmt.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (conn != null) {
-							conn.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
+				} catch (UnsupportedOperationException e) {
+					e.printStackTrace();
+					return internalError(onAction);
 				}
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -2674,7 +2575,7 @@ public class SurveyService extends RESTService {
 		}
 
 		private void logAnswersToMobSOS(int surveyId, Document form, JSONObject answerFieldTable) {
-			JSONObject questions = extractQuestionInformation(form);
+			JSONObject questions = Questionnaires.extractQuestionInformation(form);
 			Iterator<String> it = answerFieldTable.keySet().iterator();
 			while (it.hasNext()) {
 				String qkey = it.next();
@@ -2704,7 +2605,15 @@ public class SurveyService extends RESTService {
 		@POST
 		@Consumes(MediaType.TEXT_XML)
 		@Path("surveys/{id}/responses")
-		public Response submitSurveyResponseXML(@PathParam("id") int id, String answerXml) {
+		public void submitSurveyResponseXML(@PathParam("id") int id, String answerXml,
+				@Suspended AsyncResponse asyncResponse) {
+			handleAsync(service.submissionExecutor, asyncResponse, () -> submitSurveyResponseFromXML(id, answerXml));
+		}
+
+		/**
+		 * Validates and stores a response to a survey given in XML format.
+		 */
+		private Response submitSurveyResponseFromXML(int id, String answerXml) {
 
 			String onAction = "submitting response to survey " + id;
 
@@ -2718,7 +2627,7 @@ public class SurveyService extends RESTService {
 							.entity("Questionnaire form is invalid! Cause: " + e.getMessage()).build();
 				}
 
-				return submitSurveyResponseJSON(id, convertResponseXMLtoJSON(answer).toJSONString());
+				return submitSurveyResponse(id, convertResponseXMLtoJSON(answer).toJSONString());
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -2763,50 +2672,11 @@ public class SurveyService extends RESTService {
 							.entity("Survey responses may only be deleted by survey owner.").build();
 				}
 
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
-
-				// +++ dsi
-				try {
-					c = dataSource.getConnection();
-					s = c.prepareStatement("delete from " + service.jdbcSchema + ".response where sid = ?");
-					s.setInt(1, id);
-					s.executeUpdate();
-
-					return Response.status(Status.OK).entity("Responses to survey " + id + " deleted successfully.")
-							.build();
+				service.queryExecutor.update("delete from " + service.jdbcSchema + ".response where sid = ?",
+						s -> s.setInt(1, id));
 
-				} catch (Exception e) {
-					e.printStackTrace();
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-				}
-				// --- dsi
+				return Response.status(Status.OK).entity("Responses to survey " + id + " deleted successfully.")
+						.build();
 
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -2819,27 +2689,15 @@ public class SurveyService extends RESTService {
 		@Path("redirect")
 		public Response redirectCallback(@HeaderParam("accept-language") String lang) {
 			String onAction = "processing OpenID Connect redirect Callback";
-			String html = "";
-			// start off with template
+			String html;
+			// render localized template; redirect callback is served from static content URL
 			try {
-				Scanner scanner = new Scanner(new File("./etc/html/redirect-callback.html"));
-				html = scanner.useDelimiter("\\A").next();
-				scanner.close();
-			} catch (FileNotFoundException e) {
+				html = renderTemplate("redirect-callback.html", lang,
+						Collections.singletonMap("EP_URL", service.staticContentUrl));
+			} catch (IOException e) {
 				return internalError(onAction);
 			}
 
-			// localize template
-			html = i18n(html, lang);
-
-			html = fillPlaceHolder(html, "EP_URL", service.staticContentUrl);
-			html = fillPlaceHolder(html, "L2P_URL", service.las2peerUrl);
-			html = fillPlaceHolder(html, "SC_URL", service.staticContentUrl);
-			html = fillPlaceHolder(html, "OIDC_PROV_NAME", service.oidcProviderName);
-			html = fillPlaceHolder(html, "OIDC_PROV_LOGO", service.oidcProviderLogo);
-			html = fillPlaceHolder(html, "OIDC_PROV_URL", service.oidcProviderUrl);
-			html = fillPlaceHolder(html, "OIDC_CLNT_ID", service.oidcClientId);
-
 			return Response.status(Status.OK).entity(html).build();
 		}
 
@@ -2847,29 +2705,14 @@ public class SurveyService extends RESTService {
 		@Produces(MediaType.TEXT_HTML)
 		public Response serveIndexPage(@HeaderParam("accept-language") String lang) {
 			String onAction = "serving index page";
-			String html = "";
-			// start off with template
+			String html;
+			// render localized template with placeholders filled in
 			try {
-				Scanner scanner = new Scanner(new File("./etc/html/index.html"));
-				html = scanner.useDelimiter("\\A").next();
-				scanner.close();
-			} catch (FileNotFoundException e) {
+				html = renderTemplate("index.html", lang, Collections.emptyMap());
+			} catch (IOException e) {
 				return internalError(onAction);
 			}
 
-			// localize template
-			html = i18n(html, lang);
-
-			// fill in placeholders with concrete values
-			html = fillPlaceHolder(html, "EP_URL", service.epUrl);
-			html = fillPlaceHolder(html, "L2P_URL", service.las2peerUrl);
-			html = fillPlaceHolder(html, "SC_URL", service.staticContentUrl);
-
-			html = fillPlaceHolder(html, "OIDC_PROV_NAME", service.oidcProviderName);
-			html = fillPlaceHolder(html, "OIDC_PROV_LOGO", service.oidcProviderLogo);
-			html = fillPlaceHolder(html, "OIDC_PROV_URL", service.oidcProviderUrl);
-			html = fillPlaceHolder(html, "OIDC_CLNT_ID", service.oidcClientId);
-
 			return Response.status(Status.OK).entity(html).build();
 
 		}
@@ -2901,51 +2744,87 @@ public class SurveyService extends RESTService {
 		// ================= Static Content Hosting ===================
 		//
 		// The browser frontend part of this service, in particular the HTML code generated from templates in ./etc/html
-		// links to static content (JS/CSS). This static content should be hosted on a regular, however highly available
-		// Web server. Therefore, this service foresees a configuration parameter staticContentUrl, which allows to
-		// specify
-		// a URL linking to a folder under which this static content is expected to be hosted. As a fallback solution,
-		// MobSOS Surveys can host this static content on its own with the two methods below. However, the built-in
-		// mechanism
-		// should not be used with productive installations due to performance issues!
+		// links to static content (JS/CSS). This static content may be hosted on a separate Web server. Therefore, this
+		// service foresees a configuration parameter staticContentUrl, which allows to specify a URL linking to a folder
+		// under which this static content is expected to be hosted. Without such a server, MobSOS Surveys hosts the
+		// static content from ./etc/webapp on its own with the two methods below. Assets are held in memory and served
+		// with content types, strong entity tags and caching headers; conditional and range requests are supported.
+		// Text assets are precompressed with gzip at startup, and templates refer to assets by fingerprinted paths,
+		// which are cached by browsers forever.
 
 		@GET
 		@Path("/js/{filename:.+}")
-		public Response serveJS(@PathParam("filename") String filename) {
+		public Response serveJS(@PathParam("filename") String filename, @HeaderParam("If-None-Match") String ifNoneMatch,
+				@HeaderParam("Accept-Encoding") String acceptEncoding, @HeaderParam("Range") String range,
+				@HeaderParam("If-Range") String ifRange) {
+			return serveAsset("js/" + filename, ifNoneMatch, acceptEncoding, range, ifRange);
+		}
 
-			// String onAction = "serving JavaScript";
+		@GET
+		@Path("/css/{filename}")
+		public Response serveCSS(@PathParam("filename") String filename,
+				@HeaderParam("If-None-Match") String ifNoneMatch, @HeaderParam("Accept-Encoding") String acceptEncoding,
+				@HeaderParam("Range") String range, @HeaderParam("If-Range") String ifRange) {
+			return serveAsset("css/" + filename, ifNoneMatch, acceptEncoding, range, ifRange);
+		}
 
+		/**
+		 * Serves a static asset from ./etc/webapp. Assets requested by their fingerprinted path may be cached forever.
+		 * 
+		 * @param path path or fingerprinted path of asset relative to ./etc/webapp
+		 * @param ifNoneMatch value of If-None-Match header; if it matches the asset, 304 is returned
+		 * @param acceptEncoding value of Accept-Encoding header; if gzip is accepted, precompressed assets are returned
+		 * @param range value of Range header; a single byte range is returned with 206
+		 * @param ifRange value of If-Range header; the range is only returned, if it matches the asset
+		 * @return response with asset
+		 */
+		private Response serveAsset(String path, String ifNoneMatch, String acceptEncoding, String range,
+				String ifRange) {
+			String original = service.staticAssets.getOriginalPath(path);
+			StaticAssets.Asset asset;
 			try {
-				Scanner scanner = new Scanner(new File("./etc/webapp/js/" + filename));
-				String js = scanner.useDelimiter("\\A").next();
-				scanner.close();
-				String responseType = MediaType.TEXT_PLAIN;
-				if (filename.contains(".html")) {
-					responseType = MediaType.TEXT_HTML;
-				}
-				return Response.ok(js, responseType).build();
-
-			} catch (FileNotFoundException e) {
-				return Response.status(Status.NOT_FOUND).entity(filename + " not found!").build();
+				asset = service.staticAssets.get(original != null ? original : path);
+			} catch (IOException e) {
+				e.printStackTrace();
+				return internalError("serving static content " + path);
+			}
+			if (asset == null) {
+				return Response.status(Status.NOT_FOUND).entity(path + " not found!").build();
 			}
-		}
 
-		@GET
-		@Produces(MediaType.TEXT_PLAIN)
-		@Path("/css/{filename}")
-		public Response serveCSS(@PathParam("filename") String filename) {
+			String cacheControl = original != null ? "public, max-age=31536000, immutable"
+					: "public, max-age=" + service.staticMaxAge;
+			String vary = asset.getGzipContent() != null ? HttpHeaders.ACCEPT_ENCODING : null;
 
-			// String onAction = "serving CSS";
+			// representation to serve; precompressed assets are served to clients accepting gzip
+			boolean gzip = asset.getGzipContent() != null && StaticAssets.acceptsGzip(acceptEncoding);
+			byte[] content = gzip ? asset.getGzipContent() : asset.getContent();
+			String etag = gzip ? asset.getGzipETag() : asset.getETag();
 
-			try {
-				Scanner scanner = new Scanner(new File("./etc/webapp/css/" + filename));
-				String js = scanner.useDelimiter("\\A").next();
-				scanner.close();
-				return Response.status(Status.OK).entity(js).build();
+			if (StaticAssets.matches(ifNoneMatch, etag)) {
+				return Response.notModified().header(HttpHeaders.ETAG, etag)
+						.header(HttpHeaders.CACHE_CONTROL, cacheControl).header(HttpHeaders.VARY, vary).build();
+			}
 
-			} catch (FileNotFoundException e) {
-				return Response.status(Status.NOT_FOUND).entity(filename + " not found!").build();
+			int[] bytes = (ifRange == null || ifRange.equals(etag)) ? StaticAssets.parseRange(range, content.length)
+					: null;
+			ResponseBuilder r;
+			if (bytes == null) {
+				r = Response.ok(content);
+			} else if (bytes.length == 0) {
+				return Response.status(416).header("Content-Range", "bytes */" + content.length).build();
+			} else {
+				// write requested range directly from the cached content
+				int start = bytes[0];
+				int length = bytes[1] - bytes[0] + 1;
+				r = Response.status(206).entity((StreamingOutput) out -> out.write(content, start, length))
+						.header("Content-Range", "bytes " + bytes[0] + "-" + bytes[1] + "/" + content.length)
+						.header(HttpHeaders.CONTENT_LENGTH, length);
 			}
+			return r.type(asset.getContentType()).header(HttpHeaders.ETAG, etag)
+					.header(HttpHeaders.CACHE_CONTROL, cacheControl).header(HttpHeaders.VARY, vary)
+					.header(HttpHeaders.CONTENT_ENCODING, gzip ? "gzip" : null).header("Accept-Ranges", "bytes")
+					.lastModified(new Date(asset.getLastModified())).build();
 		}
 
 		// ============= RESOURCE INFORMATION (WORKAROUND) ==============
@@ -2958,59 +2837,21 @@ public class SurveyService extends RESTService {
 			String onAction = "retrieving resource metadata for URI " + uri;
 
 			try {
-
-				Connection conn = null;
-				PreparedStatement stmt = null;
-				ResultSet rset = null;
-
-				try {
-					conn = dataSource.getConnection();
-					stmt = conn.prepareStatement("select * from " + service.jdbcSchema + ".resource where uri = ?");
-					stmt.setString(1, uri);
-
-					rset = stmt.executeQuery();
-
-					if (!rset.isBeforeFirst()) {
-						return Response.status(Status.NOT_FOUND).entity("No metadata found for resource " + uri + "!")
-								.build();
-					}
-					rset.next();
-
-					JSONObject meta = new JSONObject();
-
-					meta.put("name", rset.getString("name"));
-					meta.put("description", rset.getString("description"));
-
-					return Response.status(Status.OK).entity(meta.toJSONString()).build();
-
-				} catch (SQLException | UnsupportedOperationException e) {
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rset != null) {
-							rset.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (stmt != null) {
-							stmt.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (conn != null) {
-							conn.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
+				JSONObject meta = service.queryExecutor.readOnly().queryFirst(
+						"select * from " + service.jdbcSchema + ".resource where uri = ?", s -> s.setString(1, uri),
+						rs -> {
+							JSONObject o = new JSONObject();
+							o.put("name", rs.getString("name"));
+							o.put("description", rs.getString("description"));
+							return o;
+						});
+
+				if (meta == null) {
+					return Response.status(Status.NOT_FOUND).entity("No metadata found for resource " + uri + "!")
+							.build();
 				}
+
+				return Response.status(Status.OK).entity(meta.toJSONString()).build();
 			}
 
 			catch (Exception e) {
@@ -3030,59 +2871,9 @@ public class SurveyService extends RESTService {
 			JSONArray result = new JSONArray();
 
 			try {
+				result.addAll(service.clientMetadata.list());
 
-				Connection conn = null;
-				PreparedStatement stmt = null;
-				ResultSet rset = null;
-
-				try {
-					conn = dataSource.getConnection();
-					stmt = conn.prepareStatement(
-							"select client_id, client_name, client_description, client_uri, logo_uri from "
-									+ service.oidcSchema + ".client_details order by client_name asc");
-
-					rset = stmt.executeQuery();
-
-					while (rset.next()) {
-						JSONObject meta = new JSONObject();
-						meta.put("id", rset.getString("client_id"));
-						meta.put("name", rset.getString("client_name"));
-						meta.put("description", rset.getString("client_description"));
-						meta.put("uri", rset.getString("client_uri"));
-						meta.put("logo", rset.getString("logo_uri"));
-						result.add(meta);
-					}
-
-					return Response.status(Status.OK).entity(result.toJSONString()).build();
-
-				} catch (SQLException | UnsupportedOperationException e) {
-					return internalError(onAction + e.getMessage());
-				} finally {
-					try {
-						if (rset != null) {
-							rset.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (stmt != null) {
-							stmt.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (conn != null) {
-							conn.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-				}
+				return Response.status(Status.OK).entity(result.toJSONString()).build();
 			}
 
 			catch (Exception e) {
@@ -3101,63 +2892,13 @@ public class SurveyService extends RESTService {
 			String onAction = "retrieving metadata for client " + id;
 
 			try {
+				JSONObject meta = service.clientMetadata.get(id);
 
-				Connection conn = null;
-				PreparedStatement stmt = null;
-				ResultSet rset = null;
-
-				try {
-					conn = dataSource.getConnection();
-					stmt = conn.prepareStatement(
-							"select client_id, client_name, client_description, client_uri, logo_uri from "
-									+ service.oidcSchema + ".client_details where client_id = ?");
-					stmt.setString(1, id);
-
-					rset = stmt.executeQuery();
-
-					if (!rset.isBeforeFirst()) {
-						return Response.status(Status.NOT_FOUND).entity("No metadata found for client " + id + "!")
-								.build();
-					}
-					rset.next();
-
-					JSONObject meta = new JSONObject();
-					meta.put("id", rset.getString("client_id"));
-					meta.put("name", rset.getString("client_name"));
-					meta.put("description", rset.getString("client_description"));
-					meta.put("uri", rset.getString("client_uri"));
-					meta.put("logo", rset.getString("logo_uri"));
-
-					return Response.status(Status.OK).entity(meta.toJSONString()).build();
-
-				} catch (SQLException | UnsupportedOperationException e) {
-					return internalError(onAction);
-				} finally {
-					try {
-						if (rset != null) {
-							rset.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (stmt != null) {
-							stmt.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
-					try {
-						if (conn != null) {
-							conn.close();
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					}
+				if (meta == null) {
+					return Response.status(Status.NOT_FOUND).entity("No metadata found for client " + id + "!").build();
 				}
+
+				return Response.status(Status.OK).entity(meta.toJSONString()).build();
 			}
 
 			catch (Exception e) {
@@ -3193,58 +2934,17 @@ public class SurveyService extends RESTService {
 				} else {
 					// JSONObject r = new JSONObject(); //result to return in HTTP response
 
-					Connection c = null;
-					PreparedStatement s = null;
-					ResultSet rs = null;
-
-					// +++ dsi
-					try {
-						// query for given survey
-						c = dataSource.getConnection();
-						s = c.prepareStatement("select * from " + service.jdbcSchema + ".feedback where client_id = ?");
-						s.setString(1, cid);
-
-						rs = s.executeQuery();
-
-						String res = createCSVQuestionnaireResult(rs, sep);
-
-						if (sepline > 0) {
-							// add separator declaration
-							res = "sep=" + sep + "\r\n" + res;
-						}
-
-						return Response.status(Status.OK).entity(res).build();
+					// query for given client
+					String res = service.queryExecutor.readOnly().handle(
+							"select * from " + service.jdbcSchema + ".feedback where client_id = ?",
+							s -> s.setString(1, cid), rs -> Questionnaires.createCSVQuestionnaireResult(rs, sep));
 
-					} catch (Exception e) {
-						e.printStackTrace();
-						return internalError(onAction);
-					} finally {
-						try {
-							if (rs != null) {
-								rs.close();
-							}
-						} catch (Exception e) {
-							e.printStackTrace();
-							return internalError(onAction);
-						}
-						try {
-							if (s != null) {
-								s.close();
-							}
-						} catch (Exception e) {
-							e.printStackTrace();
-							return internalError(onAction);
-						}
-						try {
-							if (c != null) {
-								c.close();
-							}
-						} catch (Exception e) {
-							e.printStackTrace();
-							return internalError(onAction);
-						}
+					if (sepline > 0) {
+						// add separator declaration
+						res = "sep=" + sep + "\r\n" + res;
 					}
-					// --- dsi
+
+					return Response.status(Status.OK).entity(res).build();
 				}
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -3816,24 +3516,6 @@ public class SurveyService extends RESTService {
 
 		// ============= Private helper methods ===================
 
-		private String fillPlaceHolder(String data, String placeholder, String value) {
-			// detect all tags used by questionnaire author throughout the form
-			// and replace them by the respective values.
-			Pattern p = Pattern.compile("\\$\\{" + placeholder + "\\}");
-			Matcher m = p.matcher(data);
-
-			String adaptedform = new String(data);
-
-			// replace any occurring author tags within questionnaire form
-			// Vector<String> foundTags = new Vector<String>();
-			while (m.find()) {
-				String tag = m.group().substring(2, m.group().length() - 1);
-				adaptedform = adaptedform.replaceAll("\\$\\{" + tag + "\\}", value);
-			}
-
-			return adaptedform;
-		}
-
 		/**
 		 * Adapts a given questionnaire form before being administered to a requesting user in a given community
 		 * context. For adaptation purposes, questionnaire authors can make use of a set of author tags, which are
@@ -3859,92 +3541,14 @@ public class SurveyService extends RESTService {
 		 * 
 		 * @param originalFormXml
 		 * @param survey
-		 * @param user
+		 * @param user requesting user or null, if user tags are to be kept
 		 * @param community
 		 * @return
 		 */
 		private String adaptForm(String originalFormXml, JSONObject survey, Agent user, GroupAgent community) {
-			// detect all tags used by questionnaire author throughout the form
-			// and replace them by the respective values.
-			Pattern p = Pattern.compile("\\$\\{([^\\}])+\\}");
-			Matcher m = p.matcher(originalFormXml);
-
-			String adaptedform = new String(originalFormXml);
-
-			// replace any occurring author tags within questionnaire form
-			Vector<String> foundTags = new Vector<>();
-			while (m.find()) {
-				String tag = m.group().substring(2, m.group().length() - 1);
-				String value = null;
-				if (!foundTags.contains(tag)) {
-					if (tag.startsWith("USER")) {
-						if (tag.endsWith("ID")) {
-							value = "" + user.getIdentifier();
-						} else if (tag.endsWith("NAME")) {
-							if (user instanceof AnonymousAgent) {
-								value = "(?)";
-							} else {
-								value = ((UserAgent) user).getLoginName();
-							}
-						} else if (tag.endsWith("MAIL")) {
-							if (user instanceof AnonymousAgent) {
-								value = "(?)";
-							} else {
-								value = ((UserAgent) user).getEmail();
-							}
-						}
-					} else if (tag.startsWith("COMMUNITY")) {
-						if (tag.endsWith("ID")) {
-							if (community != null) {
-								value = "" + community.getIdentifier();
-							} else {
-								value = "(no community context)";
-							}
-						}
-					} else if (tag.startsWith("SURVEY.")) {
-						if (tag.endsWith("ID")) {
-							value = survey.get("id") + "";
-						} else if (tag.endsWith("NAME")) {
-							value = (String) survey.get("name");
-						} else if (tag.endsWith("DESCRIPTION")) {
-							value = (String) survey.get("description");
-						} else if (tag.endsWith("RESOURCE")) {
-							String id = (String) survey.get("resource-label");
-							Response r = getClientMetadata(id);
-							if (r.getStatus() == 200) {
-								JSONObject meta = (JSONObject) JSONValue.parse((String) r.getEntity());
-								value = (String) meta.get("name");
-							} else {
-								value = id;
-							}
-
-							// JSONObject res = (JSONObject) survey.get("resource");
-							// String res_name = (String) res.get("name");
-							// value = res_name;
-						} else if (tag.endsWith("START")) {
-							value = (String) survey.get("start");
-						} else if (tag.endsWith("END")) {
-							value = (String) survey.get("end");
-						} else if (tag.endsWith("OWNER")) {
-							value = (String) survey.get("owner");
-						} else if (tag.endsWith("ORGANIZATION")) {
-							value = (String) survey.get("organization");
-						} else if (tag.endsWith("LOGO")) {
-							value = (String) survey.get("logo");
-						}
-					}
-
-					// TODO: add more author tags, if necessary.
-
-					if (value != null) {
-						adaptedform = adaptedform.replaceAll("\\$\\{" + tag + "\\}", value);
-						// System.out.println("Resolved questionnaire author tag: "+tag);
-						foundTags.add(tag);
-					} else {
-						System.err.println("Warning: could not resolve questionnaire author tag '" + tag + "'");
-					}
-				}
-			}
+			// replace all author tags used throughout the form in a single pass; each tag is resolved at most once
+			String adaptedform = Questionnaires.adaptForm(originalFormXml, authorTags(survey, user, community),
+					user == null);
 
 			/*
 					// add a welcome information page to be displayed before any questionnaire content provided by the 
@@ -3963,142 +3567,95 @@ public class SurveyService extends RESTService {
 		}
 
 		/**
-		 * Checks if survey or questionnaire exists and active agent is owner.
+		 * Creates the resolvers of all author tags supported by {@link #adaptForm(String, JSONObject, Agent,
+		 * GroupAgent)}. Resolvers are only invoked for tags actually used by a form. To support a new author tag, add
+		 * its resolver here.
 		 * 
-		 * @param id int survey or questionnaire id
-		 * @param type int 0 for survey, 1 for questionnaire
-		 * @return int -1 if questionnaire/survey does not exist, 0 if active agent is not owner, 1 if active agent is
-		 *         owner
-		 * @throws Exception
+		 * @param survey survey, in whose context questionnaire form is requested
+		 * @param user requesting user or null, if user tags are to be kept
+		 * @param community community, in whose context questionnaire form is requested, or null
+		 * @return resolvers by author tag
 		 */
-		private int checkExistenceOwnership(int id, int type) throws Exception {
-
-			try {
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
-
-				// +++ dsi
+		private Map<String, Supplier<String>> authorTags(JSONObject survey, Agent user, GroupAgent community) {
+			Map<String, Supplier<String>> tags = user != null ? userTags(user) : new HashMap<>();
+			tags.put("COMMUNITY.ID",
+					() -> community != null ? "" + community.getIdentifier() : "(no community context)");
+			tags.put("SURVEY.ID", () -> survey.get("id") + "");
+			tags.put("SURVEY.NAME", () -> (String) survey.get("name"));
+			tags.put("SURVEY.DESCRIPTION", () -> (String) survey.get("description"));
+			tags.put("SURVEY.RESOURCE", () -> {
+				String id = (String) survey.get("resource-label");
 				try {
-					c = dataSource.getConnection();
-
-					if (type == 0) {
-						s = c.prepareStatement("select owner from " + service.jdbcSchema + ".survey where id = ?");
-					} else {
-						s = c.prepareStatement(
-								"select owner from " + service.jdbcSchema + ".questionnaire where id = ?");
-					}
-
-					s.setInt(1, id);
-					rs = s.executeQuery();
-
-					// survey/questionnaire does not exist
-					if (!rs.isBeforeFirst()) {
-						return -1;
-					}
-
-					rs.next();
-					String owner = rs.getString(1);
-
-					// active agent is not owner.
-
-					String sub = (String) getActiveUserInfo().get("sub");
-
-					if (!owner.equals(sub)) {
-						return 0;
-					}
-					// active agent is owner.
-					else {
-						return 1;
-					}
-
-				} catch (Exception e) {
-					throw e;
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						throw e;
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						throw e;
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						throw e;
+					JSONObject meta = service.clientMetadata.get(id);
+					if (meta != null) {
+						return (String) meta.get("name");
 					}
+				} catch (SQLException e) {
+					e.printStackTrace();
 				}
-				// --- dsi
-
-			} catch (Exception e) {
-				throw e;
-			}
-
+				return id;
+			});
+			tags.put("SURVEY.START", () -> (String) survey.get("start"));
+			tags.put("SURVEY.END", () -> (String) survey.get("end"));
+			tags.put("SURVEY.OWNER", () -> (String) survey.get("owner"));
+			tags.put("SURVEY.ORGANIZATION", () -> (String) survey.get("organization"));
+			tags.put("SURVEY.LOGO", () -> (String) survey.get("logo"));
+			return tags;
 		}
 
 		/**
-		 * TODO: documentation
+		 * Creates the resolvers of author tags referring to the requesting user (USER.ID, USER.NAME and USER.MAIL).
 		 * 
-		 * @param rs
-		 * @return
-		 * @throws SQLException
+		 * @param user requesting user
+		 * @return resolvers by author tag
 		 */
-		private String createCSVQuestionnaireResult(ResultSet rs, String sep) throws SQLException {
-			int cols = rs.getMetaData().getColumnCount();
+		private Map<String, Supplier<String>> userTags(Agent user) {
+			Map<String, Supplier<String>> tags = new HashMap<>();
+			tags.put("USER.ID", () -> "" + user.getIdentifier());
+			tags.put("USER.NAME",
+					() -> user instanceof AnonymousAgent ? "(?)" : ((UserAgent) user).getLoginName());
+			tags.put("USER.MAIL", () -> user instanceof AnonymousAgent ? "(?)" : ((UserAgent) user).getEmail());
+			return tags;
+		}
 
-			String res = "";
-			String headline = "";
+		/**
+		 * Checks if survey or questionnaire exists and active agent is owner.
+		 * 
+		 * @param id int survey or questionnaire id
+		 * @param type int 0 for survey, 1 for questionnaire
+		 * @return int -1 if questionnaire/survey does not exist, 0 if active agent is not owner, 1 if active agent is
+		 *         owner
+		 * @throws Exception
+		 */
+		private int checkExistenceOwnership(int id, int type) throws Exception {
 
-			// first create header row
-			for (int i = 1; i <= cols; i++) {
-				headline += rs.getMetaData().getColumnName(i);
-				rs.getMetaData().getColumnTypeName(i);
-				if (i < cols) {
-					headline += sep;
-				}
+			JSONObject o;
+			if (type == 0 && requestContext().containsSurvey(id)) {
+				o = requestContext().getSurvey(id);
+			} else if (type == 0) {
+				o = service.catalog.getSurvey(id);
+			} else {
+				o = service.catalog.getQuestionnaire(id);
 			}
-			res += headline + "\r\n";
 
-			// now compile answer data; stick to RFC 4180
-			String data = "";
-			while (rs.next()) {
-				for (int i = 1; i <= cols; i++) {
-					Object o = rs.getObject(i);
-					if (o != null) {
+			// survey/questionnaire does not exist
+			if (o == null) {
+				return -1;
+			}
 
-						// Fields containing line breaks (CRLF), double quotes, and commas should be enclosed in
-						// double-quotes.
-						if (o.toString().contains(",") || o.toString().contains("\"") || o.toString().contains("\n")) {
+			String owner = (String) o.get("owner");
 
-							String fval = o.toString();
+			// active agent is not owner.
 
-							// If double-quotes are used to enclose fields, then a double-quote appearing inside a field
-							// must be escaped by preceding it with another double quote.
-							fval = fval.replaceAll("\"", "\"\\\"");
+			String sub = (String) getActiveUserInfo().get("sub");
 
-							data += "\"" + fval + "\"";
-						} else {
-							data += o.toString();
-						}
-					}
-					if (i < cols) {
-						data += sep;
-					}
-				}
-				data += "\r\n";
+			if (!owner.equals(sub)) {
+				return 0;
+			}
+			// active agent is owner.
+			else {
+				return 1;
 			}
-			res += data.trim();
-
-			return res;
 		}
 
 		/**
@@ -4145,59 +3702,187 @@ public class SurveyService extends RESTService {
 				}
 				data.add(resrow);
 			}
-			return res.toJSONString();
-		}*/
+			return res.toJSONString();
+		}*/
+
+		/**
+		 * Parses a comma-separated list of requested fields for listings. If no fields are requested, all available
+		 * fields are returned.
+		 *
+		 * @param fields comma-separated list of field names or null
+		 * @param available available fields mapped to database columns
+		 * @return list of requested field names
+		 * @throws IllegalArgumentException if an unknown field is requested
+		 */
+		private List<String> parseFields(String fields, Map<String, String> available)
+				throws IllegalArgumentException {
+			if (fields == null || fields.trim().isEmpty()) {
+				return new ArrayList<>(available.keySet());
+			}
+			List<String> result = new ArrayList<>();
+			for (String field : fields.split(",")) {
+				field = field.trim();
+				if (!available.containsKey(field)) {
+					throw new IllegalArgumentException("Unknown field '" + field + "'! Available fields are "
+							+ String.join(", ", available.keySet()) + ".");
+				}
+				if (!result.contains(field)) {
+					result.add(field);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Determines fields to select from the database for listings. Fields id and name are always selected, since
+		 * they are needed for resource URLs and paging.
+		 */
+		private List<String> selectFields(List<String> fields) {
+			Set<String> selected = new LinkedHashSet<>();
+			selected.add("id");
+			selected.add("name");
+			selected.addAll(fields);
+			return new ArrayList<>(selected);
+		}
+
+		/**
+		 * Maps fields to an explicit SQL column list.
+		 */
+		private String columns(List<String> fields, Map<String, String> available) {
+			List<String> columns = new ArrayList<>();
+			for (String field : fields) {
+				columns.add(available.get(field));
+			}
+			return String.join(", ", columns);
+		}
 
 		/**
-		 * Marshals survey data in a result set from the MobSOS database to a JSON representation.
+		 * Assembles a page of a survey or questionnaire listing from catalog entries or database rows. Entries must
+		 * contain one more entry than the page size, if there is a next page.
+		 *
+		 * @param type either "surveys" or "questionnaires"; used as result key and in resource URLs
+		 * @param entries entries ordered by name
+		 * @param pageSize maximum number of entries on page
+		 * @param full if greater 0, full entries restricted to given fields are listed; otherwise only URLs
+		 * @param fields fields to include in full entries
 		 */
 		@SuppressWarnings("unchecked")
-		private JSONObject readSurveyFromResultSet(ResultSet rs) throws SQLException {
-
-			JSONObject o = new JSONObject();
-
-			o.put("id", rs.getInt("id"));
-			o.put("name", rs.getString("name"));
-			o.put("description", rs.getString("description"));
-			o.put("owner", rs.getString("owner"));
-			o.put("organization", rs.getString("organization"));
-			o.put("logo", rs.getString("logo"));
-			o.put("resource", rs.getString("resource"));
-			o.put("resource-label", rs.getString("resource_label"));
-			o.put("qid", rs.getInt("qid"));
-
-			long ts_start = rs.getTimestamp("start").getTime();
-			long ts_end = rs.getTimestamp("end").getTime();
-
-			DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
-			dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-
-			String d_start = dateFormat.format(new Date(ts_start));
-			String d_end = dateFormat.format(new Date(ts_end));
+		private JSONObject listingPage(String type, List<JSONObject> entries, int pageSize, int full,
+				List<String> fields) {
+			JSONObject r = new JSONObject();
+			JSONArray page = new JSONArray();
+			for (JSONObject entry : entries) {
+				if (page.size() == pageSize) {
+					r.put("next", encodeCursor((String) entries.get(pageSize - 1).get("name")));
+					break;
+				}
+				String url = service.epUrl + type + "/" + entry.get("id");
+				if (full > 0) {
+					JSONObject o = Catalog.project(entry, fields);
+					o.put("url", url);
+					page.add(o);
+				} else {
+					page.add(url);
+				}
+			}
+			r.put(type, page);
+			return r;
+		}
 
-			o.put("start", d_start);
-			o.put("end", d_end);
-			o.put("lang", rs.getString("lang"));
+		/**
+		 * Assembles the result of a batch request from catalog entries.
+		 *
+		 * @param type either "surveys" or "questionnaires"; used as result key and in resource URLs
+		 * @param ids requested ids in request order
+		 * @param entries existing entries by id
+		 * @param fields fields to include in entries
+		 */
+		@SuppressWarnings("unchecked")
+		private JSONObject batchResult(String type, List<Integer> ids, Map<Integer, JSONObject> entries,
+				List<String> fields) {
+			JSONArray found = new JSONArray();
+			JSONArray missing = new JSONArray();
+			for (Integer id : ids) {
+				JSONObject entry = entries.get(id);
+				if (entry == null) {
+					missing.add(id);
+				} else {
+					// always include id to relate entries to requested ids
+					JSONObject o = Catalog.project(entry, fields);
+					o.put("id", id);
+					o.put("url", service.epUrl + type + "/" + id);
+					found.add(o);
+				}
+			}
+			JSONObject r = new JSONObject();
+			r.put(type, found);
+			r.put("missing", missing);
+			return r;
+		}
 
-			return o;
+		/**
+		 * Parses a comma-separated list of at most {@link #MAX_PAGE_SIZE} ids for batch requests. Duplicate ids are
+		 * ignored.
+		 *
+		 * @throws IllegalArgumentException if the list is empty, too long or contains invalid ids
+		 */
+		private List<Integer> parseIds(String ids) throws IllegalArgumentException {
+			Set<Integer> result = new LinkedHashSet<>();
+			for (String id : ids.split(",")) {
+				id = id.trim();
+				if (id.isEmpty()) {
+					continue;
+				}
+				try {
+					result.add(Integer.parseInt(id));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid id '" + id + "'!");
+				}
+			}
+			if (result.isEmpty()) {
+				throw new IllegalArgumentException("No ids given!");
+			}
+			if (result.size() > MAX_PAGE_SIZE) {
+				throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " ids allowed per request!");
+			}
+			return new ArrayList<>(result);
 		}
 
 		/**
-		 * Marshals questionnaire data in a result set from the MobSOS database to a JSON representation.
+		 * Restricts a requested page size to the range between 1 and {@link #MAX_PAGE_SIZE}. Values smaller than 1
+		 * request the maximum page size.
 		 */
-		@SuppressWarnings("unchecked")
-		private JSONObject readQuestionnaireFromResultSet(ResultSet rs) throws SQLException {
+		private int pageSize(int limit) {
+			if (limit < 1 || limit > MAX_PAGE_SIZE) {
+				return MAX_PAGE_SIZE;
+			}
+			return limit;
+		}
 
-			JSONObject o = new JSONObject();
-			o.put("id", rs.getInt("id"));
-			o.put("name", rs.getString("name"));
-			o.put("description", rs.getString("description"));
-			o.put("owner", rs.getString("owner"));
-			o.put("organization", rs.getString("organization"));
-			o.put("logo", rs.getString("logo"));
-			o.put("lang", rs.getString("lang"));
+		/**
+		 * Encodes the name of the last entry on a page as opaque cursor for retrieving the next page. Survey and
+		 * questionnaire names are unique, such that the name alone identifies the position in a listing ordered by
+		 * name.
+		 */
+		private String encodeCursor(String name) {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(name.getBytes(StandardCharsets.UTF_8));
+		}
 
-			return o;
+		/**
+		 * Decodes a cursor created by {@link #encodeCursor(String)}.
+		 *
+		 * @return name of the last entry on the previous page or null, if no cursor was given
+		 * @throws IllegalArgumentException if the cursor is malformed
+		 */
+		private String decodeCursor(String cursor) throws IllegalArgumentException {
+			if (cursor == null || cursor.isEmpty()) {
+				return null;
+			}
+			try {
+				return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Invalid cursor '" + cursor + "'!");
+			}
 		}
 
 		/**
@@ -4216,50 +3901,12 @@ public class SurveyService extends RESTService {
 		 * Retrieves identifier of questionnaire for given survey or -1 if no questionnaire was defined, yet.
 		 */
 		private int getQuestionnaireIdForSurvey(int sid) throws SQLException {
-
-			Connection conn = null;
-			PreparedStatement stmt = null;
-			ResultSet rs = null;
-
-			try {
-				conn = dataSource.getConnection();
-				stmt = conn.prepareStatement("select qid from " + service.jdbcSchema + ".survey where id = ?");
-				stmt.setInt(1, sid);
-
-				rs = stmt.executeQuery();
-
-				if (!rs.isBeforeFirst()) {
-					return -1;
-				} else {
-					rs.next();
-					return rs.getInt("qid");
-				}
-
-			} catch (SQLException | UnsupportedOperationException e) {
-				throw e;
-			} finally {
-				try {
-					if (rs != null) {
-						rs.close();
-					}
-				} catch (Exception e) {
-					throw e;
-				}
-				try {
-					if (stmt != null) {
-						stmt.close();
-					}
-				} catch (Exception e) {
-					throw e;
-				}
-				try {
-					if (conn != null) {
-						conn.close();
-					}
-				} catch (Exception e) {
-					throw e;
-				}
+			JSONObject survey = requestContext().containsSurvey(sid) ? requestContext().getSurvey(sid)
+					: service.catalog.getSurvey(sid);
+			if (survey == null) {
+				return -1;
 			}
+			return (Integer) survey.get("qid");
 		}
 
 		/**
@@ -4491,68 +4138,24 @@ public class SurveyService extends RESTService {
 		 */
 		private int storeNewSurvey(JSONObject survey) throws IllegalArgumentException, SQLException, ParseException {
 
-			Connection conn = null;
-			PreparedStatement stmt = null;
-			ResultSet rset = null;
-
 			String sub = (String) getActiveUserInfo().get("sub");
 
-			try {
-				conn = dataSource.getConnection();
-				stmt = conn.prepareStatement(
-						"insert into " + service.jdbcSchema
-								+ ".survey(owner, organization, logo, name, description, resource, resource_label, start, end, lang ) values (?,?,?,?,?,?,?,?,?,?)",
-						Statement.RETURN_GENERATED_KEYS);
-
-				stmt.clearParameters();
-				stmt.setString(1, sub); // active agent becomes owner automatically
-				stmt.setString(2, (String) survey.get("organization"));
-				stmt.setString(3, (String) survey.get("logo"));
-				stmt.setString(4, (String) survey.get("name"));
-				stmt.setString(5, (String) survey.get("description"));
-				stmt.setString(6, (String) survey.get("resource"));
-				stmt.setString(7, (String) survey.get("resource-label"));
-				stmt.setTimestamp(8,
-						new Timestamp(DatatypeConverter.parseDateTime((String) survey.get("start")).getTimeInMillis()));
-				stmt.setTimestamp(9,
-						new Timestamp(DatatypeConverter.parseDateTime((String) survey.get("end")).getTimeInMillis()));
-				stmt.setString(10, (String) survey.get("lang"));
-
-				stmt.executeUpdate();
-				ResultSet rs = stmt.getGeneratedKeys();
-
-				if (rs.next()) {
-					return rs.getInt(1);
-				} else {
-					throw new NoSuchElementException("No new survey was created!");
-				}
-
-			} catch (UnsupportedOperationException e) {
-				e.printStackTrace();
-			} finally {
-				try {
-					if (rset != null) {
-						rset.close();
-					}
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-				try {
-					if (stmt != null) {
-						stmt.close();
-					}
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-				try {
-					if (conn != null) {
-						conn.close();
-					}
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-			throw new NoSuchElementException("No new survey was created!");
+			return service.queryExecutor.insert("insert into " + service.jdbcSchema
+					+ ".survey(owner, organization, logo, name, description, resource, resource_label, start, end, lang ) values (?,?,?,?,?,?,?,?,?,?)",
+					stmt -> {
+						stmt.setString(1, sub); // active agent becomes owner automatically
+						stmt.setString(2, (String) survey.get("organization"));
+						stmt.setString(3, (String) survey.get("logo"));
+						stmt.setString(4, (String) survey.get("name"));
+						stmt.setString(5, (String) survey.get("description"));
+						stmt.setString(6, (String) survey.get("resource"));
+						stmt.setString(7, (String) survey.get("resource-label"));
+						stmt.setTimestamp(8, new Timestamp(
+								DatatypeConverter.parseDateTime((String) survey.get("start")).getTimeInMillis()));
+						stmt.setTimestamp(9, new Timestamp(
+								DatatypeConverter.parseDateTime((String) survey.get("end")).getTimeInMillis()));
+						stmt.setString(10, (String) survey.get("lang"));
+					});
 		}
 
 		/**
@@ -4567,60 +4170,16 @@ public class SurveyService extends RESTService {
 
 			String sub = (String) getActiveUserInfo().get("sub");
 
-			Connection conn = null;
-			PreparedStatement stmt = null;
-			ResultSet rset = null;
-
-			try {
-				conn = dataSource.getConnection();
-				stmt = conn.prepareStatement(
-						"insert into " + service.jdbcSchema
-								+ ".questionnaire(owner, organization, logo, name, description, lang) values (?,?,?,?,?,?)",
-						Statement.RETURN_GENERATED_KEYS);
-
-				stmt.clearParameters();
-				stmt.setString(1, sub); // active agent becomes owner automatically
-				stmt.setString(2, (String) questionnaire.get("organization"));
-				stmt.setString(3, (String) questionnaire.get("logo"));
-				stmt.setString(4, (String) questionnaire.get("name"));
-				stmt.setString(5, (String) questionnaire.get("description"));
-				stmt.setString(6, (String) questionnaire.get("lang"));
-
-				stmt.executeUpdate();
-				ResultSet rs = stmt.getGeneratedKeys();
-
-				if (rs.next()) {
-					return rs.getInt(1);
-				} else {
-					throw new NoSuchElementException("No new questionnaire was created!");
-				}
-
-			} catch (UnsupportedOperationException e) {
-				e.printStackTrace();
-			} finally {
-				try {
-					if (rset != null) {
-						rset.close();
-					}
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-				try {
-					if (stmt != null) {
-						stmt.close();
-					}
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-				try {
-					if (conn != null) {
-						conn.close();
-					}
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-			throw new NoSuchElementException("No new questionnaire was created!");
+			return service.queryExecutor.insert("insert into " + service.jdbcSchema
+					+ ".questionnaire(owner, organization, logo, name, description, lang) values (?,?,?,?,?,?)",
+					stmt -> {
+						stmt.setString(1, sub); // active agent becomes owner automatically
+						stmt.setString(2, (String) questionnaire.get("organization"));
+						stmt.setString(3, (String) questionnaire.get("logo"));
+						stmt.setString(4, (String) questionnaire.get("name"));
+						stmt.setString(5, (String) questionnaire.get("description"));
+						stmt.setString(6, (String) questionnaire.get("lang"));
+					});
 		}
 
 		/**
@@ -4632,11 +4191,7 @@ public class SurveyService extends RESTService {
 		 * @throws IOException
 		 */
 		private Document validateQuestionnaireData(String data) throws SAXException, IOException {
-			// parse and validate.
-			ByteArrayInputStream stringIS = new ByteArrayInputStream(data.getBytes());
-			Document doc = service.parser.parse(stringIS);
-			service.validator.validate(new DOMSource(doc));
-			return doc;
+			return Questionnaires.validateQuestionnaireData(service.parser, service.validator, data);
 		}
 
 		/**
@@ -4661,99 +4216,6 @@ public class SurveyService extends RESTService {
 			return result;
 		}
 
-		/**
-		 * TODO: write documentation
-		 * 
-		 * @param form
-		 * @param response
-		 * @return
-		 */
-		@SuppressWarnings("unchecked")
-		private JSONObject validateResponse(Document form, JSONObject response) {
-			JSONObject result = new JSONObject();
-
-			JSONObject questions = extractQuestionInformation(form);
-
-			// then iterate over all question items in the submitted answer and check, if
-			// they fulfill all constraints.
-
-			Iterator<String> ait = response.keySet().iterator();
-			while (ait.hasNext()) {
-
-				String qid = ait.next();
-				String qval = (String) response.get(qid);
-
-				// System.out.println("Submitted Question ID: "+q.getAttribute("qid"));
-
-				// if question provided in answer is not contained in questionnaire, the answer does not match the
-				// questionnaire.
-				if (!questions.keySet().contains(qid)) {
-					throw new IllegalArgumentException("Questionnaire answer does not match form! Question ID " + qid
-							+ " is not defined in questionnaire.");
-				}
-
-				// if question provided in answer is contained in questionnaire, check further properties...
-				JSONObject question = (JSONObject) questions.get(qid);
-
-				// for each type check further constraints
-				String type = (String) question.get("type");
-				if (type.equals("qu:DichotomousQuestionPageType")) {
-
-					// for dichotomous questions the only two possible answers are 0 and 1.
-					if (!qval.equals("0") && !qval.equals("1")) {
-						throw new IllegalArgumentException(
-								"Questionnaire answer does not match questionnaire! The value submitted for question "
-										+ qid + " is expected to be either 0 or 1, but was " + qval + "!");
-					} else {
-						// everything is ok with this question answer.
-						// remove entry from hashtable, write entry to result object
-						questions.remove(qid);
-						result.put(qid, qval);
-					}
-				} else if (type.equals("qu:OrdinalScaleQuestionPageType")) {
-					// for ordinal scale questions the answer must be parseable as an integer,
-					// which is
-					try {
-						int qvali = Integer.parseInt(qval);
-
-						if (qvali > (int) question.get("maxval") || qvali < (int) question.get("minval")) {
-							throw new IllegalArgumentException(
-									"Questionnaire answer does not match questionnaire! The value submitted for question "
-											+ qid + " is expected to be between " + question.get("minval") + " and "
-											+ question.get("maxval") + ", but was " + qvali + "!");
-						} else {
-							// everything is ok with this question answer.
-							// remove entry from hashtable
-							questions.remove(qid);
-							result.put(qid, qval);
-						}
-					} catch (NumberFormatException e) {
-						throw new IllegalArgumentException(
-								"Questionnaire answer does not match questionnaire! The value submitted for question "
-										+ qid + " is expected to be parseable as an integer!");
-					}
-
-				} else if (type.equals("qu:FreeTextQuestionPageType")) {
-					// nothing to check for freetext question pages. Any text can be entered.
-					questions.remove(qid);
-					result.put(qid, qval);
-				}
-
-			}
-
-			Iterator<String> remainingqids = questions.keySet().iterator();
-			while (remainingqids.hasNext()) {
-				String qid = remainingqids.next();
-				int requireds = (int) ((JSONObject) questions.get(qid)).get("required");
-				if (requireds == 1) {
-					throw new IllegalArgumentException(
-							"Questionnaire answer does not match questionnaire! The mandatory question " + qid
-									+ " was not answered!");
-				}
-			}
-			return result;
-		}
-
 		/*
 		private JSONObject validateAnswer(Document form, Document answer){
 			JSONObject result = new JSONObject();
@@ -4846,60 +4308,40 @@ public class SurveyService extends RESTService {
 		}
 
 		/**
-		 * Extracts all question information from a questionnaire form given as XML document. Information is returned as
-		 * a JSONObject of the following form:
-		 * 
-		 * {<QuestionID1>:<QuestionInfo1>,...}, where <QuestionInfoN> is again a JSONObject with the following fields: *
-		 * name: name of the question (all) * required: is an answer required or optional? (all) * type: question type
-		 * (one of qu:OrdinalScaleQuestionPageType, qu:DichotomousQuestionPageType, qu:FreeTextQuestionPageType) *
-		 * defval: default value (only for ordinal scale and dichotomous) * min/maxvalue: minimum/maximum value (only
-		 * for ordinal scale) * min/maxlabel: label for minimum/maximum value (only for dichotomous and ordinal scale)
+		 * Handles a request asynchronously on a bounded executor. The handler runs on a thread of the las2peer
+		 * context, such that it has access to the requesting agent, while the web connector's thread is released.
+		 * Limiting each class of expensive requests separately keeps slow requests of one class from starving the
+		 * others. If the executor's queue is full or the request waited too long in the queue, the request is answered
+		 * with 503 and a Retry-After header, such that clients back off instead of piling up.
 		 * 
-		 * @param questionnaireDocument
-		 * @return
+		 * @param executor bounded executor of the request's class
+		 * @param asyncResponse suspended response
+		 * @param handler handler creating the response
 		 */
-		@SuppressWarnings("unchecked")
-		private JSONObject extractQuestionInformation(Document questionnaireDocument) {
-
-			JSONObject questions = new JSONObject();
-
-			NodeList nodeList = questionnaireDocument.getElementsByTagNameNS(MOBSOS_QUESTIONNAIRE_NS, "Page");
-			for (int i = 0; i < nodeList.getLength(); i++) {
-				Node node = nodeList.item(i);
-				if (node.getNodeType() == Node.ELEMENT_NODE) {
-					Element e = (Element) node;
-					if (e.getAttribute("xsi:type").endsWith("QuestionPageType")) {
-						JSONObject question = new JSONObject();
-						String qtype = e.getAttribute("xsi:type");
-
-						String required = e.getAttribute("required");
-						if (required == null || required.equals("false")) {
-							question.put("required", 0);
-						} else if (required != null && required.equals("true")) {
-							question.put("required", 1);
-						}
-						question.put("name", e.getAttribute("name"));
-						question.put("type", e.getAttribute("xsi:type"));
-
-						if ("qu:OrdinalScaleQuestionPageType".equals(qtype)
-								|| "qu:DichotomousQuestionPageType".equals(qtype)) {
-							// question.put("defval",Integer.parseInt(e.getAttribute("defval")));
-							question.put("minlabel", e.getAttribute("minlabel"));
-							question.put("maxlabel", e.getAttribute("maxlabel"));
-
-							if ("qu:OrdinalScaleQuestionPageType".equals(qtype)) {
-								question.put("minval", Integer.parseInt(e.getAttribute("minval")));
-								question.put("maxval", Integer.parseInt(e.getAttribute("maxval")));
-							}
-						}
-						Node instructionNode = e.getElementsByTagName("qu:Instructions").item(0);
-						question.put("instructions",instructionNode.getTextContent());
-						question.put("order",i);
-						questions.put(e.getAttribute("qid"), question);
-					}
+		private void handleAsync(BoundedExecutor executor, AsyncResponse asyncResponse, Supplier<Response> handler) {
+			boolean accepted = executor.submit(Context.get().getExecutor(), QueryStats.propagate(() -> {
+				Response r;
+				try {
+					r = handler.get();
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+					r = internalError("handling " + executor.getName() + " request");
 				}
+				asyncResponse.resume(r);
+			}), QueryStats.propagate(() -> asyncResponse.resume(overloaded(executor))));
+
+			if (accepted) {
+				// database time is tracked on the executing thread from now on
+				QueryStats.clearRequest();
+			} else {
+				asyncResponse.resume(overloaded(executor));
 			}
-			return questions;
+		}
+
+		private Response overloaded(BoundedExecutor executor) {
+			return Response.status(Status.SERVICE_UNAVAILABLE).header("Retry-After", service.retryAfter)
+					.entity("Too many concurrent " + executor.getName() + " requests. Please try again later.")
+					.type(MediaType.TEXT_PLAIN).build();
 		}
 
 		/**
@@ -4913,175 +4355,59 @@ public class SurveyService extends RESTService {
 					.type(MediaType.TEXT_PLAIN).build();
 		}
 
-		/**
-		 * TODO: write documentation
-		 * 
-		 * @param ds
-		 */
-		@SuppressWarnings("unused")
-		private static void printDataSourceStats(DataSource ds) {
-			System.out.println("Data Source Stats: ");
-			BasicDataSource bds = (BasicDataSource) ds;
-			System.out.println("  Num Active: " + bds.getNumActive());
-			System.out.println("  Num Idle: " + bds.getNumIdle());
-			System.out.println("  Max Idle: " + bds.getMaxIdle());
-			System.out.println("  Max Total: " + bds.getMaxTotal());
-			System.out.println("  Max Conn Lifetime Millis: " + bds.getMaxConnLifetimeMillis());
-			System.out.println("  Min Idle: " + bds.getMinIdle());
-			System.out.println("  Min Evictable Idletime Millis: " + bds.getMinEvictableIdleTimeMillis());
-			System.out.println("  Validation Query: " + bds.getValidationQuery());
-		}
-
-		/**
-		 * Given a survey identifier, checks if the respective survey already defines a database view for survey
-		 * responses.
-		 * 
-		 * @param sid
-		 * @return
-		 * @throws SQLException
-		 */
-		private boolean existsResponseView(int sid) throws SQLException {
-			try {
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
-
-				// +++ dsi
-				try {
-					c = dataSource.getConnection();
-					s = c.prepareStatement("show tables in " + service.jdbcSchema + " like ?");
-					s.setString(1, "responses_survey_" + sid);
-					rs = s.executeQuery();
-
-					// view does not exist
-					if (!rs.isBeforeFirst()) {
-						return false;
-					} else {
-						return true;
-					}
-
-				} catch (Exception e) {
-					throw e;
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						throw e;
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						throw e;
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						throw e;
-					}
-				}
-				// --- dsi
 
-			} catch (Exception e) {
-				throw e;
-			}
-		}
 
 		/**
-		 * Given a survey and its corresponding questionnaire form, creates a new database view for convenient access to
-		 * survey responses.
+		 * Given a survey and its corresponding questionnaire form, generates the select statement of a database view
+		 * for convenient access to survey responses.
 		 * 
 		 * @param sid
 		 * @param form
-		 * @throws SQLException
+		 * @return select statement defining the response view
 		 */
 		@SuppressWarnings("unchecked")
-		private void createResponseView(int sid, Document form) throws SQLException {
-			try {
-				JSONObject questions = extractQuestionInformation(form);
+		private String responseViewSelect(int sid, Document form) {
+			JSONObject questions = Questionnaires.extractQuestionInformation(form);
 
-				// generate create view statement for response view
+			// generate select statement for response view; casts are specific to the storage backend
 
-				// example:
-				// create view mobsos.responses_survey_1 as
-				// select uid, sid, s.resource as cid,
-				// MAX(IF(qkey = 'A.2.1', cast(qval as unsigned), NULL)) AS "A.2.1",
-				// MAX(IF(qkey = 'A.2.2', cast(qval as unsigned), NULL)) AS "A.2.2",
-				// MAX(IF(qkey = 'A.2.3', qval, NULL)) AS "A.2.3"
-				// from mobsos.response r join mobsos.survey s on (s.id = r.sid) where sid = 1 group by uid, cid;
+			// example:
+			// create view mobsos.responses_survey_1 as
+			// select uid, sid, s.resource as cid,
+			// MAX(CASE WHEN qkey = 'A.2.1' THEN cast(qval as unsigned) END) AS "A.2.1",
+			// MAX(CASE WHEN qkey = 'A.2.2' THEN cast(qval as unsigned) END) AS "A.2.2",
+			// MAX(CASE WHEN qkey = 'A.2.3' THEN qval END) AS "A.2.3"
+			// from mobsos.response r join mobsos.survey s on (s.id = r.sid) where sid = 1
+			// group by uid, sid, s.resource;
 
-				String sql = "create view " + service.jdbcSchema + ".responses_survey_" + sid + " as ";
-				sql += "select uid, sid, s.resource as cid, \n";
-
-				Iterator<String> it = questions.keySet().iterator();
+			String sql = "select uid, sid, s.resource as cid, \n";
 
-				while (it.hasNext()) {
-					String key = it.next();
+			Iterator<String> it = questions.keySet().iterator();
 
-					JSONObject def = (JSONObject) questions.get(key);
-					if ("qu:FreeTextQuestionPageType".equals(def.get("type"))) {
-						sql += "  MAX(IF(qkey = '" + key + "', qval, NULL)) AS \"" + key + "\"";
-					} else if ("qu:DichotomousQuestionPageType".equals(def.get("type"))
-							|| "qu:OrdinalScaleQuestionPageType".equals(def.get("type"))) {
-						sql += "  MAX(IF(qkey = '" + key + "', cast(qval as unsigned), NULL)) AS \"" + key + "\"";
-					}
-					if (it.hasNext()) {
-						sql += ",\n";
-					} else {
-						sql += "\n";
-					}
+			while (it.hasNext()) {
+				String key = it.next();
+
+				JSONObject def = (JSONObject) questions.get(key);
+				if ("qu:FreeTextQuestionPageType".equals(def.get("type"))) {
+					sql += "  MAX(CASE WHEN qkey = '" + key + "' THEN qval END) AS \"" + key + "\"";
+				} else if ("qu:DichotomousQuestionPageType".equals(def.get("type"))
+						|| "qu:OrdinalScaleQuestionPageType".equals(def.get("type"))) {
+					sql += "  MAX(CASE WHEN qkey = '" + key + "' THEN " + service.storage.castToInteger("qval")
+							+ " END) AS \"" + key + "\"";
 				}
+				if (it.hasNext()) {
+					sql += ",\n";
+				} else {
+					sql += "\n";
+				}
+			}
 
-				sql += " from " + service.jdbcSchema + ".response r join " + service.jdbcSchema
-						+ ".survey s on (s.id = r.sid) where sid = " + sid + " group by uid, cid;";
-
-				System.out.println("SQL for creating survey response view for survey " + sid + ": \n" + sql);
-
-				Connection c = null;
-				PreparedStatement s = null;
-				ResultSet rs = null;
-
-				// +++ dsi
-				try {
-					c = dataSource.getConnection();
-					s = c.prepareStatement(sql);
-					s.executeUpdate();
+			sql += " from " + service.jdbcSchema + ".response r join " + service.jdbcSchema
+					+ ".survey s on (s.id = r.sid) where sid = " + sid + " group by uid, sid, s.resource";
 
-				} catch (Exception e) {
-					throw e;
-				} finally {
-					try {
-						if (rs != null) {
-							rs.close();
-						}
-					} catch (Exception e) {
-						throw e;
-					}
-					try {
-						if (s != null) {
-							s.close();
-						}
-					} catch (Exception e) {
-						throw e;
-					}
-					try {
-						if (c != null) {
-							c.close();
-						}
-					} catch (Exception e) {
-						throw e;
-					}
-				}
-				// --- dsi
+			System.out.println("SQL for creating survey response view for survey " + sid + ": \n" + sql);
 
-			} catch (Exception e) {
-				throw e;
-			}
+			return sql;
 		}
 
 		/**
@@ -5094,32 +4420,32 @@ public class SurveyService extends RESTService {
 		 * @return
 		 */
 		private String i18n(String t, String lang) {
+			return service.localization.localize(t, lang);
+		}
 
-			// now parse locales from accept-language header
-			Pattern p = Pattern.compile("[a-z]+-[A-Z]+");
-			Matcher m = p.matcher(lang);
-
-			// do not iterate over all locales found, but only use first option with highest preference.
-
-			Locale l = null;
-
-			if (m.find()) {
-				String[] tokens = m.group().split("-");
-				l = new Locale(tokens[0], tokens[1]);
-				// System.out.println("Locale: " + l.getDisplayCountry() + " " + l.getDisplayLanguage());
-			}
-
-			ResourceBundle messages = ResourceBundle.getBundle("MessageBundle", l);
-			Enumeration<String> e = messages.getKeys();
-
-			while (e.hasMoreElements()) {
-
-				String key = e.nextElement();
-				String translation = messages.getString(key);
-				t = t.replaceAll("\\$\\{" + key + "\\}", escapeHtml4(translation));
-			}
-
-			return t;
+		/**
+		 * Renders a template from ./etc/html. Translations for the negotiated locale and the service's URLs and OpenID
+		 * Connect settings are bound once per template and locale; only the given request-specific values are filled
+		 * in per request. Request-specific values take precedence over translations and service-wide values.
+		 * 
+		 * @param name file name of template
+		 * @param lang value of Accept-Language header
+		 * @param values request-specific placeholder values; must define the same placeholders on every call for a
+		 *            template
+		 * @return rendered HTML
+		 * @throws IOException if the template cannot be read
+		 */
+		private String renderTemplate(String name, String lang, Map<String, String> values) throws IOException {
+			Locale locale = service.localization.negotiate(lang);
+			Map<String, String> translations = service.localization.getTranslations(locale);
+			return service.templates.get(name, locale.toLanguageTag(), key -> {
+				// leave request-specific placeholders unbound, such that they are filled in per request
+				if (values.containsKey(key)) {
+					return null;
+				}
+				String v = translations.get(key);
+				return v != null ? v : service.templateValues.get(key);
+			}).render(values::get);
 		}
 
 		@SuppressWarnings("unchecked")
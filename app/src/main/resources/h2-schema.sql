@@ -0,0 +1,69 @@
+-- -----------------------------------------------------
+-- Schema of embedded H2 storage backend (equivalent of etc/sql/schema.sql). ${schema} is replaced by the configured
+-- schema name. Statements are idempotent and executed on every startup.
+-- -----------------------------------------------------
+create table if not exists ${schema}.questionnaire (
+    id int not null auto_increment,
+    owner varchar(128) not null,
+    organization varchar(128) not null,
+    logo varchar(200) not null,
+    name varchar(128) not null,
+    description varchar(2048) not null,
+    lang varchar(32) not null,
+    form clob,
+    constraint questionnaire_pk primary key (id),
+    constraint questionnaire_uk unique (name)
+);
+
+create index if not exists idx_q_own on ${schema}.questionnaire (owner);
+create index if not exists idx_q_org on ${schema}.questionnaire (organization);
+create index if not exists idx_q_log on ${schema}.questionnaire (logo);
+
+create table if not exists ${schema}.survey (
+    id int not null auto_increment,
+    owner varchar(128) not null,
+    organization varchar(128) not null,
+    logo varchar(200) not null,
+    name varchar(128) not null,
+    description varchar(2048) not null,
+    resource varchar(200) not null,
+    resource_label varchar(200) not null,
+    lang varchar(32) not null,
+    start datetime not null,
+    end datetime not null,
+    qid int,
+    constraint surveypk primary key (id),
+    constraint survey_uk unique (name),
+    constraint survey_q_fk foreign key (qid)
+        references ${schema}.questionnaire (id)
+        on delete cascade,
+    constraint survey_time check (end > start)
+);
+
+create index if not exists idx_s_owner on ${schema}.survey (owner);
+create index if not exists idx_s_org on ${schema}.survey (organization);
+create index if not exists idx_s_log on ${schema}.survey (logo);
+create index if not exists idx_s_topic on ${schema}.survey (resource);
+
+create table if not exists ${schema}.response (
+    id bigint not null auto_increment,
+    uid varchar(128) not null,
+    sid int not null,
+    qkey varchar(36) not null,
+    qval varchar(512) not null,
+    time datetime not null,
+    constraint res_pk primary key (id),
+    constraint res_uk unique (uid, sid, qkey),
+    constraint res_fk foreign key (sid)
+        references ${schema}.survey (id)
+        on delete cascade
+);
+
+create table if not exists ${schema}.feedback (
+    user_id varchar(128) not null,
+    client_id varchar(128) not null,
+    rating smallint not null,
+    comment varchar(2048),
+    time datetime not null default current_timestamp,
+    constraint rating_pk primary key (user_id, client_id)
+);
@@ -0,0 +1,47 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.ActiveSurveyIndex;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ActiveSurveyIndexTest {
+    @Test
+    public void activeSurveysAndBoundaries() {
+        ActiveSurveyIndex index = new ActiveSurveyIndex();
+        index.putSurvey(1, "client-a", 100, 200);
+        index.putSurvey(2, "client-a", 150, 300);
+        index.putSurvey(3, "client-a", 400, 500);
+        index.putSurvey(4, "client-b", 0, 1000);
+
+        assertEquals(Collections.emptyList(), index.active("client-a", 99));
+        assertEquals(100, index.nextBoundary("client-a", 99));
+
+        // start inclusive, end exclusive
+        assertEquals(Arrays.asList(1, 2), index.active("client-a", 150));
+        assertEquals(200, index.nextBoundary("client-a", 150));
+        assertEquals(Arrays.asList(2), index.active("client-a", 200));
+        assertEquals(300, index.nextBoundary("client-a", 200));
+        assertEquals(400, index.nextBoundary("client-a", 300));
+
+        assertEquals(Long.MAX_VALUE, index.nextBoundary("client-a", 500));
+        assertEquals(Collections.emptyList(), index.active("client-c", 150));
+    }
+
+    @Test
+    public void maintainIncrementally() {
+        ActiveSurveyIndex index = new ActiveSurveyIndex();
+        index.putSurvey(1, "client-a", 100, 200);
+
+        // moving a survey to another resource and window replaces its old window
+        index.putSurvey(1, "client-b", 300, 400);
+        assertEquals(Collections.emptyList(), index.active("client-a", 150));
+        assertEquals(Arrays.asList(1), index.active("client-b", 350));
+
+        index.removeSurvey(1);
+        assertEquals(Collections.emptyList(), index.active("client-b", 350));
+    }
+}
@@ -0,0 +1,199 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.BoundedExecutor;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BoundedExecutorTest {
+    private final static Runnable NOTHING = () -> {
+    };
+
+    private ExecutorService threads = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    public void limitConcurrencyAndQueue() throws InterruptedException {
+        BoundedExecutor executor = new BoundedExecutor("export", 2, 1, 60000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Runnable task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            done.countDown();
+        };
+
+        // two tasks run, one waits, the fourth is rejected
+        assertTrue(executor.submit(threads, task, NOTHING));
+        assertTrue(executor.submit(threads, task, NOTHING));
+        assertTrue(executor.submit(threads, task, NOTHING));
+        assertFalse(executor.submit(threads, task, NOTHING));
+
+        JSONObject stats = executor.getStats();
+        assertEquals(2, stats.get("running"));
+        assertEquals(1, stats.get("queued"));
+        assertEquals(3L, stats.get("accepted"));
+        assertEquals(1L, stats.get("rejected"));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+
+        // queued task was started after a running one finished
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(5, TimeUnit.SECONDS));
+        stats = executor.getStats();
+        assertEquals(0, stats.get("running"));
+        assertEquals(0, stats.get("queued"));
+        assertEquals(1, stats.get("peakQueued"));
+        assertEquals(3L, stats.get("completed"));
+    }
+
+    @Test
+    public void separateClasses() throws InterruptedException {
+        BoundedExecutor exports = new BoundedExecutor("export", 1, 0, 60000);
+        BoundedExecutor submissions = new BoundedExecutor("submission", 1, 0, 60000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch submitted = new CountDownLatch(1);
+
+        assertTrue(exports.submit(threads, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, NOTHING));
+        assertFalse(exports.submit(threads, NOTHING, NOTHING));
+
+        // a blocked export does not affect submissions
+        assertTrue(submissions.submit(threads, submitted::countDown, NOTHING));
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void expireQueuedTasks() throws InterruptedException {
+        BoundedExecutor executor = new BoundedExecutor("submission", 1, 2, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        AtomicInteger expired = new AtomicInteger();
+
+        assertTrue(executor.submit(threads, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, NOTHING));
+        assertTrue(executor.submit(threads, ran::incrementAndGet, expired::incrementAndGet));
+        Thread.sleep(100);
+
+        // overdue task was expired instead of being run
+        assertTrue(executor.submit(threads, ran::incrementAndGet, expired::incrementAndGet));
+        release.countDown();
+
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, ran.get());
+        assertEquals(1, expired.get());
+
+        JSONObject stats = executor.getStats();
+        assertEquals(3L, stats.get("accepted"));
+        assertEquals(1L, stats.get("expired"));
+        assertEquals(2L, stats.get("completed"));
+        JSONObject queueTime = (JSONObject) stats.get("queueTime");
+        assertEquals(3L, queueTime.get("count"));
+        assertEquals(1L, queueTime.get("slow"));
+    }
+
+    @Test
+    public void expireQueuedTasksWithoutActivity() throws InterruptedException {
+        BoundedExecutor executor = new BoundedExecutor("submission", 1, 1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch expired = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+
+        assertTrue(executor.submit(threads, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, NOTHING));
+        long queued = System.nanoTime();
+        assertTrue(executor.submit(threads, ran::incrementAndGet, expired::countDown));
+
+        // running task is stuck and nothing else is submitted; queued task is still expired in time
+        assertTrue(expired.await(1, TimeUnit.SECONDS));
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queued);
+        assertTrue("expired after " + waited + " ms", waited >= 50 && waited < 1000);
+        assertEquals(0, executor.getStats().get("queued"));
+
+        release.countDown();
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, ran.get());
+        JSONObject stats = executor.getStats();
+        assertEquals(1L, stats.get("expired"));
+        assertEquals(1L, stats.get("completed"));
+        assertEquals(0, stats.get("running"));
+    }
+
+    @Test
+    public void expireOnSubmittingExecutor() throws InterruptedException {
+        BoundedExecutor executor = new BoundedExecutor("submission", 1, 1, 50);
+        ThreadLocal<String> context = new ThreadLocal<>();
+        ExecutorService contextThreads = Executors.newCachedThreadPool(r -> new Thread(() -> {
+            context.set("request");
+            r.run();
+        }));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch expired = new CountDownLatch(1);
+        AtomicReference<String> expiryContext = new AtomicReference<>();
+
+        try {
+            assertTrue(executor.submit(contextThreads, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, NOTHING));
+            assertTrue(executor.submit(contextThreads, NOTHING, () -> {
+                expiryContext.set(context.get());
+                expired.countDown();
+            }));
+
+            // the rejection handler is run with the context of the submitting request, not on the timer thread
+            assertTrue(expired.await(1, TimeUnit.SECONDS));
+            assertEquals("request", expiryContext.get());
+        } finally {
+            release.countDown();
+            contextThreads.shutdown();
+        }
+        assertTrue(contextThreads.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
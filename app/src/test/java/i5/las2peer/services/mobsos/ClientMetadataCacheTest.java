@@ -0,0 +1,137 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.ClientMetadataCache;
+import i5.las2peer.services.mobsos.surveys.QueryExecutor;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.util.List;
+
+public class ClientMetadataCacheTest {
+    private BasicDataSource dataSource;
+    private QueryExecutor executor;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUrl("jdbc:h2:mem:oidc;DB_CLOSE_DELAY=-1");
+        executor = new QueryExecutor(dataSource, 1000);
+        executor.execute("create schema if not exists openidconnect");
+        executor.execute("create table openidconnect.client_details (client_id varchar(64) primary key, "
+                + "client_name varchar(64), client_description varchar(256), client_uri varchar(256), "
+                + "logo_uri varchar(256))");
+        addClient("b", "Beta");
+        addClient("a", "Alpha");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        executor.execute("drop all objects");
+        dataSource.close();
+    }
+
+    private void addClient(String id, String name) throws SQLException {
+        executor.update("insert into openidconnect.client_details values (?, ?, 'd', 'http://u', 'http://l')", s -> {
+            s.setString(1, id);
+            s.setString(2, name);
+        });
+    }
+
+    private void renameClient(String id, String name) throws SQLException {
+        executor.update("update openidconnect.client_details set client_name = ? where client_id = ?", s -> {
+            s.setString(1, name);
+            s.setString(2, id);
+        });
+    }
+
+    @Test
+    public void loadInBulk() throws Exception {
+        ClientMetadataCache cache = new ClientMetadataCache(executor, "openidconnect", 60, 60);
+        cache.refresh();
+        renameClient("a", "Changed");
+
+        List<JSONObject> clients = cache.list();
+        assertEquals(2, clients.size());
+        assertEquals("Alpha", clients.get(0).get("name"));
+        assertEquals("Beta", clients.get(1).get("name"));
+        assertEquals("Alpha", cache.get("a").get("name"));
+        // callers receive copies
+        cache.get("a").put("name", "Modified");
+        assertEquals("Alpha", cache.get("a").get("name"));
+
+        // periodic refresh picks up changes and removes deleted clients
+        executor.update("delete from openidconnect.client_details where client_id = 'b'",
+                QueryExecutor.NO_PARAMETERS);
+        cache.refresh();
+        assertEquals("Changed", cache.get("a").get("name"));
+        assertEquals(1, cache.list().size());
+        assertEquals(0L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    public void removeExpiredUnknownClients() throws Exception {
+        ClientMetadataCache cache = new ClientMetadataCache(executor, "openidconnect", 60, 0);
+        assertNull(cache.get("x"));
+        assertNull(cache.get("y"));
+        assertEquals(2, cache.getStats().get("unknown"));
+
+        // refresh removes unknown client ids whose time to live expired
+        cache.refresh();
+        assertEquals(0, cache.getStats().get("unknown"));
+        assertEquals(2, cache.getStats().get("cached"));
+    }
+
+    @Test
+    public void limitUnknownClients() throws Exception {
+        ClientMetadataCache cache = new ClientMetadataCache(executor, "openidconnect", 60, 60, 2);
+        for (String id : new String[] { "x", "y", "z" }) {
+            assertNull(cache.get(id));
+        }
+        assertEquals(2, cache.getStats().get("unknown"));
+
+        // unknown client ids not remembered are looked up again
+        assertNull(cache.get("z"));
+        assertEquals(4L, cache.getStats().get("misses"));
+        // known clients are not limited
+        assertEquals("Alpha", cache.get("a").get("name"));
+        assertEquals(1, cache.getStats().get("cached"));
+    }
+
+    @Test
+    public void cacheUnknownClients() throws Exception {
+        ClientMetadataCache cache = new ClientMetadataCache(executor, "openidconnect", 60, 60);
+        assertNull(cache.get("c"));
+        addClient("c", "Gamma");
+        assertNull(cache.get("c"));
+        assertEquals(1, cache.getStats().get("unknown"));
+
+        // unknown clients are looked up again once their time to live expired
+        ClientMetadataCache uncached = new ClientMetadataCache(executor, "openidconnect", 60, 0);
+        assertNull(uncached.get("d"));
+        addClient("d", "Delta");
+        assertEquals("Delta", uncached.get("d").get("name"));
+    }
+
+    @Test
+    public void serveExpiredClientsWhileReloading() throws Exception {
+        ClientMetadataCache cache = new ClientMetadataCache(executor, "openidconnect", 0, 0);
+        assertEquals("Alpha", cache.get("a").get("name"));
+        renameClient("a", "Changed");
+
+        // expired metadata is returned immediately and reloaded in the background
+        assertEquals("Alpha", cache.get("a").get("name"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"Changed".equals(cache.get("a").get("name")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Changed", cache.get("a").get("name"));
+        assertTrue((Long) cache.getStats().get("staleHits") > 0);
+    }
+}
@@ -0,0 +1,67 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.FormHtmlWriter;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+public class FormHtmlWriterTest {
+
+    private static final String FORM = "<qu:Questionnaire xmlns:qu='http://dbis.rwth-aachen.de/mobsos/questionnaire.xsd'"
+            + " xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'>"
+            + "<qu:Page name='Welcome' xsi:type='qu:InformationPageType'>"
+            + "<qu:Instructions>  Fill in &lt;all&gt; questions.  </qu:Instructions></qu:Page>"
+            + "<qu:Page name='Stability' qid='SQ.1' minval='1' maxval='3' minlabel='niedrig' maxlabel='h&#246;her'"
+            + " required='true' xsi:type='qu:OrdinalScaleQuestionPageType'>"
+            + "<qu:Instructions>Is it stable?</qu:Instructions></qu:Page>"
+            + "<qu:Page name='Comments' qid='FT.1' xsi:type='qu:FreeTextQuestionPageType'>"
+            + "<qu:Instructions>Anything else?</qu:Instructions></qu:Page>"
+            + "</qu:Questionnaire>";
+
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory f = DocumentBuilderFactory.newInstance();
+        f.setNamespaceAware(true);
+        return f.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void writeFormIntoPage() throws Exception {
+        StringWriter out = new StringWriter();
+        new FormHtmlWriter(out, "Pflichtfrage").write(
+                "<ul><!-- NAVPILLS --></ul><div><!-- QUESTIONPAGES --></div><!-- ANSWERLINK --> ${USER.NAME}",
+                parse(FORM), "http://localhost/surveys/1/answers");
+        String html = out.toString();
+
+        // navigation pills, first one active
+        assertTrue(html.startsWith("<ul>\t\t\t\t\t<li class='active'><a href=\"#step-0\">"));
+        assertTrue(html.contains("<li><a href=\"#step-2\"><span class=\"list-group-item-heading\">2</span>"));
+        // pages in order, instructions escaped, required questions labelled
+        assertTrue(html.indexOf("id=\"step-0\"") < html.indexOf("id=\"step-1\""));
+        assertTrue(html.contains("\t\t\t\tFill in &lt;all&gt; questions.\n"));
+        assertTrue(html.contains("<div class=\"question required\" style='text-align: justify; white-space: pre-line;'>"
+                + "Is it stable? (<i>Pflichtfrage</i>)</div>"));
+        assertTrue(html.contains("<option>1</option>\n\t\t\t\t\t<option>2</option>\n\t\t\t\t\t<option>3</option>"));
+        assertTrue(html.contains("list='SQ-1-scale'"));
+        assertTrue(html.contains("text-left'>niedrig</span>"));
+        assertTrue(html.contains("text-right'>h&ouml;her</span>"));
+        assertTrue(html.contains("<textarea name=\"FT.1\""));
+        assertFalse(html.contains("<!--"));
+        // answer link and the rest of the page are written as they are
+        assertTrue(html.endsWith(
+                "</div><a href=\"http://localhost/surveys/1/answers\" id=\"return-url\" class=\"hidden\" ></a> ${USER.NAME}"));
+    }
+
+    @Test
+    public void writePageWithoutMarkers() throws Exception {
+        StringBuilder out = new StringBuilder();
+        new FormHtmlWriter(out, "required").write("<p>no form</p>", parse(FORM), "http://localhost/");
+        assertEquals("<p>no form</p>", out.toString());
+    }
+}
@@ -0,0 +1,95 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.FormModel;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+public class FormModelTest {
+
+    private static final String FORM = "<qu:Questionnaire xmlns:qu='http://dbis.rwth-aachen.de/mobsos/questionnaire.xsd'"
+            + " xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'>"
+            + "<qu:Page name='Welcome' xsi:type='qu:InformationPageType'>"
+            + "<qu:Instructions>  Welcome, ${USER.NAME}!  </qu:Instructions></qu:Page>"
+            + "<qu:Page name='Stability' qid='SQ.1' minval='1' maxval='7' defval='4' minlabel='low' maxlabel='high'"
+            + " required='true' xsi:type='qu:OrdinalScaleQuestionPageType'>"
+            + "<qu:Instructions>Is it stable?</qu:Instructions></qu:Page>"
+            + "<qu:Page name='Again' qid='DQ.1' minlabel='no' maxlabel='yes' xsi:type='qu:DichotomousQuestionPageType'>"
+            + "<qu:Instructions>Would you use it again?</qu:Instructions></qu:Page>"
+            + "<qu:Page name='Comments' qid='FT.1' xsi:type='qu:FreeTextQuestionPageType'>"
+            + "<qu:Instructions>Anything else?</qu:Instructions></qu:Page>"
+            + "</qu:Questionnaire>";
+
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory f = DocumentBuilderFactory.newInstance();
+        f.setNamespaceAware(true);
+        return f.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void modelPagesAndQuestions() throws Exception {
+        FormModel model = FormModel.build(1, 2, parse(FORM), "http://localhost/surveys/1/answers");
+        JSONObject o = (JSONObject) new JSONParser().parse(model.render(tag -> null));
+        assertEquals(1L, o.get("sid"));
+        assertEquals(2L, o.get("qid"));
+        assertEquals("http://localhost/surveys/1/answers", o.get("answers"));
+
+        JSONArray pages = (JSONArray) o.get("pages");
+        assertEquals(4, pages.size());
+        JSONObject info = (JSONObject) pages.get(0);
+        assertEquals("information", info.get("type"));
+        assertEquals("Welcome, ${USER.NAME}!", info.get("instructions"));
+        assertNull(info.get("required"));
+
+        JSONObject ordinal = (JSONObject) pages.get(1);
+        assertEquals("ordinal", ordinal.get("type"));
+        assertEquals("SQ.1", ordinal.get("qid"));
+        assertEquals(true, ordinal.get("required"));
+        assertEquals(1L, ordinal.get("minval"));
+        assertEquals(7L, ordinal.get("maxval"));
+        assertEquals(4L, ordinal.get("defval"));
+        assertEquals("high", ordinal.get("maxlabel"));
+
+        JSONObject dichotomous = (JSONObject) pages.get(2);
+        assertEquals("dichotomous", dichotomous.get("type"));
+        assertEquals(false, dichotomous.get("required"));
+        assertEquals("yes", dichotomous.get("maxlabel"));
+        assertEquals("freetext", ((JSONObject) pages.get(3)).get("type"));
+    }
+
+    @Test
+    public void fillUserTags() throws Exception {
+        FormModel model = FormModel.build(1, 2, parse(FORM), "http://localhost/surveys/1/answers");
+        assertTrue(model.hasUserTags());
+
+        // values are escaped for JSON strings
+        String json = model.render(tag -> "USER.NAME".equals(tag) ? "Bob \"B\"" : null);
+        JSONObject o = (JSONObject) new JSONParser().parse(json);
+        assertEquals("Welcome, Bob \"B\"!", ((JSONObject) ((JSONArray) o.get("pages")).get(0)).get("instructions"));
+
+        // entity tags are stable, but differ per user
+        String alice = model.getETag(tag -> "alice");
+        assertTrue(alice.startsWith("\"") && alice.endsWith("\""));
+        assertEquals(alice, model.getETag(tag -> "alice"));
+        assertNotEquals(alice, model.getETag(tag -> "bob"));
+    }
+
+    @Test
+    public void shareModelsWithoutUserTags() throws Exception {
+        FormModel model = FormModel.build(1, 2, parse(FORM.replace("${USER.NAME}", "everybody")), "http://localhost/");
+        assertFalse(model.hasUserTags());
+        assertEquals(model.getETag(tag -> "alice"), model.getETag(tag -> "bob"));
+
+        FormModel other = FormModel.build(1, 2, parse(FORM.replace("${USER.NAME}", "somebody")), "http://localhost/");
+        assertNotEquals(model.getETag(tag -> null), other.getETag(tag -> null));
+    }
+}
@@ -0,0 +1,97 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.H2StorageBackend;
+import i5.las2peer.services.mobsos.surveys.QueryExecutor;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+public class H2StorageBackendTest {
+    private H2StorageBackend storage;
+    private BasicDataSource dataSource;
+    private QueryExecutor executor;
+
+    @Before
+    public void setUp() throws SQLException {
+        storage = new H2StorageBackend();
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName(storage.getDriverClassName());
+        dataSource.setUrl(storage.getConnectionUrl("jdbc:h2:mem:", "mobsos"));
+        executor = new QueryExecutor(dataSource, 1000);
+
+        // initialization is idempotent
+        storage.initialize(executor, "mobsos");
+        storage.initialize(executor, "mobsos");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        executor.execute("drop all objects");
+        dataSource.close();
+    }
+
+    @Test
+    public void storeSurveyAndResponses() throws SQLException {
+        int qid = executor.insert("insert into mobsos.questionnaire(owner, organization, logo, name, description, lang) "
+                + "values (?,?,?,?,?,?)", s -> {
+                    for (int i = 1; i <= 6; i++) {
+                        s.setString(i, "q");
+                    }
+                });
+        int sid = executor.insert("insert into mobsos.survey(owner, organization, logo, name, description, resource, "
+                + "resource_label, lang, start, end, qid) values ('o','o','l','s','d','r','r','en',?,?,?)", s -> {
+                    s.setTimestamp(1, Timestamp.valueOf("2020-01-01 00:00:00"));
+                    s.setTimestamp(2, Timestamp.valueOf("2030-01-01 00:00:00"));
+                    s.setInt(3, qid);
+                });
+
+        // submit responses as batch
+        List<QueryExecutor.Binder> rows = new ArrayList<>();
+        for (String[] answer : new String[][] { { "A.1", "3" }, { "A.2", "fine" } }) {
+            rows.add(s -> {
+                s.setString(1, "u1");
+                s.setInt(2, sid);
+                s.setString(3, answer[0]);
+                s.setString(4, answer[1]);
+                s.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            });
+        }
+        String insert = "insert into mobsos.response(uid,sid,qkey,qval,time) values (?,?,?,?,?)";
+        executor.batch(insert, rows);
+
+        // duplicate responses are recognized
+        try {
+            executor.batch(insert, rows);
+            fail("Duplicate response not rejected");
+        } catch (SQLException e) {
+            assertTrue(storage.isDuplicateKey(e));
+        }
+
+        // response view with backend-specific casts
+        String view = "responses_survey_" + sid;
+        assertFalse(storage.listViews(executor, "mobsos").contains(view));
+        storage.createView(executor, "mobsos", view, "select uid, sid, s.resource as cid, "
+                + "MAX(CASE WHEN qkey = 'A.1' THEN " + storage.castToInteger("qval") + " END) AS \"A.1\", "
+                + "MAX(CASE WHEN qkey = 'A.2' THEN qval END) AS \"A.2\" from mobsos.response r join mobsos.survey s "
+                + "on (s.id = r.sid) where sid = " + sid + " group by uid, sid, s.resource");
+        assertTrue(storage.listViews(executor, "mobsos").contains(view));
+
+        executor.queryFirst("select * from mobsos." + view, QueryExecutor.NO_PARAMETERS, rs -> {
+            assertEquals(3, rs.getInt("A.1"));
+            assertEquals("fine", rs.getString("A.2"));
+            return null;
+        });
+
+        storage.dropView(executor, "mobsos", view);
+        storage.dropView(executor, "mobsos", view);
+        assertFalse(storage.listViews(executor, "mobsos").contains(view));
+    }
+}
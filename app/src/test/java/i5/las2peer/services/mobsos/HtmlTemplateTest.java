@@ -0,0 +1,102 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.HtmlTemplate;
+import i5.las2peer.services.mobsos.surveys.HtmlTemplates;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+public class HtmlTemplateTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void renderInSinglePass() {
+        HtmlTemplate t = HtmlTemplate.compile("<a href='${EP_URL}surveys/${ID}'>${survey} ${ID}</a>${UNKNOWN}");
+        assertEquals(Arrays.asList("EP_URL", "ID", "survey", "UNKNOWN"), new ArrayList<>(t.getSlots()));
+
+        Map<String, String> values = new HashMap<>();
+        values.put("EP_URL", "http://localhost/");
+        values.put("ID", "7");
+        values.put("survey", "Survey");
+        // unresolved placeholders are kept; values are inserted literally
+        assertEquals("<a href='http://localhost/surveys/7'>Survey 7</a>${UNKNOWN}", t.render(values::get));
+        values.put("UNKNOWN", "$1 \\");
+        assertTrue(t.render(values::get).endsWith("</a>$1 \\"));
+    }
+
+    @Test
+    public void writeToOutput() throws IOException {
+        HtmlTemplate t = HtmlTemplate.compile("<p>${USER.NAME} ${UNKNOWN}</p>");
+        StringWriter out = new StringWriter();
+        t.writeTo(out, k -> "USER.NAME".equals(k) ? "alice" : null);
+        assertEquals("<p>alice ${UNKNOWN}</p>", out.toString());
+        assertEquals(t.render(k -> "USER.NAME".equals(k) ? "alice" : null), out.toString());
+    }
+
+    @Test
+    public void fillWithoutCompiling() {
+        String text = "${SURVEY.NAME} by ${USER.NAME}: ${} ${SURVEY.NAME}$ {x} ${unclosed";
+        assertEquals("A $1 survey by ${USER.NAME}: ${} A $1 survey$ {x} ${unclosed",
+                HtmlTemplate.fill(text, k -> "SURVEY.NAME".equals(k) ? "A $1 survey" : null));
+        // filling gives the same result as compiling and rendering
+        assertEquals(HtmlTemplate.compile(text).render(k -> k.length() > 4 ? "[" + k + "]" : null),
+                HtmlTemplate.fill(text, k -> k.length() > 4 ? "[" + k + "]" : null));
+    }
+
+    @Test
+    public void bindPartially() {
+        HtmlTemplate t = HtmlTemplate.compile("${A}-${B}-${A}");
+        HtmlTemplate bound = t.bind(k -> "A".equals(k) ? "a" : null);
+        assertEquals(Arrays.asList("B"), new ArrayList<>(bound.getSlots()));
+        assertEquals("a-b-a", bound.render(k -> "b"));
+        assertEquals("plain", HtmlTemplate.compile("plain").render(k -> "x"));
+    }
+
+    @Test
+    public void reloadChangedTemplates() throws IOException {
+        File file = folder.newFile("page.html");
+        Files.write(file.toPath(), "v1 ${X}".getBytes(StandardCharsets.UTF_8));
+
+        HtmlTemplates cached = new HtmlTemplates(folder.getRoot().toPath(), false);
+        HtmlTemplates reloading = new HtmlTemplates(folder.getRoot().toPath(), true);
+        assertSame(cached.get("page.html"), cached.get("page.html"));
+        assertEquals("v1 x", reloading.get("page.html").render(k -> "x"));
+
+        Files.write(file.toPath(), "v2 ${X}".getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(file.lastModified() + 2000);
+        assertEquals("v1 x", cached.get("page.html").render(k -> "x"));
+        assertEquals("v2 x", reloading.get("page.html").render(k -> "x"));
+    }
+
+    @Test
+    public void bindVariantsOnce() throws IOException {
+        File file = folder.newFile("page.html");
+        Files.write(file.toPath(), "${hello} ${ID}".getBytes(StandardCharsets.UTF_8));
+        HtmlTemplates templates = new HtmlTemplates(folder.getRoot().toPath(), true);
+
+        HtmlTemplate de = templates.get("page.html", "de-DE", k -> "hello".equals(k) ? "Hallo" : null);
+        assertSame(de, templates.get("page.html", "de-DE", k -> "Hallo"));
+        assertEquals("Hallo 7", de.render(k -> "7"));
+        assertEquals("Hello 7", templates.get("page.html", "en-US", k -> "hello".equals(k) ? "Hello" : null)
+                .render(k -> "7"));
+
+        // variants of changed templates are bound again
+        Files.write(file.toPath(), "${hello}, ${ID}".getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(file.lastModified() + 2000);
+        assertEquals("Hallo, 7", templates.get("page.html", "de-DE", k -> "hello".equals(k) ? "Hallo" : null)
+                .render(k -> "7"));
+    }
+}
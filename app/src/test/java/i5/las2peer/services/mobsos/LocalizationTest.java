@@ -0,0 +1,47 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.Localization;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public class LocalizationTest {
+    private final Localization localization = new Localization("MessageBundle", Arrays.asList(Locale.US,
+            Locale.GERMANY, new Locale("es", "ES"), Locale.FRANCE));
+
+    @Test
+    public void negotiateLocale() {
+        assertEquals(Locale.US, localization.negotiate(null));
+        assertEquals(Locale.US, localization.negotiate(""));
+        assertEquals(Locale.US, localization.negotiate("en-US"));
+        assertEquals(Locale.GERMANY, localization.negotiate("de-DE"));
+
+        // language-only ranges and other regions fall back to a locale of the same language
+        assertEquals(Locale.GERMANY, localization.negotiate("de"));
+        assertEquals(Locale.FRANCE, localization.negotiate("fr-CH"));
+
+        // ranges are tried in order of quality values, unsupported and unacceptable ones are skipped
+        assertEquals(Locale.FRANCE, localization.negotiate("de;q=0.5, fr;q=0.9, en;q=0.7"));
+        assertEquals(new Locale("es", "ES"), localization.negotiate("it-IT, es;q=0.3"));
+        assertEquals(Locale.US, localization.negotiate("de;q=0, it"));
+        assertEquals(Locale.US, localization.negotiate("it, *;q=0.1"));
+        assertEquals(Locale.GERMANY, localization.negotiate("en;q=invalid, de-AT"));
+    }
+
+    @Test
+    public void escapedTranslations() {
+        assertEquals("Umfragen", localization.getTranslations(Locale.GERMANY).get("surveys"));
+        assertEquals("Surveys", localization.getTranslations(Locale.US).get("surveys"));
+        assertEquals("Couldn't create questionnaire.",
+                localization.getTranslations(Locale.US).get("questionnaire_creation_failed"));
+    }
+
+    @Test
+    public void localizeText() {
+        assertEquals("<h1>Umfragen</h1> ${unknown}", localization.localize("<h1>${surveys}</h1> ${unknown}", "de"));
+        assertEquals("<h1>Surveys</h1>", localization.localize("<h1>${surveys}</h1>", null));
+    }
+}
@@ -0,0 +1,54 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.NameIndex;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+public class NameIndexTest {
+    @Test
+    public void suggestByPrefix() {
+        NameIndex index = new NameIndex();
+        index.putQuestionnaire(1, "Usability Questionnaire");
+        index.putQuestionnaire(2, "User Satisfaction");
+        index.putSurvey(1, "Usability of Chat", "client-a", "Chat App");
+        index.putSurvey(2, "Usefulness of Chat", "client-a", "Chat App");
+
+        // case-insensitive prefix match ordered by name
+        List<JSONObject> s = index.suggest("us", null, 10);
+        assertEquals(4, s.size());
+        assertEquals("Usability of Chat", s.get(0).get("name"));
+        assertEquals("Usability Questionnaire", s.get(1).get("name"));
+
+        // restrict to type and limit
+        s = index.suggest("US", NameIndex.QUESTIONNAIRE, 1);
+        assertEquals(1, s.size());
+        assertEquals(1, s.get(0).get("id"));
+
+        // resource labels shared by several surveys are suggested once
+        s = index.suggest("chat", null, 10);
+        assertEquals(1, s.size());
+        assertEquals("client-a", s.get(0).get("resource"));
+    }
+
+    @Test
+    public void maintainIncrementally() {
+        NameIndex index = new NameIndex();
+        index.putSurvey(1, "Alpha", "client-a", "Chat App");
+        index.putSurvey(2, "Beta", "client-a", "Chat App");
+
+        // rename replaces old name
+        index.putSurvey(1, "Gamma", "client-a", "Chat App");
+        assertTrue(index.suggest("alpha", null, 10).isEmpty());
+        assertEquals(1, index.suggest("gamma", null, 10).size());
+
+        // resource label stays as long as a survey references it
+        index.removeSurvey(1);
+        assertEquals(1, index.suggest("chat", NameIndex.RESOURCE, 10).size());
+        index.removeSurvey(2);
+        assertTrue(index.suggest("", null, 10).isEmpty());
+    }
+}
@@ -0,0 +1,80 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.QueryExecutor;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+
+public class QueryExecutorTest {
+    private BasicDataSource primary;
+    private BasicDataSource replica;
+
+    @Before
+    public void setUp() throws SQLException {
+        primary = dataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+        replica = dataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+        for (BasicDataSource ds : new BasicDataSource[] { primary, replica }) {
+            QueryExecutor e = new QueryExecutor(ds, 1000);
+            e.execute("create table origin (name varchar(16))");
+            e.update("insert into origin values (?)", s -> s.setString(1, ds == primary ? "primary" : "replica"));
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        for (BasicDataSource ds : new BasicDataSource[] { primary, replica }) {
+            new QueryExecutor(ds, 1000).execute("drop table origin");
+            ds.close();
+        }
+    }
+
+    @Test
+    public void routeReadOnlyToReplica() throws SQLException {
+        QueryExecutor executor = new QueryExecutor(primary, replica, 1000);
+        assertEquals("primary", origin(executor));
+        assertEquals("replica", origin(executor.readOnly()));
+        assertEquals(0L, executor.readOnly().getPoolStats().get("fallbacks"));
+
+        // statistics are shared between primary and replica executors
+        JSONObject statements = (JSONObject) executor.getStats().toJSON().get("statements");
+        assertEquals(2L, ((JSONObject) statements.get("select name from origin")).get("count"));
+    }
+
+    @Test
+    public void fallBackToPrimary() throws SQLException {
+        BasicDataSource unavailable = dataSource("jdbc:unavailable:replica");
+        try {
+            QueryExecutor executor = new QueryExecutor(primary, unavailable, 1000);
+            assertEquals("primary", origin(executor.readOnly()));
+            // replica is not retried immediately
+            assertEquals("primary", origin(executor.readOnly()));
+            assertEquals(2L, executor.readOnly().getPoolStats().get("fallbacks"));
+        } finally {
+            unavailable.close();
+        }
+    }
+
+    @Test
+    public void withoutReplica() throws SQLException {
+        QueryExecutor executor = new QueryExecutor(primary, 1000);
+        assertSame(executor, executor.readOnly());
+        assertEquals("primary", origin(executor.readOnly()));
+        assertFalse(executor.getPoolStats().containsKey("fallbacks"));
+    }
+
+    private static String origin(QueryExecutor executor) throws SQLException {
+        return executor.queryFirst("select name from origin", QueryExecutor.NO_PARAMETERS, rs -> rs.getString(1));
+    }
+
+    private static BasicDataSource dataSource(String url) {
+        BasicDataSource ds = new BasicDataSource();
+        ds.setUrl(url);
+        return ds;
+    }
+}
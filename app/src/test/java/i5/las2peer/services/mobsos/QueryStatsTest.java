@@ -0,0 +1,74 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.QueryStats;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+public class QueryStatsTest {
+    @Test
+    public void recordStatements() {
+        QueryStats stats = new QueryStats();
+        stats.record("select * from survey where id in (?, ?, ?)", TimeUnit.MILLISECONDS.toNanos(3), 3, false);
+        stats.record("select * from survey where id in (?,?)", TimeUnit.MILLISECONDS.toNanos(700), 2, true);
+        stats.record("select count(*) from responses_12", TimeUnit.MILLISECONDS.toNanos(1), 1, false);
+        stats.record("select count(*) from responses_13", TimeUnit.MILLISECONDS.toNanos(1), 1, false);
+
+        // placeholder lists and numbered identifiers are normalized to a single key
+        JSONObject statements = (JSONObject) stats.toJSON().get("statements");
+        assertEquals(2, statements.size());
+
+        JSONObject in = (JSONObject) statements.get("select * from survey where id in (?, ...)");
+        assertEquals(2L, in.get("count"));
+        assertEquals(5L, in.get("rows"));
+        assertEquals(1L, in.get("slow"));
+        JSONArray histogram = (JSONArray) in.get("histogram");
+        assertEquals(QueryStats.BUCKETS.length + 1, histogram.size());
+        // 3 ms falls into bucket (2, 5], 700 ms into bucket (500, 1000]
+        assertEquals(1L, ((JSONObject) histogram.get(2)).get("count"));
+        assertEquals(1L, ((JSONObject) histogram.get(9)).get("count"));
+
+        assertEquals(2L, ((JSONObject) statements.get("select count(*) from responses_#")).get("count"));
+    }
+
+    @Test
+    public void recordEndpoints() {
+        QueryStats stats = new QueryStats();
+
+        QueryStats.beginRequest();
+        stats.record("select 1", 1000, 1, false);
+        stats.record("select 2", 1000, 1, false);
+        stats.endRequest("getSurvey");
+
+        // statements outside of tracked requests are not attributed to endpoints
+        stats.record("select 3", 1000, 1, false);
+        stats.endRequest("getSurvey");
+
+        JSONObject endpoint = (JSONObject) ((JSONObject) stats.toJSON().get("endpoints")).get("getSurvey");
+        assertEquals(1L, endpoint.get("count"));
+        assertEquals(2L, endpoint.get("statements"));
+    }
+
+    @Test
+    public void propagateRequestToOtherThread() throws InterruptedException {
+        QueryStats stats = new QueryStats();
+
+        QueryStats.beginRequest();
+        stats.record("select 1", 1000, 1, false);
+        Thread worker = new Thread(QueryStats.propagate(() -> {
+            stats.record("select 2", 1000, 1, false);
+            stats.endRequest("exportSurveyResponses");
+        }));
+        QueryStats.clearRequest();
+        worker.start();
+        worker.join();
+
+        JSONObject endpoint = (JSONObject) ((JSONObject) stats.toJSON().get("endpoints")).get("exportSurveyResponses");
+        assertEquals(1L, endpoint.get("count"));
+        assertEquals(2L, endpoint.get("statements"));
+    }
+}
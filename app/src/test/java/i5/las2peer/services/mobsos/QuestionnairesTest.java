@@ -0,0 +1,95 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.Questionnaires;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+public class QuestionnairesTest {
+
+    private static final String FORM = "<qu:Questionnaire xmlns:qu='http://dbis.rwth-aachen.de/mobsos/questionnaire.xsd'"
+            + " xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'>"
+            + "<qu:Page name='Welcome' xsi:type='qu:InformationPageType'>"
+            + "<qu:Instructions>Welcome to ${SURVEY.NAME}, ${USER.NAME}!</qu:Instructions></qu:Page>"
+            + "<qu:Page name='Stability' qid='SQ.1' minval='1' maxval='7' defval='4' minlabel='low' maxlabel='high'"
+            + " required='true' xsi:type='qu:OrdinalScaleQuestionPageType'>"
+            + "<qu:Instructions>Is it stable?</qu:Instructions></qu:Page>"
+            + "<qu:Page name='Again' qid='DQ.1' defval='1' minlabel='no' maxlabel='yes' required='false'"
+            + " xsi:type='qu:DichotomousQuestionPageType'>"
+            + "<qu:Instructions>Would you use it again?</qu:Instructions></qu:Page>"
+            + "</qu:Questionnaire>";
+
+    // parsed without schema validation, which requires the XML namespace schema from w3.org
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory f = DocumentBuilderFactory.newInstance();
+        f.setNamespaceAware(true);
+        return f.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void validateResponses() throws Exception {
+        Document form = parse(FORM);
+        assertEquals(2, Questionnaires.extractQuestionInformation(form).size());
+
+        JSONObject response = new JSONObject();
+        response.put("SQ.1", "5");
+        assertEquals(response, Questionnaires.validateResponse(form, response));
+
+        response.put("SQ.1", "8");
+        try {
+            Questionnaires.validateResponse(form, response);
+            fail("value out of scale accepted");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("between 1 and 7"));
+        }
+
+        JSONObject missing = new JSONObject();
+        missing.put("DQ.1", "1");
+        try {
+            Questionnaires.validateResponse(form, missing);
+            fail("missing mandatory answer accepted");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("mandatory question SQ.1"));
+        }
+    }
+
+    @Test
+    public void adaptFormOnce() {
+        Map<String, Supplier<String>> resolvers = new HashMap<>();
+        int[] calls = { 0 };
+        resolvers.put("SURVEY.NAME", () -> {
+            calls[0]++;
+            return "Survey";
+        });
+        assertEquals("Survey, Survey, ${USER.NAME}",
+                Questionnaires.adaptForm("${SURVEY.NAME}, ${SURVEY.NAME}, ${USER.NAME}", resolvers, true));
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void createCSV() throws Exception {
+        try (Connection c = DriverManager.getConnection("jdbc:h2:mem:csv"); Statement s = c.createStatement()) {
+            s.execute("create table r (uid varchar(32), \"SQ.1\" int, \"FT.1\" varchar(64))");
+            s.execute("insert into r values ('alice', 5, 'plain'), ('bob', null, 'a, \"quoted\" text')");
+            try (ResultSet rs = s.executeQuery("select * from r order by uid")) {
+                assertEquals("UID;SQ.1;FT.1\r\nalice;5;plain\r\nbob;;\"a, \"\"quoted\"\" text\"",
+                        Questionnaires.createCSVQuestionnaireResult(rs, ";"));
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.H2StorageBackend;
+import i5.las2peer.services.mobsos.surveys.HtmlTemplate;
+import i5.las2peer.services.mobsos.surveys.QueryExecutor;
+import i5.las2peer.services.mobsos.surveys.RenderedFormCache;
+import i5.las2peer.services.mobsos.surveys.RequestContext;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.json.simple.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+public class RenderedFormCacheTest {
+    private RenderedFormCache<HtmlTemplate> cache;
+    private JSONObject survey;
+    private HtmlTemplate html;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        cache = new RenderedFormCache<>();
+        survey = new JSONObject();
+        survey.put("id", 1);
+        survey.put("qid", 2);
+        survey.put("name", "Survey");
+        html = HtmlTemplate.compile("<p>${USER.NAME}</p>");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject copy(JSONObject o) {
+        JSONObject c = new JSONObject();
+        c.putAll(o);
+        return c;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void hitsOnlyForSameFormVersionAndSurvey() {
+        assertNull(cache.get(1, Locale.US, survey, "2:d804c9"));
+        cache.put(1, Locale.US, survey, "2:d804c9", html);
+
+        assertSame(html, cache.get(1, Locale.US, copy(survey), "2:d804c9"));
+        assertNull(cache.get(1, Locale.GERMANY, survey, "2:d804c9"));
+        assertNull(cache.get(1, Locale.US, survey, "2:00f331"));
+
+        JSONObject renamed = copy(survey);
+        renamed.put("name", "Renamed");
+        assertNull(cache.get(1, Locale.US, renamed, "2:d804c9"));
+
+        // changes to survey object after caching do not affect cached form
+        survey.put("name", "Renamed");
+        assertNull(cache.get(1, Locale.US, survey, "2:d804c9"));
+
+        JSONObject stats = cache.getStats();
+        assertEquals(1, stats.get("cached"));
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(5L, stats.get("misses"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void drop() {
+        JSONObject other = copy(survey);
+        other.put("id", 3);
+        other.put("qid", 4);
+        cache.put(1, Locale.US, survey, "2:d804c9", html);
+        cache.put(1, Locale.GERMANY, survey, "2:d804c9", html);
+        cache.put(3, Locale.US, other, "4:d804c9", html);
+        assertEquals(3, cache.getStats().get("cached"));
+
+        cache.dropForQuestionnaire(2);
+        assertNull(cache.get(1, Locale.US, survey, "2:d804c9"));
+        assertNull(cache.get(1, Locale.GERMANY, survey, "2:d804c9"));
+        assertSame(html, cache.get(3, Locale.US, other, "4:d804c9"));
+
+        cache.put(1, Locale.US, survey, "2:d804c9", html);
+        cache.drop(3);
+        assertNull(cache.get(3, Locale.US, other, "4:d804c9"));
+        assertSame(html, cache.get(1, Locale.US, survey, "2:d804c9"));
+
+        cache.dropAll();
+        assertEquals(0, cache.getStats().get("cached"));
+    }
+
+    @Test
+    public void missAfterFormEditOfSameLength() throws SQLException {
+        H2StorageBackend storage = new H2StorageBackend();
+        BasicDataSource dataSource = new BasicDataSource();
+        dataSource.setDriverClassName(storage.getDriverClassName());
+        dataSource.setUrl(storage.getConnectionUrl("jdbc:h2:mem:", "forms"));
+        QueryExecutor executor = new QueryExecutor(dataSource, 1000);
+        try {
+            storage.initialize(executor, "forms");
+            int qid = executor.insert("insert into forms.questionnaire(owner, organization, logo, name, description, "
+                    + "lang, form) values ('q','q','q','q','q','en','<form/>')", QueryExecutor.NO_PARAMETERS);
+            survey.put("qid", qid);
+            String version = new RequestContext(executor, storage, "forms").getFormVersion(qid);
+            cache.put(1, Locale.US, survey, version, html);
+            assertSame(html, cache.get(1, Locale.US, survey, version));
+
+            // form edited from outside the service without changing its length
+            executor.update("update forms.questionnaire set form = '<mrof/>' where id = ?", s -> s.setInt(1, qid));
+            version = new RequestContext(executor, storage, "forms").getFormVersion(qid);
+            assertNull(cache.get(1, Locale.US, survey, version));
+        } finally {
+            executor.execute("drop all objects");
+            dataSource.close();
+        }
+    }
+}
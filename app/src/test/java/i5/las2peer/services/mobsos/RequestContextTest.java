@@ -0,0 +1,138 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.H2StorageBackend;
+import i5.las2peer.services.mobsos.surveys.QueryExecutor;
+import i5.las2peer.services.mobsos.surveys.QueryStats;
+import i5.las2peer.services.mobsos.surveys.RequestContext;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+public class RequestContextTest {
+    private H2StorageBackend storage;
+    private BasicDataSource dataSource;
+    private QueryExecutor executor;
+    private int qid;
+    private int sid;
+
+    @Before
+    public void setUp() throws SQLException {
+        storage = new H2StorageBackend();
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName(storage.getDriverClassName());
+        dataSource.setUrl(storage.getConnectionUrl("jdbc:h2:mem:", "mobsos"));
+        executor = new QueryExecutor(dataSource, 1000);
+        storage.initialize(executor, "mobsos");
+
+        qid = executor.insert("insert into mobsos.questionnaire(owner, organization, logo, name, description, lang, "
+                + "form) values ('q','q','q','q','q','en','<form/>')", QueryExecutor.NO_PARAMETERS);
+        sid = executor.insert("insert into mobsos.survey(owner, organization, logo, name, description, resource, "
+                + "resource_label, lang, start, end, qid) values ('o','o','l','s','d','r','r','en',?,?,?)", s -> {
+                    s.setTimestamp(1, Timestamp.valueOf("2020-01-01 00:00:00"));
+                    s.setTimestamp(2, Timestamp.valueOf("2030-01-01 00:00:00"));
+                    s.setInt(3, qid);
+                });
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        executor.execute("drop all objects");
+        dataSource.close();
+    }
+
+    @Test
+    public void loadSurveyAndFormInOneQuery() throws SQLException {
+        QueryStats.beginRequest();
+        RequestContext context = new RequestContext(executor, storage, "mobsos");
+
+        assertFalse(context.containsSurvey(sid));
+        JSONObject survey = context.getSurvey(sid);
+        assertEquals("o", survey.get("owner"));
+        assertEquals(qid, survey.get("qid"));
+        assertTrue(context.containsSurvey(sid));
+
+        // repeated lookups of survey and form are served from memory
+        assertSame(survey, context.getSurvey(sid));
+        assertEquals("<form/>", context.getForm(qid));
+        assertEquals("<form/>", context.getForm(qid));
+        assertEquals(version("<form/>"), context.getFormVersion(qid));
+
+        executor.getStats().endRequest("request");
+        assertEquals(1L, endpointStats().get("statements"));
+    }
+
+    @Test
+    public void loadFormVersionWithoutForm() throws SQLException {
+        QueryStats.beginRequest();
+        RequestContext context = new RequestContext(executor, storage, "mobsos");
+
+        String version = context.getFormVersion(qid);
+        assertEquals(version("<form/>"), version);
+        assertEquals(version, context.getFormVersion(qid));
+        assertNull(context.getFormVersion(qid + 1));
+
+        // loading the form later yields the version of the loaded form
+        executor.update("update mobsos.questionnaire set form = '<form></form>' where id = ?", s -> s.setInt(1, qid));
+        assertEquals("<form></form>", context.getForm(qid));
+        assertEquals(version("<form></form>"), context.getFormVersion(qid));
+
+        executor.getStats().endRequest("request");
+        assertEquals(4L, endpointStats().get("statements"));
+    }
+
+    @Test
+    public void changeFormVersionOnEditOfSameLength() throws SQLException {
+        String version = new RequestContext(executor, storage, "mobsos").getFormVersion(qid);
+
+        executor.update("update mobsos.questionnaire set form = '<mrof/>' where id = ?", s -> s.setInt(1, qid));
+        RequestContext context = new RequestContext(executor, storage, "mobsos");
+        assertNotEquals(version, context.getFormVersion(qid));
+        assertEquals(version("<mrof/>"), context.getFormVersion(qid));
+
+        // forms loaded with their survey yield the same version
+        context = new RequestContext(executor, storage, "mobsos");
+        context.getSurvey(sid);
+        assertEquals(version("<mrof/>"), context.getFormVersion(qid));
+    }
+
+    @Test
+    public void memoizeMisses() throws SQLException {
+        QueryStats.beginRequest();
+        RequestContext context = new RequestContext(executor, storage, "mobsos");
+
+        assertNull(context.getSurvey(sid + 1));
+        assertNull(context.getSurvey(sid + 1));
+        assertNull(context.getForm(qid + 1));
+        assertNull(context.getForm(qid + 1));
+
+        executor.getStats().endRequest("request");
+        assertEquals(2L, endpointStats().get("statements"));
+    }
+
+    private String version(String form) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(form.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(qid + ":");
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private JSONObject endpointStats() {
+        return (JSONObject) ((JSONObject) executor.getStats().toJSON().get("endpoints")).get("request");
+    }
+}
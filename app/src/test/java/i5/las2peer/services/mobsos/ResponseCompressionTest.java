@@ -0,0 +1,147 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.ResponseCompression;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+public class ResponseCompressionTest {
+
+    /**
+     * Writes an entity through the compression like the JAX-RS runtime does.
+     */
+    private static byte[] write(ResponseCompression compression, Object entity, MediaType type,
+            MultivaluedMap<String, Object> headers, String acceptEncoding) throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        OutputStream[] out = { sink };
+        WriterInterceptorContext context = (WriterInterceptorContext) Proxy.newProxyInstance(
+                WriterInterceptorContext.class.getClassLoader(), new Class<?>[] { WriterInterceptorContext.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getHeaders":
+                        return headers;
+                    case "getEntity":
+                        return entity;
+                    case "getMediaType":
+                        return type;
+                    case "getOutputStream":
+                        return out[0];
+                    case "setOutputStream":
+                        out[0] = (OutputStream) args[0];
+                        return null;
+                    case "proceed":
+                        // write in small chunks like a streaming entity
+                        byte[] bytes = entity.toString().getBytes(StandardCharsets.UTF_8);
+                        for (int i = 0; i < bytes.length; i += 100) {
+                            out[0].write(bytes, i, Math.min(100, bytes.length - i));
+                        }
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        compression.writeTo(context, acceptEncoding);
+        return sink.toByteArray();
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        for (int n; (n = in.read(buf)) > 0;) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static String csv() {
+        StringBuilder sb = new StringBuilder("uid;sid;A.1;A.2\n");
+        for (int i = 0; i < 500; i++) {
+            sb.append("user").append(i).append(";1;").append(i % 7).append(";free text answer\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void compressLargeTextualResponses() throws IOException {
+        ResponseCompression compression = new ResponseCompression(1024, 6);
+        String csv = csv();
+
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.ETAG, "\"abc\"");
+        byte[] gzip = write(compression, csv, MediaType.valueOf("text/csv"), headers, "gzip, deflate");
+        assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, headers.getFirst(HttpHeaders.VARY));
+        assertEquals("W/\"abc\"", headers.getFirst(HttpHeaders.ETAG));
+        assertEquals(csv, new String(read(new GZIPInputStream(new ByteArrayInputStream(gzip))),
+                StandardCharsets.UTF_8));
+        assertTrue(gzip.length < csv.length() / 4);
+
+        headers = new MultivaluedHashMap<>();
+        byte[] deflate = write(compression, csv, MediaType.APPLICATION_JSON_TYPE, headers, "deflate");
+        assertEquals("deflate", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(csv, new String(read(new InflaterInputStream(new ByteArrayInputStream(deflate))),
+                StandardCharsets.UTF_8));
+
+        JSONObject stats = compression.getStats();
+        assertEquals(2L, stats.get("compressed"));
+        assertEquals(2L * csv.length(), stats.get("uncompressedBytes"));
+        assertEquals((long) gzip.length + deflate.length, stats.get("compressedBytes"));
+        assertEquals(2L * csv.length() - gzip.length - deflate.length, stats.get("savedBytes"));
+    }
+
+    @Test
+    public void skipOtherResponses() throws IOException {
+        ResponseCompression compression = new ResponseCompression(1024, 6);
+        String csv = csv();
+
+        // small, binary, already encoded, partial and unaccepted responses are written as they are
+        assertEquals("small", new String(write(compression, "small", MediaType.TEXT_HTML_TYPE,
+                new MultivaluedHashMap<>(), "gzip"), StandardCharsets.UTF_8));
+        assertEquals(csv.length(), write(compression, csv, MediaType.valueOf("image/png"),
+                new MultivaluedHashMap<>(), "gzip").length);
+        MultivaluedMap<String, Object> encoded = new MultivaluedHashMap<>();
+        encoded.putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+        assertEquals(csv.length(), write(compression, csv, MediaType.TEXT_PLAIN_TYPE, encoded, "gzip").length);
+        MultivaluedMap<String, Object> partial = new MultivaluedHashMap<>();
+        partial.putSingle("Content-Range", "bytes 0-9/10000");
+        assertEquals(csv.length(), write(compression, csv, MediaType.TEXT_PLAIN_TYPE, partial, "gzip").length);
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        assertEquals(csv.length(), write(compression, csv, MediaType.TEXT_PLAIN_TYPE, headers, "br").length);
+        assertFalse(headers.containsKey(HttpHeaders.CONTENT_ENCODING));
+
+        assertEquals(csv.length(), write(new ResponseCompression(1024, 0), csv, MediaType.TEXT_PLAIN_TYPE,
+                new MultivaluedHashMap<>(), "gzip").length);
+        assertEquals(0L, compression.getStats().get("compressed"));
+    }
+
+    @Test
+    public void negotiateEncoding() {
+        assertNull(ResponseCompression.negotiate(null));
+        assertNull(ResponseCompression.negotiate("identity"));
+        assertEquals("gzip", ResponseCompression.negotiate("gzip, deflate, br"));
+        assertEquals("gzip", ResponseCompression.negotiate("*"));
+        assertEquals("deflate", ResponseCompression.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("deflate", ResponseCompression.negotiate("gzip;q=0, *"));
+        assertEquals("gzip", ResponseCompression.negotiate("x-gzip"));
+        assertFalse(ResponseCompression.isCompressible(null));
+        assertTrue(ResponseCompression.isCompressible(MediaType.valueOf("application/ld+json")));
+        assertFalse(ResponseCompression.isCompressible(MediaType.APPLICATION_OCTET_STREAM_TYPE));
+    }
+}
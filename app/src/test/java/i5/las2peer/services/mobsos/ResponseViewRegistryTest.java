@@ -0,0 +1,103 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.H2StorageBackend;
+import i5.las2peer.services.mobsos.surveys.QueryExecutor;
+import i5.las2peer.services.mobsos.surveys.ResponseViewRegistry;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.CompletableFuture;
+
+public class ResponseViewRegistryTest {
+    private H2StorageBackend storage;
+    private BasicDataSource dataSource;
+    private QueryExecutor executor;
+    private int qid;
+    private int sid;
+    private String select;
+
+    @Before
+    public void setUp() throws SQLException {
+        storage = new H2StorageBackend();
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName(storage.getDriverClassName());
+        dataSource.setUrl(storage.getConnectionUrl("jdbc:h2:mem:", "mobsos"));
+        executor = new QueryExecutor(dataSource, 1000);
+        storage.initialize(executor, "mobsos");
+
+        qid = executor.insert("insert into mobsos.questionnaire(owner, organization, logo, name, description, lang) "
+                + "values ('q','q','q','q','q','en')", QueryExecutor.NO_PARAMETERS);
+        sid = executor.insert("insert into mobsos.survey(owner, organization, logo, name, description, resource, "
+                + "resource_label, lang, start, end, qid) values ('o','o','l','s','d','r','r','en',?,?,?)", s -> {
+                    s.setTimestamp(1, Timestamp.valueOf("2020-01-01 00:00:00"));
+                    s.setTimestamp(2, Timestamp.valueOf("2030-01-01 00:00:00"));
+                    s.setInt(3, qid);
+                });
+        select = "select uid, sid, MAX(CASE WHEN qkey = 'A.1' THEN qval END) AS \"A.1\" from mobsos.response "
+                + "where sid = " + sid + " group by uid, sid";
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        executor.execute("drop all objects");
+        dataSource.close();
+    }
+
+    @Test
+    public void createAndDropViews() throws Exception {
+        ResponseViewRegistry registry = new ResponseViewRegistry(executor, storage, "mobsos");
+        assertNull(registry.get(sid, qid));
+
+        CompletableFuture<Void> view = registry.replace(sid, qid, select);
+        view.get();
+        assertSame(view, registry.get(sid, qid));
+        assertTrue(storage.listViews(executor, "mobsos").contains(ResponseViewRegistry.viewName(sid)));
+
+        // views created for another questionnaire are not used
+        assertNull(registry.get(sid, qid + 1));
+
+        // dropping is serialized after creation
+        registry.dropForQuestionnaire(qid);
+        assertNull(registry.get(sid, qid));
+        registry.replace(sid + 1, qid, select).get();
+        assertFalse(storage.listViews(executor, "mobsos").contains(ResponseViewRegistry.viewName(sid)));
+
+        JSONObject stats = registry.getStats();
+        assertEquals(1, stats.get("ready"));
+        assertEquals(2L, stats.get("created"));
+        assertEquals(1L, stats.get("dropped"));
+    }
+
+    @Test
+    public void loadExistingViews() throws Exception {
+        storage.createView(executor, "mobsos", ResponseViewRegistry.viewName(sid), select);
+        storage.createView(executor, "mobsos", ResponseViewRegistry.viewName(sid + 1), select);
+
+        ResponseViewRegistry registry = new ResponseViewRegistry(executor, storage, "mobsos");
+        registry.load();
+
+        // only views of existing surveys are registered
+        assertTrue(registry.get(sid, qid).isDone());
+        assertNull(registry.get(sid + 1, qid));
+    }
+
+    @Test
+    public void failedCreationIsNotUsed() throws Exception {
+        ResponseViewRegistry registry = new ResponseViewRegistry(executor, storage, "mobsos");
+        CompletableFuture<Void> view = registry.replace(sid, qid, "select * from mobsos.missing");
+        try {
+            view.get();
+            fail("View on missing table created");
+        } catch (Exception e) {
+            assertNull(registry.get(sid, qid));
+            assertEquals(1L, registry.getStats().get("failures"));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.H2StorageBackend;
+import i5.las2peer.services.mobsos.surveys.QueryExecutor;
+import i5.las2peer.services.mobsos.surveys.SchemaMigrations;
+import i5.las2peer.services.mobsos.surveys.StorageBackend;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SchemaMigrationsTest {
+    private H2StorageBackend storage;
+    private BasicDataSource dataSource;
+    private QueryExecutor executor;
+
+    @Before
+    public void setUp() throws SQLException {
+        storage = new H2StorageBackend();
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName(storage.getDriverClassName());
+        dataSource.setUrl(storage.getConnectionUrl("jdbc:h2:mem:", "mobsos"));
+        executor = new QueryExecutor(dataSource, 1000);
+        storage.initialize(executor, "mobsos");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        executor.execute("drop all objects");
+        dataSource.close();
+    }
+
+    @Test
+    public void applyMigrationsOnce() throws SQLException {
+        SchemaMigrations migrations = new SchemaMigrations(executor, storage, "mobsos");
+        assertTrue(migrations.getAppliedVersions().isEmpty());
+
+        assertEquals(Arrays.asList(1, 2), migrations.migrate());
+        assertEquals(Collections.emptyList(), migrations.migrate());
+        assertEquals(2, migrations.getAppliedVersions().size());
+
+        // response queries by survey and time or question use the new indexes
+        assertTrue(explain("select count(*) from mobsos.response where sid = 1 and time >= '2021-06-01'")
+                .contains("idx_res_sid_time"));
+        assertTrue(explain("select qval, count(*) from mobsos.response where sid = 1 and qkey = 'A.1' group by qval")
+                .contains("idx_res_sid_qkey"));
+    }
+
+    @Test
+    public void migrationsAreIdempotent() throws SQLException {
+        // index already exists, e.g. after an interrupted migration
+        storage.createIndex(executor, "mobsos", "response", "idx_res_sid_time", "sid, time");
+        new SchemaMigrations(executor, storage, "mobsos").migrate();
+        assertEquals(2, new SchemaMigrations(executor, storage, "mobsos").getAppliedVersions().size());
+    }
+
+    @Test
+    public void stopAtFailedMigration() throws SQLException {
+        List<SchemaMigrations.Migration> migrations = Arrays.asList(SchemaMigrations.MIGRATIONS.get(0),
+                migration(2, "broken", "create index idx_broken on mobsos.missing (id)"),
+                migration(3, "later", "create index idx_later on mobsos.response (uid)"));
+        try {
+            new SchemaMigrations(executor, storage, "mobsos", migrations).migrate();
+            fail("Failed migration not reported");
+        } catch (SQLException e) {
+            assertTrue(e.getMessage().contains("version 2"));
+        }
+        assertEquals(Collections.singleton(1), new SchemaMigrations(executor, storage, "mobsos", migrations)
+                .getAppliedVersions());
+    }
+
+    private static SchemaMigrations.Migration migration(int version, String description, String statement) {
+        return new SchemaMigrations.Migration() {
+            @Override
+            public int getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public void apply(QueryExecutor executor, StorageBackend storage, String schema) throws SQLException {
+                executor.execute(statement);
+            }
+        };
+    }
+
+    private String explain(String query) throws SQLException {
+        return executor.queryFirst("explain " + query, QueryExecutor.NO_PARAMETERS, rs -> rs.getString(1));
+    }
+}
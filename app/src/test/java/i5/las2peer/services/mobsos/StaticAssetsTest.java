@@ -0,0 +1,164 @@
+package i5.las2peer.services.mobsos;
+
+import i5.las2peer.services.mobsos.surveys.StaticAssets;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+public class StaticAssetsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String path, String content) throws IOException {
+        File file = new File(folder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void cacheAssets() throws IOException {
+        File file = write("js/app.js", "var a = 1;");
+        write("css/app.css", "body {}");
+        StaticAssets assets = new StaticAssets(folder.getRoot().toPath(), false);
+
+        StaticAssets.Asset js = assets.get("js/app.js");
+        assertEquals("var a = 1;", new String(js.getContent(), StandardCharsets.UTF_8));
+        assertEquals("application/javascript; charset=UTF-8", js.getContentType());
+        assertTrue(js.getETag().matches("\"[0-9a-f]{32}\""));
+        assertEquals("text/css; charset=UTF-8", assets.get("css/app.css").getContentType());
+
+        // cached assets are served from memory
+        Files.write(file.toPath(), "var a = 2;".getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(file.lastModified() + 2000);
+        assertSame(js, assets.get("js/app.js"));
+        assertEquals(1L, assets.getStats().get("hits"));
+        assertEquals(2, assets.getStats().get("cached"));
+
+        // changed assets are read again in development mode
+        StaticAssets reloading = new StaticAssets(folder.getRoot().toPath(), true);
+        StaticAssets.Asset changed = reloading.get("js/app.js");
+        assertEquals("var a = 2;", new String(changed.getContent(), StandardCharsets.UTF_8));
+        assertNotEquals(js.getETag(), changed.getETag());
+    }
+
+    @Test
+    public void precompressAndFingerprint() throws IOException {
+        StringBuilder js = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            js.append("var a").append(i).append(" = 'compressible';\n");
+        }
+        write("js/app.min.js", js.toString());
+        write("css/flags.css", "b{}");
+        write("img/logo.png", "not really a png, but not compressed anyway");
+        StaticAssets assets = new StaticAssets(folder.getRoot().toPath(), false);
+        assertEquals(3, assets.load());
+
+        StaticAssets.Asset a = assets.get("js/app.min.js");
+        byte[] gz = a.getGzipContent();
+        assertTrue(gz.length < a.getContent().length);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            for (int n; (n = in.read(buf)) > 0;) {
+                out.write(buf, 0, n);
+            }
+            assertArrayEquals(a.getContent(), out.toByteArray());
+        }
+        assertNotEquals(a.getETag(), a.getGzipETag());
+        // tiny or binary assets are not compressed
+        assertNull(assets.get("css/flags.css").getGzipContent());
+        assertNull(assets.get("img/logo.png").getGzipContent());
+
+        String fp = assets.getFingerprintedPath("js/app.min.js");
+        assertTrue(fp, fp.matches("js/app\\.min\\.[0-9a-f]{12}\\.js"));
+        assertEquals("js/app.min.js", assets.getOriginalPath(fp));
+        assertNull(assets.getOriginalPath("js/app.min.js"));
+
+        assertEquals("<script src='${SC_URL}" + fp + "'></script><link href=\"${SC_URL}css/missing.css\">",
+                assets.rewriteReferences(
+                        "<script src='${SC_URL}js/app.min.js'></script><link href=\"${SC_URL}css/missing.css\">"));
+    }
+
+    @Test
+    public void negotiateGzip() {
+        assertFalse(StaticAssets.acceptsGzip(null));
+        assertTrue(StaticAssets.acceptsGzip("gzip, deflate, br"));
+        assertTrue(StaticAssets.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(StaticAssets.acceptsGzip("*"));
+        assertFalse(StaticAssets.acceptsGzip("gzip;q=0, *"));
+        assertFalse(StaticAssets.acceptsGzip("identity"));
+    }
+
+    @Test
+    public void cacheAssetsOncePerFile() throws IOException {
+        write("js/app.js", "var a = 1;");
+        StaticAssets assets = new StaticAssets(folder.getRoot().toPath(), false);
+
+        StaticAssets.Asset js = assets.get("js/app.js");
+        assertSame(js, assets.get("js//app.js"));
+        assertSame(js, assets.get("js/x/../app.js"));
+        assertSame(js, assets.get("./js/app.js"));
+        assertEquals(1, assets.getStats().get("cached"));
+        assertEquals(1L, assets.getStats().get("misses"));
+    }
+
+    @Test
+    public void rejectPathsOutsideAssetDirectory() throws IOException {
+        write("secret.txt", "secret");
+        write("webapp/js/app.js", "var a = 1;");
+        StaticAssets assets = new StaticAssets(new File(folder.getRoot(), "webapp").toPath(), false);
+        assertNotNull(assets.get("js/app.js"));
+        assertNull(assets.get("js/../../secret.txt"));
+        assertNull(assets.get("js/missing.js"));
+        assertNull(assets.get("js"));
+    }
+
+    @Test
+    public void contentTypes() {
+        assertEquals("text/html; charset=UTF-8", StaticAssets.contentType("iron-ajax.html"));
+        assertEquals("image/svg+xml", StaticAssets.contentType("flags.SVG"));
+        assertEquals("font/woff2", StaticAssets.contentType("roboto.woff2"));
+        assertEquals("application/octet-stream", StaticAssets.contentType("LICENSE"));
+    }
+
+    @Test
+    public void matchEntityTags() {
+        assertFalse(StaticAssets.matches(null, "\"abc\""));
+        assertTrue(StaticAssets.matches("\"abc\"", "\"abc\""));
+        assertTrue(StaticAssets.matches("\"x\", W/\"abc\"", "\"abc\""));
+        assertTrue(StaticAssets.matches("*", "\"abc\""));
+        assertFalse(StaticAssets.matches("\"abcd\"", "\"abc\""));
+    }
+
+    @Test
+    public void parseRanges() {
+        assertArrayEquals(new int[] { 0, 9 }, StaticAssets.parseRange("bytes=0-9", 100));
+        assertArrayEquals(new int[] { 90, 99 }, StaticAssets.parseRange("bytes=90-", 100));
+        assertArrayEquals(new int[] { 90, 99 }, StaticAssets.parseRange("bytes=-10", 100));
+        assertArrayEquals(new int[] { 0, 99 }, StaticAssets.parseRange("bytes=-200", 100));
+        assertArrayEquals(new int[] { 50, 99 }, StaticAssets.parseRange("bytes=50-500", 100));
+
+        // unsatisfiable ranges
+        assertEquals(0, StaticAssets.parseRange("bytes=100-", 100).length);
+        assertEquals(0, StaticAssets.parseRange("bytes=-0", 100).length);
+
+        // unsupported or invalid ranges are ignored
+        assertNull(StaticAssets.parseRange(null, 100));
+        assertNull(StaticAssets.parseRange("bytes=0-1,5-6", 100));
+        assertNull(StaticAssets.parseRange("bytes=9-5", 100));
+        assertNull(StaticAssets.parseRange("bytes=a-5", 100));
+        assertNull(StaticAssets.parseRange("items=0-5", 100));
+    }
+}
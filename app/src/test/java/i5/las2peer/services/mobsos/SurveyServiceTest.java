@@ -241,6 +241,107 @@ public class SurveyServiceTest {
 		}
 	}
 
+	/**
+	 * Test paging through questionnaire listings and projection of questionnaire fields
+	 */
+	@Test
+	public void testPaginateProjectQuestionnaires() {
+
+		try {
+			// first delete all questionnaires
+			c1.sendRequest("DELETE", "mobsos-surveys/questionnaires", "");
+
+			// then generate three questionnaires
+			for (int i = 0; i < 3; i++) {
+				c1.sendRequest("POST", "mobsos-surveys/questionnaires", generateQuestionnaireJSON().toJSONString(),
+						"application/json", "*/*", new HashMap<String, String>());
+				Thread.sleep(5); // make sure generated names differ
+			}
+
+			// retrieve first page with two projected questionnaires
+			ClientResponse result = c1.sendRequest("GET", "mobsos-surveys/questionnaires?full=1&limit=2&fields=name",
+					"", "*/*", "application/json", new HashMap<String, String>());
+			assertEquals(200, result.getHttpCode());
+			JSONObject jo = (JSONObject) JSONValue.parseWithException(result.getResponse().trim());
+			JSONArray a = (JSONArray) jo.get("questionnaires");
+			assertEquals(2, a.size());
+			JSONObject q = (JSONObject) a.get(0);
+			assertTrue(q.containsKey("name"));
+			assertTrue(q.containsKey("url"));
+			assertTrue(!q.containsKey("description"));
+			assertTrue(jo.get("next") instanceof String);
+
+			// retrieve second and last page
+			result = c1.sendRequest("GET", "mobsos-surveys/questionnaires?full=1&limit=2&cursor=" + jo.get("next"), "",
+					"*/*", "application/json", new HashMap<String, String>());
+			assertEquals(200, result.getHttpCode());
+			jo = (JSONObject) JSONValue.parseWithException(result.getResponse().trim());
+			a = (JSONArray) jo.get("questionnaires");
+			assertEquals(1, a.size());
+			assertTrue(!jo.containsKey("next"));
+
+			// unknown fields and invalid cursors result in bad request
+			result = c1.sendRequest("GET", "mobsos-surveys/questionnaires?full=1&fields=form", "", "*/*",
+					"application/json", new HashMap<String, String>());
+			assertEquals(400, result.getHttpCode());
+			result = c1.sendRequest("GET", "mobsos-surveys/questionnaires?full=1&cursor=%25%25", "", "*/*",
+					"application/json", new HashMap<String, String>());
+			assertEquals(400, result.getHttpCode());
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+
+	/**
+	 * Test retrieval of several questionnaires in a single batch request.
+	 */
+	@Test
+	public void testBatchGetQuestionnaires() {
+
+		try {
+			// first delete all questionnaires
+			c1.sendRequest("DELETE", "mobsos-surveys/questionnaires", "");
+
+			// then generate two questionnaires
+			long[] ids = new long[2];
+			for (int i = 0; i < 2; i++) {
+				ClientResponse result = c1.sendRequest("POST", "mobsos-surveys/questionnaires",
+						generateQuestionnaireJSON().toJSONString(), "application/json", "*/*",
+						new HashMap<String, String>());
+				JSONObject o = (JSONObject) JSONValue.parseWithException(result.getResponse().trim());
+				ids[i] = (Long) o.get("id");
+				Thread.sleep(5); // make sure generated names differ
+			}
+
+			// retrieve both and a non-existing questionnaire at once
+			long unknown = ids[1] + 1000;
+			ClientResponse result = c1.sendRequest("GET",
+					"mobsos-surveys/questionnaires/batch?fields=name&ids=" + ids[1] + "," + unknown + "," + ids[0], "",
+					"*/*", "application/json", new HashMap<String, String>());
+			assertEquals(200, result.getHttpCode());
+			JSONObject jo = (JSONObject) JSONValue.parseWithException(result.getResponse().trim());
+			JSONArray a = (JSONArray) jo.get("questionnaires");
+			assertEquals(2, a.size());
+			assertEquals(ids[1], ((JSONObject) a.get(0)).get("id"));
+			assertEquals(ids[0], ((JSONObject) a.get(1)).get("id"));
+			assertTrue(!((JSONObject) a.get(0)).containsKey("description"));
+			JSONArray missing = (JSONArray) jo.get("missing");
+			assertEquals(1, missing.size());
+			assertEquals(unknown, missing.get(0));
+
+			// invalid ids result in bad request
+			result = c1.sendRequest("GET", "mobsos-surveys/questionnaires/batch?ids=1,x", "", "*/*",
+					"application/json", new HashMap<String, String>());
+			assertEquals(400, result.getHttpCode());
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+
 	/**
 	 * Test the creation of new questionnaires.
 	 */
@@ -1141,6 +1242,74 @@ public class SurveyServiceTest {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testStatementsPerEndpoint() {
+		try {
+			// set up survey with questionnaire and form
+			ClientResponse r = c1.sendRequest("POST", "mobsos-surveys/questionnaires",
+					generateQuestionnaireJSON().toJSONString(), "application/json", "*/*",
+					new HashMap<String, String>());
+			JSONObject o = (JSONObject) JSONValue.parseWithException(r.getResponse().trim());
+			long qid = (Long) o.get("id");
+
+			String qform = IOUtils.getStringFromFile(new File("./doc/xml/qu2.xml"));
+			r = c1.sendRequest("PUT", "mobsos-surveys/questionnaires/" + qid + "/form", qform, "text/xml", "*/*",
+					new HashMap<String, String>());
+			assertEquals(200, r.getHttpCode());
+
+			r = c1.sendRequest("POST", "mobsos-surveys/surveys", generateSurveyJSON().toJSONString(),
+					"application/json", "*/*", new HashMap<String, String>());
+			o = (JSONObject) JSONValue.parseWithException(r.getResponse().trim());
+			long sid = (Long) o.get("id");
+
+			JSONObject qidset = new JSONObject();
+			qidset.put("qid", qid);
+			r = c1.sendRequest("POST", "mobsos-surveys/surveys/" + sid + "/questionnaire", qidset.toJSONString(),
+					"application/json", "*/*", new HashMap<String, String>());
+			assertEquals(200, r.getHttpCode());
+
+			// submitting a response loads survey and form in one query and stores answers in one batch
+			long before = statementsForEndpoint("submitSurveyResponseJSON");
+			JSONObject answer = new JSONObject();
+			answer.put("A.2.1", "0");
+			answer.put("A.2.2", "4");
+			answer.put("A.2.3", "Antwort");
+			r = c1.sendRequest("POST", "mobsos-surveys/surveys/" + sid + "/responses", answer.toJSONString(),
+					"application/json", "*/*", new HashMap<String, String>());
+			assertEquals(200, r.getHttpCode());
+			assertEquals(2, statementsForEndpoint("submitSurveyResponseJSON") - before);
+
+			// first export registers the response view; subsequent exports find survey and view in memory and only
+			// read responses
+			r = c1.sendRequest("GET", "mobsos-surveys/surveys/" + sid + "/responses", "", "*/*", "text/csv",
+					new HashMap<String, String>());
+			assertEquals(200, r.getHttpCode());
+			before = statementsForEndpoint("getSurveyResponses");
+			r = c1.sendRequest("GET", "mobsos-surveys/surveys/" + sid + "/responses", "", "*/*", "text/csv",
+					new HashMap<String, String>());
+			assertEquals(200, r.getHttpCode());
+			assertEquals(1, statementsForEndpoint("getSurveyResponses") - before);
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("Exception: " + e);
+		}
+	}
+
+	/**
+	 * Retrieves the total number of database statements executed by an endpoint from the service metrics.
+	 */
+	private static long statementsForEndpoint(String endpoint) throws ParseException {
+		ClientResponse r = c1.sendRequest("GET", "mobsos-surveys/metrics", "", "*/*", "application/json",
+				new HashMap<String, String>());
+		assertEquals(200, r.getHttpCode());
+		JSONObject metrics = (JSONObject) JSONValue.parseWithException(r.getResponse().trim());
+		JSONObject endpoints = (JSONObject) ((JSONObject) metrics.get("queries")).get("endpoints");
+		JSONObject e = (JSONObject) endpoints.get(endpoint);
+		return e == null ? 0 : (Long) e.get("statements");
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testSubmitInvalidQuestionnaireAnswer() {
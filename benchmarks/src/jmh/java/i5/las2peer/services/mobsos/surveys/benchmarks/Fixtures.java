@@ -0,0 +1,120 @@
+package i5.las2peer.services.mobsos.surveys.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+
+import org.json.simple.JSONObject;
+import org.xml.sax.SAXException;
+
+/**
+ * Fixtures of benchmarks, read from the repository. The repository root is given by system property mobsos.root,
+ * which the build sets for forked benchmark JVMs.
+ */
+class Fixtures {
+
+	/**
+	 * Questionnaire forms in doc/xml of increasing size (2, 11, 27 and 56 pages).
+	 */
+	final static String SMALL = "questionnaires/simple-feedback-questionnaire.xml";
+	final static String MEDIUM = "questionnaires/sus-questionnaire-en.xml";
+	final static String LARGE = "questionnaires/tam2-questionnaire.xml";
+	final static String XLARGE = "questionnaires/sumi-questionnaire-en.xml";
+
+	static Path root() {
+		return Paths.get(System.getProperty("mobsos.root", "."));
+	}
+
+	/**
+	 * @param path path relative to the repository root
+	 * @return UTF-8 text of file
+	 */
+	static String read(String path) throws IOException {
+		return new String(Files.readAllBytes(root().resolve(path)), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param name name of questionnaire form in doc/xml
+	 * @return form XML
+	 */
+	static String form(String name) throws IOException {
+		return read("doc/xml/" + name);
+	}
+
+	/**
+	 * Loads the MobSOS Questionnaire XML Schema like the service does.
+	 */
+	static Schema schema() throws SAXException {
+		SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+		return factory.newSchema(new File(root().toFile(), "doc/xml/mobsos-questionnaire.xsd"));
+	}
+
+	static Validator validator(Schema schema) {
+		return schema.newValidator();
+	}
+
+	static DocumentBuilder parser(Schema schema) throws ParserConfigurationException {
+		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+		dbf.setSchema(schema);
+		dbf.setNamespaceAware(true);
+		dbf.setValidating(false);
+		return dbf.newDocumentBuilder();
+	}
+
+	/**
+	 * @return survey as stored in the catalog, with all fields referred to by author tags
+	 */
+	@SuppressWarnings("unchecked")
+	static JSONObject survey() {
+		JSONObject survey = new JSONObject();
+		survey.put("id", 1);
+		survey.put("qid", 1);
+		survey.put("name", "Benchmark Survey");
+		survey.put("description", "Survey about the benchmarked service");
+		survey.put("resource-label", "mobsos-surveys");
+		survey.put("start", "2024-01-01T00:00:00Z");
+		survey.put("end", "2034-01-01T00:00:00Z");
+		survey.put("owner", "alice");
+		survey.put("organization", "RWTH Aachen University");
+		survey.put("logo", "https://example.org/logo.png");
+		return survey;
+	}
+
+	/**
+	 * @param questions question information as extracted from a form
+	 * @param seed variation of answers
+	 * @return valid answers to all questions of a form
+	 */
+	@SuppressWarnings("unchecked")
+	static JSONObject response(JSONObject questions, int seed) {
+		JSONObject response = new JSONObject();
+		List<String> qids = new ArrayList<>(questions.keySet());
+		for (int i = 0; i < qids.size(); i++) {
+			JSONObject q = (JSONObject) questions.get(qids.get(i));
+			String type = (String) q.get("type");
+			if (type.endsWith("DichotomousQuestionPageType")) {
+				response.put(qids.get(i), Integer.toString((i + seed) % 2));
+			} else if (type.endsWith("OrdinalScaleQuestionPageType")) {
+				int min = (Integer) q.get("minval");
+				int max = (Integer) q.get("maxval");
+				response.put(qids.get(i), Integer.toString(min + (i + seed) % (max - min + 1)));
+			} else {
+				response.put(qids.get(i), "Answer " + seed + " to " + qids.get(i) + ", with \"quotes\" and commas");
+			}
+		}
+		return response;
+	}
+}
@@ -0,0 +1,105 @@
+package i5.las2peer.services.mobsos.surveys.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+
+import i5.las2peer.services.mobsos.surveys.FormHtmlWriter;
+import i5.las2peer.services.mobsos.surveys.HtmlTemplate;
+
+/**
+ * Rendering of survey questionnaire forms to HTML, with the allocation rate reported by the gc profiler.
+ *
+ * <ul>
+ * <li>render* benchmarks render a questionnaire form into the form page template, as done once per survey and locale
+ * before the result is cached.</li>
+ * <li>respond* benchmarks write a cached rendered form with user tags filled in to a response output stream, as done
+ * per request.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormRenderBenchmark {
+
+	private final static String ANSWER_URL = "http://localhost:8080/mobsos-surveys/surveys/1/answers";
+
+	@Param({ "mobsos-questionnaire-form.xml", "qu1.xml", "qu2.xml" })
+	public String form;
+
+	private String page;
+	private Document document;
+	private HtmlTemplate rendered;
+
+	private final static OutputStream DISCARD = new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	};
+
+	@Setup
+	public void setup() throws Exception {
+		Path root = Paths.get(System.getProperty("mobsos.root", "."));
+		page = new String(Files.readAllBytes(root.resolve("etc/html/survey-form-template.html")),
+				StandardCharsets.UTF_8);
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		document = factory.newDocumentBuilder().parse(root.resolve("doc/xml").resolve(form).toFile());
+		rendered = HtmlTemplate.compile(renderStreaming());
+	}
+
+	private static String user(String tag) {
+		return "USER.NAME".equals(tag) ? "alice" : "USER.MAIL".equals(tag) ? "alice@example.org" : null;
+	}
+
+	@Benchmark
+	public String renderConcatenating() {
+		return LegacyFormRenderer.render(document, page, ANSWER_URL, "required");
+	}
+
+	@Benchmark
+	public String renderStreaming() throws IOException {
+		StringBuilder sb = new StringBuilder(page.length() + 4096);
+		new FormHtmlWriter(sb, "required").write(page, document, ANSWER_URL);
+		return sb.toString();
+	}
+
+	@Benchmark
+	public void respondString(Blackhole bh) throws IOException {
+		// render to a string, which is then encoded by the runtime
+		byte[] bytes = rendered.render(FormRenderBenchmark::user).getBytes(StandardCharsets.UTF_8);
+		DISCARD.write(bytes, 0, bytes.length);
+		bh.consume(bytes);
+	}
+
+	@Benchmark
+	public void respondStreaming() throws IOException {
+		Writer w = new BufferedWriter(new OutputStreamWriter(DISCARD, StandardCharsets.UTF_8));
+		rendered.writeTo(w, FormRenderBenchmark::user);
+		w.flush();
+	}
+}
@@ -0,0 +1,167 @@
+package i5.las2peer.services.mobsos.surveys.benchmarks;
+
+import static i5.las2peer.services.mobsos.surveys.SurveyService.MOBSOS_QUESTIONNAIRE_NS;
+import static org.apache.commons.lang3.StringEscapeUtils.escapeHtml4;
+
+import java.util.Vector;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Form renderer as it was before {@link i5.las2peer.services.mobsos.surveys.FormHtmlWriter}, kept as baseline. Pages
+ * are built by string concatenation, collected, joined and inserted into the page template by replacing markers.
+ */
+class LegacyFormRenderer {
+
+	static String render(Document form, String adaptHtml, String answerUrl, String required) {
+		Vector<String> qpages = new Vector<>();
+		Vector<String> navpills = new Vector<>();
+
+		NodeList nodeList = form.getElementsByTagNameNS(MOBSOS_QUESTIONNAIRE_NS, "Page");
+
+		// then iterate over all question pages
+		for (int i = 0; i < nodeList.getLength(); i++) {
+
+			Node node = nodeList.item(i);
+			if (node.getNodeType() == Node.ELEMENT_NODE) {
+				Element e = (Element) node;
+
+				// set first page and navpill item to active
+				String active = "";
+
+				if (i == 0) {
+					active = " class='active'";
+				}
+
+				// differentiate between possible item types and add HTML accordingly
+				if (e.getAttribute("xsi:type").endsWith("InformationPageType")) {
+					// first add navpill item
+					String navpill = "\t\t\t\t\t<li" + active + "><a href=\"#step-" + i
+							+ "\"><span class=\"list-group-item-heading\">" + i + "</span></a></li>\n";
+					navpills.add(navpill);
+
+					// then add information page
+					String qpage = "\t\t<div class=\"row setup-content\" id=\"step-" + i
+							+ "\"><div class=\"col-xs-12\"><div class=\"col-md-12 well text-center\">\n";
+
+					String name = e.getAttribute("name");
+
+					qpage += "\t\t\t<h4><b>" + name + "</b></h4>\n";
+
+					String instr = escapeHtml4(e.getElementsByTagNameNS(MOBSOS_QUESTIONNAIRE_NS, "Instructions")
+							.item(0).getTextContent().trim());
+
+					qpage += "\t\t\t<p>\n\t\t\t\t" + instr + "\n" + "\t\t\t</p>\n";
+					qpage += "\t\t</div></div></div>\n";
+					qpages.add(qpage);
+
+				} else if (e.getAttribute("xsi:type").endsWith("QuestionPageType")) {
+
+					// first add nav pill item
+					String navpill = "\t\t\t\t\t<li" + active + "><a href=\"#step-" + i
+							+ "\"><span class=\"list-group-item-heading\">" + i + "</span></a></li>\n";
+					navpills.add(navpill);
+
+					// then add question page
+					String qpage = "\t\t<div class=\"row setup-content\" id=\"step-" + i
+							+ "\"><div class=\"col-xs-12\"><div class=\"col-md-12 text-center\">\n";
+
+					String name = e.getAttribute("name");
+					String quid = e.getAttribute("qid");
+
+					qpage += "\t\t\t<h4><b>" + name + " (" + quid + ")</b></h4>\n";
+
+					String instr = escapeHtml4(e.getElementsByTagNameNS(MOBSOS_QUESTIONNAIRE_NS, "Instructions")
+							.item(0).getTextContent());
+
+					String cssClass = "question";
+
+					if (e.getAttribute("required") != null && e.getAttribute("required").equals("true")) {
+						cssClass += " required";
+						instr += " (<i>" + required + "</i>)";
+					}
+
+					qpage += "\t\t\t<div class=\"" + cssClass + "\" style='text-align: justify; white-space: pre-line;'>" + instr
+							+ "</div><p/>\n";
+
+					String qtype = e.getAttribute("xsi:type");
+
+					if ("qu:OrdinalScaleQuestionPageType".equals(qtype)) {
+
+						// TODO: do something with default value, if set.
+						// int defval = Integer.parseInt(e.getAttribute("defval"));
+						String minlabel = escapeHtml4(e.getAttribute("minlabel"));
+						String maxlabel = escapeHtml4(e.getAttribute("maxlabel"));
+						int minval = Integer.parseInt(e.getAttribute("minval"));
+						int maxval = Integer.parseInt(e.getAttribute("maxval"));
+
+						// do UI in range slider style (better responsive design)
+						qpage += "\t\t\t<div class='row well'>\n";
+						qpage += "\t\t\t\t<input class='col-md-12 col-xs-12 scale' name='" + quid
+								+ "' type='range' min='" + minval + "' max='" + maxval + "' step='1' list='"
+								+ quid.replace(".", "-") + "-scale'/><br>\n";
+						qpage += "\t\t\t\t<datalist id='" + quid.replace(".", "-") + "-scale'>\n";
+						for (int k = minval; k <= maxval; k++) {
+							qpage += "\t\t\t\t\t<option>" + k + "</option>\n";
+						}
+						qpage += "\t\t\t\t</datalist>";
+						qpage += "<span class='col-md-4 col-xs-5 text-left'>" + minlabel + "</span><span name='"
+								+ quid
+								+ "' class='col-md-4 col-xs-2 text-center h2 response scale-response' data-toggle='tooltip' data-placement='left' title='Click to reset to n/a.'>n/a</span> <span class='col-md-4 col-xs-5 pull-right text-right'>"
+								+ maxlabel + "</span>";
+						qpage += "\t\t\t</div>\n";
+						// --- end UI range slider style
+
+					} else if ("qu:DichotomousQuestionPageType".equals(qtype)) {
+
+						// TODO: do something with default value, if set.
+						// int defval = Integer.parseInt(e.getAttribute("defval"));
+						String minlabel = e.getAttribute("minlabel");
+						String maxlabel = e.getAttribute("maxlabel");
+
+						qpage += "\t\t\t<div class=\"btn-group\" data-toggle=\"buttons\">\n";
+						qpage += "\t\t\t\t<label class=\"btn btn-primary\">\n";
+						qpage += "\t\t\t\t\t<input name=\"" + quid + "\" type=\"radio\" value=\"0\">" + minlabel
+								+ "\n";
+						qpage += "\t\t\t\t</label>\n";
+						qpage += "\t\t\t\t<label class=\"btn btn-primary\">\n";
+						qpage += "\t\t\t\t\t<input name=\"" + quid + "\" type=\"radio\" value=\"1\">" + maxlabel
+								+ "\n";
+						qpage += "\t\t\t\t</label>\n";
+						qpage += "\t\t\t\t<input type=\"hidden\" class='response' name=\"" + quid + "\">\n";
+						qpage += "\t\t\t</div>\n";
+
+					} else if ("qu:FreeTextQuestionPageType".equals(qtype)) {
+						qpage += "\t\t\t<textarea name=\"" + quid
+								+ "\" class=\"form-control response freetext-response\" rows=\"3\"></textarea>\n";
+					}
+
+					qpage += "\t\t</div></div></div>\n";
+					qpages.add(qpage);
+				}
+			}
+		}
+
+		// now that all questions are extracted and transformed to HTML, append nav pill items and question
+		// pages to final HTML.
+
+		// first serialize nav pill items
+		String navpillItems = String.join("", navpills);
+
+		// then serialize question page divs
+		String questionDivs = String.join("", qpages);
+
+		// then generate answer link
+		String answerLink = "<a href=\"" + answerUrl + "\" id=\"return-url\" class=\"hidden\" ></a>";
+
+		// finally insert all generated parts into the resulting adapted HTML; parts are inserted literally, since
+		// they may contain user tags
+		adaptHtml = adaptHtml.replace("<!-- NAVPILLS -->", navpillItems);
+		adaptHtml = adaptHtml.replace("<!-- QUESTIONPAGES -->", questionDivs);
+		adaptHtml = adaptHtml.replace("<!-- ANSWERLINK -->", answerLink);
+		return adaptHtml;
+	}
+}
@@ -0,0 +1,54 @@
+package i5.las2peer.services.mobsos.surveys.benchmarks;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import i5.las2peer.services.mobsos.surveys.Localization;
+
+/**
+ * Localization of texts as done by i18n, e.g. of the survey form page and of the label of required questions, and
+ * negotiation of the locale from Accept-Language headers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LocalizationBenchmark {
+
+	@Param({ "en-US", "de-CH, de;q=0.9, en;q=0.8", "it-IT, *;q=0.1" })
+	public String acceptLanguage;
+
+	private Localization localization;
+	private String page;
+
+	@Setup
+	public void setup() throws Exception {
+		localization = new Localization("MessageBundle", Arrays.asList(Locale.US, Locale.GERMANY,
+				new Locale("es", "ES"), Locale.FRANCE));
+		page = Fixtures.read("etc/html/survey-form-template.html");
+	}
+
+	@Benchmark
+	public Locale negotiate() {
+		return localization.negotiate(acceptLanguage);
+	}
+
+	@Benchmark
+	public String i18nLabel() {
+		return localization.localize("${required}", acceptLanguage);
+	}
+
+	@Benchmark
+	public String i18nPage() {
+		return localization.localize(page, acceptLanguage);
+	}
+}
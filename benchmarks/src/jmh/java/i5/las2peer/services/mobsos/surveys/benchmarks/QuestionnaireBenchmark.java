@@ -0,0 +1,88 @@
+package i5.las2peer.services.mobsos.surveys.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.validation.Schema;
+import javax.xml.validation.Validator;
+
+import org.json.simple.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.w3c.dom.Document;
+
+import i5.las2peer.services.mobsos.surveys.Questionnaires;
+
+/**
+ * Processing of questionnaire forms and responses per request: validation of forms against the MobSOS Questionnaire
+ * XML Schema, extraction of question information, validation of submitted responses and adaptation of forms to a
+ * survey by replacing author tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuestionnaireBenchmark {
+
+	@Param({ Fixtures.SMALL, Fixtures.MEDIUM, Fixtures.LARGE, Fixtures.XLARGE })
+	public String form;
+
+	private String formXml;
+	private String taggedFormXml;
+	private DocumentBuilder parser;
+	private Validator validator;
+	private Document document;
+	private JSONObject response;
+	private Map<String, Supplier<String>> resolvers;
+
+	@Setup
+	public void setup() throws Exception {
+		Schema schema = Fixtures.schema();
+		parser = Fixtures.parser(schema);
+		validator = Fixtures.validator(schema);
+		formXml = Fixtures.form(form);
+		document = Questionnaires.validateQuestionnaireData(parser, validator, formXml);
+		response = Fixtures.response(Questionnaires.extractQuestionInformation(document), 0);
+
+		// forms in doc/xml hardly use author tags; refer to the survey in every instruction like tailored forms do
+		taggedFormXml = formXml.replace("</qu:Instructions>",
+				" (${SURVEY.NAME}, ${SURVEY.RESOURCE}, ${USER.NAME})</qu:Instructions>");
+		JSONObject survey = Fixtures.survey();
+		resolvers = new HashMap<>();
+		for (String tag : new String[] { "ID", "NAME", "DESCRIPTION", "RESOURCE", "START", "END", "OWNER",
+				"ORGANIZATION", "LOGO" }) {
+			String key = "resource".equalsIgnoreCase(tag) ? "resource-label" : tag.toLowerCase();
+			String value = String.valueOf(survey.get(key));
+			resolvers.put("SURVEY." + tag, () -> value);
+		}
+		resolvers.put("USER.NAME", () -> "alice");
+	}
+
+	@Benchmark
+	public Document validateQuestionnaireData() throws Exception {
+		return Questionnaires.validateQuestionnaireData(parser, validator, formXml);
+	}
+
+	@Benchmark
+	public JSONObject extractQuestionInformation() {
+		return Questionnaires.extractQuestionInformation(document);
+	}
+
+	@Benchmark
+	public JSONObject validateResponse() {
+		return Questionnaires.validateResponse(document, response);
+	}
+
+	@Benchmark
+	public String adaptForm() {
+		return Questionnaires.adaptForm(taggedFormXml, resolvers, false);
+	}
+}
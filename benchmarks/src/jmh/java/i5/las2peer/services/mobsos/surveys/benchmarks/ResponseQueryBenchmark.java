@@ -0,0 +1,158 @@
+package i5.las2peer.services.mobsos.surveys.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import i5.las2peer.services.mobsos.surveys.H2StorageBackend;
+import i5.las2peer.services.mobsos.surveys.QueryExecutor;
+import i5.las2peer.services.mobsos.surveys.SchemaMigrations;
+
+/**
+ * Queries on survey responses with and without the indexes added by {@link SchemaMigrations}, read from an in-memory
+ * database seeded with responses to several surveys. The query plans of all queries are printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseQueryBenchmark {
+
+	private final static String SCHEMA = "mobsos";
+	private final static int SURVEYS = 10;
+	private final static int QUESTIONS = 20;
+	private final static int SID = SURVEYS / 2;
+	private final static Timestamp FIRST = Timestamp.valueOf("2021-01-01 00:00:00");
+	private final static Timestamp WINDOW = Timestamp.valueOf("2021-12-01 00:00:00");
+	private final static long YEAR_MILLIS = TimeUnit.DAYS.toMillis(365);
+
+	@Param({ "false", "true" })
+	public boolean indexes;
+
+	// respondents per survey; each answered all questions
+	@Param({ "100", "1000" })
+	public int respondents;
+
+	private BasicDataSource dataSource;
+	private QueryExecutor executor;
+	private String timeWindow;
+	private String perQuestion;
+	private String export;
+
+	@Setup
+	public void setup() throws Exception {
+		H2StorageBackend storage = new H2StorageBackend();
+		dataSource = new BasicDataSource();
+		dataSource.setDriverClassName(storage.getDriverClassName());
+		// measure query execution rather than results reused for repeated queries on unchanged tables
+		dataSource.setUrl(storage.getConnectionUrl("jdbc:h2:mem:", SCHEMA) + ";OPTIMIZE_REUSE_RESULTS=FALSE");
+		executor = new QueryExecutor(dataSource, TimeUnit.MINUTES.toMillis(1));
+		storage.initialize(executor, SCHEMA);
+		seed();
+		if (indexes) {
+			new SchemaMigrations(executor, storage, SCHEMA).migrate();
+		}
+
+		timeWindow = "select count(*) from " + SCHEMA + ".response where sid = ? and time >= ?";
+		perQuestion = "select qval, count(*) from " + SCHEMA + ".response where sid = ? and qkey = ? group by qval";
+		// export of responses through the survey's response view, see SurveyService
+		StringBuilder sql = new StringBuilder("select uid, sid, s.resource as cid");
+		for (int q = 1; q <= QUESTIONS; q++) {
+			sql.append(", MAX(CASE WHEN qkey = 'A.").append(q).append("' THEN ")
+					.append(storage.castToInteger("qval")).append(" END) AS \"A.").append(q).append("\"");
+		}
+		export = sql.append(" from " + SCHEMA + ".response r join " + SCHEMA
+				+ ".survey s on (s.id = r.sid) where sid = ? group by uid, sid, s.resource").toString();
+
+		explain("time window", timeWindow, s -> {
+			s.setInt(1, SID);
+			s.setTimestamp(2, WINDOW);
+		});
+		explain("per question", perQuestion, s -> {
+			s.setInt(1, SID);
+			s.setString(2, "A.1");
+		});
+		explain("export", export, s -> s.setInt(1, SID));
+	}
+
+	private void seed() throws SQLException {
+		int qid = executor.insert("insert into " + SCHEMA + ".questionnaire(owner, organization, logo, name, "
+				+ "description, lang, form) values ('q','q','q','q','q','en','<form/>')", QueryExecutor.NO_PARAMETERS);
+		for (int i = 1; i <= SURVEYS; i++) {
+			String name = "survey" + i;
+			executor.insert("insert into " + SCHEMA + ".survey(owner, organization, logo, name, description, resource, "
+					+ "resource_label, lang, start, end, qid) values ('o','o','l',?,'d','r','r','en',?,?,?)", s -> {
+						s.setString(1, name);
+						s.setTimestamp(2, FIRST);
+						s.setTimestamp(3, Timestamp.valueOf("2030-01-01 00:00:00"));
+						s.setInt(4, qid);
+					});
+		}
+
+		// respondents answer in turns spread over a year, such that the time window covers about a month
+		try (Connection c = dataSource.getConnection();
+				PreparedStatement s = c.prepareStatement(
+						"insert into " + SCHEMA + ".response(uid, sid, qkey, qval, time) values (?,?,?,?,?)")) {
+			for (int r = 0; r < respondents; r++) {
+				for (int sid = 1; sid <= SURVEYS; sid++) {
+					Timestamp time = new Timestamp(FIRST.getTime() + YEAR_MILLIS * r / respondents + sid);
+					for (int q = 1; q <= QUESTIONS; q++) {
+						s.setString(1, "user" + r);
+						s.setInt(2, sid);
+						s.setString(3, "A." + q);
+						s.setString(4, "" + (r + q) % 5);
+						s.setTimestamp(5, time);
+						s.addBatch();
+					}
+				}
+				s.executeBatch();
+			}
+		}
+	}
+
+	private void explain(String query, String sql, QueryExecutor.Binder binder) throws SQLException {
+		List<String> plan = executor.query("explain " + sql, binder, rs -> rs.getString(1));
+		System.out.println("Plan of " + query + " query " + (indexes ? "with" : "without") + " indexes, "
+				+ respondents + " respondents per survey:\n" + String.join("\n", plan));
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		executor.execute("drop all objects");
+		dataSource.close();
+	}
+
+	@Benchmark
+	public Long timeWindow() throws SQLException {
+		return executor.queryFirst(timeWindow, s -> {
+			s.setInt(1, SID);
+			s.setTimestamp(2, WINDOW);
+		}, rs -> rs.getLong(1));
+	}
+
+	@Benchmark
+	public List<Long> perQuestion() throws SQLException {
+		return executor.query(perQuestion, s -> {
+			s.setInt(1, SID);
+			s.setString(2, "A.1");
+		}, rs -> rs.getLong(2));
+	}
+
+	@Benchmark
+	public List<String> export() throws SQLException {
+		return executor.query(export, s -> s.setInt(1, SID), rs -> rs.getString(1));
+	}
+}
@@ -0,0 +1,95 @@
+package i5.las2peer.services.mobsos.surveys.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.validation.Schema;
+
+import org.json.simple.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.w3c.dom.Document;
+
+import i5.las2peer.services.mobsos.surveys.Questionnaires;
+
+/**
+ * Export of survey results to CSV, with one row per response and one column per question, read from an in-memory
+ * database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResultBenchmark {
+
+	@Param({ Fixtures.SMALL, Fixtures.MEDIUM, Fixtures.LARGE, Fixtures.XLARGE })
+	public String form;
+
+	// the CSV is built by string concatenation, which takes quadratic time; larger counts take minutes on large forms
+	@Param({ "10", "100", "1000" })
+	public int responses;
+
+	private Connection connection;
+
+	@Setup
+	public void setup() throws Exception {
+		Schema schema = Fixtures.schema();
+		Document doc = Questionnaires.validateQuestionnaireData(Fixtures.parser(schema), Fixtures.validator(schema),
+				Fixtures.form(form));
+		JSONObject questions = Questionnaires.extractQuestionInformation(doc);
+		List<String> qids = new ArrayList<>();
+		for (Object qid : questions.keySet()) {
+			qids.add((String) qid);
+		}
+
+		connection = DriverManager.getConnection("jdbc:h2:mem:results;DB_CLOSE_DELAY=-1");
+		StringBuilder create = new StringBuilder("create table results (uid varchar(128)");
+		StringBuilder insert = new StringBuilder("insert into results values (?");
+		for (String qid : qids) {
+			create.append(", \"").append(qid).append("\" varchar(1024)");
+			insert.append(", ?");
+		}
+		try (Statement s = connection.createStatement()) {
+			s.execute("drop table if exists results");
+			s.execute(create.append(")").toString());
+		}
+		try (PreparedStatement s = connection.prepareStatement(insert.append(")").toString())) {
+			for (int r = 0; r < responses; r++) {
+				JSONObject response = Fixtures.response(questions, r);
+				s.setString(1, "user" + r);
+				for (int i = 0; i < qids.size(); i++) {
+					s.setString(i + 2, (String) response.get(qids.get(i)));
+				}
+				s.addBatch();
+			}
+			s.executeBatch();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		try (Statement s = connection.createStatement()) {
+			s.execute("drop table results");
+		}
+		connection.close();
+	}
+
+	@Benchmark
+	public String createCSVQuestionnaireResult() throws Exception {
+		try (Statement s = connection.createStatement(); ResultSet rs = s.executeQuery("select * from results")) {
+			return Questionnaires.createCSVQuestionnaireResult(rs, ",");
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package i5.las2peer.services.mobsos.surveys.benchmarks;
+
+import static org.apache.commons.lang3.StringEscapeUtils.escapeHtml4;
+
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import i5.las2peer.services.mobsos.surveys.HtmlTemplate;
+import i5.las2peer.services.mobsos.surveys.HtmlTemplates;
+import i5.las2peer.services.mobsos.surveys.Localization;
+
+/**
+ * Rendering of the HTML pages in etc/html.
+ *
+ * <ul>
+ * <li>render renders a template compiled and pre-localized once per locale, as done per request.</li>
+ * <li>compileAndRender compiles a template and renders it, as done on the first request or after the template
+ * changed.</li>
+ * <li>fillPlaceHolder is the baseline: localization by one replaceAll per bundle key and one fillPlaceHolder per
+ * placeholder, as pages were rendered before templates were compiled.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateRenderBenchmark {
+
+	@Param({ "index.html", "questionnaires-template.html", "surveys-template.html", "survey-id-template.html",
+			"survey-id-responses-template.html" })
+	public String page;
+
+	private String text;
+	private HtmlTemplates templates;
+	private Localization localization;
+	private Map<String, String> serviceValues;
+	private Map<String, String> requestValues;
+
+	@Setup
+	public void setup() throws Exception {
+		text = Fixtures.read("etc/html/" + page);
+		templates = new HtmlTemplates(Fixtures.root().resolve("etc/html"), false);
+		localization = new Localization("MessageBundle", Arrays.asList(Locale.US, Locale.GERMANY,
+				new Locale("es", "ES"), Locale.FRANCE));
+		serviceValues = new HashMap<>();
+		serviceValues.put("EP_URL", "http://localhost:8080/mobsos-surveys/");
+		serviceValues.put("L2P_URL", "http://localhost:8080/");
+		serviceValues.put("SC_URL", "http://localhost:8080/mobsos-surveys/");
+		serviceValues.put("OIDC_PROV_NAME", "Learning Layers");
+		serviceValues.put("OIDC_PROV_LOGO", "https://api.learning-layers.eu/logo.png");
+		serviceValues.put("OIDC_PROV_URL", "https://api.learning-layers.eu/o/oauth2");
+		serviceValues.put("OIDC_CLNT_ID", "e2c1c0a6-4d9e-4f58-9a8c-7c3a0c0b2b8e");
+		requestValues = new HashMap<>();
+		requestValues.put("ID", "1");
+	}
+
+	@Benchmark
+	public String render() throws Exception {
+		Map<String, String> translations = localization.getTranslations(localization.negotiate("en-US"));
+		return templates.get(page, "en-US", key -> {
+			if (requestValues.containsKey(key)) {
+				return null;
+			}
+			String v = translations.get(key);
+			return v != null ? v : serviceValues.get(key);
+		}).render(requestValues::get);
+	}
+
+	@Benchmark
+	public String compileAndRender() {
+		Map<String, String> translations = localization.getTranslations(localization.negotiate("en-US"));
+		return HtmlTemplate.compile(text).render(key -> {
+			String v = requestValues.get(key);
+			if (v == null) {
+				v = translations.get(key);
+			}
+			return v != null ? v : serviceValues.get(key);
+		});
+	}
+
+	@Benchmark
+	public String fillPlaceHolder() {
+		String html = text;
+		ResourceBundle messages = ResourceBundle.getBundle("MessageBundle", Locale.US);
+		Enumeration<String> e = messages.getKeys();
+		while (e.hasMoreElements()) {
+			String key = e.nextElement();
+			html = html.replaceAll("\\$\\{" + key + "\\}", escapeHtml4(messages.getString(key)));
+		}
+		for (Map.Entry<String, String> v : requestValues.entrySet()) {
+			html = fillPlaceHolder(html, v.getKey(), v.getValue());
+		}
+		for (Map.Entry<String, String> v : serviceValues.entrySet()) {
+			html = fillPlaceHolder(html, v.getKey(), v.getValue());
+		}
+		return html;
+	}
+
+	// former SurveyService.Resource#fillPlaceHolder, which compiled templates replaced
+	private static String fillPlaceHolder(String data, String placeholder, String value) {
+		Pattern p = Pattern.compile("\\$\\{" + placeholder + "\\}");
+		Matcher m = p.matcher(data);
+
+		String adaptedform = new String(data);
+
+		while (m.find()) {
+			String tag = m.group().substring(2, m.group().length() - 1);
+			adaptedform = adaptedform.replaceAll("\\$\\{" + tag + "\\}", value);
+		}
+
+		return adaptedform;
+	}
+}
@@ -0,0 +1,34 @@
+package i5.las2peer.services.mobsos.surveys.benchmarks;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import i5.las2peer.services.mobsos.surveys.Utils;
+
+/**
+ * Conversion of survey start and end times to UTC, as done for every survey in the active survey index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UtilsBenchmark {
+
+	// local time, which is converted, and UTC time, which is returned as it is
+	@Param({ "2024-03-31T02:30:00", "2024-03-31T00:30:00Z" })
+	public String time;
+
+	private final TimeZone timeZone = TimeZone.getTimeZone("Europe/Berlin");
+
+	@Benchmark
+	public String convertTimeToUTC() throws Exception {
+		return Utils.convertTimeToUTC(time, timeZone);
+	}
+}
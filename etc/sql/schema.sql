@@ -4,6 +4,11 @@ use mobsos;
 create user 'mobsos'@'%' identified by 'mobsosrules';
 grant all privileges on mobsos.* to 'mobsos'@'%' with grant option;
 
+-- -----------------------------------------------------
+-- Base schema. Later schema changes, e.g. additional indexes, are applied by the service on startup and recorded in
+-- table 'schema_version' (see SchemaMigrations).
+-- -----------------------------------------------------
+
 -- -----------------------------------------------------
 -- Definition table 'questionnaire'
 -- -----------------------------------------------------
@@ -166,6 +166,50 @@ MobSOSSurveysClient.prototype.getQuestionnaires = function (
   );
 };
 
+MobSOSSurveysClient.prototype.getSuggestions = function (
+  prefix,
+  type,
+  limit,
+  callback,
+  errorCallback
+) {
+  var qpart = "q=" + encodeURIComponent(prefix);
+
+  if (type !== null && type !== "") {
+    qpart += "&type=" + type;
+  }
+
+  if (limit !== null && limit > 0) {
+    qpart += "&limit=" + limit;
+  }
+
+  this.sendRequestToService(
+    "GET",
+    "suggestions?" + qpart,
+    "",
+    "application/json",
+    { Accept: "application/json" },
+    callback,
+    errorCallback
+  );
+};
+
+MobSOSSurveysClient.prototype.getQuestionnairesBatch = function (
+  ids,
+  callback,
+  errorCallback
+) {
+  this.sendRequestToService(
+    "GET",
+    "questionnaires/batch?ids=" + ids.join(","),
+    "",
+    "application/json",
+    { Accept: "application/json" },
+    callback,
+    errorCallback
+  );
+};
+
 MobSOSSurveysClient.prototype.getQuestionnaire = function (
   id,
   callback,
@@ -269,6 +313,38 @@ MobSOSSurveysClient.prototype.getSurveys = function (
   );
 };
 
+MobSOSSurveysClient.prototype.getActiveSurveys = function (
+  resource,
+  callback,
+  errorCallback
+) {
+  this.sendRequestToService(
+    "GET",
+    "surveys/active?resource=" + encodeURIComponent(resource),
+    "",
+    "application/json",
+    { Accept: "application/json" },
+    callback,
+    errorCallback
+  );
+};
+
+MobSOSSurveysClient.prototype.getSurveysBatch = function (
+  ids,
+  callback,
+  errorCallback
+) {
+  this.sendRequestToService(
+    "GET",
+    "surveys/batch?ids=" + ids.join(","),
+    "",
+    "application/json",
+    { Accept: "application/json" },
+    callback,
+    errorCallback
+  );
+};
+
 MobSOSSurveysClient.prototype.getSurvey = function (
   id,
   callback,